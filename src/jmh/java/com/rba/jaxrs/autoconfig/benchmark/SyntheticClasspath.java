@@ -0,0 +1,232 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.benchmark;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates and compiles a classpath of {@code RestApiEndpoint} annotated classes for the benchmarks.  The endpoints are
+ * spread over {@value #API_VERSION_COUNT} api versions and {@value #API_CONTEXT_COUNT} api contexts defined by
+ * generated enums, every endpoint carries one or two contexts so both single and nested paths are exercised.
+ * <p>
+ * The classes are loaded by a dedicated class loader.  Code that scans the classpath has to run inside
+ * {@link #call(Callable)} so the scan sees the generated classes.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public final class SyntheticClasspath implements AutoCloseable {
+
+    public static final String PACKAGE_NAME = "com.rba.jaxrs.autoconfig.synthetic";
+
+    public static final int API_VERSION_COUNT = 4;
+
+    public static final int API_CONTEXT_COUNT = 100;
+
+    private static final String API_VERSION_ENUM = "SyntheticApiVersion";
+
+    private static final String API_CONTEXT_ENUM = "SyntheticApiContext";
+
+    private final Path classesDirectory;
+
+    private final URLClassLoader classLoader;
+
+    private final List<Class<?>> endpointClasses;
+
+    private SyntheticClasspath(Path classesDirectory, int endpointCount) throws IOException, ClassNotFoundException {
+        this.classesDirectory = classesDirectory;
+        this.classLoader = new URLClassLoader(new URL[]{classesDirectory.toUri().toURL()},
+            SyntheticClasspath.class.getClassLoader());
+        List<Class<?>> loadedClasses = new ArrayList<>();
+        for (int i = 0; i < endpointCount; i++) {
+            loadedClasses.add(Class.forName(PACKAGE_NAME + ".SyntheticEndpoint" + i, false, classLoader));
+        }
+        this.endpointClasses = Collections.unmodifiableList(loadedClasses);
+    }
+
+    /**
+     * Generates and compiles the enums and the requested number of endpoint classes into a temporary directory.
+     *
+     * @param endpointCount the number of annotated endpoint classes
+     * @return the synthetic classpath
+     * @throws IOException if the sources can not be written or compiled
+     */
+    public static SyntheticClasspath generate(int endpointCount) throws IOException {
+        Path sourceDirectory = Files.createTempDirectory("jaxrs-autoconfig-synthetic-src");
+        Path classesDirectory = Files.createTempDirectory("jaxrs-autoconfig-synthetic-classes");
+        try {
+            Path packageDirectory = Files.createDirectories(sourceDirectory.resolve(PACKAGE_NAME.replace('.', '/')));
+            List<Path> sources = new ArrayList<>();
+            sources.add(writeSource(packageDirectory, API_VERSION_ENUM, createEnumSource(API_VERSION_ENUM,
+                "com.rba.jaxrs.autoconfig.core.version.ApiVersion", "getApiVersion", "SYNTHETIC_V", "v",
+                API_VERSION_COUNT)));
+            sources.add(writeSource(packageDirectory, API_CONTEXT_ENUM, createEnumSource(API_CONTEXT_ENUM,
+                "com.rba.jaxrs.autoconfig.core.classify.ApiContext", "getApiContext", "SYNTHETIC_CONTEXT_", "context",
+                API_CONTEXT_COUNT)));
+            for (int i = 0; i < endpointCount; i++) {
+                sources.add(writeSource(packageDirectory, "SyntheticEndpoint" + i, createEndpointSource(i)));
+            }
+            compile(sources, classesDirectory);
+            return new SyntheticClasspath(classesDirectory, endpointCount);
+        } catch (ClassNotFoundException cnfe) {
+            deleteRecursively(classesDirectory);
+            throw new IllegalStateException("Generated endpoint could not be loaded", cnfe);
+        } finally {
+            deleteRecursively(sourceDirectory);
+        }
+    }
+
+    /**
+     * The api version enum constant name used by the endpoint with the given number.
+     *
+     * @param endpointNumber the endpoint number
+     * @return the enum constant name
+     */
+    public static String getApiVersionName(int endpointNumber) {
+        return "SYNTHETIC_V" + (endpointNumber % API_VERSION_COUNT);
+    }
+
+    /**
+     * The api context enum constant names used by the endpoint with the given number.
+     *
+     * @param endpointNumber the endpoint number
+     * @return the enum constant names
+     */
+    public static String[] getApiContextNames(int endpointNumber) {
+        String firstContext = "SYNTHETIC_CONTEXT_" + (endpointNumber % API_CONTEXT_COUNT);
+        if (endpointNumber % 2 == 0) {
+            return new String[]{firstContext};
+        }
+        return new String[]{firstContext, "SYNTHETIC_CONTEXT_" + ((endpointNumber / API_CONTEXT_COUNT) % API_CONTEXT_COUNT)};
+    }
+
+    public List<Class<?>> getEndpointClasses() {
+        return endpointClasses;
+    }
+
+    public Class<?> loadClass(String simpleName) throws ClassNotFoundException {
+        return Class.forName(PACKAGE_NAME + "." + simpleName, true, classLoader);
+    }
+
+    public Class<?> getApiVersionEnum() throws ClassNotFoundException {
+        return loadClass(API_VERSION_ENUM);
+    }
+
+    public Class<?> getApiContextEnum() throws ClassNotFoundException {
+        return loadClass(API_CONTEXT_ENUM);
+    }
+
+    /**
+     * Runs the task with the synthetic class loader as the thread context class loader.
+     *
+     * @param task the task to run
+     * @param <T> the result type
+     * @return the task result
+     * @throws Exception any exception thrown by the task
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            return task.call();
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+        deleteRecursively(classesDirectory);
+    }
+
+    private static String createEnumSource(String enumName, String interfaceName, String methodName, String constantPrefix,
+        String valuePrefix, int constantCount) {
+        StringBuilder source = new StringBuilder("package ").append(PACKAGE_NAME).append(";\n")
+            .append("public enum ").append(enumName).append(" implements ").append(interfaceName).append(" {\n");
+        for (int i = 0; i < constantCount; i++) {
+            source.append("    ").append(constantPrefix).append(i).append("(\"").append(valuePrefix).append(i)
+                .append(i + 1 < constantCount ? "\"),\n" : "\");\n");
+        }
+        return source.append("    private final String value;\n")
+            .append("    ").append(enumName).append("(String value) { this.value = value; }\n")
+            .append("    @Override public String ").append(methodName).append("() { return value; }\n")
+            .append("}\n").toString();
+    }
+
+    private static String createEndpointSource(int endpointNumber) {
+        String contextNames = Arrays.stream(getApiContextNames(endpointNumber))
+            .map(contextName -> "\"" + contextName + "\"")
+            .collect(Collectors.joining(", "));
+        return "package " + PACKAGE_NAME + ";\n"
+            + "@javax.ws.rs.Path(\"/endpoint" + endpointNumber + "\")\n"
+            + "@com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint(apiVersionEnumName = \""
+            + getApiVersionName(endpointNumber) + "\", apiContextEnumNames = {" + contextNames + "})\n"
+            + "public class SyntheticEndpoint" + endpointNumber + " {\n"
+            + "    @javax.ws.rs.GET public String get() { return \"" + endpointNumber + "\"; }\n"
+            + "}\n";
+    }
+
+    private static Path writeSource(Path packageDirectory, String className, String source) throws IOException {
+        return Files.write(packageDirectory.resolve(className + ".java"), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void compile(List<Path> sources, Path classesDirectory) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The benchmarks generate their classpath at runtime and must run on a JDK");
+        }
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(
+                sources.stream().map(Path::toFile).collect(Collectors.toList()));
+            //Annotation processing is off so the endpoint index processor on the classpath does not run
+            List<String> options = Arrays.asList("-proc:none", "-classpath", System.getProperty("java.class.path"),
+                "-d", classesDirectory.toString());
+            if (!compiler.getTask(null, fileManager, null, options, null, compilationUnits).call()) {
+                throw new IllegalStateException("Compiling the synthetic endpoints failed");
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.scan;
+
+import com.rba.jaxrs.autoconfig.benchmark.SyntheticClasspath;
+import com.rba.jaxrs.autoconfig.core.transform.DefaultRestApiEndpointTransformer;
+import com.rba.jaxrs.autoconfig.core.transform.EndpointContextContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures {@link DefaultJaxRsAutoConfigScanner#getAutoConfigurationData(List, String...)} over the synthetic
+ * classpath.  {@link #scanClasspath()} runs a dedicated ClassGraph scan restricted to the synthetic package on every
+ * call, {@link #groupIndexedEndpoints()} answers from an {@link AutoConfigClasspathIndex} that was scanned during setup
+ * and so measures loading, resolving and grouping the endpoint classes.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+@State(Scope.Thread)
+public class AutoConfigScannerBenchmark {
+
+    private static final List<String> SYNTHETIC_PACKAGES = Collections.singletonList(SyntheticClasspath.PACKAGE_NAME);
+
+    @Param({"10", "1000", "10000"})
+    private int endpointCount;
+
+    private SyntheticClasspath syntheticClasspath;
+
+    private AutoConfigClasspathIndex classpathIndex;
+
+    private DefaultJaxRsAutoConfigScanner scanningScanner;
+
+    private DefaultJaxRsAutoConfigScanner indexedScanner;
+
+    @Setup(Level.Trial)
+    public void createScanners() throws Exception {
+        syntheticClasspath = SyntheticClasspath.generate(endpointCount);
+        classpathIndex = new AutoConfigClasspathIndex();
+        DefaultRestApiEndpointTransformer transformer = syntheticClasspath.call(() -> {
+            DefaultRestApiEndpointTransformer indexTransformer = new DefaultRestApiEndpointTransformer(classpathIndex);
+            //Scan the endpoints now so the indexed benchmark never pays for the classpath scan
+            classpathIndex.getRestApiEndpointClasses(SYNTHETIC_PACKAGES);
+            return indexTransformer;
+        });
+        scanningScanner = new DefaultJaxRsAutoConfigScanner();
+        scanningScanner.setContextTransformer(transformer);
+        indexedScanner = new DefaultJaxRsAutoConfigScanner();
+        indexedScanner.setContextTransformer(transformer);
+        indexedScanner.setClasspathIndex(classpathIndex);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteClasspath() throws IOException {
+        classpathIndex.close();
+        syntheticClasspath.close();
+    }
+
+    @Benchmark
+    public Map<EndpointContextContainer, List<Class<?>>> scanClasspath() throws Exception {
+        return syntheticClasspath.call(() -> scanningScanner.getAutoConfigurationData(SYNTHETIC_PACKAGES));
+    }
+
+    @Benchmark
+    public Map<EndpointContextContainer, List<Class<?>>> groupIndexedEndpoints() throws Exception {
+        return syntheticClasspath.call(() -> indexedScanner.getAutoConfigurationData(SYNTHETIC_PACKAGES));
+    }
+}
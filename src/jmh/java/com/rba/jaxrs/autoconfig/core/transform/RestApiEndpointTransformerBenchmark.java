@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.transform;
+
+import com.rba.jaxrs.autoconfig.benchmark.SyntheticClasspath;
+import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.core.scan.AutoConfigClasspathIndex;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures a single {@link DefaultRestApiEndpointTransformer#getEndpointContext(RestApiEndpoint)} and
+ * {@link DefaultRestApiEndpointTransformer#resolveApiPath(ApiVersion, ApiContext...)} call.  Each invocation moves on to
+ * the next endpoint of the synthetic classpath so the lookups cycle through every annotation.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+@State(Scope.Thread)
+public class RestApiEndpointTransformerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int endpointCount;
+
+    private SyntheticClasspath syntheticClasspath;
+
+    private DefaultRestApiEndpointTransformer transformer;
+
+    private RestApiEndpoint[] annotations;
+
+    private ApiVersion[] apiVersions;
+
+    private ApiContext[][] apiContexts;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void createTransformer() throws Exception {
+        syntheticClasspath = SyntheticClasspath.generate(endpointCount);
+        transformer = syntheticClasspath.call(() -> {
+            try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex()) {
+                return new DefaultRestApiEndpointTransformer(classpathIndex);
+            }
+        });
+        List<RestApiEndpoint> endpointAnnotations = new ArrayList<>();
+        for (Class<?> endpointClass : syntheticClasspath.getEndpointClasses()) {
+            for (RestApiEndpoint apiEndpoint : endpointClass.getAnnotationsByType(RestApiEndpoint.class)) {
+                endpointAnnotations.add(apiEndpoint);
+            }
+        }
+        annotations = endpointAnnotations.toArray(new RestApiEndpoint[0]);
+        Class<? extends Enum> versionEnum = (Class<? extends Enum>) syntheticClasspath.getApiVersionEnum();
+        Class<? extends Enum> contextEnum = (Class<? extends Enum>) syntheticClasspath.getApiContextEnum();
+        apiVersions = new ApiVersion[endpointCount];
+        apiContexts = new ApiContext[endpointCount][];
+        for (int i = 0; i < endpointCount; i++) {
+            apiVersions[i] = (ApiVersion) Enum.valueOf(versionEnum, SyntheticClasspath.getApiVersionName(i));
+            String[] contextNames = SyntheticClasspath.getApiContextNames(i);
+            apiContexts[i] = new ApiContext[contextNames.length];
+            for (int j = 0; j < contextNames.length; j++) {
+                apiContexts[i][j] = (ApiContext) Enum.valueOf(contextEnum, contextNames[j]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteClasspath() throws IOException {
+        syntheticClasspath.close();
+    }
+
+    @Benchmark
+    public EndpointContextContainer getEndpointContext() {
+        return transformer.getEndpointContext(annotations[nextIndex(annotations.length)]);
+    }
+
+    @Benchmark
+    public EndpointContextContainer resolveApiPath() {
+        int index = nextIndex(apiVersions.length);
+        return transformer.resolveApiPath(apiVersions[index], apiContexts[index]);
+    }
+
+    private int nextIndex(int length) {
+        int index = next;
+        next = index + 1 == length ? 0 : index + 1;
+        return index;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.bulkhead;
+
+import com.rba.jaxrs.autoconfig.cxf.async.VirtualThreadJaxrsInvoker;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.apache.cxf.transport.servlet.CXFNonSpringServlet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the throughput of a CXF endpoint whose resource method blocks on I/O when it is invoked on the Tomcat request
+ * threads against a virtual thread per invocation through {@link VirtualThreadJaxrsInvoker}.  The endpoint is served by
+ * an embedded Tomcat with {@code containerThreads} request threads, 200 by default like Spring Boot, and an async
+ * capable CXF servlet.  Each operation sends {@code concurrentRequests} requests whose resource method sleeps for
+ * {@code blockingMillis} and waits for all of the responses.  The virtual thread invoker needs Java 21, on older JVMs the
+ * virtual trial fails in setup.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+@State(Scope.Benchmark)
+public class BlockingInvocationBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String invocationType;
+
+    @Param({"200"})
+    private int containerThreads;
+
+    @Param({"1000"})
+    private int concurrentRequests;
+
+    @Param({"10", "100"})
+    private int blockingMillis;
+
+    private BulkheadRegistry bulkheadRegistry;
+
+    private Tomcat tomcat;
+
+    private ExecutorService clients;
+
+    private URL endpoint;
+
+    @Setup(Level.Trial)
+    public void startEndpoint() throws Exception {
+        bulkheadRegistry = new BulkheadRegistry();
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("blocking-invocation").toString());
+        tomcat.setPort(0);
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(containerThreads));
+        tomcat.getConnector().setProperty("maxConnections", String.valueOf(concurrentRequests * 2));
+        tomcat.getConnector().setProperty("acceptCount", String.valueOf(concurrentRequests));
+        StandardContext context = (StandardContext) tomcat.addContext("", null);
+        //The leak prevention of this Tomcat version fails to stop on the Java 21 the virtual trial runs on
+        context.setClearReferencesObjectStreamClassCaches(false);
+        CXFNonSpringServlet servlet = new CXFNonSpringServlet();
+        Wrapper wrapper = Tomcat.addServlet(context, "cxf", servlet);
+        wrapper.setAsyncSupported(true);
+        wrapper.setLoadOnStartup(1);
+        context.addServletMappingDecoded("/*", "cxf");
+        tomcat.start();
+
+        JAXRSServerFactoryBean factoryBean = new JAXRSServerFactoryBean();
+        factoryBean.setBus(servlet.getBus());
+        factoryBean.setAddress("/");
+        factoryBean.setResourceClasses(BlockingResource.class);
+        factoryBean.setResourceProvider(BlockingResource.class, new SingletonResourceProvider(new BlockingResource()));
+        if ("virtual".equals(invocationType)) {
+            Executor virtualThreads = bulkheadRegistry.getVirtualThreadExecutor("/blocking");
+            if (virtualThreads == null) {
+                throw new IllegalStateException("Virtual threads require Java 21");
+            }
+            factoryBean.setInvoker(new VirtualThreadJaxrsInvoker(null, virtualThreads));
+        }
+        factoryBean.create();
+
+        clients = Executors.newFixedThreadPool(concurrentRequests);
+        endpoint = new URL("http://localhost:" + tomcat.getConnector().getLocalPort() + "/blocking?millis=" + blockingMillis);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopEndpoint() throws Exception {
+        clients.shutdownNow();
+        tomcat.stop();
+        tomcat.destroy();
+        bulkheadRegistry.shutdown();
+    }
+
+    @Benchmark
+    public int blockingRequests() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            responses.add(clients.submit(this::sendRequest));
+        }
+        int ok = 0;
+        for (Future<Integer> response : responses) {
+            if (response.get() == HttpURLConnection.HTTP_OK) {
+                ok++;
+            }
+        }
+        if (ok != concurrentRequests) {
+            throw new IllegalStateException((concurrentRequests - ok) + " of " + concurrentRequests + " requests failed");
+        }
+        return ok;
+    }
+
+    private int sendRequest() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+        try (InputStream body = connection.getInputStream()) {
+            while (body.read() != -1) {
+                //Drain the body so the connection can be kept alive
+            }
+            return connection.getResponseCode();
+        }
+    }
+
+    /**
+     * A resource method blocking like a call to a slow downstream service.
+     */
+    @Path("/blocking")
+    public static class BlockingResource {
+
+        @GET
+        public String block(@QueryParam("millis") int millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return "done";
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.config;
+
+import com.rba.jaxrs.autoconfig.benchmark.SyntheticClasspath;
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfiguration;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfigurationBuilder;
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.interceptor.AttachmentInInterceptor;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@link CxfServerFactoryCustomizer#customize(JAXRSServerFactoryBean)}.  There is one customizer per
+ * synthetic endpoint plus one that applies to all endpoints.  {@link #customize()} applies a single customizer to a
+ * factory for its own address.  The factories are reused so after the first pass the customizer finds its settings
+ * already present.  {@link #customizeEndpointGroup()} runs every customizer against a new factory the way the
+ * initializer prepares one endpoint group.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+@State(Scope.Thread)
+public class CxfServerFactoryCustomizerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int endpointCount;
+
+    private SyntheticClasspath syntheticClasspath;
+
+    private Bus bus;
+
+    private List<CxfServerFactoryCustomizer> customizers;
+
+    private JAXRSServerFactoryBean[] factories;
+
+    private String groupAddress;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void createCustomizers() throws Exception {
+        syntheticClasspath = SyntheticClasspath.generate(endpointCount);
+        bus = BusFactory.newInstance().createBus();
+        Class<? extends Enum> versionEnum = (Class<? extends Enum>) syntheticClasspath.getApiVersionEnum();
+        Class<? extends Enum> contextEnum = (Class<? extends Enum>) syntheticClasspath.getApiContextEnum();
+        customizers = new ArrayList<>();
+        customizers.add(new CxfServerFactoryCustomizer(new CxfConfigurationBuilder().setBus(bus).build(), true, null));
+        factories = new JAXRSServerFactoryBean[endpointCount];
+        for (int i = 0; i < endpointCount; i++) {
+            ApiVersion apiVersion = (ApiVersion) Enum.valueOf(versionEnum, SyntheticClasspath.getApiVersionName(i));
+            String[] contextNames = SyntheticClasspath.getApiContextNames(i);
+            ApiContext[] apiContexts = new ApiContext[contextNames.length];
+            for (int j = 0; j < contextNames.length; j++) {
+                apiContexts[j] = (ApiContext) Enum.valueOf(contextEnum, contextNames[j]);
+            }
+            CxfConfiguration cxfConfig = new CxfConfigurationBuilder()
+                .addIncomingInterceptor(new AttachmentInInterceptor())
+                .addProperty("synthetic.endpoint", i)
+                .build();
+            CxfServerFactoryCustomizer customizer = new CxfServerFactoryCustomizer(cxfConfig, false, apiVersion, apiContexts);
+            customizers.add(customizer);
+            factories[i] = new JAXRSServerFactoryBean();
+            factories[i].setAddress(customizer.getContextTransformer().resolveApiPath(apiVersion, apiContexts)
+                .getEndpointContext());
+        }
+        customizers.sort(null);
+        groupAddress = factories[0].getAddress();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteClasspath() throws IOException {
+        bus.shutdown(true);
+        syntheticClasspath.close();
+    }
+
+    @Benchmark
+    public JAXRSServerFactoryBean customize() {
+        int index = next;
+        next = index + 1 == factories.length ? 0 : index + 1;
+        //Customizer 0 is the global one, the endpoint customizers follow in endpoint order
+        customizers.get(index + 1).customize(factories[index]);
+        return factories[index];
+    }
+
+    @Benchmark
+    public JAXRSServerFactoryBean customizeEndpointGroup() {
+        JAXRSServerFactoryBean factory = new JAXRSServerFactoryBean();
+        factory.setAddress(groupAddress);
+        CxfServerFactoryMerger factoryMerger = new CxfServerFactoryMerger(factory);
+        for (CxfServerFactoryCustomizer customizer : customizers) {
+            customizer.customize(factoryMerger);
+        }
+        return factory;
+    }
+}
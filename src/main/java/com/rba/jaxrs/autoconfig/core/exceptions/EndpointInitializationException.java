@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.exceptions;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An exception that occurs when one or more endpoint groups could not be initialized.  The failures are reported in
+ * address order, the first failure is the cause and any further failures are added as suppressed exceptions.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class EndpointInitializationException extends RuntimeException {
+
+    private final List<String> failedAddresses;
+
+    public EndpointInitializationException(String message, List<String> failedAddresses, List<Throwable> failures) {
+        super(message, failures.isEmpty() ? null : failures.get(0));
+        this.failedAddresses = Collections.unmodifiableList(failedAddresses);
+        for (int i = 1; i < failures.size(); i++) {
+            addSuppressed(failures.get(i));
+        }
+    }
+
+    /**
+     * The addresses of the endpoint groups that failed in address order.
+     *
+     * @return the failed addresses
+     */
+    public List<String> getFailedAddresses() {
+        return failedAddresses;
+    }
+}
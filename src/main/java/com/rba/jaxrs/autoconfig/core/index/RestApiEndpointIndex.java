@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.index;
+
+import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the endpoint index written by {@link RestApiEndpointIndexProcessor}.  Every jar or output directory that was
+ * compiled with the processor contributes one index resource, all of them visible to the class loader are merged.  The
+ * enumeration index listing the {@link com.rba.jaxrs.autoconfig.core.version.ApiVersion} and
+ * {@link com.rba.jaxrs.autoconfig.core.classify.ApiContext} enums is merged the same way, so the names of the endpoint
+ * entries can be resolved without scanning the classpath.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public final class RestApiEndpointIndex {
+
+    /**
+     * The classpath location of the index resource.
+     */
+    public static final String INDEX_LOCATION = "META-INF/jaxrs-autoconfig/rest-api-endpoints.idx";
+
+    /**
+     * The classpath location of the enumeration index resource.
+     */
+    public static final String ENUMERATION_INDEX_LOCATION = "META-INF/jaxrs-autoconfig/api-enumerations.idx";
+
+    static final String API_VERSION_KIND = "version";
+    static final String API_CONTEXT_KIND = "context";
+
+    private static final String COMMENT_PREFIX = "#";
+    private static final String FIELD_SEPARATOR = "|";
+
+    private final List<RestApiEndpointIndexEntry> entries;
+    private final boolean present;
+    private final List<String> apiVersionEnumerations;
+    private final List<String> apiContextEnumerations;
+
+    private RestApiEndpointIndex(List<RestApiEndpointIndexEntry> entries, boolean present,
+        List<String> apiVersionEnumerations, List<String> apiContextEnumerations) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.present = present;
+        this.apiVersionEnumerations = Collections.unmodifiableList(apiVersionEnumerations);
+        this.apiContextEnumerations = Collections.unmodifiableList(apiContextEnumerations);
+    }
+
+    /**
+     * Loads and merges all index resources visible to the class loader.
+     *
+     * @param classLoader the class loader to search, the thread context loader is used when null
+     * @return the merged index, {@link #isPresent()} is false when no index resource exists
+     */
+    public static RestApiEndpointIndex load(ClassLoader classLoader) {
+        ClassLoader loader = classLoader;
+        if (loader == null) {
+            loader = Thread.currentThread().getContextClassLoader();
+        }
+        if (loader == null) {
+            loader = RestApiEndpointIndex.class.getClassLoader();
+        }
+        //A set keeps a class that is on the classpath twice from being registered twice
+        Set<RestApiEndpointIndexEntry> entries = new LinkedHashSet<>();
+        Set<String> apiVersionEnumerations = new LinkedHashSet<>();
+        Set<String> apiContextEnumerations = new LinkedHashSet<>();
+        boolean present = false;
+        try {
+            Enumeration<URL> indexUrls = loader.getResources(INDEX_LOCATION);
+            while (indexUrls.hasMoreElements()) {
+                present = true;
+                for (String line : readLines(indexUrls.nextElement())) {
+                    entries.add(RestApiEndpointIndexEntry.parse(line));
+                }
+            }
+            Enumeration<URL> enumerationUrls = loader.getResources(ENUMERATION_INDEX_LOCATION);
+            while (enumerationUrls.hasMoreElements()) {
+                for (String line : readLines(enumerationUrls.nextElement())) {
+                    addEnumerationLine(line, apiVersionEnumerations, apiContextEnumerations);
+                }
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to read the rest api endpoint index " + INDEX_LOCATION, ioe);
+        }
+        return new RestApiEndpointIndex(new ArrayList<>(entries), present, new ArrayList<>(apiVersionEnumerations),
+            new ArrayList<>(apiContextEnumerations));
+    }
+
+    private static List<String> readLines(URL indexUrl) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(indexUrl.openStream(),
+            StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith(COMMENT_PREFIX)) {
+                    lines.add(trimmed);
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static void addEnumerationLine(String line, Set<String> apiVersionEnumerations,
+        Set<String> apiContextEnumerations) {
+        String[] fields = line.split("\\" + FIELD_SEPARATOR, -1);
+        if (fields.length != 2 || fields[1].isEmpty()) {
+            throw new IllegalArgumentException("Invalid api enumeration index line: " + line);
+        }
+        if (API_VERSION_KIND.equals(fields[0])) {
+            apiVersionEnumerations.add(fields[1]);
+        } else if (API_CONTEXT_KIND.equals(fields[0])) {
+            apiContextEnumerations.add(fields[1]);
+        } else {
+            throw new IllegalArgumentException("Invalid api enumeration index line: " + line);
+        }
+    }
+
+    /**
+     * Formats a single line of the enumeration index.
+     *
+     * @param kind {@link #API_VERSION_KIND} or {@link #API_CONTEXT_KIND}
+     * @param className the binary name of the enum
+     * @return the index line
+     */
+    static String toEnumerationLine(String kind, String className) {
+        return kind + FIELD_SEPARATOR + className;
+    }
+
+    /**
+     * Indicates whether at least one index resource was found.  An empty but present index is a valid result, it means
+     * the compiled code simply has no {@link RestApiEndpoint} classes.
+     *
+     * @return true if an index resource was found
+     */
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * All indexed annotations, one entry per annotation so a class with multiple annotations has multiple entries.
+     *
+     * @return the unmodifiable entries
+     */
+    public List<RestApiEndpointIndexEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The binary names of the indexed {@link com.rba.jaxrs.autoconfig.core.version.ApiVersion} enums.
+     *
+     * @return the unmodifiable class names in index order
+     */
+    public List<String> getApiVersionEnumerations() {
+        return apiVersionEnumerations;
+    }
+
+    /**
+     * The binary names of the indexed {@link com.rba.jaxrs.autoconfig.core.classify.ApiContext} enums.
+     *
+     * @return the unmodifiable class names in index order
+     */
+    public List<String> getApiContextEnumerations() {
+        return apiContextEnumerations;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.index;
+
+import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A single {@link RestApiEndpoint} declaration as recorded in the compile time endpoint index.  Only the raw enum names
+ * are stored, resolution against the {@link com.rba.jaxrs.autoconfig.core.version.ApiVersion} and
+ * {@link com.rba.jaxrs.autoconfig.core.classify.ApiContext} enums still happens at runtime so the enabled flags stay live.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public final class RestApiEndpointIndexEntry {
+
+    private static final String FIELD_SEPARATOR = "|";
+    private static final String CONTEXT_SEPARATOR = ",";
+
+    private final String className;
+    private final String apiVersionEnumName;
+    private final String[] apiContextEnumNames;
+
+    /**
+     * Instantiates a new index entry.
+     *
+     * @param className the binary name of the annotated class
+     * @param apiVersionEnumName the version enum name from the annotation
+     * @param apiContextEnumNames the context enum names from the annotation in declaration order
+     */
+    public RestApiEndpointIndexEntry(String className, String apiVersionEnumName, String... apiContextEnumNames) {
+        this.className = Objects.requireNonNull(className, "className");
+        this.apiVersionEnumName = apiVersionEnumName == null ? "" : apiVersionEnumName;
+        this.apiContextEnumNames = apiContextEnumNames == null ? new String[]{} : apiContextEnumNames.clone();
+    }
+
+    /**
+     * Parses a single line of the index file.
+     *
+     * @param line the line in the form className|versionName|contextName,contextName
+     * @return the parsed entry
+     * @throws IllegalArgumentException if the line is not in the expected format
+     */
+    public static RestApiEndpointIndexEntry parse(String line) {
+        String[] fields = line.split("\\" + FIELD_SEPARATOR, -1);
+        if (fields.length != 3 || fields[0].isEmpty()) {
+            throw new IllegalArgumentException("Invalid rest api endpoint index line: " + line);
+        }
+        String[] contexts = fields[2].isEmpty() ? new String[]{} : fields[2].split(CONTEXT_SEPARATOR, -1);
+        return new RestApiEndpointIndexEntry(fields[0], fields[1], contexts);
+    }
+
+    /**
+     * Formats the entry as a single line of the index file.
+     *
+     * @return the index line
+     */
+    public String toIndexLine() {
+        return className + FIELD_SEPARATOR + apiVersionEnumName + FIELD_SEPARATOR
+            + String.join(CONTEXT_SEPARATOR, apiContextEnumNames);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getApiVersionEnumName() {
+        return apiVersionEnumName;
+    }
+
+    public String[] getApiContextEnumNames() {
+        return apiContextEnumNames.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RestApiEndpointIndexEntry that = (RestApiEndpointIndexEntry) o;
+        return className.equals(that.className) && apiVersionEnumName.equals(that.apiVersionEnumName)
+            && Arrays.equals(apiContextEnumNames, that.apiContextEnumNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(className, apiVersionEnumName) + Arrays.hashCode(apiContextEnumNames);
+    }
+
+    @Override
+    public String toString() {
+        return toIndexLine();
+    }
+}
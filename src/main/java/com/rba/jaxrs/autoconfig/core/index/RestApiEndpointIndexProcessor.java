@@ -0,0 +1,200 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.index;
+
+import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An annotation processor that records every {@link RestApiEndpoint} at compile time into
+ * {@link RestApiEndpointIndex#INDEX_LOCATION}.  When the index is present the scanner can build the endpoint map from it
+ * without walking the classpath.  The {@link ApiVersion} and {@link ApiContext} enums compiled alongside are recorded in
+ * {@link RestApiEndpointIndex#ENUMERATION_INDEX_LOCATION} so the names in the index can be resolved without a scan as
+ * well.  The processor looks at every compiled type for the enums, which is why it supports all annotation types.
+ * <p>
+ * The processor is aggregating, each compilation writes one index for all of the annotated classes it compiled.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+@SupportedAnnotationTypes("*")
+public class RestApiEndpointIndexProcessor extends AbstractProcessor {
+
+    private static final Set<String> ENDPOINT_ANNOTATIONS = new HashSet<>(Arrays.asList(
+        RestApiEndpoint.class.getCanonicalName(), RestApiEndpoint.RestApiEndpoints.class.getCanonicalName()));
+
+    //Sorted by class name so the generated file is stable between builds
+    private final Map<String, List<RestApiEndpointIndexEntry>> indexedClasses = new TreeMap<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+    private final Set<String> apiVersionEnumerations = new TreeSet<>();
+    private final Set<String> apiContextEnumerations = new TreeSet<>();
+    private final List<Element> enumerationElements = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (TypeElement annotation : annotations) {
+            if (!ENDPOINT_ANNOTATIONS.contains(annotation.getQualifiedName().toString())) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                //Mirror the runtime scan which reports every annotated type
+                if (element instanceof TypeElement) {
+                    indexClass((TypeElement) element);
+                }
+            }
+        }
+        for (Element rootElement : roundEnv.getRootElements()) {
+            indexEnumerations(rootElement);
+        }
+        //Claiming is not appropriate, other processors may be interested in the same classes
+        return false;
+    }
+
+    private void indexClass(TypeElement classElement) {
+        String className = processingEnv.getElementUtils().getBinaryName(classElement).toString();
+        if (indexedClasses.containsKey(className)) {
+            //Both the single and the container annotation can report the same class in one round
+            return;
+        }
+        List<RestApiEndpointIndexEntry> entries = new ArrayList<>();
+        for (RestApiEndpoint apiEndpoint : classElement.getAnnotationsByType(RestApiEndpoint.class)) {
+            entries.add(new RestApiEndpointIndexEntry(className, apiEndpoint.apiVersionEnumName(),
+                apiEndpoint.apiContextEnumNames()));
+        }
+        indexedClasses.put(className, entries);
+        originatingElements.add(classElement);
+    }
+
+    private void indexEnumerations(Element element) {
+        if (element.getKind() == ElementKind.ENUM) {
+            TypeElement enumElement = (TypeElement) element;
+            String className = processingEnv.getElementUtils().getBinaryName(enumElement).toString();
+            boolean indexed = addIfImplements(enumElement, ApiVersion.class, className, apiVersionEnumerations);
+            indexed = addIfImplements(enumElement, ApiContext.class, className, apiContextEnumerations) || indexed;
+            if (indexed) {
+                enumerationElements.add(enumElement);
+            }
+        }
+        //Nested enums count as well, the runtime scan finds them too
+        for (Element enclosedElement : element.getEnclosedElements()) {
+            if (enclosedElement.getKind().isClass() || enclosedElement.getKind().isInterface()) {
+                indexEnumerations(enclosedElement);
+            }
+        }
+    }
+
+    private boolean addIfImplements(TypeElement enumElement, Class<?> interfaceClass, String className,
+        Set<String> enumerations) {
+        TypeElement interfaceElement = processingEnv.getElementUtils().getTypeElement(interfaceClass.getCanonicalName());
+        if (interfaceElement == null) {
+            return false;
+        }
+        Types typeUtils = processingEnv.getTypeUtils();
+        TypeMirror interfaceType = typeUtils.erasure(interfaceElement.asType());
+        if (!typeUtils.isAssignable(typeUtils.erasure(enumElement.asType()), interfaceType)) {
+            return false;
+        }
+        enumerations.add(className);
+        return true;
+    }
+
+    private void writeIndex() {
+        writeEndpointIndex();
+        writeEnumerationIndex();
+    }
+
+    private void writeEndpointIndex() {
+        if (indexedClasses.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject indexFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                RestApiEndpointIndex.INDEX_LOCATION, originatingElements.toArray(new Element[]{}));
+            try (Writer writer = new OutputStreamWriter(indexFile.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# Generated by " + RestApiEndpointIndexProcessor.class.getName() + "\n");
+                for (List<RestApiEndpointIndexEntry> entries : indexedClasses.values()) {
+                    for (RestApiEndpointIndexEntry entry : entries) {
+                        writer.write(entry.toIndexLine());
+                        writer.write("\n");
+                    }
+                }
+            }
+        } catch (IOException ioe) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Unable to write " + RestApiEndpointIndex.INDEX_LOCATION + ": " + ioe.getMessage());
+        }
+    }
+
+    private void writeEnumerationIndex() {
+        if (apiVersionEnumerations.isEmpty() && apiContextEnumerations.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject indexFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                RestApiEndpointIndex.ENUMERATION_INDEX_LOCATION, enumerationElements.toArray(new Element[]{}));
+            try (Writer writer = new OutputStreamWriter(indexFile.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# Generated by " + RestApiEndpointIndexProcessor.class.getName() + "\n");
+                for (String className : apiVersionEnumerations) {
+                    writer.write(RestApiEndpointIndex.toEnumerationLine(RestApiEndpointIndex.API_VERSION_KIND, className));
+                    writer.write("\n");
+                }
+                for (String className : apiContextEnumerations) {
+                    writer.write(RestApiEndpointIndex.toEnumerationLine(RestApiEndpointIndex.API_CONTEXT_KIND, className));
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException ioe) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Unable to write " + RestApiEndpointIndex.ENUMERATION_INDEX_LOCATION + ": " + ioe.getMessage());
+        }
+    }
+}
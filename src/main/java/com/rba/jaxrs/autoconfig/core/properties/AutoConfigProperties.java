@@ -18,9 +18,13 @@ package com.rba.jaxrs.autoconfig.core.properties;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
@@ -31,6 +35,21 @@ public class AutoConfigProperties {
 
     private List<String> packagesToBlacklist = new ArrayList<>();
     private List<String> packagesToScan = new ArrayList<>();
+    private boolean useEndpointIndex;
+    private int initParallelism = 1;
+    private Duration initTimeout = Duration.ofSeconds(60);
+    private boolean lazyActivation;
+    private String scanCacheFile;
+    private boolean endpointMetrics;
+    private List<String> virtualThreadAddresses = new ArrayList<>();
+    private boolean asyncSupport;
+    private Duration asyncTimeout;
+    private int asyncCompletionThreads;
+    private final Compression compression = new Compression();
+    private final ResponseCaching responseCache = new ResponseCaching();
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+    private final QueueShedding queueShedding = new QueueShedding();
+    private final PriorityScheduling priorityScheduling = new PriorityScheduling();
 
     public List<String> getPackagesToBlacklist() {
         return Collections.unmodifiableList(packagesToBlacklist);
@@ -47,4 +66,531 @@ public class AutoConfigProperties {
     public void setPackagesToScan(List<String> packagesToScan) {
         this.packagesToScan = packagesToScan;
     }
+
+    /**
+     * When true the endpoint data is read from the compile time endpoint index instead of scanning the classpath.  The
+     * classpath is still scanned when no index can be found.
+     *
+     * @return true if the endpoint index should be used
+     */
+    public boolean isUseEndpointIndex() {
+        return useEndpointIndex;
+    }
+
+    public void setUseEndpointIndex(boolean useEndpointIndex) {
+        this.useEndpointIndex = useEndpointIndex;
+    }
+
+    /**
+     * The number of endpoint groups that are built and created at the same time during startup.  A value of 1, the
+     * default, initializes the groups one after another on the startup thread.
+     *
+     * @return the initialization parallelism
+     */
+    public int getInitParallelism() {
+        return initParallelism;
+    }
+
+    public void setInitParallelism(int initParallelism) {
+        this.initParallelism = initParallelism;
+    }
+
+    /**
+     * The time each endpoint group is given to initialize when {@link #getInitParallelism()} is greater than 1.
+     *
+     * @return the per group initialization timeout
+     */
+    public Duration getInitTimeout() {
+        return initTimeout;
+    }
+
+    public void setInitTimeout(Duration initTimeout) {
+        this.initTimeout = initTimeout;
+    }
+
+    /**
+     * When true each endpoint group is only built when the first request reaches its address.  Startup registers a
+     * placeholder per address and the resource beans and Jax-RS server are created on the first request.
+     *
+     * @return true if endpoint groups should be activated on first request
+     */
+    public boolean isLazyActivation() {
+        return lazyActivation;
+    }
+
+    public void setLazyActivation(boolean lazyActivation) {
+        this.lazyActivation = lazyActivation;
+    }
+
+    /**
+     * The file the classpath scan results are cached in between starts.  The cache is keyed by a fingerprint of the
+     * classpath so a changed classpath is scanned again and the file rewritten.  No cache is used when not set.
+     *
+     * @return the scan cache file path
+     */
+    public String getScanCacheFile() {
+        return scanCacheFile;
+    }
+
+    public void setScanCacheFile(String scanCacheFile) {
+        this.scanCacheFile = scanCacheFile;
+    }
+
+    /**
+     * When true the request count, error count and latency histogram of every endpoint address and resource method are
+     * recorded and published to Micrometer when it is on the classpath.
+     *
+     * @return true if endpoint request metrics should be recorded
+     */
+    public boolean isEndpointMetrics() {
+        return endpointMetrics;
+    }
+
+    public void setEndpointMetrics(boolean endpointMetrics) {
+        this.endpointMetrics = endpointMetrics;
+    }
+
+    /**
+     * The endpoint addresses, for example {@code /v1/admin}, whose resource methods are invoked on a new virtual thread
+     * per request.  Requires Java 21, on older JVMs the addresses invoke on the request thread.
+     *
+     * @return the addresses invoking on virtual threads
+     */
+    public List<String> getVirtualThreadAddresses() {
+        return Collections.unmodifiableList(virtualThreadAddresses);
+    }
+
+    public void setVirtualThreadAddresses(List<String> virtualThreadAddresses) {
+        this.virtualThreadAddresses = virtualThreadAddresses;
+    }
+
+    /**
+     * When true a global customizer applies the async timeout and completion executor to every endpoint group.  Resource
+     * methods returning a {@link java.util.concurrent.CompletionStage} or taking a {@code @Suspended AsyncResponse}
+     * release the request thread while their response is pending either way, this only bounds and hands off the pending
+     * responses.
+     *
+     * @return true if the default async customizer is registered
+     */
+    public boolean isAsyncSupport() {
+        return asyncSupport;
+    }
+
+    public void setAsyncSupport(boolean asyncSupport) {
+        this.asyncSupport = asyncSupport;
+    }
+
+    /**
+     * The time an asynchronous response may stay pending before the request is answered with a 503, unset for no
+     * timeout.  Context customizers can set their own timeout through the configuration builder.
+     *
+     * @return the default async timeout
+     */
+    public Duration getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    public void setAsyncTimeout(Duration asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+    }
+
+    /**
+     * The number of threads writing the responses of completed stages, 0, the default, uses one per available processor.
+     *
+     * @return the completion thread count
+     */
+    public int getAsyncCompletionThreads() {
+        return asyncCompletionThreads;
+    }
+
+    public void setAsyncCompletionThreads(int asyncCompletionThreads) {
+        this.asyncCompletionThreads = asyncCompletionThreads;
+    }
+
+    /**
+     * The response compression settings, bound from {@code jaxrs.autoconfig.compression.*}.
+     *
+     * @return the compression settings
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * The response cache settings, bound from {@code jaxrs.autoconfig.response-cache.*}.
+     *
+     * @return the response cache settings
+     */
+    public ResponseCaching getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * The adaptive concurrency limit settings, bound from {@code jaxrs.autoconfig.concurrency-limit.*}.
+     *
+     * @return the concurrency limit settings
+     */
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * The queue delay shedding settings, bound from {@code jaxrs.autoconfig.queue-shedding.*}.
+     *
+     * @return the queue shedding settings
+     */
+    public QueueShedding getQueueShedding() {
+        return queueShedding;
+    }
+
+    /**
+     * The priority scheduling settings, bound from {@code jaxrs.autoconfig.priority-scheduling.*}.
+     *
+     * @return the priority scheduling settings
+     */
+    public PriorityScheduling getPriorityScheduling() {
+        return priorityScheduling;
+    }
+
+    /**
+     * Gzip compression of responses that are large enough to benefit from it.
+     */
+    public static class Compression {
+
+        private boolean enabled;
+        private int minResponseSize = 2048;
+        private List<String> mediaTypes = new ArrayList<>(Arrays.asList("application/json", "application/xml",
+            "application/javascript", "text/*"));
+        private List<String> addresses = new ArrayList<>();
+        private int level = -1;
+        private int maxIdleDeflaters = Runtime.getRuntime().availableProcessors() * 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * The smallest response body in bytes that is compressed, smaller bodies are written uncompressed.
+         *
+         * @return the minimum response size
+         */
+        public int getMinResponseSize() {
+            return minResponseSize;
+        }
+
+        public void setMinResponseSize(int minResponseSize) {
+            this.minResponseSize = minResponseSize;
+        }
+
+        /**
+         * The media types that are compressed, {@code type/*} allows every subtype.  Media types that are compressed
+         * already, such as images, should not be listed.
+         *
+         * @return the compressed media types
+         */
+        public List<String> getMediaTypes() {
+            return Collections.unmodifiableList(mediaTypes);
+        }
+
+        public void setMediaTypes(List<String> mediaTypes) {
+            this.mediaTypes = mediaTypes;
+        }
+
+        /**
+         * The version addresses, for example {@code /v1}, or context addresses, for example {@code /v1/admin}, whose
+         * responses are compressed.  When empty every endpoint group is compressed.
+         *
+         * @return the compressed addresses
+         */
+        public List<String> getAddresses() {
+            return Collections.unmodifiableList(addresses);
+        }
+
+        public void setAddresses(List<String> addresses) {
+            this.addresses = addresses;
+        }
+
+        /**
+         * The deflate level from 0 to 9, -1, the default, uses the zlib default level.
+         *
+         * @return the compression level
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        /**
+         * The number of idle deflaters kept for reuse between responses.
+         *
+         * @return the maximum idle deflaters
+         */
+        public int getMaxIdleDeflaters() {
+            return maxIdleDeflaters;
+        }
+
+        public void setMaxIdleDeflaters(int maxIdleDeflaters) {
+            this.maxIdleDeflaters = maxIdleDeflaters;
+        }
+    }
+
+    /**
+     * Caching of the serialized responses of resource methods annotated with
+     * {@link com.rba.jaxrs.autoconfig.core.annotations.CachedResponse}.
+     */
+    public static class ResponseCaching {
+
+        private boolean enabled;
+        private long maxBytes = 64L * 1024 * 1024;
+        private Duration coalesceTimeout = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * The maximum total size of the cached response bodies.
+         *
+         * @return the maximum cache size in bytes
+         */
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * The time a request waits for a concurrent request loading the same response before invoking the method itself.
+         *
+         * @return the coalesce timeout
+         */
+        public Duration getCoalesceTimeout() {
+            return coalesceTimeout;
+        }
+
+        public void setCoalesceTimeout(Duration coalesceTimeout) {
+            this.coalesceTimeout = coalesceTimeout;
+        }
+    }
+
+    /**
+     * Per address concurrency limits estimated from the observed latency, requests beyond the limit are rejected with a
+     * 503.
+     */
+    public static class ConcurrencyLimit {
+
+        private boolean enabled;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * The limit of an address before any latency has been observed.
+         *
+         * @return the initial limit
+         */
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        /**
+         * The smallest limit an address is reduced to.
+         *
+         * @return the minimum limit
+         */
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        /**
+         * The largest limit an address is raised to.
+         *
+         * @return the maximum limit
+         */
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    /**
+     * CoDel style shedding of requests that queued too long before their resource method was invoked.  Only endpoint
+     * groups invoked on a service executor are shed.
+     */
+    public static class QueueShedding {
+
+        private boolean enabled;
+        private Duration target = Duration.ofMillis(20);
+        private Duration interval = Duration.ofMillis(100);
+        private Map<String, Duration> versionTargets = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * The minimum queue delay above which an address is overloaded and sheds requests that waited longer.
+         *
+         * @return the queue delay target
+         */
+        public Duration getTarget() {
+            return target;
+        }
+
+        public void setTarget(Duration target) {
+            this.target = target;
+        }
+
+        /**
+         * The window the minimum queue delay is taken over.
+         *
+         * @return the interval
+         */
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        /**
+         * The targets of individual api versions keyed by the version, for example {@code v1}.  A lower target sheds
+         * the requests of a version earlier, versions not listed use the default target.
+         *
+         * @return the targets by version
+         */
+        public Map<String, Duration> getVersionTargets() {
+            return versionTargets;
+        }
+
+        public void setVersionTargets(Map<String, Duration> versionTargets) {
+            this.versionTargets = versionTargets;
+        }
+    }
+
+    /**
+     * A shared pool invoking the resource methods of higher priority version and context addresses first when all of
+     * its threads are busy.
+     */
+    public static class PriorityScheduling {
+
+        private boolean enabled;
+        private int threads = 64;
+        private int queueCapacity = 1000;
+        private Duration agingInterval = Duration.ofSeconds(1);
+        private int defaultPriority;
+        private Map<String, Integer> priorities = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * The number of threads invoking resource methods.
+         *
+         * @return the thread count
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        /**
+         * The number of invocations that wait for a thread, further invocations are rejected with a 503.  0 only hands
+         * invocations to idle threads.
+         *
+         * @return the queue capacity
+         */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        /**
+         * The wait that raises the priority of a queued invocation by one, which keeps low priorities from starving.
+         *
+         * @return the aging interval
+         */
+        public Duration getAgingInterval() {
+            return agingInterval;
+        }
+
+        public void setAgingInterval(Duration agingInterval) {
+            this.agingInterval = agingInterval;
+        }
+
+        /**
+         * The priority of addresses without a configured priority.
+         *
+         * @return the default priority
+         */
+        public int getDefaultPriority() {
+            return defaultPriority;
+        }
+
+        public void setDefaultPriority(int defaultPriority) {
+            this.defaultPriority = defaultPriority;
+        }
+
+        /**
+         * The priorities by version or context address, higher values are served first.  Addresses contain slashes,
+         * so they are bound with brackets, for example {@code priorities[/v1/payments]=10}.
+         *
+         * @return the priorities by address
+         */
+        public Map<String, Integer> getPriorities() {
+            return priorities;
+        }
+
+        public void setPriorities(Map<String, Integer> priorities) {
+            this.priorities = priorities;
+        }
+    }
 }
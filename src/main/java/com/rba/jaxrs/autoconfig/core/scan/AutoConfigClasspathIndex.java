@@ -0,0 +1,435 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.scan;
+
+import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A single classpath scan shared by the auto configuration pipeline.  The transformer needs the {@link ApiVersion} and
+ * {@link ApiContext} enums and the scanner needs the {@link RestApiEndpoint} classes, both are answered from the same
+ * scan instead of walking the classpath once for each.
+ * <p>
+ * The scan is run on first use and only the names of the discovered classes are kept.  The index should be closed once
+ * the endpoints have been initialized to release the scan data.  A query after closing scans again.
+ * <p>
+ * When a cache file is configured the discovered class names are written to it together with a fingerprint of the
+ * classpath, the size and modification time of every jar and the directory times and file totals of every directory.
+ * A later start with the same fingerprint reads the names from the file and skips the scan.  Any mismatch scans again
+ * and rewrites the file atomically.  The whitelist and blacklist are applied to the cached names so they are not part
+ * of the fingerprint.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class AutoConfigClasspathIndex implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AutoConfigClasspathIndex.class);
+
+    static final String FINGERPRINT_KEY = "fingerprint";
+    static final String API_CONTEXTS_KEY = "apiContextEnumerations";
+    static final String API_VERSIONS_KEY = "apiVersionEnumerations";
+    static final String ENDPOINTS_KEY = "restApiEndpoints";
+
+    private final Path cacheFile;
+
+    private Properties scanData;
+    private int scanCount;
+    private int cacheHitCount;
+
+    public AutoConfigClasspathIndex() {
+        this(null);
+    }
+
+    /**
+     * Creates an index backed by a scan cache file.
+     *
+     * @param cacheFile the cache file, null to always scan
+     */
+    public AutoConfigClasspathIndex(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Finds all {@link Enum} classes implementing {@link ApiContext}.
+     *
+     * @return the context enumerations
+     */
+    public synchronized List<Class<? extends ApiContext>> getApiContextEnumerations() {
+        return loadEnumerations(API_CONTEXTS_KEY, ApiContext.class);
+    }
+
+    /**
+     * Finds all {@link Enum} classes implementing {@link ApiVersion}.
+     *
+     * @return the version enumerations
+     */
+    public synchronized List<Class<? extends ApiVersion>> getApiVersionEnumerations() {
+        return loadEnumerations(API_VERSIONS_KEY, ApiVersion.class);
+    }
+
+    /**
+     * Finds all classes annotated with {@link RestApiEndpoint} or {@link RestApiEndpoint.RestApiEndpoints}.  The
+     * whitelist and blacklist honor the same package semantics as the {@link JaxRsAutoConfigScanner}.
+     *
+     * @param optionalScanPackages packages to restrict the results to, null or empty for all packages
+     * @param scanPackageBlackList packages to exclude from the results
+     * @return the annotated classes, each class is only listed once
+     */
+    public synchronized List<Class<?>> getRestApiEndpointClasses(List<String> optionalScanPackages,
+        String... scanPackageBlackList) {
+        Set<Class<?>> endpointClasses = new LinkedHashSet<>();
+        for (String className : getClassNames(ENDPOINTS_KEY)) {
+            String packageName = getPackageName(className);
+            if ((optionalScanPackages == null || optionalScanPackages.isEmpty()
+                || isInPackages(packageName, optionalScanPackages))
+                && !isInPackages(packageName, Arrays.asList(scanPackageBlackList))) {
+                endpointClasses.add(loadClass(className));
+            }
+        }
+        return new ArrayList<>(endpointClasses);
+    }
+
+    /**
+     * The number of classpath scans this index has performed.
+     *
+     * @return the scan count
+     */
+    public synchronized int getScanCount() {
+        return scanCount;
+    }
+
+    /**
+     * The number of times the scan data was read from the cache file instead of scanning.
+     *
+     * @return the cache hit count
+     */
+    public synchronized int getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /**
+     * Releases the scan data.  The index remains usable and will scan again, or read the cache file, if queried.
+     */
+    @Override
+    public synchronized void close() {
+        scanData = null;
+    }
+
+    private List<String> getClassNames(String key) {
+        if (scanData == null) {
+            scanData = cacheFile != null ? readCache() : null;
+            if (scanData != null) {
+                cacheHitCount++;
+            } else {
+                scanData = scan();
+                if (cacheFile != null) {
+                    writeCache(scanData);
+                }
+            }
+        }
+        String classNames = scanData.getProperty(key, "");
+        return classNames.isEmpty() ? Collections.emptyList() : Arrays.asList(classNames.split(","));
+    }
+
+    private Properties scan() {
+        if (scanCount > 0) {
+            LOGGER.debug("Classpath index queried after it was closed, scanning the classpath again");
+        }
+        Properties scannedData = new Properties();
+        try (ScanResult scanResult = new ClassGraph().enableClassInfo().enableAnnotationInfo().ignoreClassVisibility()
+            .scan()) {
+            scanCount++;
+            scannedData.setProperty(API_CONTEXTS_KEY, joinNames(scanResult.getClassesImplementing(ApiContext.class.getName())
+                .getEnums().getNames()));
+            scannedData.setProperty(API_VERSIONS_KEY, joinNames(scanResult.getClassesImplementing(ApiVersion.class.getName())
+                .getEnums().getNames()));
+            Set<String> endpointClassNames = new LinkedHashSet<>();
+            addAnnotatedClassNames(scanResult, endpointClassNames, RestApiEndpoint.class.getName());
+            addAnnotatedClassNames(scanResult, endpointClassNames, RestApiEndpoint.RestApiEndpoints.class.getName());
+            scannedData.setProperty(ENDPOINTS_KEY, joinNames(endpointClassNames));
+        }
+        return scannedData;
+    }
+
+    private static void addAnnotatedClassNames(ScanResult scanResult, Set<String> endpointClassNames,
+        String annotationClass) {
+        try {
+            for (ClassInfo classData : scanResult.getClassesWithAnnotation(annotationClass)) {
+                endpointClassNames.add(classData.getName());
+            }
+        } catch (IllegalArgumentException iae) {
+            //ClassGraph throws when an annotation was never seen during the scan, such as the container annotation when no
+            // class repeats RestApiEndpoint.  That simply means there is nothing to add.
+            LOGGER.debug("No classes discovered for annotation: " + annotationClass, iae);
+        }
+    }
+
+    private static String joinNames(Iterable<String> classNames) {
+        return String.join(",", classNames);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<Class<? extends T>> loadEnumerations(String key, Class<T> interfaceClass) {
+        List<Class<? extends T>> enumerations = new ArrayList<>();
+        for (String className : getClassNames(key)) {
+            //Only enums implementing the interface were recorded by the scan
+            enumerations.add((Class<? extends T>) loadClass(className));
+        }
+        return Collections.unmodifiableList(enumerations);
+    }
+
+    private static ClassLoader getClassLoader() {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return contextClassLoader != null ? contextClassLoader : AutoConfigClasspathIndex.class.getClassLoader();
+    }
+
+    private static Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalArgumentException("Unable to load scanned class " + className, e);
+        }
+    }
+
+    private Properties readCache() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        Properties cachedData = new Properties();
+        try (InputStream cacheStream = Files.newInputStream(cacheFile)) {
+            cachedData.load(cacheStream);
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Unable to read the classpath scan cache " + cacheFile + ", scanning the classpath", e);
+            return null;
+        }
+        String fingerprint = createClasspathFingerprint(cacheFile);
+        if (!fingerprint.equals(cachedData.getProperty(FINGERPRINT_KEY))) {
+            LOGGER.info("The classpath changed since the scan cache " + cacheFile + " was written, scanning the classpath");
+            return null;
+        }
+        //A matching fingerprint with a missing class means the cache does not describe this classpath after all
+        for (String key : Arrays.asList(API_CONTEXTS_KEY, API_VERSIONS_KEY, ENDPOINTS_KEY)) {
+            for (String className : cachedData.getProperty(key, "").split(",")) {
+                if (!className.isEmpty() && getClassLoader().getResource(className.replace('.', '/') + ".class") == null) {
+                    LOGGER.info("Class " + className + " from the scan cache " + cacheFile + " was not found, scanning the "
+                        + "classpath");
+                    return null;
+                }
+            }
+        }
+        return cachedData;
+    }
+
+    private void writeCache(Properties scannedData) {
+        Properties cachedData = new Properties();
+        cachedData.putAll(scannedData);
+        cachedData.setProperty(FINGERPRINT_KEY, createClasspathFingerprint(cacheFile));
+        Path cacheDirectory = cacheFile.toAbsolutePath().getParent();
+        Path tempFile = null;
+        try {
+            Files.createDirectories(cacheDirectory);
+            //Write next to the cache file and move it into place so readers never see a partial file
+            tempFile = Files.createTempFile(cacheDirectory, cacheFile.getFileName().toString(), ".tmp");
+            try (OutputStream cacheStream = Files.newOutputStream(tempFile)) {
+                cachedData.store(cacheStream, "jaxrs-autoconfig classpath scan cache");
+            }
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException amnse) {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ioe) {
+            LOGGER.warn("Unable to write the classpath scan cache " + cacheFile, ioe);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException cleanupFailure) {
+                    LOGGER.debug("Unable to delete " + tempFile, cleanupFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a fingerprint of the classpath from the path, size and modification time of every jar.  A directory is
+     * fingerprinted from the modification times of its sub directories, which change when a file is added, removed or
+     * renamed, and the count, total size and newest modification time of its files, which change when a file is
+     * rewritten in place.  The files are not sorted or hashed one by one, so this costs a single pass over the directory
+     * metadata.
+     *
+     * @param excludedFile the scan cache file, it and its temporary files are left out since writing them must not
+     *                     change the fingerprint, null to fingerprint every file
+     * @return the hex encoded fingerprint
+     */
+    static String createClasspathFingerprint(Path excludedFile) {
+        return createClasspathFingerprint(new ClassGraph().getClasspathFiles(), excludedFile);
+    }
+
+    static String createClasspathFingerprint(List<File> classpathFiles, Path excludedFile) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Path excluded = excludedFile == null ? null : excludedFile.toAbsolutePath().normalize();
+            for (File classpathFile : classpathFiles) {
+                updateFingerprint(digest, classpathFile.toPath(), excluded);
+            }
+            StringBuilder fingerprint = new StringBuilder();
+            for (byte hashByte : digest.digest()) {
+                fingerprint.append(String.format("%02x", hashByte));
+            }
+            return fingerprint.toString();
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException("SHA-256 is not available", nsae);
+        }
+    }
+
+    private static void updateFingerprint(MessageDigest digest, Path classpathEntry, Path excludedFile) {
+        Path entry = classpathEntry;
+        //Nested jars are reported as outer.jar!/nested.jar, the outer jar changes whenever a nested one does
+        String entryName = entry.toString();
+        if (!Files.exists(entry) && entryName.contains("!")) {
+            entry = entry.getFileSystem().getPath(entryName.substring(0, entryName.indexOf('!')));
+        }
+        if (Files.isDirectory(entry)) {
+            DirectoryFingerprintVisitor visitor = new DirectoryFingerprintVisitor(entry, excludedFile);
+            try {
+                Files.walkFileTree(entry, visitor);
+                digest.update(visitor.toFingerprintLine().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Unable to walk classpath directory " + entry, e);
+                digest.update(entryName.getBytes(StandardCharsets.UTF_8));
+            }
+        } else {
+            File file = entry.toFile();
+            digest.update((classpathEntry + "|" + file.length() + "|" + file.lastModified() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Collects the directory modification times and file totals of a classpath directory.
+     */
+    private static final class DirectoryFingerprintVisitor extends SimpleFileVisitor<Path> {
+
+        private final Path root;
+        private final Path excludedDirectory;
+        private final String excludedName;
+        private final Map<String, Long> directoryTimes = new TreeMap<>();
+        private long fileCount;
+        private long totalSize;
+        private long newestFileTime;
+
+        DirectoryFingerprintVisitor(Path root, Path excludedFile) {
+            this.root = root;
+            this.excludedDirectory = excludedFile == null ? null : excludedFile.getParent();
+            this.excludedName = excludedFile == null ? null : excludedFile.getFileName().toString();
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+            //Writing the cache file changes the time of its directory, the file totals still cover that directory
+            if (!isExcludedDirectory(directory)) {
+                directoryTimes.put(root.relativize(directory).toString(), attributes.lastModifiedTime().toMillis());
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+            if (attributes.isRegularFile() && !(isExcludedDirectory(file.getParent())
+                && file.getFileName().toString().startsWith(excludedName))) {
+                fileCount++;
+                totalSize += attributes.size();
+                newestFileTime = Math.max(newestFileTime, attributes.lastModifiedTime().toMillis());
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException ioe) {
+            LOGGER.debug("Unable to read classpath file " + file, ioe);
+            return FileVisitResult.CONTINUE;
+        }
+
+        private boolean isExcludedDirectory(Path directory) {
+            return excludedDirectory != null && directory != null
+                && excludedDirectory.equals(directory.toAbsolutePath().normalize());
+        }
+
+        String toFingerprintLine() {
+            return root + "|" + fileCount + "|" + totalSize + "|" + newestFileTime + "|" + directoryTimes + "\n";
+        }
+    }
+
+    /**
+     * Finds the package portion of a fully qualified class name.
+     *
+     * @param className the fully qualified class name
+     * @return the package name, empty for the default package
+     */
+    static String getPackageName(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot < 0 ? "" : className.substring(0, lastDot);
+    }
+
+    /**
+     * Matches a package against package names the same way ClassGraph whitelists and blacklists, the package itself and
+     * all of its sub packages match.
+     *
+     * @param packageName the package to check
+     * @param packages the package names to check against
+     * @return true if the package is one of the packages or a sub package of one
+     */
+    static boolean isInPackages(String packageName, Iterable<String> packages) {
+        for (String scanPackage : packages) {
+            if (packageName.equals(scanPackage) || packageName.startsWith(scanPackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
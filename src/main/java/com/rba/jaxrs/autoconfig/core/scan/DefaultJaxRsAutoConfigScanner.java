@@ -18,6 +18,11 @@ package com.rba.jaxrs.autoconfig.core.scan;
 
 
 import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+import com.rba.jaxrs.autoconfig.core.index.RestApiEndpointIndex;
+import com.rba.jaxrs.autoconfig.core.index.RestApiEndpointIndexEntry;
+import com.rba.jaxrs.autoconfig.core.properties.AutoConfigProperties;
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport;
+import com.rba.jaxrs.autoconfig.core.transform.CachingRestApiContextTransformer;
 import com.rba.jaxrs.autoconfig.core.transform.DefaultRestApiEndpointTransformer;
 import com.rba.jaxrs.autoconfig.core.transform.EndpointContextContainer;
 import com.rba.jaxrs.autoconfig.core.transform.RestApiContextTransformer;
@@ -42,6 +47,9 @@ import java.util.Map;
  * {@link RestApiEndpoint} annotations whether they are on spring beans or not.  This class honors all the documentation
  * of {@link JaxRsAutoConfigScanner} in that it will honor the whitelist and blacklist.  It properly handles the usage of
  * multiple annotations being present to host a class on multiple endpoints.
+ * <p>
+ * When {@link AutoConfigProperties#isUseEndpointIndex()} is set the data is built from the {@link RestApiEndpointIndex}
+ * generated at compile time and the classpath is only scanned when no index is present.
  *
  * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
  * @since 11 /20/2018
@@ -52,9 +60,67 @@ public class DefaultJaxRsAutoConfigScanner implements JaxRsAutoConfigScanner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultJaxRsAutoConfigScanner.class);
 
-    //Autowiring not required as it should use the assigned default provided by the auto configuration system
+    //Autowiring not required, when no transformer is wired the shared default is used on first access
     @Autowired(required = false)
-    private RestApiContextTransformer contextTransformer = new DefaultRestApiEndpointTransformer();
+    private RestApiContextTransformer contextTransformer;
+
+    @Autowired(required = false)
+    private AutoConfigProperties autoConfigProperties;
+
+    //When the shared index is available the annotated classes are taken from its scan instead of a dedicated scan
+    @Autowired(required = false)
+    private AutoConfigClasspathIndex classpathIndex;
+
+    @Autowired(required = false)
+    private AutoConfigStartupReport startupReport;
+
+    /**
+     * Sets the properties used to select between the endpoint index and classpath scanning.
+     *
+     * @param autoConfigProperties the auto config properties
+     */
+    public void setAutoConfigProperties(AutoConfigProperties autoConfigProperties) {
+        this.autoConfigProperties = autoConfigProperties;
+    }
+
+    /**
+     * Sets the transformer used to resolve the annotations into contexts.
+     *
+     * @param contextTransformer the context transformer
+     */
+    public void setContextTransformer(RestApiContextTransformer contextTransformer) {
+        this.contextTransformer = contextTransformer;
+    }
+
+    /**
+     * The transformer used to resolve the annotations, the shared default is used when none was provided.
+     *
+     * @return the context transformer
+     */
+    public RestApiContextTransformer getContextTransformer() {
+        if (contextTransformer == null) {
+            contextTransformer = DefaultRestApiEndpointTransformer.getSharedInstance();
+        }
+        return contextTransformer;
+    }
+
+    /**
+     * Sets the shared classpath index used to find the annotated classes.
+     *
+     * @param classpathIndex the classpath index
+     */
+    public void setClasspathIndex(AutoConfigClasspathIndex classpathIndex) {
+        this.classpathIndex = classpathIndex;
+    }
+
+    /**
+     * Sets the report receiving the endpoint scan timing.
+     *
+     * @param startupReport the startup report
+     */
+    public void setStartupReport(AutoConfigStartupReport startupReport) {
+        this.startupReport = startupReport;
+    }
 
     @Override
     public Map<EndpointContextContainer, List<Class<?>>> getAutoConfigurationData(String... optionalScanPackages) {
@@ -64,6 +130,34 @@ public class DefaultJaxRsAutoConfigScanner implements JaxRsAutoConfigScanner {
     @Override
     public Map<EndpointContextContainer, List<Class<?>>> getAutoConfigurationData(List<String> optionalScanPackages,
         String... scanPackageBlackList) {
+        long startNanos = System.nanoTime();
+        try {
+            return findAutoConfigurationData(optionalScanPackages, scanPackageBlackList);
+        } finally {
+            if (startupReport != null) {
+                startupReport.recordSince(AutoConfigStartupReport.Phase.ENDPOINT_SCAN, null, startNanos);
+            }
+        }
+    }
+
+    private Map<EndpointContextContainer, List<Class<?>>> findAutoConfigurationData(List<String> optionalScanPackages,
+        String... scanPackageBlackList) {
+        if (autoConfigProperties != null && autoConfigProperties.isUseEndpointIndex()) {
+            RestApiEndpointIndex endpointIndex = RestApiEndpointIndex.load(getClassLoader());
+            if (endpointIndex.isPresent()) {
+                return processEndpointIndex(endpointIndex, optionalScanPackages, scanPackageBlackList);
+            }
+            LOGGER.info("No rest api endpoint index found at " + RestApiEndpointIndex.INDEX_LOCATION
+                + ", falling back to classpath scanning");
+        }
+        if (classpathIndex != null) {
+            Map<EndpointContextContainer, List<Class<?>>> indexResults = new HashMap<>();
+            for (Class<?> endpointClass : classpathIndex.getRestApiEndpointClasses(optionalScanPackages,
+                scanPackageBlackList)) {
+                addEndpointClass(indexResults, endpointClass);
+            }
+            return indexResults;
+        }
         Map<EndpointContextContainer, List<Class<?>>> scannedResults = new HashMap<>();
         ClassGraph endpointGraph = new ClassGraph().enableAllInfo();
         if (optionalScanPackages != null && !optionalScanPackages.isEmpty()) {
@@ -79,6 +173,93 @@ public class DefaultJaxRsAutoConfigScanner implements JaxRsAutoConfigScanner {
         return scannedResults;
     }
 
+    /**
+     * Resolves every {@link RestApiEndpoint} on the class and adds the class to the data map under each context.
+     *
+     * @param scannedResults The Map which is not null that data will be populated into
+     * @param endpointClass The annotated class
+     */
+    private void addEndpointClass(Map<EndpointContextContainer, List<Class<?>>> scannedResults, Class<?> endpointClass) {
+        for (RestApiEndpoint apiEndpoint : endpointClass.getAnnotationsByType(RestApiEndpoint.class)) {
+            EndpointContextContainer contextContainer = getContextTransformer().getEndpointContext(apiEndpoint);
+            List<Class<?>> apiClasses = scannedResults.get(contextContainer);
+            if (apiClasses == null) {
+                apiClasses = new ArrayList<>();
+                scannedResults.put(contextContainer, apiClasses);
+            }
+            apiClasses.add(endpointClass);
+        }
+    }
+
+    /**
+     * Builds the data map from the compile time index without touching ClassGraph.  The whitelist and blacklist are applied
+     * as package prefixes the same way ClassGraph applies them.
+     *
+     * @param endpointIndex The loaded index which must be present
+     * @param optionalScanPackages The packages to restrict results to, empty or null means all packages
+     * @param scanPackageBlackList The packages to exclude from results
+     * @return the populated data map
+     */
+    private Map<EndpointContextContainer, List<Class<?>>> processEndpointIndex(RestApiEndpointIndex endpointIndex,
+        List<String> optionalScanPackages, String... scanPackageBlackList) {
+        Map<EndpointContextContainer, List<Class<?>>> indexedResults = new HashMap<>();
+        DefaultRestApiEndpointTransformer enumResolver = findEnumResolver(contextTransformer, endpointIndex);
+        if (contextTransformer == null) {
+            //Keeps the fallback to the shared default from scanning the classpath for the enums
+            contextTransformer = enumResolver;
+        }
+        RestApiContextTransformer pathTransformer = contextTransformer;
+        ClassLoader classLoader = getClassLoader();
+        for (RestApiEndpointIndexEntry indexEntry : endpointIndex.getEntries()) {
+            String packageName = AutoConfigClasspathIndex.getPackageName(indexEntry.getClassName());
+            if ((optionalScanPackages != null && !optionalScanPackages.isEmpty()
+                && !AutoConfigClasspathIndex.isInPackages(packageName, optionalScanPackages))
+                || AutoConfigClasspathIndex.isInPackages(packageName, Arrays.asList(scanPackageBlackList))) {
+                continue;
+            }
+            Class<?> endpointClass;
+            try {
+                endpointClass = Class.forName(indexEntry.getClassName(), false, classLoader);
+            } catch (ClassNotFoundException cnfe) {
+                throw new IllegalStateException("Class " + indexEntry.getClassName() + " listed in "
+                    + RestApiEndpointIndex.INDEX_LOCATION + " could not be loaded", cnfe);
+            }
+            EndpointContextContainer contextContainer = enumResolver.getEndpointContext(pathTransformer,
+                indexEntry.getApiVersionEnumName(), indexEntry.getApiContextEnumNames());
+            indexedResults.computeIfAbsent(contextContainer, key -> new ArrayList<>()).add(endpointClass);
+        }
+        return indexedResults;
+    }
+
+    /**
+     * Finds the transformer resolving the enum names of the index.  The names are resolved against the enums of the
+     * default transformer while the configured transformer builds the path, so a transformer that only implements the
+     * interface still sees every index entry through its own
+     * {@link RestApiContextTransformer#resolveApiPath(com.rba.jaxrs.autoconfig.core.version.ApiVersion,
+     * com.rba.jaxrs.autoconfig.core.classify.ApiContext...)}.
+     *
+     * @param pathTransformer the configured transformer, may be null
+     * @param endpointIndex the loaded endpoint index
+     * @return the default transformer wrapped by or equal to the configured one, otherwise one built from the enums in
+     *         the enumeration index
+     */
+    private DefaultRestApiEndpointTransformer findEnumResolver(RestApiContextTransformer pathTransformer,
+        RestApiEndpointIndex endpointIndex) {
+        RestApiContextTransformer transformer = pathTransformer;
+        if (transformer instanceof CachingRestApiContextTransformer) {
+            transformer = ((CachingRestApiContextTransformer) transformer).getDelegate();
+        }
+        if (transformer instanceof DefaultRestApiEndpointTransformer) {
+            return (DefaultRestApiEndpointTransformer) transformer;
+        }
+        return new DefaultRestApiEndpointTransformer(endpointIndex, startupReport);
+    }
+
+    private static ClassLoader getClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader == null ? DefaultJaxRsAutoConfigScanner.class.getClassLoader() : classLoader;
+    }
+
     /**
      * This private method allows re-use of the scanResult and proper population of the data map.  The ClassGraph code
      * does not handle recognition of annotations the same as the jre.  Multiple annotations on the same class does not
@@ -95,16 +276,7 @@ public class DefaultJaxRsAutoConfigScanner implements JaxRsAutoConfigScanner {
         try {
             ClassInfoList restApiClasses = scanResult.getClassesWithAnnotation(annotationClass);
             for (ClassInfo classData : restApiClasses) {
-                RestApiEndpoint[] apiEndpoints = classData.loadClass().getAnnotationsByType(RestApiEndpoint.class);
-                for (RestApiEndpoint apiEndpoint : apiEndpoints) {
-                    EndpointContextContainer contextContainer = contextTransformer.getEndpointContext(apiEndpoint);
-                    List<Class<?>> apiClasses = scannedResults.get(contextContainer);
-                    if (apiClasses == null) {
-                        apiClasses = new ArrayList<>();
-                        scannedResults.put(contextContainer, apiClasses);
-                    }
-                    apiClasses.add(classData.loadClass());
-                }
+                addEndpointClass(scannedResults, classData.loadClass());
             }
         } catch (IllegalArgumentException iae) {
             //The way ClassGraph processing works there are scenarios where the annotations will not be properly found and
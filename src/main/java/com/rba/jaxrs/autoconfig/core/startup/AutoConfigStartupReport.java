@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.startup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects how long each phase of the auto configuration pipeline took during startup.  Phases are recorded as a total
+ * and, for the phases that run once per endpoint group, per group address.  Recording is synchronized so groups that
+ * are initialized in parallel or activated lazily report into the same instance.
+ * <p>
+ * Listeners are told about every recorded timing, which is how the timings are published as metrics.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class AutoConfigStartupReport {
+
+    /**
+     * The timed phases of the auto configuration pipeline.
+     */
+    public enum Phase {
+        /**
+         * Discovery and indexing of the {@code ApiVersion} and {@code ApiContext} enums by the transformer.
+         */
+        ENUM_SCAN,
+        /**
+         * Discovery of the {@code RestApiEndpoint} classes and their contexts by the scanner.
+         */
+        ENDPOINT_SCAN,
+        /**
+         * Creation of the resource beans of an endpoint group.
+         */
+        BEAN_CREATION,
+        /**
+         * Applying the customizers to the server factory of an endpoint group.
+         */
+        CUSTOMIZATION,
+        /**
+         * Creating and initializing the server of an endpoint group.
+         */
+        SERVER_CREATION
+    }
+
+    /**
+     * Receives every timing recorded by the report.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after a timing was recorded.
+         *
+         * @param phase the phase
+         * @param endpointGroup the endpoint group address, null for phases that are not per group
+         * @param duration the time the phase took
+         */
+        void phaseRecorded(Phase phase, String endpointGroup, Duration duration);
+    }
+
+    private final Map<Phase, Duration> phaseTimings = new EnumMap<>(Phase.class);
+
+    private final Map<String, Map<Phase, Duration>> endpointGroupTimings = new TreeMap<>();
+
+    //Every recording in order so listeners added later see exactly what the earlier listeners saw
+    private final List<Recording> recordings = new ArrayList<>();
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Records a phase timing, repeated timings of the same phase and group are added together.
+     *
+     * @param phase the phase
+     * @param endpointGroup the endpoint group address, null for phases that are not per group
+     * @param duration the time the phase took
+     */
+    public synchronized void record(Phase phase, String endpointGroup, Duration duration) {
+        if (phase == null || duration == null) {
+            throw new IllegalArgumentException("A phase and duration are required to record a startup timing");
+        }
+        phaseTimings.merge(phase, duration, Duration::plus);
+        if (endpointGroup != null) {
+            endpointGroupTimings.computeIfAbsent(endpointGroup, key -> new EnumMap<>(Phase.class))
+                .merge(phase, duration, Duration::plus);
+        }
+        recordings.add(new Recording(phase, endpointGroup, duration));
+        for (Listener listener : listeners) {
+            listener.phaseRecorded(phase, endpointGroup, duration);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     *
+     * @param phase the phase
+     * @param endpointGroup the endpoint group address, null for phases that are not per group
+     * @param startNanos the {@link System#nanoTime()} reading taken when the phase started
+     */
+    public void recordSince(Phase phase, String endpointGroup, long startNanos) {
+        record(phase, endpointGroup, Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Adds a listener.  Timings recorded before the listener was added are replayed to it in the order they were
+     * recorded.
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Listener listener) {
+        for (Recording recording : recordings) {
+            listener.phaseRecorded(recording.phase, recording.endpointGroup, recording.duration);
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * The total time of each recorded phase across all endpoint groups.
+     *
+     * @return the phase timings in phase order
+     */
+    public synchronized Map<Phase, Duration> getPhaseTimings() {
+        return Collections.unmodifiableMap(new EnumMap<>(phaseTimings));
+    }
+
+    /**
+     * The phase timings of each endpoint group.
+     *
+     * @return the timings by endpoint group address in address order
+     */
+    public synchronized Map<String, Map<Phase, Duration>> getEndpointGroupTimings() {
+        Map<String, Map<Phase, Duration>> timings = new TreeMap<>();
+        for (Map.Entry<String, Map<Phase, Duration>> groupEntry : endpointGroupTimings.entrySet()) {
+            timings.put(groupEntry.getKey(), Collections.unmodifiableMap(new EnumMap<>(groupEntry.getValue())));
+        }
+        return Collections.unmodifiableMap(timings);
+    }
+
+    /**
+     * The sum of all recorded phases.  Groups initialized in parallel overlap so this can exceed the wall clock time.
+     *
+     * @return the total recorded time
+     */
+    public synchronized Duration getTotal() {
+        return phaseTimings.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("Auto configuration startup report, total ")
+            .append(getTotal().toMillis()).append(" ms");
+        for (Map.Entry<Phase, Duration> phaseEntry : getPhaseTimings().entrySet()) {
+            report.append(System.lineSeparator()).append("  ").append(phaseEntry.getKey()).append(' ')
+                .append(phaseEntry.getValue().toMillis()).append(" ms");
+        }
+        for (Map.Entry<String, Map<Phase, Duration>> groupEntry : getEndpointGroupTimings().entrySet()) {
+            report.append(System.lineSeparator()).append("  ").append(groupEntry.getKey());
+            for (Map.Entry<Phase, Duration> phaseEntry : groupEntry.getValue().entrySet()) {
+                report.append(' ').append(phaseEntry.getKey()).append('=').append(phaseEntry.getValue().toMillis())
+                    .append("ms");
+            }
+        }
+        return report.toString();
+    }
+
+    private static final class Recording {
+        private final Phase phase;
+        private final String endpointGroup;
+        private final Duration duration;
+
+        private Recording(Phase phase, String endpointGroup, Duration duration) {
+            this.phase = phase;
+            this.endpointGroup = endpointGroup;
+            this.duration = duration;
+        }
+    }
+}
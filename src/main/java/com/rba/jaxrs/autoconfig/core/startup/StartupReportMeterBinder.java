@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Locale;
+
+/**
+ * Publishes the {@link AutoConfigStartupReport} timings as Micrometer timers.  Every phase is recorded to the
+ * {@value #PHASE_TIMER} timer tagged with the phase, phases of an endpoint group are also recorded to the
+ * {@value #ENDPOINT_GROUP_TIMER} timer tagged with the phase and the group address.  Timings recorded before the
+ * registry was bound are replayed.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class StartupReportMeterBinder implements MeterBinder {
+
+    public static final String PHASE_TIMER = "jaxrs.autoconfig.startup.phase";
+
+    public static final String ENDPOINT_GROUP_TIMER = "jaxrs.autoconfig.startup.endpoint.group";
+
+    private final AutoConfigStartupReport startupReport;
+
+    public StartupReportMeterBinder(AutoConfigStartupReport startupReport) {
+        if (startupReport == null) {
+            throw new IllegalArgumentException("A startup report is required to publish startup timings");
+        }
+        this.startupReport = startupReport;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        startupReport.addListener((phase, endpointGroup, duration) -> {
+            Tags phaseTags = Tags.of("phase", phase.name().toLowerCase(Locale.ROOT));
+            Timer.builder(PHASE_TIMER).description("Time spent in an auto configuration startup phase")
+                .tags(phaseTags).register(registry).record(duration);
+            if (endpointGroup != null) {
+                Timer.builder(ENDPOINT_GROUP_TIMER).description("Time spent in a startup phase of an endpoint group")
+                    .tags(phaseTags.and("endpoint.group", endpointGroup)).register(registry).record(duration);
+            }
+        });
+    }
+}
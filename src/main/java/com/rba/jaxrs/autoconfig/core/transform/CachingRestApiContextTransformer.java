@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.transform;
+
+import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A transformer decorator that memoizes {@link #resolveApiPath(ApiVersion, ApiContext...)} by the version and context
+ * tuple.  Every {@link EndpointContextContainer} handed out is interned, equal containers are always the same instance
+ * so the scanner results and the customizers share one canonical container per address.
+ * <p>
+ * The enabled flag of a container is captured the first time a tuple is resolved, {@link ApiVersion} and
+ * {@link ApiContext} implementations are expected to report a fixed enabled state as they do when backed by enums.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class CachingRestApiContextTransformer implements RestApiContextTransformer {
+
+    private final RestApiContextTransformer delegate;
+    private final ConcurrentMap<ApiPathKey, EndpointContextContainer> resolvedPaths = new ConcurrentHashMap<>();
+    private final ConcurrentMap<EndpointContextContainer, EndpointContextContainer> internedContainers =
+        new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Instantiates a caching transformer.
+     *
+     * @param delegate the transformer performing the actual resolution
+     */
+    public CachingRestApiContextTransformer(RestApiContextTransformer delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("A delegate transformer is required for caching");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public EndpointContextContainer getEndpointContext(RestApiEndpoint endpointAnnotation) {
+        return intern(delegate.getEndpointContext(endpointAnnotation));
+    }
+
+    @Override
+    public EndpointContextContainer resolveApiPath(ApiVersion apiVersion, ApiContext... apiContexts) {
+        ApiPathKey pathKey = new ApiPathKey(apiVersion, apiContexts);
+        EndpointContextContainer contextContainer = resolvedPaths.get(pathKey);
+        if (contextContainer != null) {
+            hitCount.increment();
+            return contextContainer;
+        }
+        missCount.increment();
+        //The key keeps its own copy of the contexts so the caller can not change a cached key
+        return resolvedPaths.computeIfAbsent(pathKey.copy(),
+            key -> intern(delegate.resolveApiPath(apiVersion, apiContexts)));
+    }
+
+    /**
+     * The transformer performing the actual resolution.
+     *
+     * @return the delegate transformer
+     */
+    public RestApiContextTransformer getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * The number of {@link #resolveApiPath(ApiVersion, ApiContext...)} calls answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * The number of {@link #resolveApiPath(ApiVersion, ApiContext...)} calls that had to be resolved by the delegate.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private EndpointContextContainer intern(EndpointContextContainer contextContainer) {
+        EndpointContextContainer internedContainer = internedContainers.putIfAbsent(contextContainer, contextContainer);
+        return internedContainer == null ? contextContainer : internedContainer;
+    }
+
+    /**
+     * The cache key for a version and context tuple with the hash computed once.
+     */
+    private static final class ApiPathKey {
+        private final ApiVersion apiVersion;
+        private final ApiContext[] apiContexts;
+        private final int hash;
+
+        private ApiPathKey(ApiVersion apiVersion, ApiContext[] apiContexts) {
+            this.apiVersion = apiVersion;
+            this.apiContexts = apiContexts == null ? new ApiContext[]{} : apiContexts;
+            this.hash = 31 * Objects.hashCode(apiVersion) + Arrays.hashCode(this.apiContexts);
+        }
+
+        private ApiPathKey copy() {
+            return new ApiPathKey(apiVersion, apiContexts.clone());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ApiPathKey that = (ApiPathKey) o;
+            return hash == that.hash && Objects.equals(apiVersion, that.apiVersion)
+                && Arrays.equals(apiContexts, that.apiContexts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -19,16 +19,20 @@ package com.rba.jaxrs.autoconfig.core.transform;
 import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
 import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
 import com.rba.jaxrs.autoconfig.core.exceptions.ContextResolverException;
+import com.rba.jaxrs.autoconfig.core.index.RestApiEndpointIndex;
+import com.rba.jaxrs.autoconfig.core.scan.AutoConfigClasspathIndex;
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport;
 import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
 
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.ClassInfoList;
-import io.github.classgraph.ScanResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * A default transformer that will create a context in the form of /apiversion/context1/context2
@@ -41,51 +45,246 @@ import java.util.Set;
  * @since 0.1.0
  */
 public class DefaultRestApiEndpointTransformer implements RestApiContextTransformer {
-    private final Set<Class<? extends ApiContext>> contextEnumerations = new HashSet<>();
-    private final Set<Class<? extends ApiVersion>> versionEnumerations = new HashSet<>();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultRestApiEndpointTransformer.class);
+
+    //Created on first use only, see getSharedInstance
+    private static volatile DefaultRestApiEndpointTransformer sharedInstance;
+
+    //Enum constant name to constant, built once so a lookup never has to try each enum class in turn
+    private Map<String, ApiContext> apiContextsByName;
+    private Map<String, ApiVersion> apiVersionsByName;
+    //Names defined by more than one enum mapped to the defining enum classes
+    private Map<String, List<String>> ambiguousApiContextNames;
+    private Map<String, List<String>> ambiguousApiVersionNames;
 
     /**
      * Instantiates a Default transformer.  During initialization it will find {@link ApiVersion} and {@link ApiContext}
      * implementations that are {@link Enum} classes and track those for the transform process.
      */
     public DefaultRestApiEndpointTransformer() {
-        try(ScanResult scanResult = new ClassGraph().enableAllInfo().scan()) {
-            ClassInfoList contextClasses = scanResult.getClassesImplementing(ApiContext.class.getName());
-            for (Class<?> contextClass : contextClasses.getEnums().loadClasses()) {
-                //Don't need to check for enum class since we asked classGraph for enums
-                contextEnumerations.add((Class<? extends ApiContext>)contextClass);
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex()) {
+            discoverEnumerations(classpathIndex);
+        }
+    }
+
+    /**
+     * Instantiates a Default transformer that discovers the {@link ApiVersion} and {@link ApiContext} enums from a shared
+     * classpath index rather than scanning the classpath itself.
+     *
+     * @param classpathIndex the shared classpath index
+     */
+    public DefaultRestApiEndpointTransformer(AutoConfigClasspathIndex classpathIndex) {
+        this(classpathIndex, null);
+    }
+
+    /**
+     * Instantiates a Default transformer from a shared classpath index and records the time spent discovering the enums
+     * as the {@link AutoConfigStartupReport.Phase#ENUM_SCAN} phase.
+     *
+     * @param classpathIndex the shared classpath index
+     * @param startupReport the report receiving the enum scan timing, may be null
+     */
+    public DefaultRestApiEndpointTransformer(AutoConfigClasspathIndex classpathIndex,
+        AutoConfigStartupReport startupReport) {
+        long startNanos = System.nanoTime();
+        discoverEnumerations(classpathIndex);
+        if (startupReport != null) {
+            startupReport.recordSince(AutoConfigStartupReport.Phase.ENUM_SCAN, null, startNanos);
+        }
+    }
+
+    /**
+     * Instantiates a Default transformer from the enums listed in the enumeration index of the compile time endpoint
+     * index, without scanning the classpath.  The time spent loading the enums is recorded as the
+     * {@link AutoConfigStartupReport.Phase#ENUM_SCAN} phase.
+     *
+     * @param endpointIndex the loaded endpoint index
+     * @param startupReport the report receiving the enum loading timing, may be null
+     * @throws IllegalStateException if an indexed class can not be loaded or is not an enum of the expected type
+     */
+    public DefaultRestApiEndpointTransformer(RestApiEndpointIndex endpointIndex, AutoConfigStartupReport startupReport) {
+        long startNanos = System.nanoTime();
+        discoverEnumerations(loadIndexedEnumerations(endpointIndex.getApiContextEnumerations(), ApiContext.class),
+            loadIndexedEnumerations(endpointIndex.getApiVersionEnumerations(), ApiVersion.class));
+        if (startupReport != null) {
+            startupReport.recordSince(AutoConfigStartupReport.Phase.ENUM_SCAN, null, startNanos);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<Class<? extends T>> loadIndexedEnumerations(List<String> classNames, Class<T> interfaceClass) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = DefaultRestApiEndpointTransformer.class.getClassLoader();
+        }
+        List<Class<? extends T>> enumerations = new ArrayList<>();
+        for (String className : classNames) {
+            Class<?> enumClass;
+            try {
+                enumClass = Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException cnfe) {
+                throw new IllegalStateException("Class " + className + " listed in "
+                    + RestApiEndpointIndex.ENUMERATION_INDEX_LOCATION + " could not be loaded", cnfe);
+            }
+            if (!enumClass.isEnum() || !interfaceClass.isAssignableFrom(enumClass)) {
+                throw new IllegalStateException("Class " + className + " listed in "
+                    + RestApiEndpointIndex.ENUMERATION_INDEX_LOCATION + " is not an enum implementing "
+                    + interfaceClass.getName());
+            }
+            enumerations.add((Class<? extends T>) enumClass);
+        }
+        return enumerations;
+    }
+
+    /**
+     * A lazily created transformer shared by components that were not handed a transformer.  Using the shared instance
+     * means the classpath is scanned for the enums at most once no matter how many components fall back to the default.
+     *
+     * @return the shared default transformer
+     */
+    public static DefaultRestApiEndpointTransformer getSharedInstance() {
+        DefaultRestApiEndpointTransformer transformer = sharedInstance;
+        if (transformer == null) {
+            synchronized (DefaultRestApiEndpointTransformer.class) {
+                transformer = sharedInstance;
+                if (transformer == null) {
+                    //A failed scan, such as one interrupted on a startup thread, leaves this null so the next call retries
+                    transformer = new DefaultRestApiEndpointTransformer();
+                    sharedInstance = transformer;
+                }
+            }
+        }
+        return transformer;
+    }
+
+    private void discoverEnumerations(AutoConfigClasspathIndex classpathIndex) {
+        discoverEnumerations(classpathIndex.getApiContextEnumerations(), classpathIndex.getApiVersionEnumerations());
+    }
+
+    private void discoverEnumerations(List<Class<? extends ApiContext>> contextEnumerations,
+        List<Class<? extends ApiVersion>> versionEnumerations) {
+        Map<String, List<String>> ambiguousNames = new TreeMap<>();
+        apiContextsByName = indexEnumerations(contextEnumerations, ambiguousNames);
+        ambiguousApiContextNames = Collections.unmodifiableMap(ambiguousNames);
+        ambiguousNames = new TreeMap<>();
+        apiVersionsByName = indexEnumerations(versionEnumerations, ambiguousNames);
+        ambiguousApiVersionNames = Collections.unmodifiableMap(ambiguousNames);
+        for (Map.Entry<String, List<String>> ambiguousEntry : ambiguousApiContextNames.entrySet()) {
+            LOGGER.warn("Api Context name " + ambiguousEntry.getKey() + " is defined by multiple enums, "
+                + definingClassName(apiContextsByName.get(ambiguousEntry.getKey())) + " was found first and is used: "
+                + String.join(", ", ambiguousEntry.getValue()));
+        }
+        for (Map.Entry<String, List<String>> ambiguousEntry : ambiguousApiVersionNames.entrySet()) {
+            LOGGER.warn("Api Version name " + ambiguousEntry.getKey() + " is defined by multiple enums, "
+                + definingClassName(apiVersionsByName.get(ambiguousEntry.getKey())) + " was found first and is used: "
+                + String.join(", ", ambiguousEntry.getValue()));
+        }
+    }
+
+    private static String definingClassName(Object enumConstant) {
+        return ((Enum<?>) enumConstant).getDeclaringClass().getName();
+    }
+
+    /**
+     * Indexes the constants of the enum classes by name.  A name found in more than one enum resolves to the constant of
+     * the enum discovered first, as the lookup through each enum class in turn did, and is recorded as ambiguous so it
+     * can be reported.
+     *
+     * @param enumClasses the enum classes to index
+     * @param ambiguousNames receives the ambiguous names and the classes defining them
+     * @param <T> the interface implemented by the enums
+     * @return the unmodifiable name to constant index
+     */
+    private static <T> Map<String, T> indexEnumerations(List<Class<? extends T>> enumClasses,
+        Map<String, List<String>> ambiguousNames) {
+        Map<String, T> constantsByName = new HashMap<>();
+        Map<String, List<String>> definingClasses = new HashMap<>();
+        for (Class<? extends T> enumClass : enumClasses) {
+            for (T enumConstant : enumClass.getEnumConstants()) {
+                String name = ((Enum<?>) enumConstant).name();
+                constantsByName.putIfAbsent(name, enumConstant);
+                definingClasses.computeIfAbsent(name, key -> new ArrayList<>()).add(enumClass.getName());
             }
-            ClassInfoList versionClasses = scanResult.getClassesImplementing(ApiVersion.class.getName());
-            for (Class<?> versionClass : versionClasses.getEnums().loadClasses()) {
-                //Don't need to check for enum class since we asked classGraph for enums
-                versionEnumerations.add((Class<? extends ApiVersion>)versionClass);
+        }
+        for (Map.Entry<String, List<String>> definingEntry : definingClasses.entrySet()) {
+            if (definingEntry.getValue().size() > 1) {
+                List<String> classNames = new ArrayList<>(definingEntry.getValue());
+                Collections.sort(classNames);
+                ambiguousNames.put(definingEntry.getKey(), Collections.unmodifiableList(classNames));
             }
         }
+        return Collections.unmodifiableMap(constantsByName);
+    }
+
+    /**
+     * Api Context names that are defined by more than one enum, mapped to the names of the defining enum classes.
+     *
+     * @return the ambiguous api context names
+     */
+    public Map<String, List<String>> getAmbiguousApiContextNames() {
+        return ambiguousApiContextNames;
+    }
+
+    /**
+     * Api Version names that are defined by more than one enum, mapped to the names of the defining enum classes.
+     *
+     * @return the ambiguous api version names
+     */
+    public Map<String, List<String>> getAmbiguousApiVersionNames() {
+        return ambiguousApiVersionNames;
     }
 
     @Override
     public EndpointContextContainer getEndpointContext(RestApiEndpoint endpointAnnotation) {
+        return getEndpointContext(endpointAnnotation.apiVersionEnumName(), endpointAnnotation.apiContextEnumNames());
+    }
+
+    /**
+     * Resolves the raw enum names as they appear on a {@link RestApiEndpoint} annotation.
+     *
+     * @param apiVersionEnumName the enum name of the {@link ApiVersion}, an empty value means no version
+     * @param apiContextEnumNames the enum names of the {@link ApiContext} entries in path order
+     * @return the endpoint context container with the context resolved and a flag indicating whether it is enabled.
+     */
+    public EndpointContextContainer getEndpointContext(String apiVersionEnumName, String... apiContextEnumNames) {
+        return getEndpointContext(this, apiVersionEnumName, apiContextEnumNames);
+    }
+
+    /**
+     * Resolves the raw enum names against the enums this transformer discovered and builds the path with another
+     * transformer.  Sources other than a loaded annotation, such as the compile time endpoint index, use this to resolve
+     * the names with any {@link RestApiContextTransformer} through its
+     * {@link RestApiContextTransformer#resolveApiPath(ApiVersion, ApiContext...)}.
+     *
+     * @param pathTransformer the transformer building the path from the resolved enums
+     * @param apiVersionEnumName the enum name of the {@link ApiVersion}, an empty value means no version
+     * @param apiContextEnumNames the enum names of the {@link ApiContext} entries in path order
+     * @return the endpoint context container with the context resolved and a flag indicating whether it is enabled.
+     */
+    public EndpointContextContainer getEndpointContext(RestApiContextTransformer pathTransformer,
+        String apiVersionEnumName, String... apiContextEnumNames) {
         ApiVersion apiVersionEntry = null;
         List<ApiContext> contexts = new ArrayList<>();
         //No version is valid and defaults to empty and enabled.  If entry exists we must be able to resolve it.
-        if (!endpointAnnotation.apiVersionEnumName().isEmpty()) {
-            apiVersionEntry = resolveApiVersion(endpointAnnotation.apiVersionEnumName());
+        if (!apiVersionEnumName.isEmpty()) {
+            apiVersionEntry = resolveApiVersion(apiVersionEnumName);
             if (apiVersionEntry == null) {
                 throw new ContextResolverException("Unable to resolve Api Version information from the endpoint annotation for "
-                        + "value: " + endpointAnnotation.apiVersionEnumName());
+                        + "value: " + apiVersionEnumName);
             }
 
         }
-        for(String enumValueName : endpointAnnotation.apiContextEnumNames()) {
+        for(String enumValueName : apiContextEnumNames) {
             ApiContext contextEnum = resolveApiContext(enumValueName);
             if(contextEnum == null) {
                 throw new ContextResolverException("Unable to resolve Api Context information from the endpoint annotation for "
                         + "value: " + enumValueName + ". The annotation contains the following contexts to resolve: "
-                        + String.join(",", endpointAnnotation.apiContextEnumNames()));
+                        + String.join(",", apiContextEnumNames));
             }
             contexts.add(contextEnum);
         }
-        return resolveApiPath(apiVersionEntry, contexts.toArray(new ApiContext[]{}));
+        return pathTransformer.resolveApiPath(apiVersionEntry, contexts.toArray(new ApiContext[]{}));
     }
 
     @Override
@@ -117,21 +316,11 @@ public class DefaultRestApiEndpointTransformer implements RestApiContextTransfor
      *
      * @param apiVersion The string name of the enum value to find
      * @param <T> A generic Enum value that implements {@link ApiVersion}
-     * @return The resolved enum value or null
+     * @return The resolved enum value, from the enum discovered first if more than one defines the name, or null
      */
+    @SuppressWarnings("unchecked")
     protected <T extends Enum<T> & ApiVersion> T resolveApiVersion(String apiVersion) {
-        T versionEntry = null;
-        for (Class<? extends ApiVersion> apiVersionClass : versionEnumerations) {
-            try {
-                versionEntry = Enum.valueOf((Class<T>) apiVersionClass, apiVersion);
-                //Enum.valueOf will always throw IllegalArgumentException so no if check necessary
-                break;
-            } catch (IllegalArgumentException iae) {
-                //We are knowingly eating this exception as we don't know how many enums exist in the system so there may
-                // be more checks coming.
-            }
-        }
-        return versionEntry;
+        return (T) apiVersionsByName.get(apiVersion);
     }
 
     /**
@@ -140,20 +329,10 @@ public class DefaultRestApiEndpointTransformer implements RestApiContextTransfor
      *
      * @param apiContext The string name of the enum value to find
      * @param <T> A generic Enum value that implements {@link ApiContext}
-     * @return The resolved enum value or null
+     * @return The resolved enum value, from the enum discovered first if more than one defines the name, or null
      */
+    @SuppressWarnings("unchecked")
     protected <T extends Enum<T> & ApiContext> T resolveApiContext(String apiContext) {
-        T contextEntry = null;
-        for (Class<? extends ApiContext> apiContextClass : contextEnumerations) {
-            try {
-                contextEntry = Enum.valueOf((Class<T>) apiContextClass, apiContext);
-                //Enum.valueOf will always throw IllegalArgumentException so no if check necessary
-                break;
-            } catch (IllegalArgumentException iae) {
-                //We are knowingly eating this exception as we don't know how many enums exist in the system so there may
-                // be more checks coming.
-            }
-        }
-        return contextEntry;
+        return (T) apiContextsByName.get(apiContext);
     }
 }
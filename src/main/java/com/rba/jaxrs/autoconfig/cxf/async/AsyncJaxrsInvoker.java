@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.async;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.AsyncSpec;
+import org.apache.cxf.continuations.Continuation;
+import org.apache.cxf.continuations.ContinuationProvider;
+import org.apache.cxf.jaxrs.JAXRSInvoker;
+import org.apache.cxf.jaxrs.impl.AsyncResponseImpl;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+
+import javax.ws.rs.container.AsyncResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoker applying an {@link AsyncSpec} to resource methods that answer asynchronously.  CXF suspends the request
+ * through its continuations when a method returns a {@link CompletionStage} or takes a {@code @Suspended AsyncResponse},
+ * which releases the request thread until the response is resumed.  This invoker adds the configured timeout to those
+ * suspended requests, unless the resource already set one, and hands completed stages over to the completion executor
+ * so the response is not written on a downstream client's I/O thread.
+ *
+ * <p>A response that times out without a timeout handler is answered with a 503 by CXF.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class AsyncJaxrsInvoker extends JAXRSInvoker {
+
+    private final long timeoutMillis;
+
+    private final Executor completionExecutor;
+
+    /**
+     * Instantiates a new async invoker.
+     *
+     * @param asyncSpec the async settings for the endpoint group
+     */
+    public AsyncJaxrsInvoker(AsyncSpec asyncSpec) {
+        if (asyncSpec == null) {
+            throw new IllegalArgumentException("An async spec is required for the async invoker");
+        }
+        this.timeoutMillis = asyncSpec.getTimeout() == null ? 0 : asyncSpec.getTimeout().toMillis();
+        this.completionExecutor = asyncSpec.getCompletionExecutor();
+    }
+
+    @Override
+    protected Object performInvocation(Exchange exchange, Object serviceObject, Method m, Object[] paramArray)
+        throws Exception {
+        Object result = super.performInvocation(exchange, serviceObject, m, paramArray);
+        //A @Suspended AsyncResponse is created while the parameters are resolved, before the method runs
+        AsyncResponse asyncResponse = exchange.getInMessage().get(AsyncResponse.class);
+        if (asyncResponse instanceof AsyncResponseImpl && !isPending(exchange.getInMessage())) {
+            applyTimeout((AsyncResponseImpl) asyncResponse);
+        }
+        return result;
+    }
+
+    @Override
+    protected AsyncResponseImpl checkFutureResponse(Message inMessage, Object result) {
+        Object handedOffResult = result instanceof CompletionStage && completionExecutor != null
+            ? handOff((CompletionStage<?>) result) : result;
+        AsyncResponseImpl asyncResponse = super.checkFutureResponse(inMessage, handedOffResult);
+        if (asyncResponse != null) {
+            applyTimeout(asyncResponse);
+        }
+        return asyncResponse;
+    }
+
+    private void applyTimeout(AsyncResponseImpl asyncResponse) {
+        //Done or resumed responses ignore the timeout, setTimeout returns false for them
+        if (timeoutMillis > 0 && !asyncResponse.isDone()) {
+            asyncResponse.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean isPending(Message inMessage) {
+        ContinuationProvider provider = inMessage.get(ContinuationProvider.class);
+        Continuation continuation = provider == null ? null : provider.getContinuation();
+        return continuation != null && continuation.isPending();
+    }
+
+    /**
+     * Completes a new stage with the outcome of the resource's stage on the completion executor.  The outcome is passed on
+     * unchanged, a failure is not wrapped in a {@link java.util.concurrent.CompletionException}, so exception mappers see
+     * the exception the resource completed its stage with.
+     */
+    private CompletionStage<Object> handOff(CompletionStage<?> stage) {
+        CompletableFuture<Object> handedOff = new CompletableFuture<>();
+        stage.whenComplete((value, error) -> {
+            Runnable completion = () -> {
+                if (error != null) {
+                    handedOff.completeExceptionally(error);
+                } else {
+                    handedOff.complete(value);
+                }
+            };
+            try {
+                completionExecutor.execute(completion);
+            } catch (RejectedExecutionException ree) {
+                completion.run();
+            }
+        });
+        return handedOff;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.async;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.AsyncSpec;
+import org.apache.cxf.continuations.Continuation;
+import org.apache.cxf.continuations.ContinuationProvider;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+
+import javax.ws.rs.container.AsyncResponse;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Invoker running synchronous resource methods on an executor, typically a virtual thread per invocation, without
+ * holding the request thread.  The invocation is handed to the executor and returned to CXF as a {@link CompletionStage},
+ * so CXF suspends the request through its continuation and the container thread is released until the method returns.
+ * The response is then written on the resumed request like the response of any method returning a stage.
+ *
+ * <p>The {@code @Context} fields of the resource are injected again on the invoking thread and the thread context class
+ * loader is carried over.  Methods that are asynchronous already, sub-resource locators and requests that can not be
+ * suspended, because the servlet does not support async requests, are invoked on the request thread.  The timeout and
+ * completion executor of the {@link AsyncSpec} apply to offloaded invocations as well.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class VirtualThreadJaxrsInvoker extends AsyncJaxrsInvoker {
+
+    private final Executor invocationExecutor;
+
+    /**
+     * Instantiates a new offloading invoker.
+     *
+     * @param asyncSpec the async settings for the endpoint group, may be null
+     * @param invocationExecutor the executor the resource methods are invoked on
+     */
+    public VirtualThreadJaxrsInvoker(AsyncSpec asyncSpec, Executor invocationExecutor) {
+        super(asyncSpec == null ? new AsyncSpec(null, null) : asyncSpec);
+        if (invocationExecutor == null) {
+            throw new IllegalArgumentException("An invocation executor is required to offload resource methods");
+        }
+        this.invocationExecutor = invocationExecutor;
+    }
+
+    @Override
+    protected Object performInvocation(Exchange exchange, Object serviceObject, Method m, Object[] paramArray)
+        throws Exception {
+        Message inMessage = exchange.getInMessage();
+        OperationResourceInfo operation = exchange.get(OperationResourceInfo.class);
+        if (operation == null || operation.isSubResourceLocator() || CompletionStage.class.isAssignableFrom(m.getReturnType())
+            || inMessage.get(AsyncResponse.class) != null || !canSuspend(inMessage)) {
+            return super.performInvocation(exchange, serviceObject, m, paramArray);
+        }
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        Runnable invocation = () -> {
+            Thread invokingThread = Thread.currentThread();
+            ClassLoader previousClassLoader = invokingThread.getContextClassLoader();
+            invokingThread.setContextClassLoader(contextClassLoader);
+            try {
+                //The thread local @Context proxies were only set on the request thread
+                operation.getClassResourceInfo().injectContexts(serviceObject, operation, inMessage);
+                result.complete(super.performInvocation(exchange, serviceObject, m, paramArray));
+            } catch (InvocationTargetException ite) {
+                result.completeExceptionally(ite.getCause());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                invokingThread.setContextClassLoader(previousClassLoader);
+            }
+        };
+        try {
+            invocationExecutor.execute(invocation);
+        } catch (RejectedExecutionException ree) {
+            return super.performInvocation(exchange, serviceObject, m, paramArray);
+        }
+        return result;
+    }
+
+    private static boolean canSuspend(Message inMessage) {
+        ContinuationProvider provider = inMessage.get(ContinuationProvider.class);
+        Continuation continuation = provider == null ? null : provider.getContinuation();
+        return continuation != null && continuation.isNew();
+    }
+}
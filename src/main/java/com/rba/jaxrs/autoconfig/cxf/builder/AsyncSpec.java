@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.builder;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Settings for resource methods that answer asynchronously, either by returning a
+ * {@link java.util.concurrent.CompletionStage} or through a {@code @Suspended AsyncResponse}.  The request thread is
+ * released while the response is pending, the timeout bounds how long a response may stay pending before it is
+ * answered with a 503, and the completion executor is the thread pool a completed stage is written back on.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class AsyncSpec {
+
+    private final Duration timeout;
+    private final Executor completionExecutor;
+
+    /**
+     * Instantiates a new async spec.
+     *
+     * @param timeout            the time a response may stay pending, null to leave pending responses without a timeout
+     * @param completionExecutor the executor completed stages are written back on, null to write them back on the thread
+     *                           that completed the stage
+     * @throws IllegalArgumentException when the timeout is zero or negative
+     */
+    public AsyncSpec(Duration timeout, Executor completionExecutor) {
+        if (timeout != null && (timeout.isZero() || timeout.isNegative())) {
+            throw new IllegalArgumentException("The async timeout must be a positive duration");
+        }
+        this.timeout = timeout;
+        this.completionExecutor = completionExecutor;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Executor getCompletionExecutor() {
+        return completionExecutor;
+    }
+
+    /**
+     * Combines this spec with one that applies after it, the settings the later spec has replace the ones of this spec.
+     *
+     * @param later the spec applied after this one, may be null
+     * @return the combined spec
+     */
+    public AsyncSpec overriddenBy(AsyncSpec later) {
+        if (later == null) {
+            return this;
+        }
+        return new AsyncSpec(later.timeout != null ? later.timeout : timeout,
+            later.completionExecutor != null ? later.completionExecutor : completionExecutor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AsyncSpec that = (AsyncSpec) o;
+        return Objects.equals(timeout, that.timeout) && Objects.equals(completionExecutor, that.completionExecutor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timeout, completionExecutor);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncSpec{timeout=" + timeout + ", completionExecutor=" + completionExecutor + '}';
+    }
+}
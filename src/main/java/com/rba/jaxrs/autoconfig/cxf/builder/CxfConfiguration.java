@@ -22,6 +22,9 @@ import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.interceptor.InterceptorProvider;
 import org.apache.cxf.message.Message;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -31,6 +34,10 @@ import java.util.Objects;
  * recommended to use the {@link CxfConfigurationBuilder} for creating the CxfConfiguration as that has null safety checks
  * and {@link IllegalArgumentException} for unexpected nulls.
  *
+ * <p>A configuration is an immutable snapshot.  The lists and properties passed in are copied into unmodifiable
+ * collections, so later changes to the source collections or builder are not visible, and the hash code is computed
+ * once on creation.  Configurations can be shared freely between threads, including the parallel server initialization.
+ *
  * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
  * @since 11 /27/2018
  */
@@ -45,6 +52,9 @@ public class CxfConfiguration implements InterceptorProvider {
     private final List<Interceptor<?>> outgoingFaultInterceptors;
     private final List<Object> providers;
     private final Map<String, Object> properties;
+    private final ExecutorSpec executorSpec;
+    private final AsyncSpec asyncSpec;
+    private final int hash;
 
     /**
      * Instantiates a new Cxf configuration.
@@ -54,21 +64,99 @@ public class CxfConfiguration implements InterceptorProvider {
      * @param features             the features
      * @param incomingInterceptors the incoming interceptors
      * @param outgoingInterceptors the outgoing interceptors
+     * @param incomingFaultInterceptors the incoming fault interceptors
+     * @param outgoingFaultInterceptors the outgoing fault interceptors
      * @param providers            the providers
      * @param properties           the properties
      */
     public CxfConfiguration(String rootContext, Bus bus, List<Feature> features, List<Interceptor<?>> incomingInterceptors,
         List<Interceptor<?>> outgoingInterceptors, List<Interceptor<?>> incomingFaultInterceptors,
         List<Interceptor<?>> outgoingFaultInterceptors, List<Object> providers, Map<String, Object> properties) {
+        this(rootContext, bus, features, incomingInterceptors, outgoingInterceptors, incomingFaultInterceptors,
+            outgoingFaultInterceptors, providers, properties, null);
+    }
+
+    /**
+     * Instantiates a new Cxf configuration with a dedicated executor for resource invocations.
+     *
+     * @param rootContext               the root context
+     * @param bus                       the bus
+     * @param features                  the features
+     * @param incomingInterceptors      the incoming interceptors
+     * @param outgoingInterceptors      the outgoing interceptors
+     * @param incomingFaultInterceptors the incoming fault interceptors
+     * @param outgoingFaultInterceptors the outgoing fault interceptors
+     * @param providers                 the providers
+     * @param properties                the properties
+     * @param executorSpec              the executor resource methods are invoked on, null to invoke on the request thread
+     */
+    public CxfConfiguration(String rootContext, Bus bus, List<Feature> features, List<Interceptor<?>> incomingInterceptors,
+        List<Interceptor<?>> outgoingInterceptors, List<Interceptor<?>> incomingFaultInterceptors,
+        List<Interceptor<?>> outgoingFaultInterceptors, List<Object> providers, Map<String, Object> properties,
+        ExecutorSpec executorSpec) {
+        this(rootContext, bus, features, incomingInterceptors, outgoingInterceptors, incomingFaultInterceptors,
+            outgoingFaultInterceptors, providers, properties, executorSpec, null);
+    }
+
+    /**
+     * Instantiates a new Cxf configuration with a dedicated executor and asynchronous response settings.
+     *
+     * @param rootContext               the root context
+     * @param bus                       the bus
+     * @param features                  the features
+     * @param incomingInterceptors      the incoming interceptors
+     * @param outgoingInterceptors      the outgoing interceptors
+     * @param incomingFaultInterceptors the incoming fault interceptors
+     * @param outgoingFaultInterceptors the outgoing fault interceptors
+     * @param providers                 the providers
+     * @param properties                the properties
+     * @param executorSpec              the executor resource methods are invoked on, null to invoke on the request thread
+     * @param asyncSpec                 the asynchronous response settings, null for the CXF defaults
+     */
+    public CxfConfiguration(String rootContext, Bus bus, List<Feature> features, List<Interceptor<?>> incomingInterceptors,
+        List<Interceptor<?>> outgoingInterceptors, List<Interceptor<?>> incomingFaultInterceptors,
+        List<Interceptor<?>> outgoingFaultInterceptors, List<Object> providers, Map<String, Object> properties,
+        ExecutorSpec executorSpec, AsyncSpec asyncSpec) {
         this.rootContext = rootContext;
         this.bus = bus;
-        this.features = features;
-        this.incomingInterceptors = incomingInterceptors;
-        this.outgoingInterceptors = outgoingInterceptors;
-        this.incomingFaultInterceptors = incomingFaultInterceptors;
-        this.outgoingFaultInterceptors = outgoingFaultInterceptors;
-        this.providers = providers;
-        this.properties = properties;
+        this.features = snapshot(features);
+        this.incomingInterceptors = snapshot(incomingInterceptors);
+        this.outgoingInterceptors = snapshot(outgoingInterceptors);
+        this.incomingFaultInterceptors = snapshot(incomingFaultInterceptors);
+        this.outgoingFaultInterceptors = snapshot(outgoingFaultInterceptors);
+        this.providers = snapshot(providers);
+        this.properties = snapshot(properties);
+        this.executorSpec = executorSpec;
+        this.asyncSpec = asyncSpec;
+        this.hash = Objects.hash(rootContext, bus, executorSpec, asyncSpec,
+            this.features.isEmpty() ? null : this.features,
+            this.incomingInterceptors.isEmpty() ? null : this.incomingInterceptors,
+            this.outgoingInterceptors.isEmpty() ? null : this.outgoingInterceptors,
+            this.incomingFaultInterceptors.isEmpty() ? null : this.incomingFaultInterceptors,
+            this.outgoingFaultInterceptors.isEmpty() ? null : this.outgoingFaultInterceptors,
+            this.providers.isEmpty() ? null : this.providers,
+            this.properties.isEmpty() ? null : this.properties);
+    }
+
+    private static <T> List<T> snapshot(List<T> list) {
+        if (list == null || list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (list.size() == 1) {
+            return Collections.singletonList(list.get(0));
+        }
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    private static Map<String, Object> snapshot(Map<String, Object> map) {
+        if (map == null || map.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (map.size() == 1) {
+            Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+            return Collections.singletonMap(entry.getKey(), entry.getValue());
+        }
+        return Collections.unmodifiableMap(new HashMap<>(map));
     }
 
     /**
@@ -116,6 +204,24 @@ public class CxfConfiguration implements InterceptorProvider {
         return properties;
     }
 
+    /**
+     * Gets the executor spec.
+     *
+     * @return the executor resource methods are invoked on, null when they are invoked on the request thread
+     */
+    public ExecutorSpec getExecutorSpec() {
+        return executorSpec;
+    }
+
+    /**
+     * Gets the async spec.
+     *
+     * @return the asynchronous response settings, null when the CXF defaults are used
+     */
+    public AsyncSpec getAsyncSpec() {
+        return asyncSpec;
+    }
+
     @Override
     public List<Interceptor<? extends Message>> getInInterceptors() {
         return incomingInterceptors;
@@ -145,8 +251,11 @@ public class CxfConfiguration implements InterceptorProvider {
             return false;
         }
         CxfConfiguration that = (CxfConfiguration) o;
-        return Objects.equals(rootContext, that.rootContext)
+        return hash == that.hash
+            && Objects.equals(rootContext, that.rootContext)
             && Objects.equals(bus, that.bus)
+            && Objects.equals(executorSpec, that.executorSpec)
+            && Objects.equals(asyncSpec, that.asyncSpec)
             && features.equals(that.features)
             && incomingInterceptors.equals(that.incomingInterceptors)
             && outgoingInterceptors.equals(that.outgoingInterceptors)
@@ -158,13 +267,6 @@ public class CxfConfiguration implements InterceptorProvider {
 
     @Override
     public int hashCode() {
-        return Objects.hash(rootContext, bus,
-            features.isEmpty() ? null : features,
-            incomingInterceptors.isEmpty() ? null : incomingInterceptors,
-            outgoingInterceptors.isEmpty() ? null : outgoingInterceptors,
-            incomingFaultInterceptors.isEmpty() ? null : incomingFaultInterceptors,
-            outgoingFaultInterceptors.isEmpty() ? null : outgoingFaultInterceptors,
-            providers.isEmpty() ? null : providers,
-            properties.isEmpty() ? null : properties);
+        return hash;
     }
 }
@@ -20,10 +20,12 @@ import org.apache.cxf.Bus;
 import org.apache.cxf.feature.Feature;
 import org.apache.cxf.interceptor.Interceptor;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * A Builder for collecting the customizations to apply to the @{@link org.apache.cxf.jaxrs.JAXRSServerFactoryBean}
@@ -44,6 +46,9 @@ public class CxfConfigurationBuilder {
     private final List<Object> providers = new ArrayList<>();
     private final Map<String, Object> properties = new HashMap<>();
     private String rootContext;
+    private ExecutorSpec executorSpec;
+    private Duration asyncTimeout;
+    private Executor completionExecutor;
 
     /**
      * The constant PRIVATE_ENDPOINT_KEY.
@@ -90,6 +95,48 @@ public class CxfConfigurationBuilder {
         return this;
     }
 
+    /**
+     * Sets a dedicated thread pool the resource methods of the endpoint are invoked on.  Requests are still accepted on
+     * the container's threads but wait for a thread of this pool, so a slow endpoint can only tie up its own pool.
+     *
+     * @param executorSpec the executor spec, null to invoke resource methods on the request thread
+     * @return cxf configuration builder
+     */
+    public CxfConfigurationBuilder setExecutorSpec(ExecutorSpec executorSpec) {
+        this.executorSpec = executorSpec;
+        return this;
+    }
+
+    /**
+     * Sets how long a response of a resource method returning a {@link java.util.concurrent.CompletionStage} or using a
+     * {@code @Suspended AsyncResponse} may stay pending.  The request thread is released while the response is pending,
+     * once the timeout passes the request is answered with a 503 unless the resource registered a timeout handler or set
+     * its own timeout.
+     *
+     * @param asyncTimeout the async timeout, null for no timeout
+     * @return cxf configuration builder
+     * @throws IllegalArgumentException when the timeout is zero or negative
+     */
+    public CxfConfigurationBuilder setAsyncTimeout(Duration asyncTimeout) {
+        if (asyncTimeout != null && (asyncTimeout.isZero() || asyncTimeout.isNegative())) {
+            throw new IllegalArgumentException("The async timeout must be a positive duration");
+        }
+        this.asyncTimeout = asyncTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the executor the response of a completed {@link java.util.concurrent.CompletionStage} is written on.  Without
+     * one the response is written on whichever thread completed the stage, often a downstream client's I/O thread.
+     *
+     * @param completionExecutor the completion executor, null to write on the completing thread
+     * @return cxf configuration builder
+     */
+    public CxfConfigurationBuilder setCompletionExecutor(Executor completionExecutor) {
+        this.completionExecutor = completionExecutor;
+        return this;
+    }
+
     /**
      * Adds the list of features to our current ongoing list of features.
      *
@@ -302,12 +349,14 @@ public class CxfConfigurationBuilder {
     }
 
     /**
-     * Creates a {@link CxfConfiguration} object based on the various builder properties that were set.
+     * Creates a {@link CxfConfiguration} object based on the various builder properties that were set.  The configuration
+     * is an immutable snapshot, later changes to the builder do not affect configurations that were already built.
      *
      * @return the cxf configuration
      */
     public CxfConfiguration build() {
         return new CxfConfiguration(rootContext, bus, features, incomingInterceptors, outgoingInterceptors,
-            incomingFaultInterceptors, outgoingFaultInterceptors, providers, properties);
+            incomingFaultInterceptors, outgoingFaultInterceptors, providers, properties, executorSpec,
+            asyncTimeout == null && completionExecutor == null ? null : new AsyncSpec(asyncTimeout, completionExecutor));
     }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.builder;
+
+import java.util.Objects;
+
+/**
+ * Describes a dedicated thread pool that resource methods of an endpoint address are invoked on.  Giving a context its
+ * own bounded pool acts as a bulkhead, a slow context fills its own pool and queue instead of tying up the invocations
+ * of every other context.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class ExecutorSpec {
+
+    /**
+     * What happens to an invocation when the pool and its queue are full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Fail the request with a 503 Service Unavailable response.
+         */
+        ABORT,
+        /**
+         * Invoke the resource method on the request thread, which slows the caller down instead of failing it.
+         */
+        CALLER_RUNS
+    }
+
+    private final int coreThreads;
+    private final int maxThreads;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+
+    /**
+     * Instantiates a new executor spec.
+     *
+     * @param coreThreads     the threads kept alive when idle
+     * @param maxThreads      the maximum threads, only started once the queue is full
+     * @param queueCapacity   the number of invocations that wait for a thread, 0 hands invocations directly to a thread
+     * @param rejectionPolicy the policy used once the pool and queue are full
+     * @throws IllegalArgumentException when the thread counts or capacity are out of range or the policy is null
+     */
+    public ExecutorSpec(int coreThreads, int maxThreads, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        if (coreThreads < 0 || maxThreads < 1 || maxThreads < coreThreads) {
+            throw new IllegalArgumentException("Core threads must be between 0 and max threads and max threads at least 1");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity can not be negative");
+        }
+        if (rejectionPolicy == null) {
+            throw new IllegalArgumentException("Rejection policy can not be null");
+        }
+        this.coreThreads = coreThreads;
+        this.maxThreads = maxThreads;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    public int getCoreThreads() {
+        return coreThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ExecutorSpec that = (ExecutorSpec) o;
+        return coreThreads == that.coreThreads
+            && maxThreads == that.maxThreads
+            && queueCapacity == that.queueCapacity
+            && rejectionPolicy == that.rejectionPolicy;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(coreThreads, maxThreads, queueCapacity, rejectionPolicy);
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorSpec{coreThreads=" + coreThreads + ", maxThreads=" + maxThreads + ", queueCapacity="
+            + queueCapacity + ", rejectionPolicy=" + rejectionPolicy + '}';
+    }
+}
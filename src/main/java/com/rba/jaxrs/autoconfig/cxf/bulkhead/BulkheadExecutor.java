@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.bulkhead;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.ExecutorSpec;
+import org.apache.cxf.interceptor.Fault;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The thread pool the resource methods of one endpoint address are invoked on.  CXF hands the invocation to the
+ * service executor and waits for it on the request thread, so the pool bounds how many invocations of the address run
+ * and wait at the same time.  When the pool and queue are full the {@link ExecutorSpec.RejectionPolicy} either fails
+ * the request with a 503 or runs the invocation on the request thread, both are counted as rejections.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class BulkheadExecutor implements Executor {
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private final String address;
+
+    private final ExecutorSpec executorSpec;
+
+    private final ThreadPoolExecutor threadPool;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * Creates the pool, threads are started as invocations arrive.
+     *
+     * @param address the endpoint address, used in the thread names
+     * @param executorSpec the pool sizing and rejection policy
+     */
+    public BulkheadExecutor(String address, ExecutorSpec executorSpec) {
+        if (address == null || executorSpec == null) {
+            throw new IllegalArgumentException("An address and executor spec are required for a bulkhead");
+        }
+        this.address = address;
+        this.executorSpec = executorSpec;
+        BlockingQueue<Runnable> queue = executorSpec.getQueueCapacity() == 0
+            ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(executorSpec.getQueueCapacity());
+        AtomicInteger threadCount = new AtomicInteger();
+        String threadPrefix = "jaxrs-autoconfig" + address.replaceAll("/", "-") + "-";
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        threadPool = new ThreadPoolExecutor(executorSpec.getCoreThreads(), executorSpec.getMaxThreads(), 60L,
+            TimeUnit.SECONDS, queue, threadFactory, this::reject);
+    }
+
+    @Override
+    public void execute(Runnable invocation) {
+        threadPool.execute(invocation);
+    }
+
+    private void reject(Runnable invocation, ThreadPoolExecutor executor) {
+        rejectedCount.increment();
+        if (executorSpec.getRejectionPolicy() == ExecutorSpec.RejectionPolicy.CALLER_RUNS && !executor.isShutdown()) {
+            invocation.run();
+            return;
+        }
+        throw toServiceUnavailable(new RejectedExecutionException("Endpoint " + address + " is at capacity"));
+    }
+
+    /**
+     * The fault CXF answers an invocation with when the service executor of its endpoint rejects it, a 503 so clients
+     * retry elsewhere or later instead of treating the rejection as a server error.
+     *
+     * @param rejection the rejection of the executor
+     * @return the 503 fault
+     */
+    public static Fault toServiceUnavailable(RejectedExecutionException rejection) {
+        Fault fault = new Fault(rejection);
+        fault.setStatusCode(SERVICE_UNAVAILABLE);
+        return fault;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public ExecutorSpec getExecutorSpec() {
+        return executorSpec;
+    }
+
+    /**
+     * The invocations waiting for a thread.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return threadPool.getQueue().size();
+    }
+
+    /**
+     * The threads currently invoking a resource method.
+     *
+     * @return the active thread count
+     */
+    public int getActiveCount() {
+        return threadPool.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return threadPool.getPoolSize();
+    }
+
+    /**
+     * The invocations that found the pool and queue full, whether they were failed or run on the request thread.
+     *
+     * @return the rejected count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Stops the pool, invocations already running are allowed to finish.
+     */
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+
+    public boolean isShutdown() {
+        return threadPool.isShutdown();
+    }
+}
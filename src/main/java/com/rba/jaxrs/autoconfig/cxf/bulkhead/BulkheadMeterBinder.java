@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the queue depth, active threads and rejections of every {@link BulkheadExecutor} as Micrometer meters
+ * prefixed with {@value #BULKHEAD_PREFIX} and tagged with the endpoint address.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class BulkheadMeterBinder implements MeterBinder {
+
+    public static final String BULKHEAD_PREFIX = "jaxrs.autoconfig.bulkhead";
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public BulkheadMeterBinder(BulkheadRegistry bulkheadRegistry) {
+        if (bulkheadRegistry == null) {
+            throw new IllegalArgumentException("A bulkhead registry is required to publish bulkhead metrics");
+        }
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bulkheadRegistry.addListener(executor -> {
+            Tags tags = Tags.of("address", executor.getAddress());
+            Gauge.builder(BULKHEAD_PREFIX + ".queue.depth", executor, BulkheadExecutor::getQueueDepth)
+                .description("Invocations waiting for a bulkhead thread").tags(tags).register(registry);
+            Gauge.builder(BULKHEAD_PREFIX + ".active", executor, BulkheadExecutor::getActiveCount)
+                .description("Bulkhead threads invoking a resource method").tags(tags).register(registry);
+            FunctionCounter.builder(BULKHEAD_PREFIX + ".rejected", executor, BulkheadExecutor::getRejectedCount)
+                .description("Invocations that found the bulkhead full").tags(tags).register(registry);
+        });
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.bulkhead;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.ExecutorSpec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Creates and holds the {@link BulkheadExecutor} of every endpoint address that has an {@link ExecutorSpec} and the
+ * virtual thread executors of the addresses that invoke on virtual threads.  Listeners
+ * are told about every executor, including the ones created before they were added, which is how the pool metrics are
+ * published.  {@link #shutdown()} stops all executors when the application context closes.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class BulkheadRegistry {
+
+    private final Map<String, BulkheadExecutor> executors = new TreeMap<>();
+
+    private final Map<String, ExecutorService> virtualThreadExecutors = new TreeMap<>();
+
+    private final List<Consumer<BulkheadExecutor>> listeners = new ArrayList<>();
+
+    /**
+     * Gets the executor of an address, creating it on first use.
+     *
+     * @param address the endpoint address
+     * @param executorSpec the pool sizing and rejection policy used when the executor is created
+     * @return the executor of the address
+     */
+    public synchronized BulkheadExecutor getExecutor(String address, ExecutorSpec executorSpec) {
+        BulkheadExecutor executor = executors.get(address);
+        if (executor == null) {
+            executor = new BulkheadExecutor(address, executorSpec);
+            executors.put(address, executor);
+            for (Consumer<BulkheadExecutor> listener : listeners) {
+                listener.accept(executor);
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the virtual thread per task executor of an address, creating it on first use.  Virtual threads are not
+     * pooled, so there is nothing to size and no queue to bound.
+     *
+     * @param address the endpoint address
+     * @return the executor of the address or null if the JVM does not support virtual threads
+     */
+    public synchronized ExecutorService getVirtualThreadExecutor(String address) {
+        ExecutorService executor = virtualThreadExecutors.get(address);
+        if (executor == null) {
+            executor = VirtualThreadExecutors.newVirtualThreadPerTaskExecutor(
+                "jaxrs-autoconfig-virtual" + address.replaceAll("/", "-") + "-");
+            if (executor != null) {
+                virtualThreadExecutors.put(address, executor);
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * The addresses invoking on virtual threads in address order.
+     *
+     * @return the virtual thread addresses
+     */
+    public synchronized Set<String> getVirtualThreadAddresses() {
+        return Collections.unmodifiableSet(new TreeSet<>(virtualThreadExecutors.keySet()));
+    }
+
+    /**
+     * The executors in address order.
+     *
+     * @return the executors by address
+     */
+    public synchronized Map<String, BulkheadExecutor> getExecutors() {
+        return Collections.unmodifiableMap(new TreeMap<>(executors));
+    }
+
+    /**
+     * Adds a listener and replays the executors created so far to it.
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Consumer<BulkheadExecutor> listener) {
+        listeners.add(listener);
+        executors.values().forEach(listener);
+    }
+
+    /**
+     * Shuts down every executor.
+     */
+    public synchronized void shutdown() {
+        executors.values().forEach(BulkheadExecutor::shutdown);
+        virtualThreadExecutors.values().forEach(ExecutorService::shutdown);
+    }
+}
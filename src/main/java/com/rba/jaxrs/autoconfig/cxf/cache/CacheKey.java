@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.cache;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * Identifies a cached response by the endpoint address, the resource method, the request path and query and the
+ * negotiated media type, the accepted media type the method produces.  Requests with the same key get the same
+ * representation, however they word their Accept header.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public final class CacheKey {
+
+    private final String address;
+    private final Method resourceMethod;
+    private final String path;
+    private final String query;
+    private final String mediaType;
+    private final int hash;
+
+    /**
+     * Instantiates a new cache key.
+     *
+     * @param address        the endpoint address
+     * @param resourceMethod the resource method
+     * @param path           the request path, including the path parameters
+     * @param query          the query string, may be null
+     * @param mediaType      the negotiated media type, may be null
+     */
+    public CacheKey(String address, Method resourceMethod, String path, String query, String mediaType) {
+        if (address == null || resourceMethod == null) {
+            throw new IllegalArgumentException("The address and resource method are required for a cache key");
+        }
+        this.address = address;
+        this.resourceMethod = resourceMethod;
+        this.path = path;
+        this.query = query;
+        this.mediaType = mediaType;
+        this.hash = Objects.hash(address, resourceMethod, path, query, mediaType);
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public Method getResourceMethod() {
+        return resourceMethod;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CacheKey that = (CacheKey) o;
+        return hash == that.hash
+            && address.equals(that.address)
+            && resourceMethod.equals(that.resourceMethod)
+            && Objects.equals(path, that.path)
+            && Objects.equals(query, that.query)
+            && Objects.equals(mediaType, that.mediaType);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheKey{" + address + ' ' + resourceMethod.getName() + ' ' + path + (query == null ? "" : '?' + query)
+            + ", mediaType=" + mediaType + '}';
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Cache of serialized responses bounded by the total size of the cached bodies, with a W-TinyLFU style policy.  New
+ * responses enter a small LRU window of 1% of the size.  Responses leaving the window are only admitted to the main
+ * space when they were requested more often than the response they would evict, as estimated by a
+ * {@link FrequencySketch}, so a burst of one time requests can not flush the popular responses.  The main space is a
+ * segmented LRU: responses hit again move from the probation segment to the protected segment, which holds up to 80% of
+ * the main space.  Expired responses are dropped when they are looked up or chosen for eviction.
+ *
+ * <p>Concurrent misses for the same key are coalesced: the first caller of {@link #joinLoad(CacheKey)} loads the
+ * response, the others wait for its result.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class ResponseCache {
+
+    //Used to size the frequency sketch, the actual number of entries depends on the response sizes
+    private static final int ESTIMATED_RESPONSE_SIZE = 4096;
+
+    private final long maxBytes;
+    private final long windowMaxBytes;
+    private final long mainMaxBytes;
+    private final long protectedMaxBytes;
+
+    private final LinkedHashMap<CacheKey, SerializedResponse> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<CacheKey, SerializedResponse> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<CacheKey, SerializedResponse> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long windowBytes;
+    private long probationBytes;
+    private long protectedBytes;
+    private final FrequencySketch sketch;
+
+    private final ConcurrentMap<CacheKey, CompletableFuture<SerializedResponse>> loads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ResponseCacheStats> stats = new ConcurrentHashMap<>();
+    private final LongAdder evictionCount = new LongAdder();
+    private final List<Consumer<ResponseCacheStats>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Instantiates a new response cache.
+     *
+     * @param maxBytes the maximum total size of the cached bodies
+     * @throws IllegalArgumentException when the size is not positive
+     */
+    public ResponseCache(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The response cache size must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.windowMaxBytes = Math.max(1, maxBytes / 100);
+        this.mainMaxBytes = maxBytes - windowMaxBytes;
+        this.protectedMaxBytes = mainMaxBytes * 4 / 5;
+        this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, maxBytes / ESTIMATED_RESPONSE_SIZE));
+    }
+
+    /**
+     * Looks up a response and counts the request for the admission policy.
+     *
+     * @param key the cache key
+     * @return the cached response or null when it is not cached or expired
+     */
+    public synchronized SerializedResponse get(CacheKey key) {
+        sketch.increment(key);
+        SerializedResponse response = window.get(key);
+        if (response != null) {
+            if (response.isExpired()) {
+                window.remove(key);
+                windowBytes -= response.getSize();
+                return null;
+            }
+            return response;
+        }
+        response = probation.remove(key);
+        if (response != null) {
+            probationBytes -= response.getSize();
+            if (response.isExpired()) {
+                return null;
+            }
+            protectedSegment.put(key, response);
+            protectedBytes += response.getSize();
+            demoteProtectedOverflow();
+            return response;
+        }
+        response = protectedSegment.get(key);
+        if (response != null && response.isExpired()) {
+            protectedSegment.remove(key);
+            protectedBytes -= response.getSize();
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * Adds a response, replacing the response cached for the key.  Responses larger than the main space are not cached.
+     *
+     * @param key      the cache key
+     * @param response the response
+     */
+    public synchronized void put(CacheKey key, SerializedResponse response) {
+        remove(key);
+        if (response.getSize() > mainMaxBytes) {
+            return;
+        }
+        window.put(key, response);
+        windowBytes += response.getSize();
+        Iterator<Map.Entry<CacheKey, SerializedResponse>> windowEntries = window.entrySet().iterator();
+        while (windowBytes > windowMaxBytes && windowEntries.hasNext()) {
+            Map.Entry<CacheKey, SerializedResponse> candidate = windowEntries.next();
+            windowEntries.remove();
+            windowBytes -= candidate.getValue().getSize();
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * Removes the response cached for a key.
+     *
+     * @param key the cache key
+     */
+    public synchronized void remove(CacheKey key) {
+        SerializedResponse removed = window.remove(key);
+        if (removed != null) {
+            windowBytes -= removed.getSize();
+        }
+        removed = probation.remove(key);
+        if (removed != null) {
+            probationBytes -= removed.getSize();
+        }
+        removed = protectedSegment.remove(key);
+        if (removed != null) {
+            protectedBytes -= removed.getSize();
+        }
+    }
+
+    /**
+     * Starts loading the response for a key, or joins the load another request already started.
+     *
+     * @param key the cache key
+     * @return null when the caller has to load the response and hand it to {@link #completeLoad}, otherwise the pending
+     *     load to wait for, it completes with null when the loading request did not produce a cacheable response
+     */
+    public CompletableFuture<SerializedResponse> joinLoad(CacheKey key) {
+        return loads.putIfAbsent(key, new CompletableFuture<>());
+    }
+
+    /**
+     * Ends the load started by {@link #joinLoad}, caching the response and passing it to the waiting requests.
+     *
+     * @param key      the cache key
+     * @param response the loaded response, null when the response could not be cached
+     */
+    public void completeLoad(CacheKey key, SerializedResponse response) {
+        if (response != null) {
+            put(key, response);
+        }
+        CompletableFuture<SerializedResponse> load = loads.remove(key);
+        if (load != null) {
+            load.complete(response);
+        }
+    }
+
+    private void admit(CacheKey candidateKey, SerializedResponse candidate) {
+        if (candidate.isExpired()) {
+            return;
+        }
+        int candidateFrequency = sketch.frequency(candidateKey);
+        while (probationBytes + protectedBytes + candidate.getSize() > mainMaxBytes) {
+            LinkedHashMap<CacheKey, SerializedResponse> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+            Map.Entry<CacheKey, SerializedResponse> victim = victimSegment.entrySet().iterator().next();
+            evictionCount.increment();
+            if (!victim.getValue().isExpired() && sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                //The candidate is not more popular than the response it would replace, it is the one evicted
+                return;
+            }
+            victimSegment.remove(victim.getKey());
+            if (victimSegment == probation) {
+                probationBytes -= victim.getValue().getSize();
+            } else {
+                protectedBytes -= victim.getValue().getSize();
+            }
+        }
+        probation.put(candidateKey, candidate);
+        probationBytes += candidate.getSize();
+    }
+
+    private void demoteProtectedOverflow() {
+        Iterator<Map.Entry<CacheKey, SerializedResponse>> protectedEntries = protectedSegment.entrySet().iterator();
+        while (protectedBytes > protectedMaxBytes && protectedEntries.hasNext()) {
+            Map.Entry<CacheKey, SerializedResponse> demoted = protectedEntries.next();
+            protectedEntries.remove();
+            protectedBytes -= demoted.getValue().getSize();
+            probation.put(demoted.getKey(), demoted.getValue());
+            probationBytes += demoted.getValue().getSize();
+        }
+    }
+
+    /**
+     * The hit and miss counts of an address, created on first use.
+     *
+     * @param address the endpoint address
+     * @return the stats of the address
+     */
+    public ResponseCacheStats getStats(String address) {
+        ResponseCacheStats addressStats = stats.get(address);
+        return addressStats != null ? addressStats : createStats(address);
+    }
+
+    /**
+     * The hit and miss counts of every address with a cached resource method.
+     *
+     * @return the stats by address, sorted by address
+     */
+    public Map<String, ResponseCacheStats> getStats() {
+        return Collections.unmodifiableMap(new TreeMap<>(stats));
+    }
+
+    private synchronized ResponseCacheStats createStats(String address) {
+        ResponseCacheStats addressStats = stats.get(address);
+        if (addressStats == null) {
+            addressStats = new ResponseCacheStats(address);
+            stats.put(address, addressStats);
+            for (Consumer<ResponseCacheStats> listener : listeners) {
+                listener.accept(addressStats);
+            }
+        }
+        return addressStats;
+    }
+
+    /**
+     * Adds a listener that is called for the stats of every address, the stats created before the listener was added
+     * are passed to it right away.
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Consumer<ResponseCacheStats> listener) {
+        listeners.add(listener);
+        stats.values().forEach(listener);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * The size of the largest response that can be cached.
+     *
+     * @return the maximum response size in bytes
+     */
+    public long getMaxResponseBytes() {
+        return mainMaxBytes;
+    }
+
+    public synchronized long getSizeBytes() {
+        return windowBytes + probationBytes + protectedBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * The number of responses evicted or not admitted because the cache was full.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.cache;
+
+import com.rba.jaxrs.autoconfig.core.annotations.CachedResponse;
+import com.rba.jaxrs.autoconfig.cxf.compression.CompressionFeature;
+import com.rba.jaxrs.autoconfig.cxf.conditional.ConditionalRequestFeature;
+import org.apache.cxf.Bus;
+import org.apache.cxf.feature.AbstractFeature;
+import org.apache.cxf.helpers.LoadingByteArrayOutputStream;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Serves GET requests for resource methods annotated with {@link CachedResponse} from a {@link ResponseCache}.  The
+ * lookup runs after the request filters, right before the invocation, so a cached response still passes the security
+ * filters of the endpoint.  On a miss the body written for the response is captured and cached once it is complete,
+ * together with the response headers other than the hop-by-hop, content length, content encoding and cookie headers.
+ * Requests missing the same key while it is loaded wait up to the coalesce timeout for the loading request instead of
+ * invoking the method themselves.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class ResponseCacheFeature extends AbstractFeature {
+
+    private static final String PENDING_LOAD_KEY = ResponseCacheFeature.class.getName() + ".pendingLoad";
+
+    //Headers describing the connection, the encoding of the sent bytes or a single client are not replayed on a hit
+    private static final Set<String> UNCACHED_HEADERS = createUncachedHeaders();
+
+    private final ResponseCache responseCache;
+
+    private final Duration coalesceTimeout;
+
+    /**
+     * Instantiates a new response cache feature.
+     *
+     * @param responseCache   the cache the responses are kept in, it can be shared by several endpoint groups
+     * @param coalesceTimeout the time a request waits for a concurrent request loading the same response
+     */
+    public ResponseCacheFeature(ResponseCache responseCache, Duration coalesceTimeout) {
+        if (responseCache == null) {
+            throw new IllegalArgumentException("A response cache is required for the response cache feature");
+        }
+        if (coalesceTimeout == null || coalesceTimeout.isNegative()) {
+            throw new IllegalArgumentException("The coalesce timeout can not be negative");
+        }
+        this.responseCache = responseCache;
+        this.coalesceTimeout = coalesceTimeout;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    private static Set<String> createUncachedHeaders() {
+        Set<String> uncachedHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        uncachedHeaders.addAll(Arrays.asList(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.CONTENT_ENCODING, HttpHeaders.SET_COOKIE, "Connection", "Keep-Alive", "Proxy-Authenticate",
+            "Proxy-Authorization", "TE", "Trailer", "Transfer-Encoding", "Upgrade"));
+        return uncachedHeaders;
+    }
+
+    /**
+     * The response headers worth replaying on a cache hit.
+     *
+     * @param message the out message
+     * @return the headers by name
+     */
+    static Map<String, List<Object>> getCacheableHeaders(Message message) {
+        Map<String, List<Object>> cacheableHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Object protocolHeaders = message.get(Message.PROTOCOL_HEADERS);
+        if (protocolHeaders instanceof Map) {
+            for (Map.Entry<?, ?> header : ((Map<?, ?>) protocolHeaders).entrySet()) {
+                if (header.getKey() instanceof String && header.getValue() instanceof List
+                    && !UNCACHED_HEADERS.contains(header.getKey())) {
+                    cacheableHeaders.put((String) header.getKey(), new ArrayList<>((List<?>) header.getValue()));
+                }
+            }
+        }
+        //The tag of a versioned entity is only added once the entity is written, after the headers are captured
+        EntityTag versionTag = ConditionalRequestFeature.getVersionTag(message.getExchange());
+        if (versionTag != null && !cacheableHeaders.containsKey(HttpHeaders.ETAG)) {
+            cacheableHeaders.put(HttpHeaders.ETAG, new ArrayList<>(Collections.singletonList(versionTag.toString())));
+        }
+        return cacheableHeaders;
+    }
+
+    @Override
+    protected void initializeProvider(InterceptorProvider provider, Bus bus) {
+        provider.getInInterceptors().add(new CacheLookupInterceptor(responseCache, coalesceTimeout.toMillis()));
+        provider.getOutInterceptors().add(new CaptureInterceptor(responseCache));
+        provider.getOutInterceptors().add(new ReleaseInterceptor(responseCache));
+        provider.getOutFaultInterceptors().add(new ReleaseInterceptor(responseCache));
+    }
+
+    /**
+     * A miss this request has to load, with the time to live of the method.
+     */
+    private static final class PendingLoad {
+
+        private final CacheKey key;
+
+        private final long timeToLiveNanos;
+
+        PendingLoad(CacheKey key, long timeToLiveNanos) {
+            this.key = key;
+            this.timeToLiveNanos = timeToLiveNanos;
+        }
+    }
+
+    /**
+     * Answers the request with the cached response, or registers the request as the one loading it.
+     */
+    static class CacheLookupInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final ResponseCache responseCache;
+
+        private final long coalesceTimeoutMillis;
+
+        CacheLookupInterceptor(ResponseCache responseCache, long coalesceTimeoutMillis) {
+            super(Phase.PRE_INVOKE);
+            this.responseCache = responseCache;
+            this.coalesceTimeoutMillis = coalesceTimeoutMillis;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            Exchange exchange = message.getExchange();
+            OperationResourceInfo operation = exchange.get(OperationResourceInfo.class);
+            if (operation == null || operation.getAnnotatedMethod() == null || exchange.get(Response.class) != null
+                || !HttpMethod.GET.equals(message.get(Message.HTTP_REQUEST_METHOD))) {
+                return;
+            }
+            CachedResponse cachedResponse = operation.getAnnotatedMethod().getAnnotation(CachedResponse.class);
+            if (cachedResponse == null) {
+                return;
+            }
+            String address = exchange.getEndpoint() == null ? "" : exchange.getEndpoint().getEndpointInfo().getAddress();
+            CacheKey key = new CacheKey(address, operation.getMethodToInvoke(), (String) message.get(Message.REQUEST_URI),
+                (String) message.get(Message.QUERY_STRING), negotiateMediaType(message, operation));
+            ResponseCacheStats stats = responseCache.getStats(address);
+            SerializedResponse response = responseCache.get(key);
+            if (response == null) {
+                CompletableFuture<SerializedResponse> load = responseCache.joinLoad(key);
+                if (load == null) {
+                    exchange.put(PENDING_LOAD_KEY,
+                        new PendingLoad(key, cachedResponse.unit().toNanos(cachedResponse.timeToLive())));
+                } else {
+                    response = await(load);
+                }
+            }
+            if (response == null) {
+                stats.recordMiss();
+            } else {
+                stats.recordHit();
+                //The invoker returns a response found on the exchange instead of invoking the resource method
+                exchange.put(Response.class, response.toResponse());
+            }
+        }
+
+        /**
+         * The media type the response is written in, the first of the accepted media types the method produces.  Keying
+         * on it instead of the Accept header lets requests that only word the header differently share a response.
+         *
+         * @param message   the in message
+         * @param operation the resource method invoked
+         * @return the negotiated media type, or null if the method produces none of the accepted types
+         */
+        @SuppressWarnings("unchecked")
+        static String negotiateMediaType(Message message, OperationResourceInfo operation) {
+            //The JAX-RS in interceptor stores the sorted accepted types on the exchange
+            Object acceptTypes = message.getExchange().get(Message.ACCEPT_CONTENT_TYPE);
+            String acceptHeader = (String) message.get(Message.ACCEPT_CONTENT_TYPE);
+            List<MediaType> acceptedTypes = acceptTypes instanceof List ? (List<MediaType>) acceptTypes
+                : JAXRSUtils.sortMediaTypes(acceptHeader == null ? MediaType.WILDCARD : acceptHeader,
+                    JAXRSUtils.MEDIA_TYPE_Q_PARAM);
+            List<MediaType> producedTypes = JAXRSUtils.intersectMimeTypes(acceptedTypes, operation.getProduceTypes(), false);
+            return producedTypes.isEmpty() ? null : JAXRSUtils.mediaTypeToString(producedTypes.get(0));
+        }
+
+        private SerializedResponse await(CompletableFuture<SerializedResponse> load) {
+            try {
+                return load.get(coalesceTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Captures the body of the loading request, it wraps the other response streams so it sees the body before any
+     * content encoding.
+     */
+    static class CaptureInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final ResponseCache responseCache;
+
+        CaptureInterceptor(ResponseCache responseCache) {
+            super(Phase.PREPARE_SEND);
+            addAfter(MessageSenderInterceptor.class.getName());
+            addAfter(CompressionFeature.class.getName() + "$CompressionOutInterceptor");
+            addAfter(ConditionalRequestFeature.class.getName() + "$EntityTagInterceptor");
+            this.responseCache = responseCache;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            if (MessageUtils.isRequestor(message)) {
+                return;
+            }
+            PendingLoad pendingLoad = (PendingLoad) message.getExchange().remove(PENDING_LOAD_KEY);
+            OutputStream os = message.getContent(OutputStream.class);
+            if (pendingLoad == null) {
+                return;
+            }
+            if (os == null) {
+                responseCache.completeLoad(pendingLoad.key, null);
+                return;
+            }
+            message.setContent(OutputStream.class, new CapturingOutputStream(os, message, pendingLoad, responseCache));
+        }
+    }
+
+    /**
+     * Ends a load whose response was never written, for example a fault or an empty response, so the waiting requests
+     * invoke the method themselves instead of waiting for the timeout.
+     */
+    static class ReleaseInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final ResponseCache responseCache;
+
+        ReleaseInterceptor(ResponseCache responseCache) {
+            super(Phase.SETUP_ENDING);
+            this.responseCache = responseCache;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            PendingLoad pendingLoad = (PendingLoad) message.getExchange().remove(PENDING_LOAD_KEY);
+            if (pendingLoad != null) {
+                responseCache.completeLoad(pendingLoad.key, null);
+            }
+        }
+
+        @Override
+        public void handleFault(Message message) {
+            handleMessage(message);
+        }
+    }
+
+    /**
+     * Copies the body into a buffer while passing it on, the buffer is dropped once the body is larger than the cache
+     * accepts.
+     */
+    private static final class CapturingOutputStream extends FilterOutputStream {
+
+        private final Message message;
+        private final PendingLoad pendingLoad;
+        private final ResponseCache responseCache;
+        private LoadingByteArrayOutputStream captured = new LoadingByteArrayOutputStream();
+        private boolean closed;
+
+        CapturingOutputStream(OutputStream out, Message message, PendingLoad pendingLoad, ResponseCache responseCache) {
+            super(out);
+            this.message = message;
+            this.pendingLoad = pendingLoad;
+            this.responseCache = responseCache;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (captured != null) {
+                if (captured.size() + (long) len > responseCache.getMaxResponseBytes()) {
+                    captured = null;
+                } else {
+                    captured.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            //Read before the inner streams close, a conditional request may turn the response into a 304 on close.  An
+            // entity tag the inner streams compute on close is computed again when the cached response is sent.
+            Integer responseCode = (Integer) message.get(Message.RESPONSE_CODE);
+            SerializedResponse response = captured != null && captured.size() > 0
+                && (responseCode == null || responseCode == Response.Status.OK.getStatusCode())
+                ? new SerializedResponse(captured.toByteArray(), (String) message.get(Message.CONTENT_TYPE),
+                    getCacheableHeaders(message), pendingLoad.timeToLiveNanos)
+                : null;
+            try {
+                super.close();
+            } finally {
+                responseCache.completeLoad(pendingLoad.key, response);
+            }
+        }
+    }
+}
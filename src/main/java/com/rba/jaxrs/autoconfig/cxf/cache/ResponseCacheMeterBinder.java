@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the size and evictions of a {@link ResponseCache} and the hits, misses and hit ratio of every address as
+ * Micrometer meters prefixed with {@value #RESPONSE_CACHE_PREFIX}.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class ResponseCacheMeterBinder implements MeterBinder {
+
+    public static final String RESPONSE_CACHE_PREFIX = "jaxrs.autoconfig.response.cache";
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheMeterBinder(ResponseCache responseCache) {
+        if (responseCache == null) {
+            throw new IllegalArgumentException("A response cache is required to publish response cache metrics");
+        }
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(RESPONSE_CACHE_PREFIX + ".size", responseCache, ResponseCache::getSizeBytes)
+            .description("Total size of the cached response bodies").baseUnit("bytes").register(registry);
+        Gauge.builder(RESPONSE_CACHE_PREFIX + ".entries", responseCache, ResponseCache::getEntryCount)
+            .description("Cached responses").register(registry);
+        FunctionCounter.builder(RESPONSE_CACHE_PREFIX + ".evictions", responseCache, ResponseCache::getEvictionCount)
+            .description("Responses evicted or not admitted because the cache was full").register(registry);
+        responseCache.addListener(stats -> {
+            Tags tags = Tags.of("address", stats.getAddress());
+            FunctionCounter.builder(RESPONSE_CACHE_PREFIX + ".hits", stats, ResponseCacheStats::getHitCount)
+                .description("Requests served from the response cache").tags(tags).register(registry);
+            FunctionCounter.builder(RESPONSE_CACHE_PREFIX + ".misses", stats, ResponseCacheStats::getMissCount)
+                .description("Requests of cached methods that invoked the method").tags(tags).register(registry);
+            Gauge.builder(RESPONSE_CACHE_PREFIX + ".hit.ratio", stats, ResponseCacheStats::getHitRatio)
+                .description("Share of requests of cached methods served from the cache").tags(tags).register(registry);
+        });
+    }
+}
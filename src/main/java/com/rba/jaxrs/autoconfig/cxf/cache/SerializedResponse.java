@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.cache;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The body bytes, content type and headers of a successful response, as they were written by the message body writer.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public final class SerializedResponse {
+
+    private final byte[] body;
+    private final String contentType;
+    private final Map<String, List<Object>> headers;
+    private final long expiresAtNanos;
+
+    /**
+     * Instantiates a new serialized response without headers.
+     *
+     * @param body          the body bytes, they are not copied and must not be changed afterwards
+     * @param contentType   the content type the body was written with, may be null
+     * @param timeToLiveNanos the time in nanoseconds the response may be served for
+     */
+    public SerializedResponse(byte[] body, String contentType, long timeToLiveNanos) {
+        this(body, contentType, Collections.emptyMap(), timeToLiveNanos);
+    }
+
+    /**
+     * Instantiates a new serialized response.
+     *
+     * @param body          the body bytes, they are not copied and must not be changed afterwards
+     * @param contentType   the content type the body was written with, may be null
+     * @param headers       the headers to send with the body, other than the content type, may be null
+     * @param timeToLiveNanos the time in nanoseconds the response may be served for
+     */
+    public SerializedResponse(byte[] body, String contentType, Map<String, List<Object>> headers, long timeToLiveNanos) {
+        if (body == null) {
+            throw new IllegalArgumentException("The body of a serialized response is required");
+        }
+        this.body = body;
+        this.contentType = contentType;
+        Map<String, List<Object>> headersCopy = new LinkedHashMap<>();
+        if (headers != null) {
+            headers.forEach((name, values) -> headersCopy.put(name,
+                Collections.unmodifiableList(new ArrayList<>(values))));
+        }
+        this.headers = Collections.unmodifiableMap(headersCopy);
+        this.expiresAtNanos = System.nanoTime() + timeToLiveNanos;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public Map<String, List<Object>> getHeaders() {
+        return headers;
+    }
+
+    public int getSize() {
+        return body.length;
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * A copy of the body bytes.
+     *
+     * @return the body
+     */
+    public byte[] getBody() {
+        return Arrays.copyOf(body, body.length);
+    }
+
+    /**
+     * Creates a 200 response writing the cached bytes with the cached headers, the bytes are written as is without
+     * running a message body writer for the resource's entity type.
+     *
+     * @return the response
+     */
+    public Response toResponse() {
+        Response.ResponseBuilder builder = Response.ok(body, contentType);
+        headers.forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+        return builder.build();
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.compression;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.feature.AbstractFeature;
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
+import org.apache.cxf.io.AbstractThresholdOutputStream;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Gzip compresses the responses of the addresses it is configured for.  A response is only compressed when the client
+ * accepts gzip, its media type is on the allowlist, it does not already carry a content encoding and its body reaches the
+ * minimum size.  The body is buffered up to the minimum size to decide, smaller responses are written uncompressed so
+ * they do not pay the compression cost.  The deflaters come from a shared {@link DeflaterPool}.
+ *
+ * <p>A strong entity tag of a compressed response gets the {@value #ENTITY_TAG_SUFFIX} suffix, so the gzip and identity
+ * representations never share a strong validator.  Weak tags are left as they are.
+ *
+ * <p>Addresses are matched on the version, {@code /v1}, or the full context, {@code /v1/admin}.  Without addresses every
+ * endpoint group is compressed.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class CompressionFeature extends AbstractFeature {
+
+    /**
+     * The suffix added to the strong entity tag of a gzip compressed response.
+     */
+    public static final String ENTITY_TAG_SUFFIX = "-gzip";
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String ETAG = "ETag";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String GZIP = "gzip";
+
+    private final int minResponseSize;
+    private final Set<String> mediaTypes;
+    private final List<String> addresses;
+    private final DeflaterPool deflaterPool;
+
+    /**
+     * Instantiates a new compression feature.
+     *
+     * @param minResponseSize the smallest body size in bytes that is compressed
+     * @param mediaTypes      the media types that are compressed, a {@code type/*} entry allows all subtypes of the type
+     * @param addresses       the version or context addresses that are compressed, empty for all addresses
+     * @param deflaterPool    the pool the deflaters are taken from
+     * @throws IllegalArgumentException when the size is negative, no media type is given or the pool is missing
+     */
+    public CompressionFeature(int minResponseSize, Collection<String> mediaTypes, Collection<String> addresses,
+        DeflaterPool deflaterPool) {
+        if (minResponseSize < 0) {
+            throw new IllegalArgumentException("The minimum response size can not be negative");
+        }
+        if (mediaTypes == null || mediaTypes.isEmpty()) {
+            throw new IllegalArgumentException("At least one media type is required for compression");
+        }
+        if (deflaterPool == null) {
+            throw new IllegalArgumentException("A deflater pool is required for compression");
+        }
+        this.minResponseSize = minResponseSize;
+        Set<String> normalizedTypes = new LinkedHashSet<>();
+        for (String mediaType : mediaTypes) {
+            normalizedTypes.add(mediaType.trim().toLowerCase(Locale.ENGLISH));
+        }
+        this.mediaTypes = Collections.unmodifiableSet(normalizedTypes);
+        this.addresses = addresses == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(addresses));
+        this.deflaterPool = deflaterPool;
+    }
+
+    @Override
+    protected void initializeProvider(InterceptorProvider provider, Bus bus) {
+        provider.getOutInterceptors().add(new CompressionOutInterceptor(this));
+    }
+
+    /**
+     * Checks whether the endpoint group at an address is compressed.
+     *
+     * @param address the endpoint group address
+     * @return true if no addresses are configured or the address is, or is below, one of the configured addresses
+     */
+    public boolean appliesTo(String address) {
+        if (addresses.isEmpty()) {
+            return true;
+        }
+        for (String configuredAddress : addresses) {
+            if (address.equals(configuredAddress) || address.startsWith(configuredAddress + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a content type is on the allowlist, media type parameters are ignored.
+     *
+     * @param contentType the content type of the response, may be null
+     * @return true if the content type can be compressed
+     */
+    public boolean isCompressible(String contentType) {
+        if (StringUtils.isEmpty(contentType)) {
+            return false;
+        }
+        int parameterStart = contentType.indexOf(';');
+        String mediaType = (parameterStart < 0 ? contentType : contentType.substring(0, parameterStart))
+            .trim().toLowerCase(Locale.ENGLISH);
+        int subtypeStart = mediaType.indexOf('/');
+        return mediaTypes.contains(mediaType)
+            || (subtypeStart > 0 && mediaTypes.contains(mediaType.substring(0, subtypeStart) + "/*"));
+    }
+
+    public int getMinResponseSize() {
+        return minResponseSize;
+    }
+
+    public Set<String> getMediaTypes() {
+        return mediaTypes;
+    }
+
+    public List<String> getAddresses() {
+        return addresses;
+    }
+
+    public DeflaterPool getDeflaterPool() {
+        return deflaterPool;
+    }
+
+    /**
+     * Checks whether an Accept-Encoding header allows gzip, either by name or through a wildcard, with a non zero quality.
+     *
+     * @param acceptEncoding the header values, may be null
+     * @return true if gzip is accepted
+     */
+    static boolean acceptsGzip(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String headerValue : acceptEncoding) {
+            for (String coding : headerValue.split(",")) {
+                String[] codingParts = coding.split(";");
+                String name = codingParts[0].trim();
+                if ((GZIP.equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name) || "*".equals(name))
+                    && !hasZeroQuality(codingParts)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasZeroQuality(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String parameter = codingParts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim()) == 0;
+                } catch (NumberFormatException nfe) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The entity tag of the gzip representation of an entity.
+     *
+     * @param entityTag the header value of the entity tag of the identity representation
+     * @return the tag with the {@value #ENTITY_TAG_SUFFIX} suffix inside the quotes, a weak or malformed tag unchanged
+     */
+    public static String toGzipEntityTag(String entityTag) {
+        if (entityTag == null || entityTag.length() < 2 || !entityTag.startsWith("\"") || !entityTag.endsWith("\"")) {
+            return entityTag;
+        }
+        return entityTag.substring(0, entityTag.length() - 1) + ENTITY_TAG_SUFFIX + "\"";
+    }
+
+    private static List<String> getHeader(Map<String, List<String>> headers, String name) {
+        if (headers != null) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (name.equalsIgnoreCase(header.getKey())) {
+                    return header.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the response stream with one that decides on compression once the minimum size is reached.  The request
+     * headers are checked up front, the response headers once the body is being written, as the resource sets them while
+     * the response is marshalled.
+     */
+    static class CompressionOutInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final CompressionFeature feature;
+
+        CompressionOutInterceptor(CompressionFeature feature) {
+            super(Phase.PREPARE_SEND);
+            addAfter(MessageSenderInterceptor.class.getName());
+            this.feature = feature;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            if (MessageUtils.isRequestor(message) || message.getExchange().getInMessage() == null) {
+                return;
+            }
+            Map<String, List<String>> requestHeaders = CastUtils.cast((Map<?, ?>) message.getExchange().getInMessage()
+                .get(Message.PROTOCOL_HEADERS));
+            OutputStream os = message.getContent(OutputStream.class);
+            if (os != null && acceptsGzip(getHeader(requestHeaders, ACCEPT_ENCODING))) {
+                message.setContent(OutputStream.class, new GzipThresholdOutputStream(message, os));
+            }
+        }
+
+        private final class GzipThresholdOutputStream extends AbstractThresholdOutputStream {
+
+            private final Message message;
+
+            GzipThresholdOutputStream(Message message, OutputStream wrappedStream) {
+                super(feature.getMinResponseSize());
+                this.message = message;
+                this.wrappedStream = wrappedStream;
+            }
+
+            @Override
+            public void thresholdReached() throws IOException {
+                Map<String, List<String>> responseHeaders = getResponseHeaders();
+                if (feature.isCompressible((String) message.get(Message.CONTENT_TYPE))) {
+                    addHeader(responseHeaders, "Vary", ACCEPT_ENCODING);
+                    List<String> contentEncoding = getHeader(responseHeaders, CONTENT_ENCODING);
+                    //Responses encoded by the resource are already compressed or must keep their encoding
+                    if (contentEncoding == null || contentEncoding.isEmpty()) {
+                        addHeader(responseHeaders, CONTENT_ENCODING, GZIP);
+                        tagGzipRepresentation();
+                        wrappedStream = new PooledGzipOutputStream(wrappedStream, feature.getDeflaterPool());
+                    }
+                }
+            }
+
+            @Override
+            public void thresholdNotReached() {
+                if (feature.isCompressible((String) message.get(Message.CONTENT_TYPE))) {
+                    addHeader(getResponseHeaders(), "Vary", ACCEPT_ENCODING);
+                }
+            }
+
+            /**
+             * The entity tag of the uncompressed entity, supplied by the resource or computed while it was written, is
+             * already set when the body reaches the minimum size.
+             */
+            private void tagGzipRepresentation() {
+                Map<String, List<Object>> responseHeaders = CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+                for (Map.Entry<String, List<Object>> header : responseHeaders.entrySet()) {
+                    if (ETAG.equalsIgnoreCase(header.getKey()) && header.getValue() != null) {
+                        List<Object> gzipTags = new ArrayList<>();
+                        header.getValue().forEach(tag -> gzipTags.add(toGzipEntityTag(String.valueOf(tag))));
+                        header.setValue(gzipTags);
+                    }
+                }
+            }
+
+            private Map<String, List<String>> getResponseHeaders() {
+                Map<String, List<String>> headers = CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+                if (headers == null) {
+                    headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                    message.put(Message.PROTOCOL_HEADERS, headers);
+                }
+                return headers;
+            }
+
+            private void addHeader(Map<String, List<String>> headers, String name, String value) {
+                List<String> values = getHeader(headers, name);
+                if (values == null) {
+                    values = new ArrayList<>();
+                    headers.put(name, values);
+                }
+                if (!values.contains(value)) {
+                    values.add(value);
+                }
+            }
+        }
+    }
+}
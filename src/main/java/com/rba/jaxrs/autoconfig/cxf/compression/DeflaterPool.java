@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Pool of raw {@link Deflater} instances shared by the compressed responses.  A deflater holds native zlib memory that is
+ * only released when it is ended, so reusing them avoids allocating and freeing that memory for every response.  Up to
+ * the configured number of idle deflaters are kept, deflaters released while the pool is full are ended.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class DeflaterPool {
+
+    private final int level;
+
+    private final BlockingQueue<Deflater> idleDeflaters;
+
+    private final LongAdder createdCount = new LongAdder();
+
+    /**
+     * Instantiates a new deflater pool.
+     *
+     * @param level     the compression level, 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param maxIdle   the maximum number of idle deflaters kept for reuse
+     * @throws IllegalArgumentException when the level is not a valid compression level or max idle is not positive
+     */
+    public DeflaterPool(int level, int maxIdle) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("The compression level must be between 0 and 9 or -1 for the default level");
+        }
+        if (maxIdle < 1) {
+            throw new IllegalArgumentException("At least one idle deflater must be kept for reuse");
+        }
+        this.level = level;
+        this.idleDeflaters = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * Takes an idle deflater from the pool or creates one when none is idle.  The deflater produces raw deflate data
+     * without the zlib wrapper, the caller adds the framing of its format.
+     *
+     * @return the deflater, it must be given back with {@link #release(Deflater)}
+     */
+    public Deflater acquire() {
+        Deflater deflater = idleDeflaters.poll();
+        if (deflater == null) {
+            createdCount.increment();
+            deflater = new Deflater(level, true);
+        }
+        return deflater;
+    }
+
+    /**
+     * Resets a deflater and returns it to the pool, or ends it when the pool is full.
+     *
+     * @param deflater the deflater taken from this pool
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (!idleDeflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    public int getIdleCount() {
+        return idleDeflaters.size();
+    }
+
+    /**
+     * The number of deflaters created since the pool was created, it stops growing once the pool covers the concurrent
+     * compressed responses.
+     *
+     * @return the created count
+     */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+}
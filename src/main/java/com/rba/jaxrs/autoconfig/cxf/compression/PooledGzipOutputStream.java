@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Gzip stream writing with a deflater borrowed from a {@link DeflaterPool}.  {@link java.util.zip.GZIPOutputStream}
+ * always creates its own deflater, this stream writes the same gzip header and trailer around the pooled deflater and
+ * hands it back when closed.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class PooledGzipOutputStream extends DeflaterOutputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    //Magic number, deflate method, no flags, no modification time, no extra flags, unknown operating system
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final DeflaterPool deflaterPool;
+
+    private final CRC32 crc = new CRC32();
+
+    private boolean finished;
+
+    private boolean closed;
+
+    PooledGzipOutputStream(OutputStream out, DeflaterPool deflaterPool) throws IOException {
+        super(out, deflaterPool.acquire(), BUFFER_SIZE);
+        this.deflaterPool = deflaterPool;
+        try {
+            out.write(HEADER);
+        } catch (IOException ioe) {
+            deflaterPool.release(def);
+            closed = true;
+            throw ioe;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!finished) {
+            super.finish();
+            writeIntLittleEndian(crc.getValue());
+            writeIntLittleEndian(def.getBytesRead());
+            finished = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            finish();
+        } finally {
+            deflaterPool.release(def);
+            out.close();
+        }
+    }
+
+    private void writeIntLittleEndian(long value) throws IOException {
+        out.write((int) (value & 0xff));
+        out.write((int) ((value >> 8) & 0xff));
+        out.write((int) ((value >> 16) & 0xff));
+        out.write((int) ((value >> 24) & 0xff));
+    }
+}
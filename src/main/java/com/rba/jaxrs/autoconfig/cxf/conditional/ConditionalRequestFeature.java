@@ -0,0 +1,373 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.conditional;
+
+import com.rba.jaxrs.autoconfig.cxf.compression.CompressionFeature;
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.util.Base64UrlUtility;
+import org.apache.cxf.feature.AbstractFeature;
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
+import org.apache.cxf.io.AbstractThresholdOutputStream;
+import org.apache.cxf.jaxrs.impl.RequestImpl;
+import org.apache.cxf.jaxrs.interceptor.JAXRSOutInterceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageContentsList;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Adds strong entity tags to GET responses and answers conditional requests with a 304.  Register it for a version or
+ * context with {@link com.rba.jaxrs.autoconfig.cxf.builder.CxfConfigurationBuilder#addFeature}.
+ *
+ * <p>When the resource supplies a version, through the entity tag or last modified date of its {@link Response} or
+ * through a {@link Versioned} entity, {@code If-None-Match} and {@code If-Modified-Since} are evaluated before the entity
+ * is serialized and a matching request gets a 304 without any serialization.  Other successful GET responses get an
+ * entity tag hashed with SHA-256 while the entity is written.  The hashed bytes are held back until the entity is
+ * complete, so the tag can still be sent, which bounds the responses that get a computed tag to the configured size.
+ * Larger responses are streamed without a tag once the bound is passed.
+ *
+ * <p>The {@link CompressionFeature} adds a suffix to the strong tag of a compressed response.  Tags in
+ * {@code If-None-Match} are matched with and without that suffix, and a 304 repeats the tag the client sent.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class ConditionalRequestFeature extends AbstractFeature {
+
+    /**
+     * The default largest entity, in bytes, that gets a computed entity tag.
+     */
+    public static final int DEFAULT_MAX_HASHED_SIZE = 64 * 1024;
+
+    private static final String VERSION_TAG_KEY = ConditionalRequestFeature.class.getName() + ".versionTag";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final String GZIP_TAG_END = CompressionFeature.ENTITY_TAG_SUFFIX + "\"";
+
+    //Headers a 304 has to repeat from the response it stands for
+    private static final String[] NOT_MODIFIED_HEADERS = {HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY, HttpHeaders.EXPIRES,
+        HttpHeaders.CONTENT_LOCATION};
+
+    private final int maxHashedSize;
+
+    public ConditionalRequestFeature() {
+        this(DEFAULT_MAX_HASHED_SIZE);
+    }
+
+    /**
+     * Instantiates a new conditional request feature.
+     *
+     * @param maxHashedSize the largest entity in bytes that gets a computed entity tag, 0 to only use versions supplied
+     *                      by the resources
+     * @throws IllegalArgumentException when the size is negative
+     */
+    public ConditionalRequestFeature(int maxHashedSize) {
+        if (maxHashedSize < 0) {
+            throw new IllegalArgumentException("The maximum hashed size can not be negative");
+        }
+        this.maxHashedSize = maxHashedSize;
+    }
+
+    public int getMaxHashedSize() {
+        return maxHashedSize;
+    }
+
+    @Override
+    protected void initializeProvider(InterceptorProvider provider, Bus bus) {
+        provider.getOutInterceptors().add(new PreconditionInterceptor());
+        provider.getOutInterceptors().add(new EntityTagInterceptor(maxHashedSize));
+    }
+
+    /**
+     * The entity tag of the {@link Versioned} entity of the exchange, it is only added to the response headers once the
+     * entity has been written.
+     *
+     * @param exchange the exchange
+     * @return the version tag or null when the entity was not versioned
+     */
+    public static EntityTag getVersionTag(Exchange exchange) {
+        return (EntityTag) exchange.get(VERSION_TAG_KEY);
+    }
+
+    /**
+     * The request the preconditions are evaluated against.  The gzip suffix is removed from the tags in
+     * {@code If-None-Match}, the compressed and identity representations of an entity are only modified together.
+     */
+    private static Request createConditionalRequest(Message inMessage) {
+        Map<String, List<Object>> requestHeaders = CastUtils.cast((Map<?, ?>) inMessage.get(Message.PROTOCOL_HEADERS));
+        List<Object> ifNoneMatch = getHeader(requestHeaders, HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null || ifNoneMatch.stream().noneMatch(value -> String.valueOf(value).contains(GZIP_TAG_END))) {
+            return new RequestImpl(inMessage);
+        }
+        Map<String, List<Object>> conditionalHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        conditionalHeaders.putAll(requestHeaders);
+        List<Object> identityTags = new ArrayList<>();
+        ifNoneMatch.forEach(value -> identityTags.add(String.valueOf(value).replace(GZIP_TAG_END, "\"")));
+        conditionalHeaders.put(HttpHeaders.IF_NONE_MATCH, identityTags);
+        Message conditionalMessage = new MessageImpl();
+        conditionalMessage.putAll(inMessage);
+        conditionalMessage.setExchange(inMessage.getExchange());
+        conditionalMessage.put(Message.PROTOCOL_HEADERS, conditionalHeaders);
+        return new RequestImpl(conditionalMessage);
+    }
+
+    /**
+     * The form of a tag the client holds, the tag of the gzip representation when that is what it sent.
+     */
+    private static EntityTag getHeldTag(Message inMessage, EntityTag entityTag) {
+        if (!entityTag.isWeak()) {
+            String gzipTag = CompressionFeature.toGzipEntityTag(entityTag.toString());
+            List<Object> ifNoneMatch = getHeader(CastUtils.cast((Map<?, ?>) inMessage.get(Message.PROTOCOL_HEADERS)),
+                HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && ifNoneMatch.stream().anyMatch(value -> String.valueOf(value).contains(gzipTag))) {
+                return new EntityTag(entityTag.getValue() + CompressionFeature.ENTITY_TAG_SUFFIX);
+            }
+        }
+        return entityTag;
+    }
+
+    private static boolean isGetOrHead(Message inMessage) {
+        Object method = inMessage.get(Message.HTTP_REQUEST_METHOD);
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+    }
+
+    private static List<Object> getHeader(Map<String, List<Object>> headers, String name) {
+        if (headers != null) {
+            for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+                if (name.equalsIgnoreCase(header.getKey())) {
+                    return header.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates the request preconditions against the version the resource supplied before the response is serialized.
+     * A request that is not modified gets its result replaced with a 304, otherwise the tag of a {@link Versioned} entity
+     * is kept for the {@link EntityTagInterceptor} to send.
+     */
+    static class PreconditionInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        PreconditionInterceptor() {
+            super(Phase.MARSHAL);
+            addBefore(JAXRSOutInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            Message inMessage = message.getExchange().getInMessage();
+            MessageContentsList contents = MessageContentsList.getContentsList(message);
+            if (MessageUtils.isRequestor(message) || inMessage == null || !isGetOrHead(inMessage) || contents == null
+                || contents.isEmpty()) {
+                return;
+            }
+            Object result = contents.get(0);
+            Response response = result instanceof Response ? (Response) result : null;
+            if (response != null && response.getStatus() != Response.Status.OK.getStatusCode()) {
+                return;
+            }
+            Object entity = response != null ? response.getEntity() : result;
+            EntityTag entityTag = response != null ? response.getEntityTag() : null;
+            if (entityTag == null && entity instanceof Versioned && ((Versioned) entity).getVersionToken() != null) {
+                entityTag = new EntityTag(((Versioned) entity).getVersionToken());
+                message.getExchange().put(VERSION_TAG_KEY, entityTag);
+            }
+            Date lastModified = response != null ? response.getLastModified() : null;
+            if (entityTag == null && lastModified == null) {
+                return;
+            }
+            Request request = createConditionalRequest(inMessage);
+            Response.ResponseBuilder preconditionResponse = entityTag == null ? request.evaluatePreconditions(lastModified)
+                : lastModified == null ? request.evaluatePreconditions(entityTag)
+                : request.evaluatePreconditions(lastModified, entityTag);
+            if (preconditionResponse != null) {
+                if (response != null) {
+                    for (String header : NOT_MODIFIED_HEADERS) {
+                        List<Object> values = response.getHeaders().get(header);
+                        if (values != null) {
+                            values.forEach(value -> preconditionResponse.header(header, value));
+                        }
+                    }
+                }
+                Response conditionalResponse = preconditionResponse.build();
+                if (entityTag != null && conditionalResponse.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                    conditionalResponse = Response.fromResponse(conditionalResponse)
+                        .tag(getHeldTag(inMessage, entityTag)).build();
+                }
+                contents.set(0, conditionalResponse);
+            }
+        }
+    }
+
+    /**
+     * Replaces the response stream of GET requests with one hashing the entity while it is written.
+     */
+    static class EntityTagInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final int maxHashedSize;
+
+        EntityTagInterceptor(int maxHashedSize) {
+            super(Phase.PREPARE_SEND);
+            addAfter(MessageSenderInterceptor.class.getName());
+            //Wrapping the compression stream hashes the entity before it is compressed
+            addAfter(CompressionFeature.class.getName() + "$CompressionOutInterceptor");
+            this.maxHashedSize = maxHashedSize;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            Message inMessage = message.getExchange().getInMessage();
+            if (MessageUtils.isRequestor(message) || inMessage == null
+                || !HttpMethod.GET.equals(inMessage.get(Message.HTTP_REQUEST_METHOD))) {
+                return;
+            }
+            OutputStream os = message.getContent(OutputStream.class);
+            if (os != null) {
+                message.setContent(OutputStream.class, new HashingThresholdOutputStream(message, os, maxHashedSize));
+            }
+        }
+    }
+
+    /**
+     * Holds back the entity while hashing it.  Once the entity is complete the tag is added, or the response is turned
+     * into a 304 when the request already has the tag, before the held back bytes are written.
+     */
+    private static final class HashingThresholdOutputStream extends AbstractThresholdOutputStream {
+
+        private final Message message;
+
+        private final MessageDigest digest;
+
+        HashingThresholdOutputStream(Message message, OutputStream wrappedStream, int maxHashedSize) {
+            //The buffer has to hold the whole entity, reaching the threshold means it is too large to tag
+            super(maxHashedSize + 1);
+            this.message = message;
+            this.wrappedStream = wrappedStream;
+            try {
+                this.digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            } catch (NoSuchAlgorithmException nsae) {
+                throw new IllegalStateException(HASH_ALGORITHM + " is required on every Java platform", nsae);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (buffer != null) {
+                digest.update(b, off, len);
+            }
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (buffer != null) {
+                digest.update((byte) b);
+            }
+            super.write(b);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            //Flushing the underlying stream commits the headers, hold it back until the tag is known
+            if (buffer == null) {
+                super.flush();
+            }
+        }
+
+        @Override
+        public void thresholdReached() {
+            //Too large to hold back and hash, only a version supplied by the resource is sent
+            EntityTag versionTag = (EntityTag) message.getExchange().get(VERSION_TAG_KEY);
+            if (versionTag != null && isUntaggedOk()) {
+                setEntityTag(versionTag);
+            }
+        }
+
+        @Override
+        public void thresholdNotReached() {
+            if (!isUntaggedOk()) {
+                return;
+            }
+            EntityTag versionTag = (EntityTag) message.getExchange().get(VERSION_TAG_KEY);
+            EntityTag entityTag = versionTag != null ? versionTag : new EntityTag(Base64UrlUtility.encode(digest.digest()));
+            setEntityTag(entityTag);
+            if (matchesIfNoneMatch(entityTag)) {
+                setEntityTag(getHeldTag(message.getExchange().getInMessage(), entityTag));
+                message.put(Message.RESPONSE_CODE, Response.Status.NOT_MODIFIED.getStatusCode());
+                getResponseHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                //Drop the held back entity, a 304 has no body
+                buffer = null;
+            }
+        }
+
+        /**
+         * Only successful responses without a tag of the resource get one, the preconditions for a tag supplied by the
+         * resource were evaluated before serialization.
+         */
+        private boolean isUntaggedOk() {
+            Integer responseCode = (Integer) message.get(Message.RESPONSE_CODE);
+            List<Object> suppliedTag = getHeader(getResponseHeaders(), HttpHeaders.ETAG);
+            return (responseCode == null || responseCode == Response.Status.OK.getStatusCode())
+                && (suppliedTag == null || suppliedTag.isEmpty());
+        }
+
+        private void setEntityTag(EntityTag entityTag) {
+            List<Object> tagValues = new ArrayList<>();
+            tagValues.add(entityTag.toString());
+            getResponseHeaders().put(HttpHeaders.ETAG, tagValues);
+        }
+
+        private boolean matchesIfNoneMatch(EntityTag entityTag) {
+            Response.ResponseBuilder preconditionResponse = createConditionalRequest(message.getExchange().getInMessage())
+                .evaluatePreconditions(entityTag);
+            return preconditionResponse != null
+                && preconditionResponse.build().getStatus() == Response.Status.NOT_MODIFIED.getStatusCode();
+        }
+
+        private Map<String, List<Object>> getResponseHeaders() {
+            Map<String, List<Object>> headers = CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+            if (headers == null) {
+                headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                message.put(Message.PROTOCOL_HEADERS, headers);
+            }
+            return headers;
+        }
+    }
+}
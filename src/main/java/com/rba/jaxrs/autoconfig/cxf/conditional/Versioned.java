@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.conditional;
+
+/**
+ * Entity that knows the version of the data it represents, for example a row version or a revision number.  When a
+ * resource returns a versioned entity the {@link ConditionalRequestFeature} uses the token as the strong entity tag and
+ * answers a matching {@code If-None-Match} with a 304 without serializing the entity.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public interface Versioned {
+
+    /**
+     * The token identifying the version of the entity, it has to change whenever the serialized entity changes.
+     *
+     * @return the version token, null when the version is unknown
+     */
+    String getVersionToken();
+}
@@ -16,8 +16,27 @@
 
 package com.rba.jaxrs.autoconfig.cxf.config;
 
+import com.rba.jaxrs.autoconfig.core.exceptions.EndpointInitializationException;
+import com.rba.jaxrs.autoconfig.core.scan.AutoConfigClasspathIndex;
 import com.rba.jaxrs.autoconfig.core.scan.JaxRsAutoConfigScanner;
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport;
 import com.rba.jaxrs.autoconfig.core.transform.EndpointContextContainer;
+import com.rba.jaxrs.autoconfig.cxf.async.AsyncJaxrsInvoker;
+import com.rba.jaxrs.autoconfig.cxf.async.VirtualThreadJaxrsInvoker;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfiguration;
+import com.rba.jaxrs.autoconfig.cxf.bulkhead.BulkheadExecutor;
+import com.rba.jaxrs.autoconfig.cxf.bulkhead.BulkheadRegistry;
+import com.rba.jaxrs.autoconfig.cxf.compression.CompressionFeature;
+import com.rba.jaxrs.autoconfig.cxf.limit.ConcurrencyLimitFeature;
+import com.rba.jaxrs.autoconfig.cxf.limit.ConcurrencyLimitRegistry;
+import com.rba.jaxrs.autoconfig.cxf.metrics.EndpointMetricsFeature;
+import com.rba.jaxrs.autoconfig.cxf.metrics.EndpointMetricsRegistry;
+import com.rba.jaxrs.autoconfig.cxf.priority.PriorityScheduler;
+import com.rba.jaxrs.autoconfig.cxf.shedding.QueueSheddingFeature;
+import com.rba.jaxrs.autoconfig.cxf.shedding.QueueSheddingRegistry;
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusException;
+import org.apache.cxf.BusFactory;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.apache.cxf.service.factory.ServiceConstructionException;
 import org.slf4j.Logger;
@@ -29,9 +48,27 @@ import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -52,6 +89,36 @@ public class CxfJaxrsInitializer implements ApplicationContextAware, DisposableB
 
     private ApplicationContext appContext;
 
+    private AutoConfigClasspathIndex classpathIndex;
+
+    private int initParallelism = 1;
+
+    private Duration initTimeout = Duration.ofSeconds(60);
+
+    private boolean lazyActivation;
+
+    private final Map<String, LazyEndpointActivator> lazyActivators = new LinkedHashMap<>();
+
+    private AutoConfigStartupReport startupReport;
+
+    private EffectiveCxfConfigurationReport configurationReport;
+
+    private Map<String, List<CxfServerFactoryCustomizer>> replayedCustomizers = Collections.emptyMap();
+
+    private EndpointMetricsRegistry endpointMetricsRegistry;
+
+    private BulkheadRegistry bulkheadRegistry = new BulkheadRegistry();
+
+    private Set<String> virtualThreadAddresses = Collections.emptySet();
+
+    private CompressionFeature compressionFeature;
+
+    private ConcurrencyLimitRegistry concurrencyLimitRegistry;
+
+    private QueueSheddingRegistry queueSheddingRegistry;
+
+    private PriorityScheduler priorityScheduler;
+
     public CxfJaxrsInitializer(JaxRsAutoConfigScanner scanner,
         ObjectProvider<CxfServerFactoryCustomizer> factoryCustomizers,
         List<String> packagesToScan, List<String> packagesNotToScan) {
@@ -61,7 +128,167 @@ public class CxfJaxrsInitializer implements ApplicationContextAware, DisposableB
         blacklist = packagesNotToScan;
     }
 
+    /**
+     * Sets the classpath index shared by the scanner and transformer.  The index is closed as soon as the endpoints are
+     * initialized so the scan data does not stay on the heap for the life of the application.
+     *
+     * @param classpathIndex the shared classpath index
+     */
+    public void setClasspathIndex(AutoConfigClasspathIndex classpathIndex) {
+        this.classpathIndex = classpathIndex;
+    }
+
+    /**
+     * Sets how many endpoint groups are built and created at the same time.  Values of 1 or less initialize the groups
+     * one after another on the calling thread.
+     *
+     * @param initParallelism the initialization parallelism
+     */
+    public void setInitParallelism(int initParallelism) {
+        this.initParallelism = initParallelism;
+    }
+
+    /**
+     * Sets the time each endpoint group is given to initialize in parallel mode.  Groups that fail or time out are
+     * reported together in address order once all groups have finished.
+     *
+     * @param initTimeout the per group initialization timeout
+     */
+    public void setInitTimeout(Duration initTimeout) {
+        if (initTimeout == null || initTimeout.isNegative() || initTimeout.isZero()) {
+            throw new IllegalArgumentException("The initialization timeout must be a positive duration");
+        }
+        this.initTimeout = initTimeout;
+    }
+
+    /**
+     * Sets whether endpoint groups are only built when the first request reaches their address.  In lazy mode a
+     * placeholder destination is registered per address at startup and the parallelism setting is not used.
+     *
+     * @param lazyActivation true to defer resource bean and server creation until the first request
+     */
+    public void setLazyActivation(boolean lazyActivation) {
+        this.lazyActivation = lazyActivation;
+    }
+
+    /**
+     * The lazy activators registered at startup keyed by address in address order.  The activators report whether
+     * their group was activated, the first hit latency and the activation counts.
+     *
+     * @return the lazy activators, empty unless lazy activation is enabled
+     */
+    public Map<String, LazyEndpointActivator> getLazyEndpointActivators() {
+        return Collections.unmodifiableMap(lazyActivators);
+    }
+
+    /**
+     * Sets the report receiving the per endpoint group bean creation, customization and server creation timings.
+     *
+     * @param startupReport the startup report
+     */
+    public void setStartupReport(AutoConfigStartupReport startupReport) {
+        this.startupReport = startupReport;
+    }
+
+    /**
+     * Sets the report receiving the effective configuration applied to each endpoint group.
+     *
+     * @param configurationReport the effective configuration report
+     */
+    public void setConfigurationReport(EffectiveCxfConfigurationReport configurationReport) {
+        this.configurationReport = configurationReport;
+    }
+
+    /**
+     * Sets the registry the request metrics of every created server are recorded in.  No metrics are recorded when not
+     * set.
+     *
+     * @param endpointMetricsRegistry the endpoint metrics registry
+     */
+    public void setEndpointMetricsRegistry(EndpointMetricsRegistry endpointMetricsRegistry) {
+        this.endpointMetricsRegistry = endpointMetricsRegistry;
+    }
+
+    /**
+     * Sets the registry that creates the dedicated executors of addresses with an executor spec.  The executors are shut
+     * down when the initializer is destroyed.
+     *
+     * @param bulkheadRegistry the bulkhead registry
+     */
+    public void setBulkheadRegistry(BulkheadRegistry bulkheadRegistry) {
+        if (bulkheadRegistry == null) {
+            throw new IllegalArgumentException("A bulkhead registry is required");
+        }
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    public BulkheadRegistry getBulkheadRegistry() {
+        return bulkheadRegistry;
+    }
+
+    /**
+     * Sets the endpoint addresses whose resource methods are invoked on a new virtual thread per request.  The request
+     * is suspended while the virtual thread runs, so the container thread is released, which needs a servlet with async
+     * support.  Virtual threads need Java 21, on older JVMs the addresses keep invoking on the request thread.  An
+     * executor spec configured for an address takes precedence.
+     *
+     * @param virtualThreadAddresses the addresses to invoke on virtual threads
+     */
+    public void setVirtualThreadAddresses(Collection<String> virtualThreadAddresses) {
+        this.virtualThreadAddresses = virtualThreadAddresses == null
+            ? Collections.emptySet() : new HashSet<>(virtualThreadAddresses);
+    }
+
+    /**
+     * Sets the response compression added to the endpoint groups the feature applies to.
+     *
+     * @param compressionFeature the compression feature, null to leave responses uncompressed
+     */
+    public void setCompressionFeature(CompressionFeature compressionFeature) {
+        this.compressionFeature = compressionFeature;
+    }
+
+    /**
+     * Sets the registry holding the adaptive concurrency limit of every endpoint group.  Requests are not limited when
+     * not set.
+     *
+     * @param concurrencyLimitRegistry the concurrency limit registry
+     */
+    public void setConcurrencyLimitRegistry(ConcurrencyLimitRegistry concurrencyLimitRegistry) {
+        this.concurrencyLimitRegistry = concurrencyLimitRegistry;
+    }
+
+    /**
+     * Sets the registry holding the queue delay shedder of every endpoint group.  Requests are not shed when not set, and
+     * only the endpoint groups invoked on a service executor, from an executor spec or priority scheduling, are shed.
+     *
+     * @param queueSheddingRegistry the queue shedding registry
+     */
+    public void setQueueSheddingRegistry(QueueSheddingRegistry queueSheddingRegistry) {
+        this.queueSheddingRegistry = queueSheddingRegistry;
+    }
+
+    /**
+     * Sets the scheduler invoking the resource methods of every endpoint group by priority.  Executor specs and virtual
+     * threads configured for an address take precedence, those addresses keep their own threads.
+     *
+     * @param priorityScheduler the priority scheduler, null to invoke without priorities
+     */
+    public void setPriorityScheduler(PriorityScheduler priorityScheduler) {
+        this.priorityScheduler = priorityScheduler;
+    }
+
     public void initializeCxfEndpoints() {
+        try {
+            createCxfEndpoints();
+        } finally {
+            if (classpathIndex != null) {
+                classpathIndex.close();
+            }
+        }
+    }
+
+    private void createCxfEndpoints() {
         Map<EndpointContextContainer, List<Class<?>>> configurationData;
         if (!blacklist.isEmpty()) {
             configurationData = scanner.getAutoConfigurationData(
@@ -71,32 +298,294 @@ public class CxfJaxrsInitializer implements ApplicationContextAware, DisposableB
         }
         AutowireCapableBeanFactory beanFactory = appContext.getAutowireCapableBeanFactory();
         //The scanner will have collapsed any paths that boil down to the same actual address so we only need to process
-        // each map entry.
-        for (Map.Entry<EndpointContextContainer, List<Class<?>>> mapEntry : configurationData.entrySet()) {
-            if (mapEntry.getKey().isEnabled()) {
-
-                List<Object> resourceBeans = new ArrayList<>();
-                for (Class<?> resourceClass : mapEntry.getValue()) {
-                    Object bean = beanFactory.createBean(resourceClass, AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE, true);
-                    resourceBeans.add(bean);
-                }
-                JAXRSServerFactoryBean cxfFactoryBean = new JAXRSServerFactoryBean();
-                cxfFactoryBean.setAddress(mapEntry.getKey().getEndpointContext());
-                cxfFactoryBean.setServiceBeans(resourceBeans);
-                //Run factory through customizers
-                cxfCustomizers.stream().sorted().forEach((customizer) -> customizer.customize(cxfFactoryBean));
-                //Initialize the jaxrs factory.  The factory will inspect for @Path annotations.  If it is missing on all
-                // the beans it will fail to construct the service.  Handle this and log as warning.
+        // each enabled map entry.  Order by address so both initialization modes process and report in the same order.
+        List<Map.Entry<EndpointContextContainer, List<Class<?>>>> endpointGroups = configurationData.entrySet().stream()
+            .filter(mapEntry -> mapEntry.getKey().isEnabled())
+            .sorted(Comparator.comparing(mapEntry -> mapEntry.getKey().getEndpointContext()))
+            .collect(Collectors.toList());
+        //Resolve, sort and merge the customizers once on this thread rather than replaying them for every group
+        Map<String, List<CxfServerFactoryCustomizer>> customizersByAddress = indexCustomizers(
+            cxfCustomizers.stream().sorted().collect(Collectors.toList()), endpointGroups);
+        Map<String, CxfConfiguration> configurationsByAddress = mergeConfigurations(customizersByAddress);
+        replayedCustomizers = selectReplayedCustomizers(customizersByAddress);
+        if (configurationReport != null) {
+            configurationReport.setConfigurations(configurationsByAddress);
+        }
+        if (lazyActivation) {
+            for (Map.Entry<EndpointContextContainer, List<Class<?>>> mapEntry : endpointGroups) {
+                registerLazyEndpointGroup(mapEntry.getKey(), mapEntry.getValue(),
+                    configurationsByAddress.get(mapEntry.getKey().getEndpointContext()), beanFactory);
+            }
+        } else if (initParallelism > 1 && endpointGroups.size() > 1) {
+            initializeEndpointGroupsInParallel(endpointGroups, configurationsByAddress, beanFactory);
+        } else {
+            for (Map.Entry<EndpointContextContainer, List<Class<?>>> mapEntry : endpointGroups) {
+                initializeEndpointGroup(mapEntry.getKey(), mapEntry.getValue(),
+                    configurationsByAddress.get(mapEntry.getKey().getEndpointContext()), beanFactory);
+            }
+        }
+    }
+
+    /**
+     * Builds the customizers each endpoint group has to visit.  Every list starts with the customizers applying to all
+     * endpoints followed by the customizers targeting the group address, both in sorted order, so a group never looks at
+     * customizers meant for other addresses.
+     *
+     * @param sortedCustomizers all customizers in sorted order
+     * @param endpointGroups the enabled endpoint groups
+     * @return the customizers by group address
+     */
+    static Map<String, List<CxfServerFactoryCustomizer>> indexCustomizers(List<CxfServerFactoryCustomizer> sortedCustomizers,
+        List<Map.Entry<EndpointContextContainer, List<Class<?>>>> endpointGroups) {
+        List<CxfServerFactoryCustomizer> globalCustomizers = new ArrayList<>();
+        Map<String, List<CxfServerFactoryCustomizer>> targetedCustomizers = new HashMap<>();
+        for (CxfServerFactoryCustomizer customizer : sortedCustomizers) {
+            if (customizer.isApplyToAllEndpoints()) {
+                globalCustomizers.add(customizer);
+            } else if (customizer.getTargetContext().isEnabled()) {
+                targetedCustomizers.computeIfAbsent(customizer.getTargetContext().getEndpointContext(),
+                    key -> new ArrayList<>()).add(customizer);
+            }
+        }
+        Map<String, List<CxfServerFactoryCustomizer>> customizersByAddress = new HashMap<>();
+        for (Map.Entry<EndpointContextContainer, List<Class<?>>> mapEntry : endpointGroups) {
+            String address = mapEntry.getKey().getEndpointContext();
+            List<CxfServerFactoryCustomizer> groupCustomizers = new ArrayList<>(globalCustomizers);
+            groupCustomizers.addAll(targetedCustomizers.getOrDefault(address, Collections.emptyList()));
+            customizersByAddress.put(address, Collections.unmodifiableList(groupCustomizers));
+        }
+        return customizersByAddress;
+    }
+
+    /**
+     * Merges the customizers of each address into the one effective configuration the address is built with.  Addresses
+     * visited by the same customizers, typically all addresses that only have the global customizers, share a single
+     * merged configuration.
+     *
+     * @param customizersByAddress the customizers by group address in the order they apply
+     * @return the effective configuration by group address
+     */
+    static Map<String, CxfConfiguration> mergeConfigurations(
+        Map<String, List<CxfServerFactoryCustomizer>> customizersByAddress) {
+        Map<List<CxfServerFactoryCustomizer>, CxfConfiguration> mergedConfigurations = new HashMap<>();
+        Map<String, CxfConfiguration> configurationsByAddress = new HashMap<>();
+        for (Map.Entry<String, List<CxfServerFactoryCustomizer>> mapEntry : customizersByAddress.entrySet()) {
+            configurationsByAddress.put(mapEntry.getKey(), mergedConfigurations.computeIfAbsent(mapEntry.getValue(),
+                customizers -> CxfServerFactoryMerger.mergeConfigurations(customizers.stream()
+                    .map(CxfServerFactoryCustomizer::getCxfConfiguration)
+                    .collect(Collectors.toList()))));
+        }
+        return configurationsByAddress;
+    }
+
+    /**
+     * Finds the addresses whose customizers include a subclass overriding {@code customize}.  Merging would skip the
+     * override, so these addresses keep applying their customizers one by one in order.
+     *
+     * @param customizersByAddress the customizers by group address in the order they apply
+     * @return the customizers to apply one by one by group address
+     */
+    static Map<String, List<CxfServerFactoryCustomizer>> selectReplayedCustomizers(
+        Map<String, List<CxfServerFactoryCustomizer>> customizersByAddress) {
+        Map<String, List<CxfServerFactoryCustomizer>> replayed = new HashMap<>();
+        for (Map.Entry<String, List<CxfServerFactoryCustomizer>> mapEntry : customizersByAddress.entrySet()) {
+            if (mapEntry.getValue().stream().anyMatch(CxfServerFactoryCustomizer::isCustomizeOverridden)) {
+                LOG.debug("Applying the customizers of " + mapEntry.getKey()
+                    + " one by one since one of them overrides customize");
+                replayed.put(mapEntry.getKey(), mapEntry.getValue());
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Applies the customization of an address to its factory, the merged configuration in one pass unless the address
+     * has a customizer overriding {@code customize}.
+     *
+     * @param cxfFactoryBean the factory of the address
+     * @param cxfConfig the merged configuration of the address
+     */
+    private void customizeFactory(JAXRSServerFactoryBean cxfFactoryBean, CxfConfiguration cxfConfig) {
+        CxfServerFactoryMerger factoryMerger = new CxfServerFactoryMerger(cxfFactoryBean);
+        List<CxfServerFactoryCustomizer> customizers = replayedCustomizers.get(cxfFactoryBean.getAddress());
+        if (customizers == null) {
+            factoryMerger.merge(cxfConfig);
+        } else {
+            customizers.forEach(customizer -> customizer.applyTo(factoryMerger));
+        }
+    }
+
+    private void initializeEndpointGroupsInParallel(List<Map.Entry<EndpointContextContainer, List<Class<?>>>> endpointGroups,
+        Map<String, CxfConfiguration> configurationsByAddress, AutowireCapableBeanFactory beanFactory) {
+        //Worker threads see the same default bus and class loader as the startup thread so the servers are identical to
+        // the ones the sequential path creates
+        Bus threadBus = BusFactory.getThreadDefaultBus(false);
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService initExecutor = Executors.newFixedThreadPool(Math.min(initParallelism, endpointGroups.size()),
+            runnable -> {
+                Thread initThread = new Thread(runnable, "jaxrs-autoconfig-init-" + threadCount.incrementAndGet());
+                initThread.setDaemon(true);
+                initThread.setContextClassLoader(contextClassLoader);
+                return initThread;
+            });
+        try {
+            List<Future<?>> groupFutures = new ArrayList<>();
+            for (Map.Entry<EndpointContextContainer, List<Class<?>>> mapEntry : endpointGroups) {
+                groupFutures.add(initExecutor.submit(() -> {
+                    BusFactory.setThreadDefaultBus(threadBus);
+                    try {
+                        initializeEndpointGroup(mapEntry.getKey(), mapEntry.getValue(),
+                            configurationsByAddress.get(mapEntry.getKey().getEndpointContext()), beanFactory);
+                    } finally {
+                        BusFactory.setThreadDefaultBus(null);
+                    }
+                }));
+            }
+            List<String> failedAddresses = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            //Waiting in address order gives every group at least the configured timeout and a deterministic report
+            for (int i = 0; i < groupFutures.size(); i++) {
+                String address = endpointGroups.get(i).getKey().getEndpointContext();
                 try {
-                    beanFactory.initializeBean(cxfFactoryBean.create(),
-                        "cxfserver" + cxfFactoryBean.getAddress().replaceAll("/", "-"));
-                } catch (ServiceConstructionException sce) {
-                    String resources = resourceBeans.stream()
-                        .map(expectedBean -> expectedBean.getClass().getSimpleName())
-                        .collect(Collectors.joining());
-                    LOG.warn("Error creating Cxf Jaxrs Server that was expected to contain service beans: " + resources);
+                    groupFutures.get(i).get(initTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (ExecutionException ee) {
+                    failedAddresses.add(address);
+                    failures.add(ee.getCause());
+                } catch (TimeoutException te) {
+                    groupFutures.get(i).cancel(true);
+                    failedAddresses.add(address);
+                    failures.add(new TimeoutException("Initialization of endpoint group " + address
+                        + " did not complete within " + initTimeout));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new EndpointInitializationException("Interrupted while initializing endpoint groups",
+                        Collections.singletonList(address), Collections.singletonList(ie));
                 }
             }
+            if (!failures.isEmpty()) {
+                throw new EndpointInitializationException("Failed to initialize endpoint groups: "
+                    + String.join(", ", failedAddresses), failedAddresses, failures);
+            }
+        } finally {
+            initExecutor.shutdownNow();
+        }
+    }
+
+    private void registerLazyEndpointGroup(EndpointContextContainer endpointContext, List<Class<?>> resourceClasses,
+        CxfConfiguration cxfConfig, AutowireCapableBeanFactory beanFactory) {
+        JAXRSServerFactoryBean cxfFactoryBean = new JAXRSServerFactoryBean();
+        cxfFactoryBean.setAddress(endpointContext.getEndpointContext());
+        //Customizing up front is cheap and settles the bus the placeholder is registered on
+        long startNanos = System.nanoTime();
+        customizeFactory(cxfFactoryBean, cxfConfig);
+        addEndpointFeatures(cxfFactoryBean, cxfConfig);
+        recordPhase(AutoConfigStartupReport.Phase.CUSTOMIZATION, cxfFactoryBean.getAddress(), startNanos);
+        try {
+            lazyActivators.put(cxfFactoryBean.getAddress(),
+                new LazyEndpointActivator(cxfFactoryBean, resourceClasses, beanFactory, startupReport));
+        } catch (IOException | BusException e) {
+            LOG.warn("Unable to register a placeholder for endpoint group " + cxfFactoryBean.getAddress()
+                + ", initializing it now", e);
+            initializeEndpointGroup(endpointContext, resourceClasses, cxfConfig, beanFactory);
+        }
+    }
+
+    private void initializeEndpointGroup(EndpointContextContainer endpointContext, List<Class<?>> resourceClasses,
+        CxfConfiguration cxfConfig, AutowireCapableBeanFactory beanFactory) {
+        String address = endpointContext.getEndpointContext();
+        long startNanos = System.nanoTime();
+        List<Object> resourceBeans = new ArrayList<>();
+        for (Class<?> resourceClass : resourceClasses) {
+            Object bean = beanFactory.createBean(resourceClass, AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE, true);
+            resourceBeans.add(bean);
+        }
+        recordPhase(AutoConfigStartupReport.Phase.BEAN_CREATION, address, startNanos);
+        JAXRSServerFactoryBean cxfFactoryBean = new JAXRSServerFactoryBean();
+        cxfFactoryBean.setAddress(address);
+        cxfFactoryBean.setServiceBeans(resourceBeans);
+        //Apply the merged configuration of the customizers in one pass
+        startNanos = System.nanoTime();
+        customizeFactory(cxfFactoryBean, cxfConfig);
+        addEndpointFeatures(cxfFactoryBean, cxfConfig);
+        recordPhase(AutoConfigStartupReport.Phase.CUSTOMIZATION, address, startNanos);
+        //Initialize the jaxrs factory.  The factory will inspect for @Path annotations.  If it is missing on all
+        // the beans it will fail to construct the service.  Handle this and log as warning.
+        startNanos = System.nanoTime();
+        try {
+            beanFactory.initializeBean(cxfFactoryBean.create(),
+                "cxfserver" + cxfFactoryBean.getAddress().replaceAll("/", "-"));
+            recordPhase(AutoConfigStartupReport.Phase.SERVER_CREATION, address, startNanos);
+        } catch (ServiceConstructionException sce) {
+            String resources = resourceBeans.stream()
+                .map(expectedBean -> expectedBean.getClass().getSimpleName())
+                .collect(Collectors.joining());
+            LOG.warn("Error creating Cxf Jaxrs Server that was expected to contain service beans: " + resources);
+        }
+    }
+
+    private void addEndpointFeatures(JAXRSServerFactoryBean cxfFactoryBean, CxfConfiguration cxfConfig) {
+        String address = cxfFactoryBean.getAddress();
+        if (concurrencyLimitRegistry != null) {
+            cxfFactoryBean.getFeatures().add(new ConcurrencyLimitFeature(concurrencyLimitRegistry.getLimiter(address)));
+        }
+        //The service executor is used by CXF to run the resource invocation
+        Executor virtualThreadExecutor = null;
+        if (cxfConfig.getExecutorSpec() != null) {
+            cxfFactoryBean.getServiceFactory().setExecutor(
+                bulkheadRegistry.getExecutor(address, cxfConfig.getExecutorSpec()));
+        } else if (virtualThreadAddresses.contains(address)) {
+            virtualThreadExecutor = bulkheadRegistry.getVirtualThreadExecutor(address);
+            if (virtualThreadExecutor == null) {
+                LOG.info("Virtual threads require Java 21, endpoint group {} invokes on the request threads", address);
+            }
+        }
+        if (priorityScheduler != null && virtualThreadExecutor == null
+            && cxfFactoryBean.getServiceFactory().getExecutor() == null) {
+            cxfFactoryBean.getServiceFactory().setExecutor(
+                rejectWithServiceUnavailable(priorityScheduler.getExecutor(address)));
+        }
+        //Virtual threads are not the service executor, CXF would hold the request thread while waiting for them
+        if (virtualThreadExecutor != null) {
+            cxfFactoryBean.setInvoker(new VirtualThreadJaxrsInvoker(cxfConfig.getAsyncSpec(), virtualThreadExecutor));
+        } else if (cxfConfig.getAsyncSpec() != null) {
+            cxfFactoryBean.setInvoker(new AsyncJaxrsInvoker(cxfConfig.getAsyncSpec()));
+        }
+        //Without a service executor a request is invoked right after it arrives and there is no queue to measure
+        if (queueSheddingRegistry != null) {
+            if (cxfFactoryBean.getServiceFactory().getExecutor() != null) {
+                cxfFactoryBean.getFeatures().add(new QueueSheddingFeature(queueSheddingRegistry.getShedder(address)));
+            } else {
+                LOG.warn("Queue shedding needs an executor spec or priority scheduling, endpoint group {} is not shed",
+                    address);
+            }
+        }
+        if (compressionFeature != null && compressionFeature.appliesTo(address)) {
+            cxfFactoryBean.getFeatures().add(compressionFeature);
+        }
+        if (endpointMetricsRegistry != null) {
+            cxfFactoryBean.getFeatures().add(new EndpointMetricsFeature(
+                endpointMetricsRegistry.getEndpointMetrics(cxfFactoryBean.getAddress())));
+        }
+    }
+
+    /**
+     * CXF answers an exception from the service executor with a 500, rejections are turned into the 503 the bulkhead
+     * answers with.
+     */
+    private static Executor rejectWithServiceUnavailable(Executor executor) {
+        return invocation -> {
+            try {
+                executor.execute(invocation);
+            } catch (RejectedExecutionException ree) {
+                throw BulkheadExecutor.toServiceUnavailable(ree);
+            }
+        };
+    }
+
+    private void recordPhase(AutoConfigStartupReport.Phase phase, String address, long startNanos) {
+        if (startupReport != null) {
+            startupReport.recordSince(phase, address, startNanos);
         }
     }
 
@@ -108,6 +597,6 @@ public class CxfJaxrsInitializer implements ApplicationContextAware, DisposableB
 
     @Override
     public void destroy() throws Exception {
-
+        bulkheadRegistry.shutdown();
     }
 }
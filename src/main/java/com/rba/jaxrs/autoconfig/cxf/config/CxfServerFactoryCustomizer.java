@@ -23,8 +23,6 @@ import com.rba.jaxrs.autoconfig.core.transform.EndpointContextContainer;
 import com.rba.jaxrs.autoconfig.core.transform.RestApiContextTransformer;
 import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
 import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfiguration;
-import org.apache.cxf.feature.Feature;
-import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -38,14 +36,19 @@ import java.util.Objects;
 public class CxfServerFactoryCustomizer implements BootCustomizer<JAXRSServerFactoryBean>,
     Comparable<CxfServerFactoryCustomizer> {
 
-    //Autowiring not required as it should use the assigned default provided by the auto configuration system
+    //Autowiring not required, when no transformer is wired the shared default is used on first access
     @Autowired(required = false)
-    private RestApiContextTransformer contextTransformer = new DefaultRestApiEndpointTransformer();
+    private RestApiContextTransformer contextTransformer;
 
     private final CxfConfiguration cxfConfig;
     private final boolean applyToAllEndpoints;
     private final ApiVersion apiVersion;
     private final ApiContext[] apiContexts;
+    //Resolved on first use once the transformer is available, the version and contexts never change afterwards
+    private volatile EndpointContextContainer targetContext;
+    //Subclasses overriding a customize method expect it to be called, which rules out merging their configuration
+    private final boolean factoryCustomizeOverridden = overridesCustomize(JAXRSServerFactoryBean.class);
+    private final boolean mergerCustomizeOverridden = overridesCustomize(CxfServerFactoryMerger.class);
 
     public CxfServerFactoryCustomizer(CxfConfiguration cxfConfig, boolean applyToAllEndpoints,
         ApiVersion apiVersion, ApiContext... contexts) {
@@ -60,59 +63,91 @@ public class CxfServerFactoryCustomizer implements BootCustomizer<JAXRSServerFac
 
     @Override
     public void customize(JAXRSServerFactoryBean factory) {
-        EndpointContextContainer contextContainer = contextTransformer.resolveApiPath(apiVersion, apiContexts);
-        if (factory != null
-            && (applyToAllEndpoints
-            || (contextContainer.isEnabled()
-            && contextContainer.getEndpointContext().equals(factory.getAddress())))
-        ) {
-            //Since calling getBus on the JAXRSServerFactoryBean will create a bus if needed always set the bus if we have
-            // one
-            if (cxfConfig.getBus() != null) {
-                factory.setBus(cxfConfig.getBus());
-            }
+        if (factory != null) {
+            customize(new CxfServerFactoryMerger(factory));
+        }
+    }
+
+    /**
+     * Merges the configuration into the merger's factory if this customizer applies to its address.  Using one merger
+     * for all customizers of a factory lets the duplicate checks share the merger's sets.
+     *
+     * @param merger the merger for the factory being customized
+     */
+    public void customize(CxfServerFactoryMerger merger) {
+        if (merger != null && appliesTo(merger.getFactory().getAddress())) {
             //Root Context will be setting up and application
             //if(cxfConfig.getRootContext())
-            for (Feature feature : cxfConfig.getFeatures()) {
-                if (!factory.getFeatures().contains(feature)) {
-                    factory.getFeatures().add(feature);
-                }
-            }
-            for (Interceptor<?> interceptor : cxfConfig.getInInterceptors()) {
-                if (!factory.getInInterceptors().contains(interceptor)) {
-                    factory.getInInterceptors().add(interceptor);
-                }
-
-            }
-            for (Interceptor<?> interceptor : cxfConfig.getOutInterceptors()) {
-                if (!factory.getOutInterceptors().contains(interceptor)) {
-                    factory.getOutInterceptors().add(interceptor);
-                }
-            }
-            for (Interceptor<?> interceptor : cxfConfig.getInFaultInterceptors()) {
-                if (!factory.getInFaultInterceptors().contains(interceptor)) {
-                    factory.getInFaultInterceptors().add(interceptor);
-                }
-
-            }
-            for (Interceptor<?> interceptor : cxfConfig.getOutFaultInterceptors()) {
-                if (!factory.getOutFaultInterceptors().contains(interceptor)) {
-                    factory.getOutFaultInterceptors().add(interceptor);
-                }
-            }
-            //Properties are using a last one wins strategy as we will order the customizers
-            factory.getProperties(true).putAll(cxfConfig.getProperties());
-
-            for (Object provider : cxfConfig.getProviders()) {
-                if (!factory.getProviders().contains(provider)) {
-                    factory.setProvider(provider);
-                }
-            }
+            merger.merge(cxfConfig);
+        }
+    }
 
+    private boolean overridesCustomize(Class<?> parameterType) {
+        try {
+            return getClass().getMethod("customize", parameterType).getDeclaringClass() != CxfServerFactoryCustomizer.class;
+        } catch (NoSuchMethodException nsme) {
+            return false;
         }
     }
 
+    /**
+     * Whether a subclass overrides one of the customize methods.  The initializer then applies the customizers of the
+     * addresses this customizer applies to one by one instead of merging their configurations up front.
+     *
+     * @return true if {@link #customize(JAXRSServerFactoryBean)} or {@link #customize(CxfServerFactoryMerger)} is
+     *         overridden
+     */
+    boolean isCustomizeOverridden() {
+        return factoryCustomizeOverridden || mergerCustomizeOverridden;
+    }
+
+    /**
+     * Applies this customizer to a factory being customized one customizer at a time.  An overridden
+     * {@link #customize(JAXRSServerFactoryBean)} is called with the factory, otherwise the shared merger is used.
+     *
+     * @param merger the merger for the factory being customized
+     */
+    void applyTo(CxfServerFactoryMerger merger) {
+        if (factoryCustomizeOverridden) {
+            customize(merger.getFactory());
+        } else {
+            customize(merger);
+        }
+    }
+
+    /**
+     * The context this customizer targets.  It is resolved through the transformer the first time it is needed and
+     * then reused, so it can be used as a stable key when matching customizers to endpoint groups.
+     *
+     * @return the target context
+     */
+    public EndpointContextContainer getTargetContext() {
+        EndpointContextContainer resolvedContext = targetContext;
+        if (resolvedContext == null) {
+            resolvedContext = getContextTransformer().resolveApiPath(apiVersion, apiContexts);
+            targetContext = resolvedContext;
+        }
+        return resolvedContext;
+    }
+
+    /**
+     * Checks whether this customizer applies to the server hosted at an address.
+     *
+     * @param address the server address
+     * @return true if the customizer applies to all endpoints or targets the enabled context at the address
+     */
+    public boolean appliesTo(String address) {
+        if (applyToAllEndpoints) {
+            return true;
+        }
+        EndpointContextContainer contextContainer = getTargetContext();
+        return contextContainer.isEnabled() && contextContainer.getEndpointContext().equals(address);
+    }
+
     public RestApiContextTransformer getContextTransformer() {
+        if (contextTransformer == null) {
+            contextTransformer = DefaultRestApiEndpointTransformer.getSharedInstance();
+        }
         return contextTransformer;
     }
 
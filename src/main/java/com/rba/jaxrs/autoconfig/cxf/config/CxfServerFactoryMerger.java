@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.config;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.AsyncSpec;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfiguration;
+import com.rba.jaxrs.autoconfig.cxf.builder.ExecutorSpec;
+import org.apache.cxf.Bus;
+import org.apache.cxf.feature.Feature;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges {@link CxfConfiguration} instances into a single {@link JAXRSServerFactoryBean}.  The features, interceptors
+ * and providers already on the factory are collected into hash sets the first time each list is merged into, after that
+ * every addition is a set lookup instead of a scan of the factory list.  Entries keep the order they were first added in
+ * and an entry that is equal to one already present is skipped, so stacking many customizers stays linear.
+ * <p>
+ * A merger should be used for all customizers applied to a factory and the factory lists should not be changed by other
+ * means while it is in use.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class CxfServerFactoryMerger {
+
+    private final JAXRSServerFactoryBean factory;
+
+    private Set<Object> features;
+    private Set<Object> inInterceptors;
+    private Set<Object> outInterceptors;
+    private Set<Object> inFaultInterceptors;
+    private Set<Object> outFaultInterceptors;
+    private Set<Object> providers;
+
+    public CxfServerFactoryMerger(JAXRSServerFactoryBean factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("A server factory is required to merge configurations into");
+        }
+        this.factory = factory;
+    }
+
+    public JAXRSServerFactoryBean getFactory() {
+        return factory;
+    }
+
+    /**
+     * Merges a configuration into the factory.  The bus is replaced when the configuration has one and properties use a
+     * last one wins strategy.  The executor and async specs are not applied, the pools and invoker they describe are
+     * set up by the {@link CxfJaxrsInitializer}.
+     *
+     * @param cxfConfig the configuration to merge
+     */
+    public void merge(CxfConfiguration cxfConfig) {
+        //Since calling getBus on the JAXRSServerFactoryBean will create a bus if needed always set the bus if we have one
+        if (cxfConfig.getBus() != null) {
+            factory.setBus(cxfConfig.getBus());
+        }
+        if (!cxfConfig.getFeatures().isEmpty()) {
+            features = mergeAll(factory.getFeatures(), features, cxfConfig.getFeatures());
+        }
+        if (!cxfConfig.getInInterceptors().isEmpty()) {
+            inInterceptors = mergeAll(factory.getInInterceptors(), inInterceptors, cxfConfig.getInInterceptors());
+        }
+        if (!cxfConfig.getOutInterceptors().isEmpty()) {
+            outInterceptors = mergeAll(factory.getOutInterceptors(), outInterceptors, cxfConfig.getOutInterceptors());
+        }
+        if (!cxfConfig.getInFaultInterceptors().isEmpty()) {
+            inFaultInterceptors = mergeAll(factory.getInFaultInterceptors(), inFaultInterceptors,
+                cxfConfig.getInFaultInterceptors());
+        }
+        if (!cxfConfig.getOutFaultInterceptors().isEmpty()) {
+            outFaultInterceptors = mergeAll(factory.getOutFaultInterceptors(), outFaultInterceptors,
+                cxfConfig.getOutFaultInterceptors());
+        }
+        //Properties are using a last one wins strategy as we will order the customizers
+        factory.getProperties(true).putAll(cxfConfig.getProperties());
+        if (!cxfConfig.getProviders().isEmpty()) {
+            if (providers == null) {
+                providers = new HashSet<>(factory.getProviders());
+            }
+            for (Object provider : cxfConfig.getProviders()) {
+                if (providers.add(provider)) {
+                    factory.setProvider(provider);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges configurations in order into one effective configuration.  Merging the result into an empty factory gives
+     * the same factory as merging each configuration in turn: entries keep the order they were first added in,
+     * duplicates are dropped, and the last bus, executor spec and property values win.  Async settings are combined
+     * setting by setting, so a context can set its own timeout and keep a globally configured completion executor.
+     *
+     * @param configurations the configurations in the order they apply
+     * @return the effective configuration
+     */
+    public static CxfConfiguration mergeConfigurations(List<CxfConfiguration> configurations) {
+        String rootContext = null;
+        Bus bus = null;
+        ExecutorSpec executorSpec = null;
+        AsyncSpec asyncSpec = null;
+        Set<Feature> mergedFeatures = new LinkedHashSet<>();
+        Set<Interceptor<?>> mergedInInterceptors = new LinkedHashSet<>();
+        Set<Interceptor<?>> mergedOutInterceptors = new LinkedHashSet<>();
+        Set<Interceptor<?>> mergedInFaultInterceptors = new LinkedHashSet<>();
+        Set<Interceptor<?>> mergedOutFaultInterceptors = new LinkedHashSet<>();
+        Set<Object> mergedProviders = new LinkedHashSet<>();
+        Map<String, Object> mergedProperties = new HashMap<>();
+        for (CxfConfiguration cxfConfig : configurations) {
+            if (cxfConfig.getRootContext() != null) {
+                rootContext = cxfConfig.getRootContext();
+            }
+            if (cxfConfig.getBus() != null) {
+                bus = cxfConfig.getBus();
+            }
+            if (cxfConfig.getExecutorSpec() != null) {
+                executorSpec = cxfConfig.getExecutorSpec();
+            }
+            if (cxfConfig.getAsyncSpec() != null) {
+                asyncSpec = asyncSpec == null ? cxfConfig.getAsyncSpec() : asyncSpec.overriddenBy(cxfConfig.getAsyncSpec());
+            }
+            mergedFeatures.addAll(cxfConfig.getFeatures());
+            mergedInInterceptors.addAll(cxfConfig.getInInterceptors());
+            mergedOutInterceptors.addAll(cxfConfig.getOutInterceptors());
+            mergedInFaultInterceptors.addAll(cxfConfig.getInFaultInterceptors());
+            mergedOutFaultInterceptors.addAll(cxfConfig.getOutFaultInterceptors());
+            mergedProviders.addAll(cxfConfig.getProviders());
+            mergedProperties.putAll(cxfConfig.getProperties());
+        }
+        return new CxfConfiguration(rootContext, bus, new ArrayList<>(mergedFeatures),
+            new ArrayList<>(mergedInInterceptors), new ArrayList<>(mergedOutInterceptors),
+            new ArrayList<>(mergedInFaultInterceptors), new ArrayList<>(mergedOutFaultInterceptors),
+            new ArrayList<>(mergedProviders), mergedProperties, executorSpec, asyncSpec);
+    }
+
+    private static <T> Set<Object> mergeAll(List<T> target, Set<Object> present, List<? extends T> additions) {
+        Set<Object> presentEntries = present != null ? present : new HashSet<>(target);
+        for (T addition : additions) {
+            if (presentEntries.add(addition)) {
+                target.add(addition);
+            }
+        }
+        return presentEntries;
+    }
+}
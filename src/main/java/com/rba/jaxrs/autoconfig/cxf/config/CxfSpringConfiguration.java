@@ -16,14 +16,49 @@
 
 package com.rba.jaxrs.autoconfig.cxf.config;
 
+import com.rba.jaxrs.autoconfig.core.index.RestApiEndpointIndex;
 import com.rba.jaxrs.autoconfig.core.properties.AutoConfigProperties;
+import com.rba.jaxrs.autoconfig.core.scan.AutoConfigClasspathIndex;
 import com.rba.jaxrs.autoconfig.core.scan.JaxRsAutoConfigScanner;
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport;
+import com.rba.jaxrs.autoconfig.core.startup.StartupReportMeterBinder;
+import com.rba.jaxrs.autoconfig.core.transform.CachingRestApiContextTransformer;
+import com.rba.jaxrs.autoconfig.core.transform.DefaultRestApiEndpointTransformer;
+import com.rba.jaxrs.autoconfig.core.transform.RestApiContextTransformer;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfigurationBuilder;
+import com.rba.jaxrs.autoconfig.cxf.bulkhead.BulkheadMeterBinder;
+import com.rba.jaxrs.autoconfig.cxf.bulkhead.BulkheadRegistry;
+import com.rba.jaxrs.autoconfig.cxf.cache.ResponseCache;
+import com.rba.jaxrs.autoconfig.cxf.cache.ResponseCacheFeature;
+import com.rba.jaxrs.autoconfig.cxf.cache.ResponseCacheMeterBinder;
+import com.rba.jaxrs.autoconfig.cxf.compression.CompressionFeature;
+import com.rba.jaxrs.autoconfig.cxf.compression.DeflaterPool;
+import com.rba.jaxrs.autoconfig.cxf.limit.ConcurrencyLimitMeterBinder;
+import com.rba.jaxrs.autoconfig.cxf.limit.ConcurrencyLimitRegistry;
+import com.rba.jaxrs.autoconfig.cxf.metrics.EndpointMetricsMeterBinder;
+import com.rba.jaxrs.autoconfig.cxf.metrics.EndpointMetricsRegistry;
+import com.rba.jaxrs.autoconfig.cxf.priority.PriorityScheduler;
+import com.rba.jaxrs.autoconfig.cxf.priority.PrioritySchedulerMeterBinder;
+import com.rba.jaxrs.autoconfig.cxf.shedding.QueueSheddingMeterBinder;
+import com.rba.jaxrs.autoconfig.cxf.shedding.QueueSheddingRegistry;
+import com.rba.jaxrs.autoconfig.cxf.shedding.RequestArrivalFilter;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
@@ -34,11 +69,288 @@ import org.springframework.context.annotation.Configuration;
 @ComponentScan(basePackages = {"com.rba.jaxrs.autoconfig.core", "com.rba.jaxrs.autoconfig.cxf"})
 public class CxfSpringConfiguration {
 
+    @Bean
+    @ConditionalOnMissingBean
+    public AutoConfigClasspathIndex autoConfigClasspathIndex(AutoConfigProperties properties) {
+        String scanCacheFile = properties.getScanCacheFile();
+        return new AutoConfigClasspathIndex(scanCacheFile == null || scanCacheFile.isEmpty()
+            ? null : Paths.get(scanCacheFile));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AutoConfigStartupReport autoConfigStartupReport() {
+        return new AutoConfigStartupReport();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EffectiveCxfConfigurationReport effectiveCxfConfigurationReport() {
+        return new EffectiveCxfConfigurationReport();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BulkheadRegistry bulkheadRegistry() {
+        return new BulkheadRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig", name = "endpoint-metrics", havingValue = "true")
+    public EndpointMetricsRegistry endpointMetricsRegistry() {
+        return new EndpointMetricsRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.compression", name = "enabled", havingValue = "true")
+    public CompressionFeature compressionFeature(AutoConfigProperties properties) {
+        AutoConfigProperties.Compression compression = properties.getCompression();
+        return new CompressionFeature(compression.getMinResponseSize(), compression.getMediaTypes(),
+            compression.getAddresses(), new DeflaterPool(compression.getLevel(), compression.getMaxIdleDeflaters()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.concurrency-limit", name = "enabled", havingValue = "true")
+    public ConcurrencyLimitRegistry concurrencyLimitRegistry(AutoConfigProperties properties) {
+        AutoConfigProperties.ConcurrencyLimit concurrencyLimit = properties.getConcurrencyLimit();
+        return new ConcurrencyLimitRegistry(concurrencyLimit.getInitialLimit(), concurrencyLimit.getMinLimit(),
+            concurrencyLimit.getMaxLimit());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.queue-shedding", name = "enabled", havingValue = "true")
+    public QueueSheddingRegistry queueSheddingRegistry(AutoConfigProperties properties) {
+        AutoConfigProperties.QueueShedding queueShedding = properties.getQueueShedding();
+        return new QueueSheddingRegistry(queueShedding.getTarget(), queueShedding.getInterval(),
+            queueShedding.getVersionTargets());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.priority-scheduling", name = "enabled", havingValue = "true")
+    public PriorityScheduler priorityScheduler(AutoConfigProperties properties) {
+        AutoConfigProperties.PriorityScheduling priorityScheduling = properties.getPriorityScheduling();
+        return new PriorityScheduler(priorityScheduling.getThreads(), priorityScheduling.getQueueCapacity(),
+            priorityScheduling.getAgingInterval(), priorityScheduling.getPriorities(),
+            priorityScheduling.getDefaultPriority());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RestApiContextTransformer restApiContextTransformer(AutoConfigProperties properties,
+        AutoConfigClasspathIndex classpathIndex, AutoConfigStartupReport startupReport) {
+        //With the endpoint index the enums come from its enumeration index so the classpath is never scanned
+        if (properties.isUseEndpointIndex()) {
+            RestApiEndpointIndex endpointIndex = RestApiEndpointIndex.load(null);
+            if (endpointIndex.isPresent()) {
+                return new CachingRestApiContextTransformer(new DefaultRestApiEndpointTransformer(endpointIndex,
+                    startupReport));
+            }
+        }
+        return new CachingRestApiContextTransformer(new DefaultRestApiEndpointTransformer(classpathIndex, startupReport));
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public CxfJaxrsInitializer cxfJaxrsInitializer(JaxRsAutoConfigScanner scanner,
-        ObjectProvider<CxfServerFactoryCustomizer> factoryCustomizers, AutoConfigProperties properties) {
-        return new CxfJaxrsInitializer(scanner, factoryCustomizers,
+        ObjectProvider<CxfServerFactoryCustomizer> factoryCustomizers, AutoConfigProperties properties,
+        AutoConfigClasspathIndex classpathIndex, AutoConfigStartupReport startupReport,
+        EffectiveCxfConfigurationReport configurationReport,
+        ObjectProvider<EndpointMetricsRegistry> endpointMetricsRegistry, BulkheadRegistry bulkheadRegistry,
+        ObjectProvider<CompressionFeature> compressionFeature,
+        ObjectProvider<ConcurrencyLimitRegistry> concurrencyLimitRegistry,
+        ObjectProvider<QueueSheddingRegistry> queueSheddingRegistry,
+        ObjectProvider<PriorityScheduler> priorityScheduler) {
+        CxfJaxrsInitializer initializer = new CxfJaxrsInitializer(scanner, factoryCustomizers,
             properties.getPackagesToScan(), properties.getPackagesToBlacklist());
+        initializer.setClasspathIndex(classpathIndex);
+        initializer.setInitParallelism(properties.getInitParallelism());
+        initializer.setInitTimeout(properties.getInitTimeout());
+        initializer.setLazyActivation(properties.isLazyActivation());
+        initializer.setStartupReport(startupReport);
+        initializer.setConfigurationReport(configurationReport);
+        initializer.setEndpointMetricsRegistry(endpointMetricsRegistry.getIfAvailable());
+        initializer.setBulkheadRegistry(bulkheadRegistry);
+        initializer.setVirtualThreadAddresses(properties.getVirtualThreadAddresses());
+        initializer.setCompressionFeature(compressionFeature.getIfAvailable());
+        initializer.setConcurrencyLimitRegistry(concurrencyLimitRegistry.getIfAvailable());
+        initializer.setQueueSheddingRegistry(queueSheddingRegistry.getIfAvailable());
+        initializer.setPriorityScheduler(priorityScheduler.getIfAvailable());
+        return initializer;
+    }
+
+    /**
+     * Publishes the startup report timers and bulkhead pool meters when Micrometer is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MeterBinderConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public StartupReportMeterBinder startupReportMeterBinder(AutoConfigStartupReport startupReport) {
+            return new StartupReportMeterBinder(startupReport);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public BulkheadMeterBinder bulkheadMeterBinder(BulkheadRegistry bulkheadRegistry) {
+            return new BulkheadMeterBinder(bulkheadRegistry);
+        }
+    }
+
+    /**
+     * Publishes the endpoint request metrics to Micrometer when they are enabled and Micrometer is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig", name = "endpoint-metrics", havingValue = "true")
+    static class EndpointMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public EndpointMetricsMeterBinder endpointMetricsMeterBinder(EndpointMetricsRegistry endpointMetricsRegistry) {
+            return new EndpointMetricsMeterBinder(endpointMetricsRegistry);
+        }
+    }
+
+    /**
+     * Registers a global customizer applying the async timeout and completion executor to every endpoint group when async
+     * support is enabled.  Context customizers setting their own async options override these settings for their group.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig", name = "async-support", havingValue = "true")
+    static class AsyncSupportConfiguration {
+
+        @Bean(destroyMethod = "shutdown")
+        @ConditionalOnMissingBean(name = "jaxrsAsyncCompletionExecutor")
+        public ExecutorService jaxrsAsyncCompletionExecutor(AutoConfigProperties properties) {
+            int threads = properties.getAsyncCompletionThreads() > 0
+                ? properties.getAsyncCompletionThreads() : Runtime.getRuntime().availableProcessors();
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "jaxrs-autoconfig-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(threads, threadFactory);
+        }
+
+        @Bean
+        public CxfServerFactoryCustomizer asyncSupportCustomizer(AutoConfigProperties properties,
+            @Qualifier("jaxrsAsyncCompletionExecutor") ExecutorService completionExecutor) {
+            return new CxfServerFactoryCustomizer(new CxfConfigurationBuilder()
+                .setAsyncTimeout(properties.getAsyncTimeout())
+                .setCompletionExecutor(completionExecutor)
+                .build(), true, null);
+        }
+    }
+
+    /**
+     * Registers the response cache and a global customizer adding it to every endpoint group when the cache is enabled.
+     * Only resource methods annotated with {@link com.rba.jaxrs.autoconfig.core.annotations.CachedResponse} are cached.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.response-cache", name = "enabled", havingValue = "true")
+    static class ResponseCacheConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ResponseCache responseCache(AutoConfigProperties properties) {
+            return new ResponseCache(properties.getResponseCache().getMaxBytes());
+        }
+
+        @Bean
+        public CxfServerFactoryCustomizer responseCacheCustomizer(AutoConfigProperties properties,
+            ResponseCache responseCache) {
+            return new CxfServerFactoryCustomizer(new CxfConfigurationBuilder()
+                .addFeature(new ResponseCacheFeature(responseCache, properties.getResponseCache().getCoalesceTimeout()))
+                .build(), true, null);
+        }
+    }
+
+    /**
+     * Publishes the response cache hit ratios to Micrometer when the cache is enabled and Micrometer is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.response-cache", name = "enabled", havingValue = "true")
+    static class ResponseCacheMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ResponseCacheMeterBinder responseCacheMeterBinder(ResponseCache responseCache) {
+            return new ResponseCacheMeterBinder(responseCache);
+        }
+    }
+
+    /**
+     * Publishes the concurrency limits to Micrometer when they are enabled and Micrometer is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.concurrency-limit", name = "enabled", havingValue = "true")
+    static class ConcurrencyLimitMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ConcurrencyLimitMeterBinder concurrencyLimitMeterBinder(ConcurrencyLimitRegistry concurrencyLimitRegistry) {
+            return new ConcurrencyLimitMeterBinder(concurrencyLimitRegistry);
+        }
+    }
+
+    /**
+     * Publishes the queue shedding counts to Micrometer when shedding is enabled and Micrometer is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.queue-shedding", name = "enabled", havingValue = "true")
+    static class QueueSheddingMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public QueueSheddingMeterBinder queueSheddingMeterBinder(QueueSheddingRegistry queueSheddingRegistry) {
+            return new QueueSheddingMeterBinder(queueSheddingRegistry);
+        }
+    }
+
+    /**
+     * Records the arrival of every request ahead of all other filters when queue shedding is enabled in a servlet
+     * application.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "javax.servlet.Filter")
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.queue-shedding", name = "enabled", havingValue = "true")
+    static class QueueSheddingFilterConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "requestArrivalFilter")
+        public FilterRegistrationBean<RequestArrivalFilter> requestArrivalFilter() {
+            FilterRegistrationBean<RequestArrivalFilter> registration =
+                new FilterRegistrationBean<>(new RequestArrivalFilter());
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            registration.setAsyncSupported(true);
+            return registration;
+        }
+    }
+
+    /**
+     * Publishes the priority wait times to Micrometer when priority scheduling is enabled and Micrometer is on the
+     * classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "jaxrs.autoconfig.priority-scheduling", name = "enabled", havingValue = "true")
+    static class PrioritySchedulingMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public PrioritySchedulerMeterBinder prioritySchedulerMeterBinder(PriorityScheduler priorityScheduler) {
+            return new PrioritySchedulerMeterBinder(priorityScheduler);
+        }
     }
 }
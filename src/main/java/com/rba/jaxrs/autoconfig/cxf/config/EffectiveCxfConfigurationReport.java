@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.config;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfiguration;
+import org.apache.cxf.interceptor.Interceptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * The effective {@link CxfConfiguration} the initializer applied to each endpoint group, keyed by address.  Each
+ * configuration is the ordered, de-duplicated merge of the customizers that apply to the address, so the report shows
+ * exactly which features, interceptors, providers and properties a server was built with.
+ * <p>
+ * {@link #describe()} renders the report with class names instead of instances so it can be returned as is from a
+ * management endpoint, and {@link #getRedundantInterceptors(String)} lists the interceptor types that are in a chain
+ * more than once.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class EffectiveCxfConfigurationReport {
+
+    private volatile Map<String, CxfConfiguration> configurations = Collections.emptyMap();
+
+    /**
+     * Replaces the reported configurations.
+     *
+     * @param configurations the effective configurations by address
+     */
+    public void setConfigurations(Map<String, CxfConfiguration> configurations) {
+        this.configurations = Collections.unmodifiableMap(new TreeMap<>(configurations));
+    }
+
+    /**
+     * The effective configurations in address order.
+     *
+     * @return the effective configurations by address
+     */
+    public Map<String, CxfConfiguration> getConfigurations() {
+        return configurations;
+    }
+
+    /**
+     * The effective configuration of an address.
+     *
+     * @param address the endpoint group address
+     * @return the configuration or null if no endpoint group was initialized at the address
+     */
+    public CxfConfiguration getConfiguration(String address) {
+        return configurations.get(address);
+    }
+
+    /**
+     * The interceptor types that appear more than once in any of the interceptor chains of an address.  The merge drops
+     * equal instances, so these are distinct instances of the same type that each run on every request.
+     *
+     * @param address the endpoint group address
+     * @return the class names of the repeated interceptors, empty if there are none or the address is unknown
+     */
+    public Set<String> getRedundantInterceptors(String address) {
+        CxfConfiguration cxfConfig = configurations.get(address);
+        if (cxfConfig == null) {
+            return Collections.emptySet();
+        }
+        Set<String> redundant = new TreeSet<>();
+        collectRedundant(cxfConfig.getInInterceptors(), redundant);
+        collectRedundant(cxfConfig.getOutInterceptors(), redundant);
+        collectRedundant(cxfConfig.getInFaultInterceptors(), redundant);
+        collectRedundant(cxfConfig.getOutFaultInterceptors(), redundant);
+        return redundant;
+    }
+
+    private static void collectRedundant(List<? extends Interceptor<?>> chain, Set<String> redundant) {
+        Set<Class<?>> seen = new HashSet<>();
+        for (Interceptor<?> interceptor : chain) {
+            if (!seen.add(interceptor.getClass())) {
+                redundant.add(interceptor.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Describes the effective configurations with the class names of the features, interceptors and providers and the
+     * property values as strings.
+     *
+     * @return a description per address in address order
+     */
+    public Map<String, Map<String, Object>> describe() {
+        Map<String, Map<String, Object>> description = new LinkedHashMap<>();
+        for (Map.Entry<String, CxfConfiguration> entry : configurations.entrySet()) {
+            CxfConfiguration cxfConfig = entry.getValue();
+            Map<String, Object> addressDescription = new LinkedHashMap<>();
+            addressDescription.put("features", classNames(cxfConfig.getFeatures()));
+            addressDescription.put("inInterceptors", classNames(cxfConfig.getInInterceptors()));
+            addressDescription.put("outInterceptors", classNames(cxfConfig.getOutInterceptors()));
+            addressDescription.put("inFaultInterceptors", classNames(cxfConfig.getInFaultInterceptors()));
+            addressDescription.put("outFaultInterceptors", classNames(cxfConfig.getOutFaultInterceptors()));
+            addressDescription.put("providers", classNames(cxfConfig.getProviders()));
+            Map<String, String> properties = new TreeMap<>();
+            cxfConfig.getProperties().forEach((key, value) -> properties.put(key, String.valueOf(value)));
+            addressDescription.put("properties", properties);
+            addressDescription.put("redundantInterceptors", new ArrayList<>(getRedundantInterceptors(entry.getKey())));
+            description.put(entry.getKey(), addressDescription);
+        }
+        return description;
+    }
+
+    private static List<String> classNames(List<?> entries) {
+        return entries.stream().map(entry -> entry.getClass().getName()).collect(Collectors.toList());
+    }
+}
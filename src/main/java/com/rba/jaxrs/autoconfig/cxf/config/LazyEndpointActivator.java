@@ -0,0 +1,214 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.config;
+
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport;
+import org.apache.cxf.BusException;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.transport.Destination;
+import org.apache.cxf.transport.DestinationFactory;
+import org.apache.cxf.transport.DestinationFactoryManager;
+import org.apache.cxf.transport.MessageObserver;
+import org.apache.cxf.transport.http.HTTPTransportFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Placeholder for an endpoint group that is only built when the first request reaches its address.  The activator
+ * registers a destination for the address with itself as the message observer.  The first message creates the resource
+ * beans and the Jax-RS server, hands the destination over to the server and forwards the message.  Requests that arrive
+ * while the server is being created wait for it and are forwarded as well.
+ *
+ * <p>The server is created while the placeholder is still registered and takes over the same destination, so the
+ * address is only unregistered for the moment between clearing the placeholder observer and starting the server.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class LazyEndpointActivator implements MessageObserver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LazyEndpointActivator.class);
+
+    private final JAXRSServerFactoryBean factory;
+
+    private final List<Class<?>> resourceClasses;
+
+    private final AutowireCapableBeanFactory beanFactory;
+
+    private final AutoConfigStartupReport startupReport;
+
+    private final Destination placeholder;
+
+    private volatile Server server;
+
+    private volatile Duration firstHitLatency;
+
+    private volatile int activationCount;
+
+    private volatile int failedActivationCount;
+
+    /**
+     * Creates the activator and registers its placeholder destination.
+     *
+     * @param factory the customized server factory for the endpoint group, the service beans are added on activation
+     * @param resourceClasses the resource classes of the endpoint group
+     * @param beanFactory the bean factory used to create the resource beans
+     * @param startupReport the report receiving the bean and server creation timings on activation, may be null
+     * @throws IOException if the transport can not create a destination for the address
+     * @throws BusException if the bus has no destination factory for the transport
+     */
+    public LazyEndpointActivator(JAXRSServerFactoryBean factory, List<Class<?>> resourceClasses,
+        AutowireCapableBeanFactory beanFactory, AutoConfigStartupReport startupReport) throws IOException, BusException {
+        if (factory == null || factory.getAddress() == null) {
+            throw new IllegalArgumentException("A server factory with an address is required for lazy activation");
+        }
+        this.factory = factory;
+        this.resourceClasses = new ArrayList<>(resourceClasses);
+        this.beanFactory = beanFactory;
+        this.startupReport = startupReport;
+        String transportId = factory.getTransportId() != null
+            ? factory.getTransportId() : HTTPTransportFactory.DEFAULT_NAMESPACES.get(0);
+        EndpointInfo endpointInfo = new EndpointInfo();
+        endpointInfo.setAddress(factory.getAddress());
+        endpointInfo.setTransportId(transportId);
+        DestinationFactory destinationFactory = factory.getBus().getExtension(DestinationFactoryManager.class)
+            .getDestinationFactory(transportId);
+        placeholder = destinationFactory.getDestination(endpointInfo, factory.getBus());
+        if (placeholder.getMessageObserver() != null) {
+            throw new IllegalStateException("An endpoint is already running at address " + factory.getAddress());
+        }
+        placeholder.setMessageObserver(this);
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        long arrival = System.nanoTime();
+        Server activeServer = server;
+        if (activeServer == null) {
+            activeServer = activate(arrival);
+        }
+        MessageObserver serverObserver = activeServer.getDestination().getMessageObserver();
+        if (serverObserver == null) {
+            throw new IllegalStateException("Endpoint group " + getAddress() + " has been stopped");
+        }
+        serverObserver.onMessage(message);
+    }
+
+    Server activate() {
+        return activate(System.nanoTime());
+    }
+
+    private synchronized Server activate(long arrival) {
+        if (server != null) {
+            return server;
+        }
+        try {
+            long startNanos = System.nanoTime();
+            List<Object> resourceBeans = new ArrayList<>();
+            for (Class<?> resourceClass : resourceClasses) {
+                resourceBeans.add(beanFactory.createBean(resourceClass, AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE, true));
+            }
+            recordPhase(AutoConfigStartupReport.Phase.BEAN_CREATION, startNanos);
+            startNanos = System.nanoTime();
+            factory.setServiceBeans(resourceBeans);
+            //The destination factory returns the registered placeholder for the address, start the server once it owns it
+            factory.setStart(false);
+            Server createdServer = factory.create();
+            beanFactory.initializeBean(createdServer, "cxfserver" + getAddress().replaceAll("/", "-"));
+            placeholder.setMessageObserver(null);
+            try {
+                createdServer.start();
+            } catch (RuntimeException re) {
+                placeholder.setMessageObserver(this);
+                throw re;
+            }
+            if (createdServer.getDestination() != placeholder) {
+                placeholder.shutdown();
+            }
+            recordPhase(AutoConfigStartupReport.Phase.SERVER_CREATION, startNanos);
+            firstHitLatency = Duration.ofNanos(System.nanoTime() - arrival);
+            activationCount++;
+            server = createdServer;
+            LOG.info("Activated endpoint group {} on first request in {} ms", getAddress(), firstHitLatency.toMillis());
+            return createdServer;
+        } catch (RuntimeException re) {
+            failedActivationCount++;
+            LOG.warn("Error activating Cxf Jaxrs Server for endpoint group " + getAddress(), re);
+            throw re;
+        }
+    }
+
+    private void recordPhase(AutoConfigStartupReport.Phase phase, long startNanos) {
+        if (startupReport != null) {
+            startupReport.recordSince(phase, getAddress(), startNanos);
+        }
+    }
+
+    public String getAddress() {
+        return factory.getAddress();
+    }
+
+    public boolean isActivated() {
+        return server != null;
+    }
+
+    /**
+     * The server created for the endpoint group.
+     *
+     * @return the server or null if no request has activated the group yet
+     */
+    public Server getServer() {
+        return server;
+    }
+
+    /**
+     * The time from the arrival of the first request to the server being started, including resource bean creation.
+     *
+     * @return the first hit latency or null if the group has not been activated
+     */
+    public Duration getFirstHitLatency() {
+        return firstHitLatency;
+    }
+
+    /**
+     * The number of times the group has been activated, this is 1 once the first request has been served.
+     *
+     * @return the activation count
+     */
+    public int getActivationCount() {
+        return activationCount;
+    }
+
+    /**
+     * The number of activations that failed.  A failed activation leaves the placeholder in place and is retried by the
+     * next request.
+     *
+     * @return the failed activation count
+     */
+    public int getFailedActivationCount() {
+        return failedActivationCount;
+    }
+}
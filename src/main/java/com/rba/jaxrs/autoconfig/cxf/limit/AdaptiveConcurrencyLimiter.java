@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the requests an endpoint address processes at the same time to a limit estimated from the observed latency.
+ * The limit follows TCP Vegas: the smallest latency seen is taken as the latency without queueing and the queue a
+ * sample implies is {@code limit * (1 - minLatency / latency)}.  A small queue grows the limit, a large queue or a
+ * dropped request shrinks it, all by steps of the base 10 logarithm of the limit.  Samples taken while less than half
+ * of the limit is in use say nothing about the capacity and leave the limit unchanged.
+ *
+ * <p>The minimum latency is measured again every {@value #PROBE_MULTIPLIER} times the limit samples, so a limit does not
+ * stay pinned to a latency the endpoint can no longer reach.  Requests beyond the limit are rejected immediately.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final int PROBE_MULTIPLIER = 30;
+
+    private final String address;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private long minLatencyNanos;
+
+    private long probeCountdown;
+
+    /**
+     * Creates a limiter starting at the initial limit.
+     *
+     * @param address the endpoint address
+     * @param initialLimit the limit before any latency has been observed
+     * @param minLimit the smallest limit, at least 1
+     * @param maxLimit the largest limit
+     */
+    public AdaptiveConcurrencyLimiter(String address, int initialLimit, int minLimit, int maxLimit) {
+        validateLimits(initialLimit, minLimit, maxLimit);
+        this.address = address;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.probeCountdown = nextProbeCountdown(initialLimit);
+    }
+
+    static void validateLimits(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The limits must satisfy 1 <= min <= initial <= max, got min " + minLimit
+                + ", initial " + initialLimit + " and max " + maxLimit);
+        }
+    }
+
+    /**
+     * Admits a request if fewer requests than the limit are in flight.
+     *
+     * @return the permit to release once the response has been sent, or null if the request is rejected
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejectedCount.increment();
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(current + 1);
+    }
+
+    /**
+     * Updates the limit with the latency of a request.
+     *
+     * @param latencyNanos the time from admission to the response being sent
+     * @param inFlightAtStart the requests in flight once the request was admitted
+     * @param dropped true if the request failed because the endpoint was overloaded
+     */
+    synchronized void onSample(long latencyNanos, int inFlightAtStart, boolean dropped) {
+        if (latencyNanos <= 0) {
+            return;
+        }
+        int currentLimit = limit;
+        if (--probeCountdown <= 0) {
+            //Start over with this sample as the latency without queueing
+            probeCountdown = nextProbeCountdown(currentLimit);
+            minLatencyNanos = latencyNanos;
+            return;
+        }
+        if (minLatencyNanos == 0 || latencyNanos < minLatencyNanos) {
+            minLatencyNanos = latencyNanos;
+            return;
+        }
+        double step = Math.max(1, (int) Math.log10(currentLimit));
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit - step;
+        } else if (inFlightAtStart * 2 < currentLimit) {
+            return;
+        } else {
+            double queueSize = Math.ceil(estimatedLimit * (1 - (double) minLatencyNanos / latencyNanos));
+            if (queueSize <= step) {
+                newLimit = estimatedLimit + 6 * step;
+            } else if (queueSize < 3 * step) {
+                newLimit = estimatedLimit + step;
+            } else if (queueSize > 6 * step) {
+                newLimit = estimatedLimit - step;
+            } else {
+                return;
+            }
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    private static long nextProbeCountdown(int limit) {
+        return (long) PROBE_MULTIPLIER * limit;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * The number of requests currently admitted.
+     *
+     * @return the requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * The current concurrency limit.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * The smallest latency observed since the last probe, the latency the limit assumes for a request without queueing.
+     *
+     * @return the minimum latency in nanoseconds or 0 before the first sample
+     */
+    public synchronized long getMinLatencyNanos() {
+        return minLatencyNanos;
+    }
+
+    /**
+     * The number of requests rejected because the limit was reached.
+     *
+     * @return the rejected count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * An admitted request.  The permit has to be released exactly once, which records its latency.
+     */
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+
+        private final int inFlightAtStart;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit and samples the latency of the request.
+         *
+         * @param dropped true if the request failed because the endpoint was overloaded
+         */
+        public void release(boolean dropped) {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+        }
+
+        /**
+         * Releases the permit without sampling, for requests whose latency says nothing about the endpoint capacity.
+         */
+        public void releaseWithoutSample() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.limit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.feature.AbstractFeature;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Admits the requests of a server through the {@link AdaptiveConcurrencyLimiter} of its address.  Requests are admitted
+ * as soon as they are received, before anything is read or invoked, and rejected with a 503 when the limit is reached.
+ * The permit is released once the response or fault has been sent.  Responses and faults with a 503 status count as
+ * dropped and shrink the limit, other faults are released without a latency sample since a failing request says nothing
+ * about how long a successful one takes.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class ConcurrencyLimitFeature extends AbstractFeature {
+
+    private static final String PERMIT_KEY = ConcurrencyLimitFeature.class.getName() + ".permit";
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitFeature(AdaptiveConcurrencyLimiter limiter) {
+        if (limiter == null) {
+            throw new IllegalArgumentException("A concurrency limiter is required to limit requests");
+        }
+        this.limiter = limiter;
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    protected void initializeProvider(InterceptorProvider provider, Bus bus) {
+        provider.getInInterceptors().add(new AdmissionInterceptor(limiter));
+        provider.getOutInterceptors().add(new ReleaseInterceptor(false));
+        provider.getOutFaultInterceptors().add(new ReleaseInterceptor(true));
+    }
+
+    /**
+     * Acquires a permit for the request or rejects it.
+     */
+    static class AdmissionInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        AdmissionInterceptor(AdaptiveConcurrencyLimiter limiter) {
+            super(Phase.RECEIVE);
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                Fault fault = new Fault(new RejectedExecutionException("Endpoint " + limiter.getAddress()
+                    + " is at its concurrency limit of " + limiter.getLimit()));
+                fault.setStatusCode(SERVICE_UNAVAILABLE);
+                throw fault;
+            }
+            message.getExchange().put(PERMIT_KEY, permit);
+        }
+    }
+
+    /**
+     * Releases the permit after the last interceptor that writes the response.  Removing the permit from the exchange
+     * makes sure it is only released once, even when a fault is raised after the response chain started.
+     */
+    static class ReleaseInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final boolean faultChain;
+
+        ReleaseInterceptor(boolean faultChain) {
+            super(Phase.SETUP_ENDING);
+            this.faultChain = faultChain;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            AdaptiveConcurrencyLimiter.Permit permit =
+                (AdaptiveConcurrencyLimiter.Permit) message.getExchange().remove(PERMIT_KEY);
+            if (permit == null) {
+                return;
+            }
+            if (faultChain) {
+                if (isServiceUnavailable(message)) {
+                    permit.release(true);
+                } else {
+                    permit.releaseWithoutSample();
+                }
+            } else {
+                Integer responseCode = (Integer) message.get(Message.RESPONSE_CODE);
+                permit.release(responseCode != null && responseCode == SERVICE_UNAVAILABLE);
+            }
+        }
+
+        private static boolean isServiceUnavailable(Message message) {
+            Exception exception = message.getContent(Exception.class);
+            if (exception == null && message.getExchange().getInMessage() != null) {
+                exception = message.getExchange().getInMessage().getContent(Exception.class);
+            }
+            return exception instanceof Fault && ((Fault) exception).getStatusCode() == SERVICE_UNAVAILABLE;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the limit, requests in flight and rejections of every {@link AdaptiveConcurrencyLimiter} as Micrometer
+ * meters prefixed with {@value #CONCURRENCY_LIMIT_PREFIX} and tagged with the endpoint address.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class ConcurrencyLimitMeterBinder implements MeterBinder {
+
+    public static final String CONCURRENCY_LIMIT_PREFIX = "jaxrs.autoconfig.concurrency.limit";
+
+    private final ConcurrencyLimitRegistry limitRegistry;
+
+    public ConcurrencyLimitMeterBinder(ConcurrencyLimitRegistry limitRegistry) {
+        if (limitRegistry == null) {
+            throw new IllegalArgumentException("A concurrency limit registry is required to publish limit metrics");
+        }
+        this.limitRegistry = limitRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limitRegistry.addListener(limiter -> {
+            Tags tags = Tags.of("address", limiter.getAddress());
+            Gauge.builder(CONCURRENCY_LIMIT_PREFIX, limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Estimated concurrency limit").tags(tags).register(registry);
+            Gauge.builder(CONCURRENCY_LIMIT_PREFIX + ".inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests admitted by the concurrency limit").tags(tags).register(registry);
+            FunctionCounter.builder(CONCURRENCY_LIMIT_PREFIX + ".rejected", limiter,
+                AdaptiveConcurrencyLimiter::getRejectedCount)
+                .description("Requests rejected at the concurrency limit").tags(tags).register(registry);
+        });
+    }
+}
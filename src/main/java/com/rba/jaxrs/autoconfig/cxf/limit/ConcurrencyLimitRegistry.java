@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.limit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Creates and holds the {@link AdaptiveConcurrencyLimiter} of every endpoint address.  All limiters start from the same
+ * initial limit and adapt to their own address from there.  Listeners are told about every limiter, including the ones
+ * created before they were added, which is how the limits are published.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class ConcurrencyLimitRegistry {
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new TreeMap<>();
+
+    private final List<Consumer<AdaptiveConcurrencyLimiter>> listeners = new ArrayList<>();
+
+    /**
+     * Creates a registry whose limiters use the given bounds.
+     *
+     * @param initialLimit the limit of a new limiter
+     * @param minLimit the smallest limit, at least 1
+     * @param maxLimit the largest limit
+     */
+    public ConcurrencyLimitRegistry(int initialLimit, int minLimit, int maxLimit) {
+        AdaptiveConcurrencyLimiter.validateLimits(initialLimit, minLimit, maxLimit);
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Gets the limiter of an address, creating it on first use.
+     *
+     * @param address the endpoint address
+     * @return the limiter of the address
+     */
+    public synchronized AdaptiveConcurrencyLimiter getLimiter(String address) {
+        if (address == null) {
+            throw new IllegalArgumentException("An address is required for a concurrency limiter");
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.get(address);
+        if (limiter == null) {
+            limiter = new AdaptiveConcurrencyLimiter(address, initialLimit, minLimit, maxLimit);
+            limiters.put(address, limiter);
+            for (Consumer<AdaptiveConcurrencyLimiter> listener : listeners) {
+                listener.accept(limiter);
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * The limiters in address order.
+     *
+     * @return the limiters by address
+     */
+    public synchronized Map<String, AdaptiveConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableMap(new TreeMap<>(limiters));
+    }
+
+    /**
+     * Adds a listener and replays the limiters created so far to it.
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Consumer<AdaptiveConcurrencyLimiter> listener) {
+        listeners.add(listener);
+        limiters.values().forEach(listener);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * The request metrics of one endpoint address, in total and per resource method.  Method metrics are created the first
+ * time a method is invoked, after that recording a request only looks the method up in a concurrent map.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class EndpointMetrics {
+
+    private final RequestMetrics total;
+
+    private final ConcurrentMap<Method, RequestMetrics> methodMetrics = new ConcurrentHashMap<>();
+
+    private final Consumer<RequestMetrics> creationListener;
+
+    EndpointMetrics(String address, Consumer<RequestMetrics> creationListener) {
+        this.total = new RequestMetrics(address, null);
+        this.creationListener = creationListener;
+        creationListener.accept(total);
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param resourceMethod the invoked resource method, null if the request did not reach one
+     * @param latencyNanos the request latency in nanoseconds
+     * @param error true if the request failed
+     */
+    public void record(Method resourceMethod, long latencyNanos, boolean error) {
+        total.record(latencyNanos, error);
+        if (resourceMethod != null) {
+            RequestMetrics metrics = methodMetrics.get(resourceMethod);
+            if (metrics == null) {
+                metrics = createMethodMetrics(resourceMethod);
+            }
+            metrics.record(latencyNanos, error);
+        }
+    }
+
+    private RequestMetrics createMethodMetrics(Method resourceMethod) {
+        RequestMetrics created = new RequestMetrics(getAddress(),
+            resourceMethod.getDeclaringClass().getSimpleName() + "#" + resourceMethod.getName());
+        RequestMetrics existing = methodMetrics.putIfAbsent(resourceMethod, created);
+        if (existing != null) {
+            return existing;
+        }
+        creationListener.accept(created);
+        return created;
+    }
+
+    public String getAddress() {
+        return total.getAddress();
+    }
+
+    /**
+     * The metrics of all requests to the address.
+     *
+     * @return the address metrics
+     */
+    public RequestMetrics getTotal() {
+        return total;
+    }
+
+    /**
+     * The metrics of the resource methods invoked so far.
+     *
+     * @return the method metrics
+     */
+    public Collection<RequestMetrics> getMethodMetrics() {
+        return Collections.unmodifiableCollection(new ArrayList<>(methodMetrics.values()));
+    }
+
+    List<RequestMetrics> getAllMetrics() {
+        List<RequestMetrics> allMetrics = new ArrayList<>();
+        allMetrics.add(total);
+        allMetrics.addAll(methodMetrics.values());
+        return allMetrics;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.metrics;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.feature.AbstractFeature;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * Records every request of a server into the {@link EndpointMetrics} of its address.  The start time is taken when the
+ * request is received and the request is recorded once the response or fault has been sent, against the resource
+ * method that was invoked.  Responses with a 5xx status and faults count as errors.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class EndpointMetricsFeature extends AbstractFeature {
+
+    private static final String REQUEST_START_KEY = EndpointMetricsFeature.class.getName() + ".requestStart";
+
+    private final EndpointMetrics endpointMetrics;
+
+    public EndpointMetricsFeature(EndpointMetrics endpointMetrics) {
+        if (endpointMetrics == null) {
+            throw new IllegalArgumentException("Endpoint metrics are required to record requests");
+        }
+        this.endpointMetrics = endpointMetrics;
+    }
+
+    public EndpointMetrics getEndpointMetrics() {
+        return endpointMetrics;
+    }
+
+    @Override
+    protected void initializeProvider(InterceptorProvider provider, Bus bus) {
+        provider.getInInterceptors().add(new RequestStartInterceptor());
+        provider.getOutInterceptors().add(new RequestEndInterceptor(endpointMetrics, false));
+        provider.getOutFaultInterceptors().add(new RequestEndInterceptor(endpointMetrics, true));
+    }
+
+    /**
+     * Stores the time the request was received on the exchange, in a holder with a primitive field rather than a boxed
+     * {@link Long}.
+     */
+    static class RequestStartInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        RequestStartInterceptor() {
+            super(Phase.RECEIVE);
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            message.getExchange().put(REQUEST_START_KEY, new RequestStart(System.nanoTime()));
+        }
+    }
+
+    /**
+     * Records the request after the last interceptor that writes the response.  Removing the start time from the exchange
+     * makes sure a request is only recorded once, even when a fault is raised after the response chain started.
+     */
+    static class RequestEndInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        private final EndpointMetrics endpointMetrics;
+
+        private final boolean faultChain;
+
+        RequestEndInterceptor(EndpointMetrics endpointMetrics, boolean faultChain) {
+            super(Phase.SETUP_ENDING);
+            this.endpointMetrics = endpointMetrics;
+            this.faultChain = faultChain;
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            Exchange exchange = message.getExchange();
+            RequestStart requestStart = (RequestStart) exchange.remove(REQUEST_START_KEY);
+            if (requestStart == null) {
+                return;
+            }
+            long latencyNanos = System.nanoTime() - requestStart.startNanos;
+            Integer responseCode = (Integer) message.get(Message.RESPONSE_CODE);
+            boolean error = faultChain || (responseCode != null && responseCode >= 500);
+            OperationResourceInfo operation = exchange.get(OperationResourceInfo.class);
+            endpointMetrics.record(operation == null ? null : operation.getMethodToInvoke(), latencyNanos, error);
+        }
+    }
+
+    /**
+     * The time a request was received.
+     */
+    static final class RequestStart {
+
+        private final long startNanos;
+
+        RequestStart(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the {@link EndpointMetricsRegistry} to Micrometer.  Each address gets a {@value #ENDPOINT_PREFIX} timer,
+ * error counter and latency percentile gauges tagged with the address, each resource method the same meters under
+ * {@value #METHOD_PREFIX} tagged with the address and method.  The meters read the registry's counters, so recording a
+ * request does not go through Micrometer.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class EndpointMetricsMeterBinder implements MeterBinder {
+
+    public static final String ENDPOINT_PREFIX = "jaxrs.autoconfig.endpoint";
+
+    public static final String METHOD_PREFIX = "jaxrs.autoconfig.endpoint.method";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final EndpointMetricsRegistry metricsRegistry;
+
+    public EndpointMetricsMeterBinder(EndpointMetricsRegistry metricsRegistry) {
+        if (metricsRegistry == null) {
+            throw new IllegalArgumentException("An endpoint metrics registry is required to publish endpoint metrics");
+        }
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        metricsRegistry.addListener(metrics -> {
+            String prefix = metrics.getResourceMethod() == null ? ENDPOINT_PREFIX : METHOD_PREFIX;
+            Tags tags = Tags.of("address", metrics.getAddress());
+            if (metrics.getResourceMethod() != null) {
+                tags = tags.and("method", metrics.getResourceMethod());
+            }
+            FunctionTimer.builder(prefix + ".requests", metrics, RequestMetrics::getRequestCount,
+                requestMetrics -> requestMetrics.getTotalTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                .description("Requests served").tags(tags).register(registry);
+            FunctionCounter.builder(prefix + ".errors", metrics, RequestMetrics::getErrorCount)
+                .description("Requests that failed with a 5xx status or a fault").tags(tags).register(registry);
+            for (double percentile : PERCENTILES) {
+                Gauge.builder(prefix + ".latency", metrics, requestMetrics -> requestMetrics.getPercentile(percentile,
+                    TimeUnit.SECONDS)).description("Request latency percentile over the recent time window")
+                    .tags(tags.and("quantile", Double.toString(percentile))).baseUnit("seconds").register(registry);
+            }
+        });
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the {@link EndpointMetrics} of every endpoint address the initializer attached metrics to.  Listeners are told
+ * about every {@link RequestMetrics} created, including the ones created before they were added, which is how the
+ * metrics are published to Micrometer.  {@link #toPrometheusText()} renders all metrics in the Prometheus text format
+ * for applications without Micrometer.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class EndpointMetricsRegistry {
+
+    /**
+     * Receives every request metrics instance created by the registry.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after metrics for an address or a resource method were created.
+         *
+         * @param metrics the new metrics
+         */
+        void metricsCreated(RequestMetrics metrics);
+    }
+
+    private static final String PROMETHEUS_PREFIX = "jaxrs_autoconfig_endpoint";
+
+    private final Map<String, EndpointMetrics> endpointMetrics = new ConcurrentHashMap<>();
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * The metrics of an address, created on first use.
+     *
+     * @param address the endpoint address
+     * @return the endpoint metrics
+     */
+    public EndpointMetrics getEndpointMetrics(String address) {
+        if (address == null) {
+            throw new IllegalArgumentException("An address is required for endpoint metrics");
+        }
+        return endpointMetrics.computeIfAbsent(address, key -> new EndpointMetrics(key, this::notifyCreated));
+    }
+
+    /**
+     * The metrics of all addresses in address order.
+     *
+     * @return the endpoint metrics by address
+     */
+    public Map<String, EndpointMetrics> getEndpointMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpointMetrics));
+    }
+
+    /**
+     * Adds a listener and replays the metrics created so far to it.
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        for (EndpointMetrics metrics : endpointMetrics.values()) {
+            metrics.getAllMetrics().forEach(listener::metricsCreated);
+        }
+    }
+
+    private synchronized void notifyCreated(RequestMetrics metrics) {
+        for (Listener listener : listeners) {
+            listener.metricsCreated(metrics);
+        }
+    }
+
+    /**
+     * Renders a snapshot of all metrics in the Prometheus text exposition format.  Latencies are histograms in seconds
+     * with a bucket per power of two, errors are counters.
+     *
+     * @return the metrics as Prometheus text
+     */
+    public String toPrometheusText() {
+        List<RequestMetrics> addressMetrics = new ArrayList<>();
+        List<RequestMetrics> methodMetrics = new ArrayList<>();
+        for (EndpointMetrics metrics : getEndpointMetrics().values()) {
+            addressMetrics.add(metrics.getTotal());
+            List<RequestMetrics> sortedMethods = new ArrayList<>(metrics.getMethodMetrics());
+            sortedMethods.sort(Comparator.comparing(RequestMetrics::getResourceMethod));
+            methodMetrics.addAll(sortedMethods);
+        }
+        StringBuilder text = new StringBuilder();
+        appendHistogram(text, PROMETHEUS_PREFIX + "_requests_seconds", "Request latency per endpoint address",
+            addressMetrics);
+        appendErrors(text, PROMETHEUS_PREFIX + "_errors_total", "Failed requests per endpoint address", addressMetrics);
+        appendHistogram(text, PROMETHEUS_PREFIX + "_method_requests_seconds", "Request latency per resource method",
+            methodMetrics);
+        appendErrors(text, PROMETHEUS_PREFIX + "_method_errors_total", "Failed requests per resource method",
+            methodMetrics);
+        return text.toString();
+    }
+
+    private static void appendHistogram(StringBuilder text, String name, String help, List<RequestMetrics> metricsList) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" histogram\n");
+        for (RequestMetrics metrics : metricsList) {
+            String labels = labels(metrics);
+            long[] counts = metrics.getBucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (RequestMetrics.isPowerOfTwoBound(i)) {
+                    text.append(name).append("_bucket{").append(labels).append(",le=\"")
+                        .append(toSeconds(RequestMetrics.getBucketUpperBound(i))).append("\"} ")
+                        .append(cumulative).append('\n');
+                }
+            }
+            text.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(cumulative).append('\n');
+            text.append(name).append("_sum{").append(labels).append("} ")
+                .append(metrics.getTotalTime(TimeUnit.SECONDS)).append('\n');
+            text.append(name).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+        }
+    }
+
+    private static void appendErrors(StringBuilder text, String name, String help, List<RequestMetrics> metricsList) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" counter\n");
+        for (RequestMetrics metrics : metricsList) {
+            text.append(name).append('{').append(labels(metrics)).append("} ").append(metrics.getErrorCount())
+                .append('\n');
+        }
+    }
+
+    private static String labels(RequestMetrics metrics) {
+        StringBuilder labels = new StringBuilder("address=\"").append(escape(metrics.getAddress())).append('"');
+        if (metrics.getResourceMethod() != null) {
+            labels.append(",method=\"").append(escape(metrics.getResourceMethod())).append('"');
+        }
+        return labels.toString();
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String toSeconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Request count, error count and latency histogram of an endpoint address or of one resource method at the address.
+ * <p>
+ * The histogram uses fixed log-linear buckets in the style of an HDR histogram: every power of two between
+ * {@value #MIN_TRACKED_NANOS} ns and about 137 seconds is split into {@value #SUB_BUCKETS} equal sub-buckets, which keeps
+ * the relative error of a percentile below 25%.  All buckets are {@link LongAdder}s created up front, so
+ * {@link #record(long, boolean)} never allocates or takes a lock and concurrent requests update separate cells.  A bucket
+ * counts the latencies above the bound of the previous bucket up to and including its own bound, the {@code le}
+ * semantics of a Prometheus histogram.
+ * <p>
+ * The bucket counts accumulate since start, which is what a Prometheus histogram exports and lets the backend compute
+ * quantiles over any range.  {@link #getPercentile(double, TimeUnit)} instead reads a ring of
+ * {@value #WINDOW_RING_LENGTH} histograms in the style of Micrometer's {@code TimeWindowPercentileHistogram}: a request
+ * is counted in the newest one, and every {@link #PERCENTILE_WINDOW_NANOS} / {@value #WINDOW_RING_LENGTH} the oldest is
+ * cleared and becomes the newest.  The percentiles therefore cover the requests of the last two thirds to the whole
+ * window, so a latency spike shows up and decays instead of being diluted by every request since start.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class RequestMetrics {
+
+    /**
+     * Latencies below this are counted in the first bucket.
+     */
+    public static final long MIN_TRACKED_NANOS = 1024L;
+
+    /**
+     * The number of sub-buckets per power of two.
+     */
+    public static final int SUB_BUCKETS = 4;
+
+    /**
+     * The length of the window the percentiles are computed over.
+     */
+    public static final long PERCENTILE_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    static final int WINDOW_RING_LENGTH = 3;
+
+    private static final int SUB_BUCKET_BITS = 2;
+
+    private static final int MIN_EXPONENT = 10;
+
+    private static final int MAX_EXPONENT = 36;
+
+    private static final int BUCKET_COUNT = 2 + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+    private static final long[] BUCKET_UPPER_BOUNDS = new long[BUCKET_COUNT];
+
+    static {
+        BUCKET_UPPER_BOUNDS[0] = MIN_TRACKED_NANOS;
+        for (int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++) {
+            for (int subBucket = 0; subBucket < SUB_BUCKETS; subBucket++) {
+                BUCKET_UPPER_BOUNDS[bucketIndex(exponent, subBucket)] =
+                    (long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+            }
+        }
+        BUCKET_UPPER_BOUNDS[BUCKET_COUNT - 1] = Long.MAX_VALUE;
+    }
+
+    private final String address;
+
+    private final String resourceMethod;
+
+    private final LongAdder requestCount = new LongAdder();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+    private final WindowHistogram[] window = new WindowHistogram[WINDOW_RING_LENGTH];
+
+    private final LongSupplier nanoClock;
+
+    private final long rotationNanos;
+
+    private volatile int newestWindow;
+
+    private volatile long nextRotationNanos;
+
+    /**
+     * Creates empty metrics.
+     *
+     * @param address the endpoint address
+     * @param resourceMethod the resource method label, null for the metrics of the whole address
+     */
+    public RequestMetrics(String address, String resourceMethod) {
+        this(address, resourceMethod, PERCENTILE_WINDOW_NANOS, System::nanoTime);
+    }
+
+    RequestMetrics(String address, String resourceMethod, long windowNanos, LongSupplier nanoClock) {
+        this.address = address;
+        this.resourceMethod = resourceMethod;
+        this.nanoClock = nanoClock;
+        this.rotationNanos = windowNanos / WINDOW_RING_LENGTH;
+        this.nextRotationNanos = nanoClock.getAsLong() + rotationNanos;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        for (int i = 0; i < window.length; i++) {
+            window[i] = new WindowHistogram();
+        }
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param latencyNanos the request latency in nanoseconds
+     * @param error true if the request failed
+     */
+    public void record(long latencyNanos, boolean error) {
+        long nanos = Math.max(0L, latencyNanos);
+        requestCount.increment();
+        if (error) {
+            errorCount.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        int bucket = bucketFor(nanos);
+        buckets[bucket].increment();
+        rotateWindow();
+        window[newestWindow].record(bucket, nanos);
+    }
+
+    static int bucketFor(long nanos) {
+        if (nanos <= MIN_TRACKED_NANOS) {
+            return 0;
+        }
+        //A bound belongs to the bucket it closes, so the bucket is found from the largest value below it
+        long belowBound = nanos - 1;
+        int exponent = 63 - Long.numberOfLeadingZeros(belowBound);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        return bucketIndex(exponent, (int) (belowBound >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Clears the oldest window histogram and makes it the newest once per rotation interval.  A ring that has been idle
+     * for longer than the whole window is cleared at once.
+     */
+    private void rotateWindow() {
+        long now = nanoClock.getAsLong();
+        if (now - nextRotationNanos < 0) {
+            return;
+        }
+        synchronized (window) {
+            for (int i = 0; i < window.length && now - nextRotationNanos >= 0; i++) {
+                int oldest = (newestWindow + 1) % window.length;
+                window[oldest].reset();
+                newestWindow = oldest;
+                nextRotationNanos += rotationNanos;
+            }
+            if (now - nextRotationNanos >= 0) {
+                nextRotationNanos = now + rotationNanos;
+            }
+        }
+    }
+
+    private static int bucketIndex(int exponent, int subBucket) {
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The number of histogram buckets, the last bucket counts the latencies above the tracked range.
+     *
+     * @return the bucket count
+     */
+    public static int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    /**
+     * The inclusive upper bound of a histogram bucket.
+     *
+     * @param bucket the bucket index
+     * @return the upper bound in nanoseconds, {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long getBucketUpperBound(int bucket) {
+        return BUCKET_UPPER_BOUNDS[bucket];
+    }
+
+    /**
+     * Whether a bucket ends on a power of two.  Exporters that want fewer buckets can publish the cumulative counts at
+     * these bounds only, the counts stay exact because sub-buckets never cross a power of two.
+     *
+     * @param bucket the bucket index
+     * @return true if the bucket's upper bound is a power of two
+     */
+    public static boolean isPowerOfTwoBound(int bucket) {
+        long upperBound = BUCKET_UPPER_BOUNDS[bucket];
+        return bucket < BUCKET_COUNT - 1 && (upperBound & (upperBound - 1)) == 0;
+    }
+
+    /**
+     * A snapshot of the bucket counts.  The counts are read one after another while requests may still be recorded, so
+     * the snapshot can be slightly behind {@link #getRequestCount()}.
+     *
+     * @return the count per bucket
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Estimates a latency percentile of the recent requests as the upper bound of the bucket holding it.  Only the
+     * requests in the time window are counted, see the class description.
+     *
+     * @param percentile the percentile between 0 and 1
+     * @param unit the unit of the result
+     * @return the estimated latency, 0 if nothing was recorded in the window
+     */
+    public double getPercentile(double percentile, TimeUnit unit) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 1");
+        }
+        rotateWindow();
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        long windowMaxNanos = 0;
+        for (WindowHistogram histogram : window) {
+            total += histogram.addCountsTo(counts);
+            windowMaxNanos = Math.max(windowMaxNanos, histogram.maxNanos.get());
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long nanos = i == counts.length - 1 ? windowMaxNanos : Math.min(BUCKET_UPPER_BOUNDS[i], windowMaxNanos);
+                return (double) nanos / unit.toNanos(1);
+            }
+        }
+        return (double) windowMaxNanos / unit.toNanos(1);
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * The resource method these metrics belong to as {@code ResourceClass#method}.
+     *
+     * @return the resource method label, null for the metrics of the whole address
+     */
+    public String getResourceMethod() {
+        return resourceMethod;
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * The summed latency of all recorded requests.
+     *
+     * @param unit the unit of the result
+     * @return the total latency
+     */
+    public double getTotalTime(TimeUnit unit) {
+        return (double) totalNanos.sum() / unit.toNanos(1);
+    }
+
+    /**
+     * The highest recorded latency.
+     *
+     * @param unit the unit of the result
+     * @return the maximum latency
+     */
+    public double getMax(TimeUnit unit) {
+        return (double) maxNanos.get() / unit.toNanos(1);
+    }
+
+    /**
+     * One histogram of the percentile window ring.
+     */
+    private static final class WindowHistogram {
+
+        private final LongAdder[] counts = new LongAdder[BUCKET_COUNT];
+
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        WindowHistogram() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void record(int bucket, long nanos) {
+            counts[bucket].increment();
+            maxNanos.accumulate(nanos);
+        }
+
+        long addCountsTo(long[] totals) {
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                long count = counts[i].sum();
+                totals[i] += count;
+                total += count;
+            }
+            return total;
+        }
+
+        void reset() {
+            for (LongAdder count : counts) {
+                count.reset();
+            }
+            maxNanos.reset();
+        }
+    }
+}
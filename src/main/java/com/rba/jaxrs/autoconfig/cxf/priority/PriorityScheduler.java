@@ -0,0 +1,325 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.priority;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A thread pool shared by the endpoint addresses that invokes the waiting invocation of the highest priority first.
+ * CXF hands the invocation to the service executor and waits for it on the request thread, so when every pool thread is
+ * busy the invocations queue here and a high priority context, such as health or payments, overtakes a bulk export
+ * context instead of queueing behind it.
+ *
+ * <p>Waiting raises the effective priority of an invocation by one for every aging interval it has waited, so a
+ * steady stream of high priority invocations delays a lower priority invocation by at most the priority difference
+ * times the aging interval rather than starving it.  Invocations of the same priority are invoked in arrival order.
+ *
+ * <p>The priority of an address is the priority configured for the address or for the closest version or context
+ * address above it, for example {@code /v1} covers {@code /v1/payments}.  Addresses without a configured priority use
+ * the default priority.
+ *
+ * <p>The number of waiting invocations is bounded by the queue capacity, like the queue of an executor spec.  Once it is
+ * full the executors reject new invocations with a {@link RejectedExecutionException}, invocations handed to an idle
+ * thread do not count against the capacity.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class PriorityScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriorityScheduler.class);
+
+    private final Map<String, Integer> addressPriorities;
+
+    private final int defaultPriority;
+
+    private final int queueCapacity;
+
+    private final long agingNanos;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final TreeMap<Integer, ArrayDeque<Task>> queues = new TreeMap<>(Collections.reverseOrder());
+
+    private final Map<Integer, PriorityStats> stats = new TreeMap<>(Collections.reverseOrder());
+
+    private final List<Consumer<PriorityStats>> listeners = new ArrayList<>();
+
+    private int queuedCount;
+
+    private int busyCount;
+
+    private boolean shutdown;
+
+    /**
+     * Creates the scheduler with an unbounded queue and starts its threads.
+     *
+     * @param threads the number of threads invoking resource methods
+     * @param agingInterval the wait that raises the priority of an invocation by one
+     * @param addressPriorities the priorities by version or context address, may be null
+     * @param defaultPriority the priority of addresses without a configured priority
+     */
+    public PriorityScheduler(int threads, Duration agingInterval, Map<String, Integer> addressPriorities,
+        int defaultPriority) {
+        this(threads, Integer.MAX_VALUE, agingInterval, addressPriorities, defaultPriority);
+    }
+
+    /**
+     * Creates the scheduler and starts its threads.
+     *
+     * @param threads the number of threads invoking resource methods
+     * @param queueCapacity the number of invocations that wait for a thread, 0 only hands invocations to idle threads
+     * @param agingInterval the wait that raises the priority of an invocation by one
+     * @param addressPriorities the priorities by version or context address, may be null
+     * @param defaultPriority the priority of addresses without a configured priority
+     */
+    public PriorityScheduler(int threads, int queueCapacity, Duration agingInterval,
+        Map<String, Integer> addressPriorities, int defaultPriority) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A priority scheduler needs at least one thread");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity can not be negative");
+        }
+        if (agingInterval == null || agingInterval.isNegative() || agingInterval.isZero()) {
+            throw new IllegalArgumentException("The aging interval must be a positive duration");
+        }
+        this.addressPriorities = addressPriorities == null ? Collections.emptyMap() : new HashMap<>(addressPriorities);
+        this.defaultPriority = defaultPriority;
+        this.queueCapacity = queueCapacity;
+        this.agingNanos = agingInterval.toNanos();
+        for (int i = 1; i <= threads; i++) {
+            Thread worker = new Thread(this::work, "jaxrs-autoconfig-priority-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * The priority of an address, the priority of the address or of the closest address above it that has one.
+     *
+     * @param address the endpoint address, for example {@code /v1/payments}
+     * @return the priority
+     */
+    public int getPriority(String address) {
+        String candidate = address;
+        while (!candidate.isEmpty()) {
+            Integer priority = addressPriorities.get(candidate);
+            if (priority != null) {
+                return priority;
+            }
+            candidate = candidate.substring(0, Math.max(0, candidate.lastIndexOf('/')));
+        }
+        return addressPriorities.getOrDefault("/", defaultPriority);
+    }
+
+    /**
+     * The executor invoking the resource methods of an address with the priority of the address.  It throws a
+     * {@link RejectedExecutionException} when the queue is full or the scheduler has been shut down.
+     *
+     * @param address the endpoint address
+     * @return the executor of the address
+     */
+    public Executor getExecutor(String address) {
+        int priority = getPriority(address);
+        return invocation -> submit(priority, invocation);
+    }
+
+    void submit(int priority, Runnable invocation) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("The priority scheduler has been shut down");
+            }
+            PriorityStats priorityStats = getStats(priority);
+            //Threads not invoking take an invocation right away, only the invocations beyond them wait in the queue
+            if (queuedCount + busyCount >= workers.size() + (long) queueCapacity) {
+                priorityStats.rejected();
+                throw new RejectedExecutionException("The priority scheduler queue is full with " + queuedCount
+                    + " waiting invocations");
+            }
+            queues.computeIfAbsent(priority, key -> new ArrayDeque<>())
+                .addLast(new Task(invocation, priorityStats, System.nanoTime()));
+            priorityStats.queued();
+            queuedCount++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                while (queuedCount == 0) {
+                    if (shutdown) {
+                        return;
+                    }
+                    notEmpty.await();
+                }
+                task = pollNext(System.nanoTime());
+                busyCount++;
+            } catch (InterruptedException ie) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                task.invocation.run();
+            } catch (RuntimeException re) {
+                LOG.warn("Uncaught exception invoking a prioritized resource method", re);
+            } finally {
+                lock.lock();
+                try {
+                    busyCount--;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the invocation with the highest effective priority.  Only the oldest invocation of each priority can have
+     * the highest effective priority of its queue, so one look at the head of every queue is enough.
+     */
+    private Task pollNext(long nowNanos) {
+        ArrayDeque<Task> selected = null;
+        double selectedPriority = 0;
+        int highestWaiting = 0;
+        for (Map.Entry<Integer, ArrayDeque<Task>> mapEntry : queues.entrySet()) {
+            Task head = mapEntry.getValue().peekFirst();
+            if (head == null) {
+                continue;
+            }
+            double effectivePriority = mapEntry.getKey() + (double) (nowNanos - head.queuedNanos) / agingNanos;
+            if (selected == null) {
+                highestWaiting = mapEntry.getKey();
+            }
+            //Queues are visited from the highest priority down, so ties go to the higher priority
+            if (selected == null || effectivePriority > selectedPriority) {
+                selected = mapEntry.getValue();
+                selectedPriority = effectivePriority;
+            }
+        }
+        Task task = selected.pollFirst();
+        queuedCount--;
+        task.stats.dequeued(nowNanos - task.queuedNanos, task.stats.getPriority() != highestWaiting);
+        return task;
+    }
+
+    private PriorityStats getStats(int priority) {
+        PriorityStats priorityStats = stats.get(priority);
+        if (priorityStats == null) {
+            priorityStats = new PriorityStats(priority);
+            stats.put(priority, priorityStats);
+            for (Consumer<PriorityStats> listener : listeners) {
+                listener.accept(priorityStats);
+            }
+        }
+        return priorityStats;
+    }
+
+    /**
+     * The wait statistics of every priority that has been scheduled, highest priority first.
+     *
+     * @return the statistics by priority
+     */
+    public Map<Integer, PriorityStats> getStats() {
+        lock.lock();
+        try {
+            TreeMap<Integer, PriorityStats> snapshot = new TreeMap<>(Collections.reverseOrder());
+            snapshot.putAll(stats);
+            return Collections.unmodifiableMap(snapshot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a listener and replays the statistics created so far to it.
+     *
+     * @param listener the listener
+     */
+    public void addListener(Consumer<PriorityStats> listener) {
+        lock.lock();
+        try {
+            listeners.add(listener);
+            stats.values().forEach(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getThreadCount() {
+        return workers.size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Stops the threads once the queued invocations have been invoked, new invocations are rejected.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Task {
+
+        private final Runnable invocation;
+
+        private final PriorityStats stats;
+
+        private final long queuedNanos;
+
+        private Task(Runnable invocation, PriorityStats stats, long queuedNanos) {
+            this.invocation = invocation;
+            this.stats = stats;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+}
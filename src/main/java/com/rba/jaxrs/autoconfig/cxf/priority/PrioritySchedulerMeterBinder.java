@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.priority;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the wait time, queue depth, promotions and rejections of every priority of the {@link PriorityScheduler} as
+ * Micrometer meters prefixed with {@value #PRIORITY_PREFIX} and tagged with the priority.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class PrioritySchedulerMeterBinder implements MeterBinder {
+
+    public static final String PRIORITY_PREFIX = "jaxrs.autoconfig.priority";
+
+    private final PriorityScheduler priorityScheduler;
+
+    public PrioritySchedulerMeterBinder(PriorityScheduler priorityScheduler) {
+        if (priorityScheduler == null) {
+            throw new IllegalArgumentException("A priority scheduler is required to publish priority metrics");
+        }
+        this.priorityScheduler = priorityScheduler;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        priorityScheduler.addListener(stats -> {
+            Tags tags = Tags.of("priority", Integer.toString(stats.getPriority()));
+            FunctionTimer.builder(PRIORITY_PREFIX + ".wait", stats, PriorityStats::getWaitCount,
+                s -> s.getTotalWaitTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                .description("Time invocations waited for a scheduler thread").tags(tags).register(registry);
+            Gauge.builder(PRIORITY_PREFIX + ".wait.max", stats, s -> s.getMaxWaitTime(TimeUnit.SECONDS))
+                .description("Longest time an invocation waited for a scheduler thread").tags(tags).baseUnit("seconds")
+                .register(registry);
+            Gauge.builder(PRIORITY_PREFIX + ".queue.depth", stats, PriorityStats::getQueueDepth)
+                .description("Invocations waiting for a scheduler thread").tags(tags).register(registry);
+            FunctionCounter.builder(PRIORITY_PREFIX + ".promoted", stats, PriorityStats::getPromotedCount)
+                .description("Invocations served ahead of higher priorities after aging").tags(tags).register(registry);
+            FunctionCounter.builder(PRIORITY_PREFIX + ".rejected", stats, PriorityStats::getRejectedCount)
+                .description("Invocations rejected because the scheduler queue was full").tags(tags).register(registry);
+        });
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.priority;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The queue depth and the time invocations of one priority waited for a {@link PriorityScheduler} thread.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class PriorityStats {
+
+    private final int priority;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private final LongAdder waitCount = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder promotedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    PriorityStats(int priority) {
+        this.priority = priority;
+    }
+
+    void queued() {
+        queueDepth.incrementAndGet();
+    }
+
+    void dequeued(long waitNanos, boolean promoted) {
+        queueDepth.decrementAndGet();
+        waitCount.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+        if (promoted) {
+            promotedCount.increment();
+        }
+    }
+
+    void rejected() {
+        rejectedCount.increment();
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * The number of invocations waiting for a thread.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * The number of invocations that got a thread.
+     *
+     * @return the wait count
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    /**
+     * The summed time invocations waited for a thread.
+     *
+     * @param unit the time unit
+     * @return the total wait time
+     */
+    public double getTotalWaitTime(TimeUnit unit) {
+        return (double) totalWaitNanos.sum() / unit.toNanos(1);
+    }
+
+    /**
+     * The longest time an invocation waited for a thread.
+     *
+     * @param unit the time unit
+     * @return the maximum wait time
+     */
+    public double getMaxWaitTime(TimeUnit unit) {
+        return (double) maxWaitNanos.get() / unit.toNanos(1);
+    }
+
+    /**
+     * The number of invocations that were served before waiting invocations of a higher priority because they had
+     * waited long enough to be promoted.
+     *
+     * @return the promoted count
+     */
+    public long getPromotedCount() {
+        return promotedCount.sum();
+    }
+
+    /**
+     * The number of invocations rejected because the scheduler queue was full.
+     *
+     * @return the rejected count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+}
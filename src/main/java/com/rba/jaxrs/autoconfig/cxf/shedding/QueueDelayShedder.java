@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.shedding;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides CoDel style whether a request that waited before its resource method was invoked is shed.  The queue delay of
+ * every request is sampled and the smallest delay of each interval is kept.  A minimum above the target means even the
+ * luckiest request of the interval queued, so the queue is standing rather than absorbing a burst, and the address is
+ * overloaded for the next interval.  While overloaded, requests that waited longer than the target are shed; requests
+ * that got through quickly are still served.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class QueueDelayShedder {
+
+    private final String address;
+
+    private final long targetNanos;
+
+    private final long intervalNanos;
+
+    private final LongAdder shedCount = new LongAdder();
+
+    private boolean windowStarted;
+
+    private long windowEndNanos;
+
+    private long windowMinNanos = Long.MAX_VALUE;
+
+    private long lastWindowMinNanos;
+
+    private volatile boolean overloaded;
+
+    /**
+     * Creates a shedder for an address.
+     *
+     * @param address the endpoint address
+     * @param target the minimum queue delay above which the address is overloaded
+     * @param interval the window the minimum queue delay is taken over
+     */
+    public QueueDelayShedder(String address, Duration target, Duration interval) {
+        validateDurations(target, interval);
+        this.address = address;
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+    }
+
+    static void validateDurations(Duration target, Duration interval) {
+        if (target == null || target.isNegative() || target.isZero() || interval == null || interval.isNegative()
+            || interval.isZero()) {
+            throw new IllegalArgumentException("The queue delay target and interval must be positive durations");
+        }
+    }
+
+    /**
+     * Samples the queue delay of a request about to be invoked and decides whether it is shed.
+     *
+     * @param queueDelayNanos the time the request waited before invocation
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return true if the request should be shed instead of invoked
+     */
+    public boolean shouldShed(long queueDelayNanos, long nowNanos) {
+        boolean overloadedNow;
+        synchronized (this) {
+            if (!windowStarted || nowNanos - windowEndNanos >= 0) {
+                //An interval without requests says nothing about the queue and ends the overload
+                overloaded = windowMinNanos != Long.MAX_VALUE && windowMinNanos > targetNanos;
+                lastWindowMinNanos = windowMinNanos == Long.MAX_VALUE ? 0 : windowMinNanos;
+                windowMinNanos = Long.MAX_VALUE;
+                windowEndNanos = nowNanos + intervalNanos;
+                windowStarted = true;
+            }
+            windowMinNanos = Math.min(windowMinNanos, queueDelayNanos);
+            overloadedNow = overloaded;
+        }
+        if (overloadedNow && queueDelayNanos > targetNanos) {
+            shedCount.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public Duration getTarget() {
+        return Duration.ofNanos(targetNanos);
+    }
+
+    public Duration getInterval() {
+        return Duration.ofNanos(intervalNanos);
+    }
+
+    /**
+     * Whether the minimum queue delay of the last completed interval exceeded the target.
+     *
+     * @return true while requests above the target are shed
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    /**
+     * The minimum queue delay of the last completed interval.
+     *
+     * @param unit the time unit
+     * @return the minimum queue delay, 0 if no request was sampled in that interval
+     */
+    public synchronized double getMinQueueDelay(TimeUnit unit) {
+        return (double) lastWindowMinNanos / unit.toNanos(1);
+    }
+
+    /**
+     * The number of requests shed.
+     *
+     * @return the shed count
+     */
+    public long getShedCount() {
+        return shedCount.sum();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.shedding;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.feature.AbstractFeature;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageContentsList;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.invoker.Invoker;
+import org.apache.cxf.transport.http.AbstractHTTPDestination;
+
+import javax.servlet.ServletRequest;
+import javax.ws.rs.core.Response;
+
+/**
+ * Measures the time each request of a server spends between arriving and its resource method being invoked and sheds
+ * it through the {@link QueueDelayShedder} of its address.  The arrival is the time the {@link RequestArrivalFilter}
+ * recorded when the request entered the servlet container, or the time CXF received it when the filter is not
+ * registered.  The delay is taken in the invoker, so time spent waiting for a service executor thread is included.
+ * Time a request waits in the connector before a container thread picks it up is not visible to either.  A shed
+ * request is answered with a 503 without invoking the resource method.  Requests answered from the response cache are
+ * never shed since they do not invoke anything, and a suspended request is only judged before its first invocation.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class QueueSheddingFeature extends AbstractFeature {
+
+    static final String RECEIVED_NANOS_KEY = QueueSheddingFeature.class.getName() + ".receivedNanos";
+
+    private final QueueDelayShedder shedder;
+
+    public QueueSheddingFeature(QueueDelayShedder shedder) {
+        if (shedder == null) {
+            throw new IllegalArgumentException("A queue delay shedder is required to shed requests");
+        }
+        this.shedder = shedder;
+    }
+
+    public QueueDelayShedder getShedder() {
+        return shedder;
+    }
+
+    @Override
+    public void initialize(Server server, Bus bus) {
+        super.initialize(server, bus);
+        //The server factory sets the invoker before it applies the features
+        Service service = server.getEndpoint().getService();
+        if (!(service.getInvoker() instanceof QueueDelayInvoker)) {
+            service.setInvoker(new QueueDelayInvoker(service.getInvoker(), shedder));
+        }
+    }
+
+    @Override
+    protected void initializeProvider(InterceptorProvider provider, Bus bus) {
+        provider.getInInterceptors().add(new ReceivedInterceptor());
+    }
+
+    /**
+     * Stores the time the request arrived on the exchange.
+     */
+    static class ReceivedInterceptor extends AbstractPhaseInterceptor<Message> {
+
+        ReceivedInterceptor() {
+            super(Phase.RECEIVE);
+        }
+
+        @Override
+        public void handleMessage(Message message) {
+            Object request = message.get(AbstractHTTPDestination.HTTP_REQUEST);
+            Object arrivalNanos = request instanceof ServletRequest
+                ? ((ServletRequest) request).getAttribute(RequestArrivalFilter.ARRIVAL_NANOS_ATTRIBUTE) : null;
+            message.getExchange().put(RECEIVED_NANOS_KEY,
+                arrivalNanos instanceof Long ? (Long) arrivalNanos : System.nanoTime());
+        }
+    }
+
+    /**
+     * Sheds the request or hands it to the invoker of the server.
+     */
+    static class QueueDelayInvoker implements Invoker {
+
+        private final Invoker delegate;
+
+        private final QueueDelayShedder shedder;
+
+        QueueDelayInvoker(Invoker delegate, QueueDelayShedder shedder) {
+            this.delegate = delegate;
+            this.shedder = shedder;
+        }
+
+        @Override
+        public Object invoke(Exchange exchange, Object o) {
+            //Removed so the invocation of a resumed request is not judged by the delay before it was suspended
+            Object receivedNanos = exchange.remove(RECEIVED_NANOS_KEY);
+            if (receivedNanos != null && exchange.get(Response.class) == null) {
+                long nowNanos = System.nanoTime();
+                if (shedder.shouldShed(nowNanos - (Long) receivedNanos, nowNanos)) {
+                    return new MessageContentsList(Response.status(Response.Status.SERVICE_UNAVAILABLE).build());
+                }
+            }
+            return delegate.invoke(exchange, o);
+        }
+    }
+}
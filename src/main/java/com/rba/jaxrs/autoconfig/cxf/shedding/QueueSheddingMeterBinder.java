@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.shedding;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the shed requests, overload state and minimum queue delay of every {@link QueueDelayShedder} as Micrometer
+ * meters prefixed with {@value #QUEUE_SHEDDING_PREFIX} and tagged with the endpoint address.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class QueueSheddingMeterBinder implements MeterBinder {
+
+    public static final String QUEUE_SHEDDING_PREFIX = "jaxrs.autoconfig.queue";
+
+    private final QueueSheddingRegistry sheddingRegistry;
+
+    public QueueSheddingMeterBinder(QueueSheddingRegistry sheddingRegistry) {
+        if (sheddingRegistry == null) {
+            throw new IllegalArgumentException("A queue shedding registry is required to publish shedding metrics");
+        }
+        this.sheddingRegistry = sheddingRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        sheddingRegistry.addListener(shedder -> {
+            Tags tags = Tags.of("address", shedder.getAddress());
+            FunctionCounter.builder(QUEUE_SHEDDING_PREFIX + ".shed", shedder, QueueDelayShedder::getShedCount)
+                .description("Requests shed because of their queue delay").tags(tags).register(registry);
+            Gauge.builder(QUEUE_SHEDDING_PREFIX + ".overloaded", shedder, s -> s.isOverloaded() ? 1 : 0)
+                .description("Whether the minimum queue delay exceeds the target").tags(tags).register(registry);
+            Gauge.builder(QUEUE_SHEDDING_PREFIX + ".delay.min", shedder, s -> s.getMinQueueDelay(TimeUnit.SECONDS))
+                .description("Minimum queue delay of the last interval").tags(tags).baseUnit("seconds")
+                .register(registry);
+        });
+    }
+}
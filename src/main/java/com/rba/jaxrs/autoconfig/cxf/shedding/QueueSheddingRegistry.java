@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.shedding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Creates and holds the {@link QueueDelayShedder} of every endpoint address.  The target of an address is the target of
+ * its api version, the first segment of the address, or the default target for versions without one.  Giving legacy
+ * versions a lower target makes them shed before the current versions when the server is overloaded.  Listeners are
+ * told about every shedder, including the ones created before they were added, which is how the shed counts are
+ * published.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class QueueSheddingRegistry {
+
+    private final Duration defaultTarget;
+
+    private final Duration interval;
+
+    private final Map<String, Duration> versionTargets;
+
+    private final Map<String, QueueDelayShedder> shedders = new TreeMap<>();
+
+    private final List<Consumer<QueueDelayShedder>> listeners = new ArrayList<>();
+
+    /**
+     * Creates a registry whose shedders use the given targets.
+     *
+     * @param defaultTarget the target of versions without their own target
+     * @param interval the window the minimum queue delay is taken over
+     * @param versionTargets the targets by api version, for example {@code v1}, may be null
+     */
+    public QueueSheddingRegistry(Duration defaultTarget, Duration interval, Map<String, Duration> versionTargets) {
+        this.versionTargets = versionTargets == null ? Collections.emptyMap() : new HashMap<>(versionTargets);
+        QueueDelayShedder.validateDurations(defaultTarget, interval);
+        this.versionTargets.values().forEach(target -> QueueDelayShedder.validateDurations(target, interval));
+        this.defaultTarget = defaultTarget;
+        this.interval = interval;
+    }
+
+    /**
+     * Gets the shedder of an address, creating it on first use.
+     *
+     * @param address the endpoint address
+     * @return the shedder of the address
+     */
+    public synchronized QueueDelayShedder getShedder(String address) {
+        if (address == null) {
+            throw new IllegalArgumentException("An address is required for queue shedding");
+        }
+        QueueDelayShedder shedder = shedders.get(address);
+        if (shedder == null) {
+            shedder = new QueueDelayShedder(address, getTarget(address), interval);
+            shedders.put(address, shedder);
+            for (Consumer<QueueDelayShedder> listener : listeners) {
+                listener.accept(shedder);
+            }
+        }
+        return shedder;
+    }
+
+    /**
+     * The target of an address, the target of its api version or the default target.
+     *
+     * @param address the endpoint address, for example {@code /v1/admin}
+     * @return the queue delay target
+     */
+    public Duration getTarget(String address) {
+        String path = address.startsWith("/") ? address.substring(1) : address;
+        int versionEnd = path.indexOf('/');
+        String version = versionEnd < 0 ? path : path.substring(0, versionEnd);
+        return versionTargets.getOrDefault(version, defaultTarget);
+    }
+
+    /**
+     * The shedders in address order.
+     *
+     * @return the shedders by address
+     */
+    public synchronized Map<String, QueueDelayShedder> getShedders() {
+        return Collections.unmodifiableMap(new TreeMap<>(shedders));
+    }
+
+    /**
+     * Adds a listener and replays the shedders created so far to it.
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Consumer<QueueDelayShedder> listener) {
+        listeners.add(listener);
+        shedders.values().forEach(listener);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.shedding;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+
+/**
+ * Records the time a request entered the servlet container as a request attribute, so the queue delay the
+ * {@link QueueSheddingFeature} measures includes the filters and dispatching in front of CXF.  The time of the first
+ * dispatch is kept when an async request is dispatched again.  Registered first in the filter chain when queue
+ * shedding is enabled.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public class RequestArrivalFilter implements Filter {
+
+    public static final String ARRIVAL_NANOS_ATTRIBUTE = RequestArrivalFilter.class.getName() + ".arrivalNanos";
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        //Nothing to configure
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+        if (request.getAttribute(ARRIVAL_NANOS_ATTRIBUTE) == null) {
+            request.setAttribute(ARRIVAL_NANOS_ATTRIBUTE, System.nanoTime());
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void destroy() {
+        //Nothing to release
+    }
+}
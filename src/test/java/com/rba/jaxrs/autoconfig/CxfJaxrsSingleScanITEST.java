@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig;
+
+import com.rba.jaxrs.autoconfig.core.annotations.EnableJaxrsConfig;
+import com.rba.jaxrs.autoconfig.core.scan.AutoConfigClasspathIndex;
+import com.rba.jaxrs.autoconfig.core.scan.DefaultJaxRsAutoConfigScanner;
+import com.rba.jaxrs.autoconfig.core.transform.RestApiContextTransformer;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfigurationBuilder;
+import com.rba.jaxrs.autoconfig.cxf.config.CxfServerFactoryCustomizer;
+import com.rba.jaxrs.autoconfig.stubs.ApiContextTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.ApiVersionTestImpl;
+import org.apache.cxf.transport.common.gzip.GZIPInInterceptor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Map;
+
+/**
+ * Registers a large number of customizers and verifies the enums are only discovered by a single classpath scan.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = CxfJaxrsSingleScanITEST.CxfJaxrsApplication.class, webEnvironment =
+    SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("integration")
+public class CxfJaxrsSingleScanITEST {
+
+    private static final int CUSTOMIZER_COUNT = 40;
+
+    @Autowired
+    private AutoConfigClasspathIndex classpathIndex;
+
+    @Autowired
+    private RestApiContextTransformer contextTransformer;
+
+    @Autowired
+    private DefaultJaxRsAutoConfigScanner scanner;
+
+    @Autowired
+    private Map<String, CxfServerFactoryCustomizer> customizers;
+
+    @Test
+    public void singleEnumDiscoveryScan() {
+        Assertions.assertEquals(CUSTOMIZER_COUNT, customizers.size());
+        Assertions.assertEquals(1, classpathIndex.getScanCount());
+        Assertions.assertSame(contextTransformer, scanner.getContextTransformer());
+        for (CxfServerFactoryCustomizer customizer : customizers.values()) {
+            Assertions.assertSame(contextTransformer, customizer.getContextTransformer());
+        }
+        //Nothing touched the index after it was closed at the end of initialization
+        Assertions.assertEquals(1, classpathIndex.getScanCount());
+    }
+
+    @SpringBootApplication
+    @EnableJaxrsConfig
+    static class CxfJaxrsApplication {
+
+        @Bean
+        public static BeanDefinitionRegistryPostProcessor customizerRegistrar() {
+            return new BeanDefinitionRegistryPostProcessor() {
+                @Override
+                public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                    for (int i = 0; i < CUSTOMIZER_COUNT; i++) {
+                        boolean applyToAll = i % 2 == 0;
+                        registry.registerBeanDefinition("generatedCustomizer" + i,
+                            new RootBeanDefinition(CxfServerFactoryCustomizer.class, () -> new CxfServerFactoryCustomizer(
+                                new CxfConfigurationBuilder().addIncomingInterceptor(new GZIPInInterceptor()).build(),
+                                applyToAll, ApiVersionTestImpl.EXTERNAL_V1, ApiContextTestImpl.OPEN)));
+                    }
+                }
+
+                @Override
+                public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+                    //Nothing to post process, the definitions are all registered above
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.index;
+
+import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.core.classify.EmptyApiContext;
+import com.rba.jaxrs.autoconfig.core.properties.AutoConfigProperties;
+import com.rba.jaxrs.autoconfig.core.scan.AutoConfigClasspathIndex;
+import com.rba.jaxrs.autoconfig.core.scan.DefaultJaxRsAutoConfigScanner;
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport;
+import com.rba.jaxrs.autoconfig.core.transform.DefaultRestApiEndpointTransformer;
+import com.rba.jaxrs.autoconfig.core.transform.EndpointContextContainer;
+import com.rba.jaxrs.autoconfig.core.transform.RestApiContextTransformer;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
+import com.rba.jaxrs.autoconfig.core.version.EmptyApiVersion;
+import com.rba.jaxrs.autoconfig.cxf.config.CxfSpringConfiguration;
+import com.rba.jaxrs.autoconfig.stubs.ApiContextTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.ApiVersionTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.StubEndpointWithMultipleAnnotations;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The test sources are compiled with {@link RestApiEndpointIndexProcessor} so the index of the test stubs is on the test
+ * classpath.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class RestApiEndpointIndexUTEST {
+
+    private static final String NO_SCAN_PACKAGE = "com.rba.jaxrs.autoconfig.stubs.noscan";
+
+    private final DefaultJaxRsAutoConfigScanner classpathScanner = new DefaultJaxRsAutoConfigScanner();
+    private final DefaultJaxRsAutoConfigScanner indexScanner = createIndexScanner();
+
+    @Test
+    void verifyIndexGeneratedForTestSources() {
+        RestApiEndpointIndex endpointIndex = RestApiEndpointIndex.load(getClass().getClassLoader());
+        Assertions.assertTrue(endpointIndex.isPresent());
+        List<RestApiEndpointIndexEntry> multipleAnnotationEntries = endpointIndex.getEntries().stream()
+            .filter(entry -> entry.getClassName().equals(StubEndpointWithMultipleAnnotations.class.getName()))
+            .collect(Collectors.toList());
+        Assertions.assertEquals(2, multipleAnnotationEntries.size());
+    }
+
+    @Test
+    void verifyEnumerationsIndexed() {
+        RestApiEndpointIndex endpointIndex = RestApiEndpointIndex.load(getClass().getClassLoader());
+        Assertions.assertTrue(endpointIndex.getApiVersionEnumerations().contains(ApiVersionTestImpl.class.getName()));
+        Assertions.assertTrue(endpointIndex.getApiVersionEnumerations().contains(EmptyApiVersion.class.getName()));
+        Assertions.assertTrue(endpointIndex.getApiContextEnumerations().contains(ApiContextTestImpl.class.getName()));
+        Assertions.assertTrue(endpointIndex.getApiContextEnumerations().contains(EmptyApiContext.class.getName()));
+        Assertions.assertFalse(endpointIndex.getApiContextEnumerations().contains(ApiVersionTestImpl.class.getName()));
+    }
+
+    @Test
+    void verifyIndexModeBootNeverScans() {
+        AutoConfigProperties properties = new AutoConfigProperties();
+        properties.setUseEndpointIndex(true);
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex()) {
+            //Wired the way the Spring configuration wires them
+            RestApiContextTransformer transformer = new CxfSpringConfiguration().restApiContextTransformer(properties,
+                classpathIndex, new AutoConfigStartupReport());
+            DefaultJaxRsAutoConfigScanner wiredScanner = createIndexScanner();
+            wiredScanner.setClasspathIndex(classpathIndex);
+            wiredScanner.setContextTransformer(transformer);
+            assertSameResults(classpathScanner.getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE),
+                wiredScanner.getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE));
+            //A scanner without a wired transformer builds its default from the index as well
+            DefaultJaxRsAutoConfigScanner unwiredScanner = createIndexScanner();
+            unwiredScanner.setClasspathIndex(classpathIndex);
+            assertSameResults(classpathScanner.getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE),
+                unwiredScanner.getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE));
+            Assertions.assertEquals(0, classpathIndex.getScanCount());
+        }
+    }
+
+    @Test
+    void verifyIndexLineRoundTrip() {
+        RestApiEndpointIndexEntry entry = new RestApiEndpointIndexEntry("a.b.C$D", "EXTERNAL_V1", "OPEN", "ADMIN");
+        Assertions.assertEquals("a.b.C$D|EXTERNAL_V1|OPEN,ADMIN", entry.toIndexLine());
+        Assertions.assertEquals(entry, RestApiEndpointIndexEntry.parse(entry.toIndexLine()));
+        RestApiEndpointIndexEntry emptyEntry = RestApiEndpointIndexEntry.parse("a.B||");
+        Assertions.assertEquals("", emptyEntry.getApiVersionEnumName());
+        Assertions.assertEquals(0, emptyEntry.getApiContextEnumNames().length);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RestApiEndpointIndexEntry.parse("a.B|V1"));
+    }
+
+    @Test
+    void verifyIndexMatchesScanForWhitelistAndBlacklist() {
+        List<String> whitelist = Collections.singletonList("com.rba.jaxrs.autoconfig.stubs");
+        assertSameResults(classpathScanner.getAutoConfigurationData(whitelist, NO_SCAN_PACKAGE),
+            indexScanner.getAutoConfigurationData(whitelist, NO_SCAN_PACKAGE));
+    }
+
+    @Test
+    void verifyIndexMatchesScanForBlacklistOnly() {
+        assertSameResults(classpathScanner.getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE),
+            indexScanner.getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE));
+    }
+
+    @Test
+    void verifyIndexMatchesScanForNarrowWhitelist() {
+        assertSameResults(classpathScanner.getAutoConfigurationData("com.rba.jaxrs.autoconfig.core.scan.stub"),
+            indexScanner.getAutoConfigurationData("com.rba.jaxrs.autoconfig.core.scan.stub"));
+    }
+
+    @Test
+    void verifyIndexResolvesNamesForAnnotationOnlyTransformer() {
+        DefaultRestApiEndpointTransformer defaultTransformer = new DefaultRestApiEndpointTransformer();
+        DefaultJaxRsAutoConfigScanner annotationOnlyScanner = createIndexScanner();
+        //Only implements the annotation lookup, the index names are resolved by the scanner and the path by this transformer
+        annotationOnlyScanner.setContextTransformer(new RestApiContextTransformer() {
+            @Override
+            public EndpointContextContainer getEndpointContext(RestApiEndpoint endpointAnnotation) {
+                return defaultTransformer.getEndpointContext(endpointAnnotation);
+            }
+
+            @Override
+            public EndpointContextContainer resolveApiPath(ApiVersion apiVersion, ApiContext... apiContexts) {
+                return defaultTransformer.resolveApiPath(apiVersion, apiContexts);
+            }
+        });
+        assertSameResults(classpathScanner.getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE),
+            annotationOnlyScanner.getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE));
+    }
+
+    private static DefaultJaxRsAutoConfigScanner createIndexScanner() {
+        AutoConfigProperties properties = new AutoConfigProperties();
+        properties.setUseEndpointIndex(true);
+        DefaultJaxRsAutoConfigScanner scanner = new DefaultJaxRsAutoConfigScanner();
+        scanner.setAutoConfigProperties(properties);
+        return scanner;
+    }
+
+    private static void assertSameResults(Map<EndpointContextContainer, List<Class<?>>> expectedResults,
+        Map<EndpointContextContainer, List<Class<?>>> results) {
+        Assertions.assertFalse(expectedResults.isEmpty());
+        Assertions.assertEquals(expectedResults.keySet(), results.keySet());
+        for (Map.Entry<EndpointContextContainer, List<Class<?>>> mapEntry : expectedResults.entrySet()) {
+            Assertions.assertEquals(mapEntry.getValue().size(), results.get(mapEntry.getKey()).size());
+            Assertions.assertEquals(new HashSet<>(mapEntry.getValue()), new HashSet<>(results.get(mapEntry.getKey())));
+        }
+    }
+}
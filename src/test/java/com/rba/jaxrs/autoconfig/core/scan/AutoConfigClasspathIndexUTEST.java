@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.scan;
+
+import com.rba.jaxrs.autoconfig.core.classify.EmptyApiContext;
+import com.rba.jaxrs.autoconfig.core.transform.DefaultRestApiEndpointTransformer;
+import com.rba.jaxrs.autoconfig.core.transform.EndpointContextContainer;
+import com.rba.jaxrs.autoconfig.core.version.EmptyApiVersion;
+import com.rba.jaxrs.autoconfig.stubs.ApiContextTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.ApiVersionTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.StubEndpointWithMultipleAnnotations;
+import com.rba.jaxrs.autoconfig.stubs.StubEndpointWithVersionAndSingleContext;
+import com.rba.jaxrs.autoconfig.stubs.noscan.StubEndpointInvalidContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class AutoConfigClasspathIndexUTEST {
+
+    private static final String NO_SCAN_PACKAGE = "com.rba.jaxrs.autoconfig.stubs.noscan";
+
+    private Path cacheDirectory;
+
+    @Test
+    void verifySingleScanAnswersAllQueries() {
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex()) {
+            Assertions.assertEquals(0, classpathIndex.getScanCount());
+            Assertions.assertTrue(classpathIndex.getApiContextEnumerations().contains(ApiContextTestImpl.class));
+            Assertions.assertTrue(classpathIndex.getApiContextEnumerations().contains(EmptyApiContext.class));
+            Assertions.assertTrue(classpathIndex.getApiVersionEnumerations().contains(ApiVersionTestImpl.class));
+            Assertions.assertTrue(classpathIndex.getApiVersionEnumerations().contains(EmptyApiVersion.class));
+            List<Class<?>> endpointClasses = classpathIndex.getRestApiEndpointClasses(null);
+            Assertions.assertTrue(endpointClasses.contains(StubEndpointWithMultipleAnnotations.class));
+            Assertions.assertTrue(endpointClasses.contains(StubEndpointInvalidContext.class));
+            Assertions.assertEquals(1, classpathIndex.getScanCount());
+        }
+    }
+
+    @Test
+    void verifyWhitelistAndBlacklist() {
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex()) {
+            List<Class<?>> endpointClasses = classpathIndex.getRestApiEndpointClasses(
+                Collections.singletonList("com.rba.jaxrs.autoconfig.stubs"), NO_SCAN_PACKAGE);
+            Assertions.assertTrue(endpointClasses.contains(StubEndpointWithVersionAndSingleContext.class));
+            Assertions.assertFalse(endpointClasses.contains(StubEndpointInvalidContext.class));
+            Assertions.assertTrue(classpathIndex.getRestApiEndpointClasses(
+                Collections.singletonList("com.rba.jaxrs.autoconfig.stub")).isEmpty());
+            Assertions.assertEquals(1, classpathIndex.getScanCount());
+        }
+    }
+
+    @Test
+    void verifyQueryAfterCloseScansAgain() {
+        AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex();
+        Assertions.assertFalse(classpathIndex.getApiVersionEnumerations().isEmpty());
+        classpathIndex.close();
+        Assertions.assertFalse(classpathIndex.getApiVersionEnumerations().isEmpty());
+        classpathIndex.close();
+        Assertions.assertEquals(2, classpathIndex.getScanCount());
+    }
+
+    @Test
+    void verifySharedIndexMatchesDedicatedScan() {
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex()) {
+            DefaultJaxRsAutoConfigScanner sharedScanner = new DefaultJaxRsAutoConfigScanner();
+            sharedScanner.setClasspathIndex(classpathIndex);
+            Map<EndpointContextContainer, List<Class<?>>> expectedResults = new DefaultJaxRsAutoConfigScanner()
+                .getAutoConfigurationData((List<String>) null, NO_SCAN_PACKAGE);
+            Map<EndpointContextContainer, List<Class<?>>> results = sharedScanner.getAutoConfigurationData(
+                (List<String>) null, NO_SCAN_PACKAGE);
+            Assertions.assertEquals(expectedResults.keySet(), results.keySet());
+            for (Map.Entry<EndpointContextContainer, List<Class<?>>> mapEntry : expectedResults.entrySet()) {
+                Assertions.assertEquals(new HashSet<>(mapEntry.getValue()), new HashSet<>(results.get(mapEntry.getKey())));
+            }
+            //The transformer built from the same index must not scan again
+            new DefaultRestApiEndpointTransformer(classpathIndex).resolveApiPath(ApiVersionTestImpl.EXTERNAL_V1);
+            Assertions.assertEquals(1, classpathIndex.getScanCount());
+        }
+    }
+
+    @BeforeEach
+    void createCacheDirectory() throws IOException {
+        cacheDirectory = Files.createTempDirectory("jaxrs-autoconfig");
+    }
+
+    @AfterEach
+    void deleteCacheDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void verifyScanCacheSkipsScan() throws IOException {
+        Path cacheFile = cacheDirectory.resolve("scan.cache");
+        List<Class<?>> scannedEndpoints;
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex(cacheFile)) {
+            scannedEndpoints = classpathIndex.getRestApiEndpointClasses(null, NO_SCAN_PACKAGE);
+            Assertions.assertEquals(1, classpathIndex.getScanCount());
+            Assertions.assertEquals(0, classpathIndex.getCacheHitCount());
+        }
+        Assertions.assertTrue(Files.isRegularFile(cacheFile));
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex(cacheFile)) {
+            Assertions.assertEquals(scannedEndpoints, classpathIndex.getRestApiEndpointClasses(null, NO_SCAN_PACKAGE));
+            Assertions.assertTrue(classpathIndex.getApiContextEnumerations().contains(ApiContextTestImpl.class));
+            Assertions.assertTrue(classpathIndex.getApiVersionEnumerations().contains(ApiVersionTestImpl.class));
+            Assertions.assertEquals(0, classpathIndex.getScanCount());
+            Assertions.assertEquals(1, classpathIndex.getCacheHitCount());
+        }
+    }
+
+    @Test
+    void verifyFingerprintMismatchRescansAndRewrites() throws IOException {
+        Path cacheFile = cacheDirectory.resolve("scan.cache");
+        Properties staleCache = new Properties();
+        staleCache.setProperty(AutoConfigClasspathIndex.FINGERPRINT_KEY, "stale");
+        staleCache.setProperty(AutoConfigClasspathIndex.ENDPOINTS_KEY, "com.example.Missing");
+        try (OutputStream cacheStream = Files.newOutputStream(cacheFile)) {
+            staleCache.store(cacheStream, null);
+        }
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex(cacheFile)) {
+            Assertions.assertTrue(classpathIndex.getRestApiEndpointClasses(null)
+                .contains(StubEndpointWithMultipleAnnotations.class));
+            Assertions.assertEquals(1, classpathIndex.getScanCount());
+        }
+        Properties rewrittenCache = new Properties();
+        try (InputStream cacheStream = Files.newInputStream(cacheFile)) {
+            rewrittenCache.load(cacheStream);
+        }
+        Assertions.assertEquals(AutoConfigClasspathIndex.createClasspathFingerprint(cacheFile),
+            rewrittenCache.getProperty(AutoConfigClasspathIndex.FINGERPRINT_KEY));
+        Assertions.assertTrue(rewrittenCache.getProperty(AutoConfigClasspathIndex.ENDPOINTS_KEY)
+            .contains(StubEndpointWithMultipleAnnotations.class.getName()));
+        //Only the cache file is left behind, the temp file was moved into place
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void verifyCacheFileInsideClasspathDirectoryKeepsFingerprint() throws IOException {
+        Path classesDirectory = Files.createDirectories(cacheDirectory.resolve("classes/com/example"));
+        Path classFile = Files.write(classesDirectory.resolve("Endpoint.class"), new byte[] {1, 2, 3});
+        List<File> classpath = Collections.singletonList(cacheDirectory.resolve("classes").toFile());
+        Path cacheFile = cacheDirectory.resolve("classes/scan.cache");
+        String fingerprint = AutoConfigClasspathIndex.createClasspathFingerprint(classpath, cacheFile);
+        Files.write(Files.createTempFile(cacheFile.getParent(), "scan.cache", ".tmp"), new byte[] {4});
+        Files.write(cacheFile, new byte[] {5, 6});
+        Assertions.assertEquals(fingerprint, AutoConfigClasspathIndex.createClasspathFingerprint(classpath, cacheFile));
+        //A class rewritten in place or added still changes the fingerprint
+        Files.write(classFile, new byte[] {1, 2, 3, 4});
+        String rewritten = AutoConfigClasspathIndex.createClasspathFingerprint(classpath, cacheFile);
+        Assertions.assertNotEquals(fingerprint, rewritten);
+        Files.write(classesDirectory.resolve("Other.class"), new byte[] {1});
+        Assertions.assertNotEquals(rewritten, AutoConfigClasspathIndex.createClasspathFingerprint(classpath, cacheFile));
+    }
+}
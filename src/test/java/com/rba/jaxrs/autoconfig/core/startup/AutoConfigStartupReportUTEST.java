@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.startup;
+
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport.Phase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class AutoConfigStartupReportUTEST {
+
+    @Test
+    void verifyPhaseAndGroupTimingsAreSummed() {
+        AutoConfigStartupReport startupReport = new AutoConfigStartupReport();
+        startupReport.record(Phase.ENUM_SCAN, null, Duration.ofMillis(5));
+        startupReport.record(Phase.BEAN_CREATION, "/v1/b", Duration.ofMillis(3));
+        startupReport.record(Phase.BEAN_CREATION, "/v1/a", Duration.ofMillis(2));
+        startupReport.record(Phase.BEAN_CREATION, "/v1/a", Duration.ofMillis(1));
+
+        Assertions.assertEquals(Duration.ofMillis(5), startupReport.getPhaseTimings().get(Phase.ENUM_SCAN));
+        Assertions.assertEquals(Duration.ofMillis(6), startupReport.getPhaseTimings().get(Phase.BEAN_CREATION));
+        Assertions.assertEquals(Arrays.asList("/v1/a", "/v1/b"),
+            new ArrayList<>(startupReport.getEndpointGroupTimings().keySet()));
+        Assertions.assertEquals(Duration.ofMillis(3),
+            startupReport.getEndpointGroupTimings().get("/v1/a").get(Phase.BEAN_CREATION));
+        Assertions.assertEquals(Duration.ofMillis(11), startupReport.getTotal());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> startupReport.record(null, null, Duration.ZERO));
+    }
+
+    @Test
+    void verifyListenerReplaysEarlierTimings() {
+        AutoConfigStartupReport startupReport = new AutoConfigStartupReport();
+        startupReport.record(Phase.ENDPOINT_SCAN, null, Duration.ofMillis(4));
+        List<String> recorded = new ArrayList<>();
+        startupReport.addListener((phase, endpointGroup, duration) -> recorded.add(phase + " " + endpointGroup));
+        startupReport.record(Phase.SERVER_CREATION, "/v1", Duration.ofMillis(7));
+        Assertions.assertEquals(Arrays.asList("ENDPOINT_SCAN null", "SERVER_CREATION /v1"), recorded);
+    }
+
+    @Test
+    void verifyMeterBinderPublishesTimers() {
+        AutoConfigStartupReport startupReport = new AutoConfigStartupReport();
+        startupReport.record(Phase.CUSTOMIZATION, "/v1", Duration.ofMillis(8));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new StartupReportMeterBinder(startupReport).bindTo(registry);
+        startupReport.record(Phase.CUSTOMIZATION, "/v2", Duration.ofMillis(2));
+
+        Assertions.assertEquals(10, registry.get(StartupReportMeterBinder.PHASE_TIMER).tag("phase", "customization")
+            .timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+        Assertions.assertEquals(8, registry.get(StartupReportMeterBinder.ENDPOINT_GROUP_TIMER)
+            .tag("endpoint.group", "/v1").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+        Assertions.assertEquals(1, registry.get(StartupReportMeterBinder.ENDPOINT_GROUP_TIMER)
+            .tag("endpoint.group", "/v2").timer().count());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.transform;
+
+import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.stubs.ApiContextTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.ApiVersionTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.StubEndpointWithVersionAndSingleContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class CachingRestApiContextTransformerUTEST {
+
+    private final CachingRestApiContextTransformer transformer =
+        new CachingRestApiContextTransformer(DefaultRestApiEndpointTransformer.getSharedInstance());
+
+    @Test
+    void verifyDelegateRequired() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CachingRestApiContextTransformer(null));
+    }
+
+    @Test
+    void verifyResolvedPathsAreCached() {
+        EndpointContextContainer first = transformer.resolveApiPath(ApiVersionTestImpl.EXTERNAL_V1,
+            ApiContextTestImpl.OPEN, ApiContextTestImpl.ADMIN);
+        EndpointContextContainer second = transformer.resolveApiPath(ApiVersionTestImpl.EXTERNAL_V1,
+            ApiContextTestImpl.OPEN, ApiContextTestImpl.ADMIN);
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(new EndpointContextContainer("/v1/open/admin", true), first);
+        Assertions.assertEquals(1, transformer.getMissCount());
+        Assertions.assertEquals(1, transformer.getHitCount());
+        //Context order is part of the key
+        Assertions.assertNotEquals(first, transformer.resolveApiPath(ApiVersionTestImpl.EXTERNAL_V1,
+            ApiContextTestImpl.ADMIN, ApiContextTestImpl.OPEN));
+        Assertions.assertEquals(2, transformer.getMissCount());
+    }
+
+    @Test
+    void verifyCallerArrayChangesDoNotAffectCache() {
+        ApiContext[] contexts = {ApiContextTestImpl.OPEN};
+        EndpointContextContainer open = transformer.resolveApiPath(null, contexts);
+        contexts[0] = ApiContextTestImpl.ADMIN;
+        Assertions.assertSame(open, transformer.resolveApiPath(null, ApiContextTestImpl.OPEN));
+        Assertions.assertEquals("/admin", transformer.resolveApiPath(null, contexts).getEndpointContext());
+    }
+
+    @Test
+    void verifyContainersAreInterned() {
+        RestApiEndpoint annotation = StubEndpointWithVersionAndSingleContext.class.getAnnotation(RestApiEndpoint.class);
+        EndpointContextContainer fromAnnotation = transformer.getEndpointContext(annotation);
+        //Names resolved by the default transformer build their path through the caching one, as the index scan does
+        EndpointContextContainer fromNames = DefaultRestApiEndpointTransformer.getSharedInstance().getEndpointContext(
+            transformer, annotation.apiVersionEnumName(), annotation.apiContextEnumNames());
+        EndpointContextContainer fromEnums = transformer.resolveApiPath(ApiVersionTestImpl.EXTERNAL_V1,
+            ApiContextTestImpl.OPEN);
+        Assertions.assertSame(fromAnnotation, fromNames);
+        Assertions.assertSame(fromAnnotation, fromEnums);
+    }
+}
@@ -17,18 +17,28 @@
 package com.rba.jaxrs.autoconfig.core.transform;
 
 import com.rba.jaxrs.autoconfig.core.annotations.RestApiEndpoint;
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
 import com.rba.jaxrs.autoconfig.core.exceptions.ContextResolverException;
+import com.rba.jaxrs.autoconfig.core.scan.AutoConfigClasspathIndex;
+import com.rba.jaxrs.autoconfig.core.transform.stub.AmbiguousStubEnumOne;
+import com.rba.jaxrs.autoconfig.core.transform.stub.AmbiguousStubEnumTwo;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
+import com.rba.jaxrs.autoconfig.stubs.ApiContextTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.ApiVersionTestImpl;
 import com.rba.jaxrs.autoconfig.stubs.noscan.StubEndpointInvalidContext;
 import com.rba.jaxrs.autoconfig.stubs.noscan.StubEndpointInvalidVersion;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
  * @since 11/16/2018
  */
 public class DefaultRestApiEndpointTransformerUTEST {
-    private final RestApiContextTransformer transformer = new DefaultRestApiEndpointTransformer();
+    private final DefaultRestApiEndpointTransformer transformer = new DefaultRestApiEndpointTransformer();
 
     @Test
     public void invalidContextThrowsException() {
@@ -48,4 +58,42 @@ public class DefaultRestApiEndpointTransformerUTEST {
             () -> transformer.getEndpointContext(annotations[0]));
         Assertions.assertTrue(cre.getMessage().endsWith(annotations[0].apiVersionEnumName()));
     }
+
+    @Test
+    public void ambiguousNamesDetected() {
+        DefaultRestApiEndpointTransformer defaultTransformer = (DefaultRestApiEndpointTransformer) transformer;
+        Assertions.assertEquals(Arrays.asList(AmbiguousStubEnumOne.class.getName(), AmbiguousStubEnumTwo.class.getName()),
+            defaultTransformer.getAmbiguousApiContextNames().get(AmbiguousStubEnumOne.AMBIGUOUS_NAME.name()));
+        Assertions.assertEquals(Arrays.asList(AmbiguousStubEnumOne.class.getName(), AmbiguousStubEnumTwo.class.getName()),
+            defaultTransformer.getAmbiguousApiVersionNames().get(AmbiguousStubEnumOne.AMBIGUOUS_NAME.name()));
+        Assertions.assertFalse(defaultTransformer.getAmbiguousApiContextNames().containsKey(ApiContextTestImpl.OPEN.name()));
+    }
+
+    @Test
+    public void ambiguousNamesResolveToFirstDiscovered() {
+        ApiContext firstContext;
+        ApiVersion firstVersion;
+        try (AutoConfigClasspathIndex classpathIndex = new AutoConfigClasspathIndex()) {
+            firstContext = (ApiContext) firstDefining(classpathIndex.getApiContextEnumerations());
+            firstVersion = (ApiVersion) firstDefining(classpathIndex.getApiVersionEnumerations());
+        }
+        Assertions.assertEquals(transformer.resolveApiPath(null, firstContext),
+            transformer.getEndpointContext("", AmbiguousStubEnumOne.AMBIGUOUS_NAME.name()));
+        Assertions.assertEquals(transformer.resolveApiPath(firstVersion),
+            transformer.getEndpointContext(AmbiguousStubEnumOne.AMBIGUOUS_NAME.name()));
+    }
+
+    private static Enum<?> firstDefining(List<? extends Class<?>> enumClasses) {
+        return enumClasses.stream()
+            .filter(enumClass -> enumClass == AmbiguousStubEnumOne.class || enumClass == AmbiguousStubEnumTwo.class)
+            .map(enumClass -> (Enum<?>) enumClass.getEnumConstants()[0])
+            .findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    @Test
+    public void uniqueNamesResolveByName() {
+        Assertions.assertEquals(transformer.resolveApiPath(ApiVersionTestImpl.EXTERNAL_V1, ApiContextTestImpl.OPEN,
+            ApiContextTestImpl.ADMIN), transformer.getEndpointContext(ApiVersionTestImpl.EXTERNAL_V1.name(),
+            ApiContextTestImpl.OPEN.name(), ApiContextTestImpl.ADMIN.name()));
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.core.transform.stub;
+
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
+
+/**
+ * Shares its constant name with another stub enum so the name is ambiguous for both versions and contexts.
+ *
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+public enum AmbiguousStubEnumOne implements ApiContext, ApiVersion {
+    AMBIGUOUS_NAME;
+
+    @Override
+    public String getApiContext() {
+        return "ambiguousone";
+    }
+
+    @Override
+    public String getApiVersion() {
+        return "ambiguousone";
+    }
+}
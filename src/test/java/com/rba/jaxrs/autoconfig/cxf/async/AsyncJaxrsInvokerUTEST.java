@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.async;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.AsyncSpec;
+import org.apache.cxf.continuations.Continuation;
+import org.apache.cxf.continuations.ContinuationProvider;
+import org.apache.cxf.jaxrs.impl.AsyncResponseImpl;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class AsyncJaxrsInvokerUTEST {
+
+    @Test
+    void completionStageSuspendedWithTimeoutAndResumedOnCompletionExecutor() throws Exception {
+        ExecutorService completionExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "completion"));
+        try {
+            TestContinuation continuation = new TestContinuation();
+            Message inMessage = createInMessage(continuation);
+            AsyncJaxrsInvoker invoker = new AsyncJaxrsInvoker(new AsyncSpec(Duration.ofMillis(250), completionExecutor));
+            CompletableFuture<String> result = new CompletableFuture<>();
+
+            AsyncResponseImpl asyncResponse = invoker.checkFutureResponse(inMessage, result);
+            Assertions.assertNotNull(asyncResponse);
+            Assertions.assertEquals(250, continuation.suspendTimeout);
+            Assertions.assertTrue(continuation.isPending());
+
+            result.complete("done");
+            Assertions.assertTrue(continuation.resumed.await(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("completion", continuation.resumeThread.get());
+            Assertions.assertEquals("done", ((Response) asyncResponse.getResponseObject()).getEntity());
+        } finally {
+            completionExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedStageKeepsResourceException() throws Exception {
+        TestContinuation continuation = new TestContinuation();
+        AsyncJaxrsInvoker invoker = new AsyncJaxrsInvoker(new AsyncSpec(null, Runnable::run));
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AsyncResponseImpl asyncResponse = invoker.checkFutureResponse(createInMessage(continuation), result);
+        //Without a timeout the continuation is left for the invoker to suspend without one
+        Assertions.assertEquals(-1, continuation.suspendTimeout);
+        Assertions.assertTrue(asyncResponse.suspendContinuationIfNeeded());
+        Assertions.assertEquals(0, continuation.suspendTimeout);
+
+        NotFoundException failure = new NotFoundException();
+        result.completeExceptionally(failure);
+        Assertions.assertTrue(continuation.resumed.await(5, TimeUnit.SECONDS));
+        Assertions.assertSame(failure, asyncResponse.getResponseObject());
+    }
+
+    @Test
+    void suspendedResponseTimeoutOnlyWhenResourceSetNone() throws Exception {
+        AsyncJaxrsInvoker invoker = new AsyncJaxrsInvoker(new AsyncSpec(Duration.ofSeconds(2), null));
+
+        TestContinuation continuation = new TestContinuation();
+        Message inMessage = createInMessage(continuation);
+        AsyncResponse asyncResponse = new AsyncResponseImpl(inMessage);
+        invoker.performInvocation(inMessage.getExchange(), new SuspendedResource(),
+            SuspendedResource.class.getMethod("suspend", AsyncResponse.class), new Object[] {asyncResponse});
+        Assertions.assertEquals(2000, continuation.suspendTimeout);
+
+        TestContinuation ownTimeoutContinuation = new TestContinuation();
+        inMessage = createInMessage(ownTimeoutContinuation);
+        asyncResponse = new AsyncResponseImpl(inMessage);
+        invoker.performInvocation(inMessage.getExchange(), new SuspendedResource(),
+            SuspendedResource.class.getMethod("suspendWithTimeout", AsyncResponse.class), new Object[] {asyncResponse});
+        Assertions.assertEquals(100, ownTimeoutContinuation.suspendTimeout);
+    }
+
+    @Test
+    void asyncSpecValidation() {
+        Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class,
+            () -> new AsyncJaxrsInvoker(null)),
+            () -> Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new AsyncSpec(Duration.ZERO, null)));
+    }
+
+    private static Message createInMessage(Continuation continuation) {
+        Message inMessage = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        inMessage.setExchange(exchange);
+        exchange.setInMessage(inMessage);
+        inMessage.put(ContinuationProvider.class.getName(), new ContinuationProvider() {
+            @Override
+            public Continuation getContinuation() {
+                return continuation;
+            }
+
+            @Override
+            public void complete() {
+            }
+        });
+        return inMessage;
+    }
+
+    public static class SuspendedResource {
+
+        public void suspend(AsyncResponse asyncResponse) {
+        }
+
+        public void suspendWithTimeout(AsyncResponse asyncResponse) {
+            asyncResponse.setTimeout(100, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    static class TestContinuation implements Continuation {
+
+        private final CountDownLatch resumed = new CountDownLatch(1);
+        private final AtomicReference<String> resumeThread = new AtomicReference<>();
+        private volatile long suspendTimeout = -1;
+        private volatile boolean pending;
+        private volatile Object object;
+
+        @Override
+        public boolean suspend(long timeout) {
+            suspendTimeout = timeout;
+            pending = true;
+            return true;
+        }
+
+        @Override
+        public void resume() {
+            pending = false;
+            resumeThread.set(Thread.currentThread().getName());
+            resumed.countDown();
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public boolean isNew() {
+            return !pending;
+        }
+
+        @Override
+        public boolean isPending() {
+            return pending;
+        }
+
+        @Override
+        public boolean isResumed() {
+            return resumed.getCount() == 0;
+        }
+
+        @Override
+        public boolean isTimeout() {
+            return false;
+        }
+
+        @Override
+        public Object getObject() {
+            return object;
+        }
+
+        @Override
+        public void setObject(Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public boolean isReadyForWrite() {
+            return true;
+        }
+    }
+}
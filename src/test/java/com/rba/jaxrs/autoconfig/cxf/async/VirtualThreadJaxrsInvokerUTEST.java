@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.async;
+
+import org.apache.cxf.continuations.Continuation;
+import org.apache.cxf.continuations.ContinuationProvider;
+import org.apache.cxf.jaxrs.model.ClassResourceInfo;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.NotFoundException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class VirtualThreadJaxrsInvokerUTEST {
+
+    @Test
+    void suspendableInvocationReturnedAsStageCompletedOnExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "invocation"));
+        try {
+            VirtualThreadJaxrsInvoker invoker = new VirtualThreadJaxrsInvoker(null, executor);
+            Method threadName = BlockingResource.class.getMethod("threadName");
+            Exchange exchange = createExchange(threadName, true);
+
+            Object result = invoker.performInvocation(exchange, new BlockingResource(), threadName, new Object[0]);
+            Assertions.assertTrue(result instanceof CompletableFuture);
+            Assertions.assertEquals("invocation", ((CompletableFuture<?>) result).get(5, TimeUnit.SECONDS));
+
+            Method fail = BlockingResource.class.getMethod("fail");
+            CompletableFuture<?> failed = (CompletableFuture<?>) invoker.performInvocation(createExchange(fail, true),
+                new BlockingResource(), fail, new Object[0]);
+            ExecutionException failure = Assertions.assertThrows(ExecutionException.class,
+                () -> failed.get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(failure.getCause() instanceof NotFoundException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestThatCanNotSuspendInvokedInline() throws Exception {
+        VirtualThreadJaxrsInvoker invoker = new VirtualThreadJaxrsInvoker(null, runnable -> {
+            throw new AssertionError("The invocation must not be offloaded");
+        });
+        Method threadName = BlockingResource.class.getMethod("threadName");
+        Object result = invoker.performInvocation(createExchange(threadName, false), new BlockingResource(), threadName,
+            new Object[0]);
+        Assertions.assertEquals(Thread.currentThread().getName(), result);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new VirtualThreadJaxrsInvoker(null, null));
+    }
+
+    private static Exchange createExchange(Method method, boolean suspendable) {
+        Message inMessage = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        inMessage.setExchange(exchange);
+        exchange.setInMessage(inMessage);
+        OperationResourceInfo operation = new OperationResourceInfo(method, new ClassResourceInfo(BlockingResource.class));
+        operation.setHttpMethod(HttpMethod.GET);
+        exchange.put(OperationResourceInfo.class, operation);
+        if (suspendable) {
+            Continuation continuation = new AsyncJaxrsInvokerUTEST.TestContinuation();
+            inMessage.put(ContinuationProvider.class.getName(), new ContinuationProvider() {
+                @Override
+                public Continuation getContinuation() {
+                    return continuation;
+                }
+
+                @Override
+                public void complete() {
+                }
+            });
+        }
+        return exchange;
+    }
+
+    public static class BlockingResource {
+
+        public String threadName() {
+            return Thread.currentThread().getName();
+        }
+
+        public String fail() {
+            throw new NotFoundException();
+        }
+    }
+}
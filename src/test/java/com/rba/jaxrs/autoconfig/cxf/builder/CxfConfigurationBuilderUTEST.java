@@ -35,9 +35,11 @@ import org.apache.cxf.transport.http.HttpAuthenticationFaultHandler;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
@@ -166,4 +168,38 @@ public class CxfConfigurationBuilderUTEST {
                 () -> new CxfConfigurationBuilder().addIncomingFaultInterceptor(null).build())
         );
     }
+
+    @Test
+    void buildCreatesDetachedSnapshot() {
+        CxfConfigurationBuilder builder = new CxfConfigurationBuilder().addFeature(new GZIPFeature())
+            .addProperty("key", "value");
+        CxfConfiguration config = builder.build();
+        int hash = config.hashCode();
+        builder.addFeature(new StaxTransformFeature()).addProvider(new BinaryDataProvider<>())
+            .addProperty("other", "value");
+        Assertions.assertAll(() -> Assertions.assertEquals(1, config.getFeatures().size()),
+            () -> Assertions.assertEquals(0, config.getProviders().size()),
+            () -> Assertions.assertEquals(1, config.getProperties().size()),
+            () -> Assertions.assertEquals(hash, config.hashCode()),
+            () -> Assertions.assertNotEquals(config, builder.build()),
+            () -> Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> config.getFeatures().add(new GZIPFeature())),
+            () -> Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> config.getProperties().put("key", "changed"))
+        );
+    }
+
+    @Test
+    void asyncOptions() {
+        Executor completionExecutor = Runnable::run;
+        Assertions.assertAll(() -> Assertions.assertNull(new CxfConfigurationBuilder().build().getAsyncSpec()),
+            () -> Assertions.assertEquals(new AsyncSpec(Duration.ofSeconds(5), completionExecutor),
+                new CxfConfigurationBuilder().setAsyncTimeout(Duration.ofSeconds(5))
+                    .setCompletionExecutor(completionExecutor).build().getAsyncSpec()),
+            () -> Assertions.assertEquals(new AsyncSpec(Duration.ofSeconds(1), completionExecutor),
+                new AsyncSpec(Duration.ofSeconds(5), completionExecutor)
+                    .overriddenBy(new AsyncSpec(Duration.ofSeconds(1), null))),
+            () -> Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new CxfConfigurationBuilder().setAsyncTimeout(Duration.ofSeconds(-1))));
+    }
 }
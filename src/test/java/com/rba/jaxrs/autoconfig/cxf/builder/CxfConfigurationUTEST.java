@@ -140,6 +140,17 @@ public class CxfConfigurationUTEST {
         completeAssertions(config, config2, notEqualConfig);
     }
 
+    @Test
+    public void executorSpecCheck() {
+        CxfConfiguration config = new CxfConfigurationBuilder()
+            .setExecutorSpec(new ExecutorSpec(1, 4, 10, ExecutorSpec.RejectionPolicy.ABORT)).build();
+        CxfConfiguration config2 = new CxfConfigurationBuilder()
+            .setExecutorSpec(new ExecutorSpec(1, 4, 10, ExecutorSpec.RejectionPolicy.ABORT)).build();
+        CxfConfiguration notEqualConfig = new CxfConfigurationBuilder()
+            .setExecutorSpec(new ExecutorSpec(1, 4, 10, ExecutorSpec.RejectionPolicy.CALLER_RUNS)).build();
+        completeAssertions(config, config2, notEqualConfig);
+    }
+
     private void completeAssertions(CxfConfiguration baseConfig, CxfConfiguration equalConfig,
         CxfConfiguration notEqualConfig) {
         Assertions.assertAll(() -> Assertions.assertEquals(baseConfig, baseConfig),
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.bulkhead;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.ExecutorSpec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.cxf.interceptor.Fault;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class BulkheadExecutorUTEST {
+
+    @Test
+    void fullBulkheadRejectsWithServiceUnavailable() throws InterruptedException {
+        BulkheadRegistry registry = new BulkheadRegistry();
+        BulkheadExecutor executor = registry.getExecutor("/v1/slow",
+            new ExecutorSpec(1, 1, 1, ExecutorSpec.RejectionPolicy.ABORT));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new BulkheadMeterBinder(registry).bindTo(meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            started.await();
+            executor.execute(() -> { });
+            Fault fault = Assertions.assertThrows(Fault.class, () -> executor.execute(() -> { }));
+            Assertions.assertEquals(503, fault.getStatusCode());
+            Assertions.assertEquals(1, executor.getQueueDepth());
+            Assertions.assertEquals(1, executor.getRejectedCount());
+            Assertions.assertEquals(1.0, meterRegistry.get(BulkheadMeterBinder.BULKHEAD_PREFIX + ".queue.depth")
+                .tag("address", "/v1/slow").gauge().value(), 0.001);
+            Assertions.assertEquals(1.0, meterRegistry.get(BulkheadMeterBinder.BULKHEAD_PREFIX + ".rejected")
+                .functionCounter().count(), 0.001);
+        } finally {
+            release.countDown();
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    void callerRunsWhenFull() throws InterruptedException {
+        BulkheadExecutor executor = new BulkheadExecutor("/v1/slow",
+            new ExecutorSpec(1, 1, 0, ExecutorSpec.RejectionPolicy.CALLER_RUNS));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            started.await();
+            AtomicReference<Thread> invokingThread = new AtomicReference<>();
+            executor.execute(() -> invokingThread.set(Thread.currentThread()));
+            Assertions.assertSame(Thread.currentThread(), invokingThread.get());
+            Assertions.assertEquals(1, executor.getRejectedCount());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void invalidSpecRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> new ExecutorSpec(2, 1, 0, ExecutorSpec.RejectionPolicy.ABORT));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> new ExecutorSpec(1, 1, -1, ExecutorSpec.RejectionPolicy.ABORT));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ExecutorSpec(1, 1, 0, null));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
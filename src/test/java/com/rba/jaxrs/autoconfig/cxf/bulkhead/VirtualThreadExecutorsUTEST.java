@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.bulkhead;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class VirtualThreadExecutorsUTEST {
+
+    @Test
+    void virtualThreadsOnlyWhereSupported() throws Exception {
+        boolean supported = isVirtualThreadJvm();
+        Assertions.assertEquals(supported, VirtualThreadExecutors.isAvailable());
+        BulkheadRegistry registry = new BulkheadRegistry();
+        ExecutorService executor = registry.getVirtualThreadExecutor("/v1/blocking");
+        if (!supported) {
+            Assertions.assertNull(executor);
+            Assertions.assertTrue(registry.getVirtualThreadAddresses().isEmpty());
+            return;
+        }
+        try {
+            Future<Thread> invokingThread = executor.submit(Thread::currentThread);
+            Thread thread = invokingThread.get();
+            Assertions.assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+            Assertions.assertTrue(thread.getName().startsWith("jaxrs-autoconfig-virtual-v1-blocking-"));
+            Assertions.assertSame(executor, registry.getVirtualThreadExecutor("/v1/blocking"));
+        } finally {
+            registry.shutdown();
+        }
+        Assertions.assertTrue(executor.isShutdown());
+    }
+
+    private static boolean isVirtualThreadJvm() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.cache;
+
+import com.rba.jaxrs.autoconfig.core.annotations.CachedResponse;
+import org.apache.cxf.jaxrs.model.ClassResourceInfo;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class ResponseCacheFeatureUTEST {
+
+    private static final byte[] BODY = "[{\"id\":5}]".getBytes(StandardCharsets.UTF_8);
+
+    private final ResponseCache cache = new ResponseCache(10_000);
+
+    private final ResponseCacheFeature.CacheLookupInterceptor lookup =
+        new ResponseCacheFeature.CacheLookupInterceptor(cache, Duration.ofSeconds(5).toMillis());
+
+    @Test
+    void missCapturedAndServedOnNextRequest() throws Exception {
+        Exchange loading = createExchange("items");
+        lookup.handleMessage(loading.getInMessage());
+        Assertions.assertNull(loading.get(Response.class));
+        writeResponse(loading, 200);
+
+        Exchange cached = createExchange("items");
+        lookup.handleMessage(cached.getInMessage());
+        Response response = cached.get(Response.class);
+        Assertions.assertNotNull(response);
+        Assertions.assertArrayEquals(BODY, (byte[]) response.getEntity());
+        Assertions.assertEquals("application/json", response.getMediaType().toString());
+        Assertions.assertEquals(0.5, cache.getStats("").getHitRatio(), 0.0001);
+
+        Exchange uncached = createExchange("uncachedItems");
+        lookup.handleMessage(uncached.getInMessage());
+        Assertions.assertNull(uncached.get(Response.class));
+        Assertions.assertEquals(1, cache.getStats("").getMissCount());
+    }
+
+    @Test
+    void headersSetByResourceSurviveHit() throws Exception {
+        Exchange loading = createExchange("items");
+        lookup.handleMessage(loading.getInMessage());
+        writeResponse(loading, 200);
+
+        Exchange cached = createExchange("items");
+        lookup.handleMessage(cached.getInMessage());
+        Response response = cached.get(Response.class);
+        Assertions.assertEquals("max-age=60", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        Assertions.assertEquals("west", response.getHeaderString("X-Region"));
+        Assertions.assertNull(response.getHeaderString(HttpHeaders.CONTENT_LENGTH));
+        Assertions.assertNull(response.getHeaderString(HttpHeaders.SET_COOKIE));
+        Assertions.assertNull(response.getHeaderString("Transfer-Encoding"));
+    }
+
+    @Test
+    void waitingRequestServedByLoadingRequest() throws Exception {
+        Exchange loading = createExchange("items");
+        lookup.handleMessage(loading.getInMessage());
+        Exchange waiting = createExchange("items");
+        CompletableFuture<Void> waitingLookup = CompletableFuture.runAsync(() -> lookup.handleMessage(waiting.getInMessage()));
+        writeResponse(loading, 200);
+        waitingLookup.get(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(waiting.get(Response.class));
+        Assertions.assertEquals(1, cache.getStats("").getHitCount());
+    }
+
+    @Test
+    void failedLoadReleasesWaitingRequests() throws Exception {
+        Exchange loading = createExchange("items");
+        lookup.handleMessage(loading.getInMessage());
+        Exchange waiting = createExchange("items");
+        CompletableFuture<Void> waitingLookup = CompletableFuture.runAsync(() -> lookup.handleMessage(waiting.getInMessage()));
+        Message faultMessage = new MessageImpl();
+        faultMessage.setExchange(loading);
+        new ResponseCacheFeature.ReleaseInterceptor(cache).handleFault(faultMessage);
+        waitingLookup.get(2, TimeUnit.SECONDS);
+        Assertions.assertNull(waiting.get(Response.class));
+        Assertions.assertEquals(0, cache.getEntryCount());
+
+        writeResponse(createExchange("items"), 500);
+        Assertions.assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    void keyedOnNegotiatedMediaType() throws Exception {
+        Exchange loading = createExchange("items");
+        lookup.handleMessage(loading.getInMessage());
+        writeResponse(loading, 200);
+
+        Exchange reworded = createExchange("items");
+        reworded.getInMessage().put(Message.ACCEPT_CONTENT_TYPE, "text/plain;q=0.5, application/json");
+        lookup.handleMessage(reworded.getInMessage());
+        Assertions.assertNotNull(reworded.get(Response.class));
+
+        Exchange xml = createExchange("items");
+        xml.getInMessage().put(Message.ACCEPT_CONTENT_TYPE, "application/xml");
+        lookup.handleMessage(xml.getInMessage());
+        Assertions.assertNull(xml.get(Response.class));
+        Assertions.assertEquals("application/xml", ResponseCacheFeature.CacheLookupInterceptor.negotiateMediaType(
+            xml.getInMessage(), xml.get(OperationResourceInfo.class)));
+    }
+
+    private void writeResponse(Exchange exchange, int status) throws Exception {
+        Message outMessage = new MessageImpl();
+        outMessage.setExchange(exchange);
+        exchange.setOutMessage(outMessage);
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        outMessage.setContent(OutputStream.class, sent);
+        new ResponseCacheFeature.CaptureInterceptor(cache).handleMessage(outMessage);
+        outMessage.put(Message.RESPONSE_CODE, status);
+        outMessage.put(Message.CONTENT_TYPE, "application/json");
+        Map<String, List<Object>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.put(HttpHeaders.CACHE_CONTROL, Collections.singletonList("max-age=60"));
+        headers.put("X-Region", Collections.singletonList("west"));
+        headers.put(HttpHeaders.CONTENT_LENGTH, Collections.singletonList(BODY.length));
+        headers.put(HttpHeaders.SET_COOKIE, Collections.singletonList("session=1"));
+        headers.put("Transfer-Encoding", Collections.singletonList("chunked"));
+        outMessage.put(Message.PROTOCOL_HEADERS, headers);
+        try (OutputStream responseStream = outMessage.getContent(OutputStream.class)) {
+            responseStream.write(BODY);
+        }
+        new ResponseCacheFeature.ReleaseInterceptor(cache).handleMessage(outMessage);
+        Assertions.assertArrayEquals(BODY, sent.toByteArray());
+    }
+
+    private static Exchange createExchange(String methodName) throws NoSuchMethodException {
+        Message inMessage = new MessageImpl();
+        inMessage.put(Message.HTTP_REQUEST_METHOD, "GET");
+        inMessage.put(Message.REQUEST_URI, "/items");
+        inMessage.put(Message.ACCEPT_CONTENT_TYPE, "application/json");
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(inMessage);
+        inMessage.setExchange(exchange);
+        exchange.put(OperationResourceInfo.class, new OperationResourceInfo(ItemResource.class.getMethod(methodName),
+            new ClassResourceInfo(ItemResource.class)));
+        return exchange;
+    }
+
+    @Path("/items")
+    public static class ItemResource {
+
+        @GET
+        @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+        @CachedResponse(timeToLive = 1, unit = TimeUnit.MINUTES)
+        public String items() {
+            return "[{\"id\":5}]";
+        }
+
+        @GET
+        @Path("/uncached")
+        public String uncachedItems() {
+            return "[{\"id\":5}]";
+        }
+    }
+}
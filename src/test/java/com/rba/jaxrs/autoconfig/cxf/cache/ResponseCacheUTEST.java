@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class ResponseCacheUTEST {
+
+    private static final long TTL = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void popularResponsesSurviveScan() throws NoSuchMethodException {
+        ResponseCache cache = new ResponseCache(10_000);
+        for (int hot = 0; hot < 5; hot++) {
+            for (int i = 0; i < 5; i++) {
+                cache.get(key("/hot/" + hot));
+            }
+            cache.put(key("/hot/" + hot), response(1000));
+            Assertions.assertNotNull(cache.get(key("/hot/" + hot)));
+        }
+        for (int scan = 0; scan < 200; scan++) {
+            Assertions.assertNull(cache.get(key("/scan/" + scan)));
+            cache.put(key("/scan/" + scan), response(1000));
+        }
+        for (int hot = 0; hot < 5; hot++) {
+            Assertions.assertNotNull(cache.get(key("/hot/" + hot)), "hot response " + hot);
+        }
+        Assertions.assertTrue(cache.getSizeBytes() <= cache.getMaxBytes());
+        Assertions.assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    void expiredAndOversizedResponsesNotServed() throws Exception {
+        ResponseCache cache = new ResponseCache(10_000);
+        cache.put(key("/short"), new SerializedResponse(new byte[10], "application/json", TimeUnit.MILLISECONDS.toNanos(1)));
+        Thread.sleep(5);
+        Assertions.assertNull(cache.get(key("/short")));
+        cache.put(key("/large"), response(20_000));
+        Assertions.assertNull(cache.get(key("/large")));
+        Assertions.assertEquals(0, cache.getSizeBytes());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ResponseCache(0));
+    }
+
+    @Test
+    void concurrentMissesCoalesced() throws Exception {
+        ResponseCache cache = new ResponseCache(10_000);
+        CacheKey key = key("/coalesced");
+        Assertions.assertNull(cache.joinLoad(key));
+        CompletableFuture<SerializedResponse> waiting = cache.joinLoad(key);
+        Assertions.assertNotNull(waiting);
+        Assertions.assertSame(waiting, cache.joinLoad(key));
+        SerializedResponse loaded = response(100);
+        cache.completeLoad(key, loaded);
+        Assertions.assertSame(loaded, waiting.get(1, TimeUnit.SECONDS));
+        Assertions.assertSame(loaded, cache.get(key));
+        Assertions.assertNull(cache.joinLoad(key));
+        cache.completeLoad(key, null);
+        Assertions.assertSame(loaded, cache.get(key));
+
+        ResponseCacheStats stats = cache.getStats("/v1");
+        stats.recordHit();
+        stats.recordHit();
+        stats.recordHit();
+        stats.recordMiss();
+        Assertions.assertEquals(0.75, cache.getStats().get("/v1").getHitRatio(), 0.0001);
+    }
+
+    private static CacheKey key(String path) throws NoSuchMethodException {
+        Method method = ResponseCacheUTEST.class.getDeclaredMethod("key", String.class);
+        return new CacheKey("/v1", method, path, null, "application/json");
+    }
+
+    private static SerializedResponse response(int size) {
+        return new SerializedResponse(new byte[size], "application/json", TTL);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.compression;
+
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class CompressionFeatureUTEST {
+
+    private static final byte[] LARGE_BODY = largeBody();
+
+    private final DeflaterPool deflaterPool = new DeflaterPool(-1, 2);
+
+    private final CompressionFeature feature = new CompressionFeature(1024,
+        Arrays.asList("application/json", "text/*"), Arrays.asList("/v1", "/v2/admin"), deflaterPool);
+
+    @Test
+    void largeAllowedResponseCompressedWithPooledDeflater() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream sent = new ByteArrayOutputStream();
+            Message message = writeResponse("gzip, deflate", "application/json; charset=UTF-8", null, LARGE_BODY, sent);
+            Assertions.assertEquals(Collections.singletonList("gzip"), getResponseHeaders(message).get("Content-Encoding"));
+            Assertions.assertEquals(Collections.singletonList("Accept-Encoding"), getResponseHeaders(message).get("Vary"));
+            Assertions.assertTrue(sent.size() < LARGE_BODY.length);
+            try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(sent.toByteArray()))) {
+                Assertions.assertArrayEquals(LARGE_BODY, IOUtils.readBytesFromStream(gzipStream));
+            }
+        }
+        Assertions.assertEquals(1, deflaterPool.getCreatedCount());
+        Assertions.assertEquals(1, deflaterPool.getIdleCount());
+    }
+
+    @Test
+    void responsesSkippedWhenNotWorthCompressing() throws IOException {
+        byte[] smallBody = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        Message message = writeResponse("gzip", "application/json", null, smallBody, sent);
+        Assertions.assertArrayEquals(smallBody, sent.toByteArray());
+        Assertions.assertNull(getResponseHeaders(message).get("Content-Encoding"));
+
+        sent = new ByteArrayOutputStream();
+        message = writeResponse("gzip", "image/png", null, LARGE_BODY, sent);
+        Assertions.assertArrayEquals(LARGE_BODY, sent.toByteArray());
+        Assertions.assertNull(getResponseHeaders(message).get("Content-Encoding"));
+
+        sent = new ByteArrayOutputStream();
+        message = writeResponse("gzip", "text/plain", "br", LARGE_BODY, sent);
+        Assertions.assertArrayEquals(LARGE_BODY, sent.toByteArray());
+        Assertions.assertEquals(Collections.singletonList("br"), getResponseHeaders(message).get("Content-Encoding"));
+
+        sent = new ByteArrayOutputStream();
+        message = writeResponse("gzip;q=0, identity", "application/json", null, LARGE_BODY, sent);
+        Assertions.assertArrayEquals(LARGE_BODY, sent.toByteArray());
+        Assertions.assertEquals(0, deflaterPool.getCreatedCount());
+    }
+
+    @Test
+    void addressesMatchVersionsAndContexts() {
+        Assertions.assertAll(() -> Assertions.assertTrue(feature.appliesTo("/v1/admin")),
+            () -> Assertions.assertTrue(feature.appliesTo("/v2/admin")),
+            () -> Assertions.assertFalse(feature.appliesTo("/v2/export")),
+            () -> Assertions.assertFalse(feature.appliesTo("/v10/admin")),
+            () -> Assertions.assertTrue(new CompressionFeature(0, Collections.singleton("text/*"), null, deflaterPool)
+                .appliesTo("/v2/export")),
+            () -> Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new CompressionFeature(-1, Collections.singleton("text/*"), null, deflaterPool)),
+            () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new DeflaterPool(10, 1)));
+    }
+
+    private Message writeResponse(String acceptEncoding, String contentType, String contentEncoding, byte[] body,
+        OutputStream sent) throws IOException {
+        Message inMessage = new MessageImpl();
+        Map<String, List<String>> requestHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        requestHeaders.put("Accept-Encoding", Collections.singletonList(acceptEncoding));
+        inMessage.put(Message.PROTOCOL_HEADERS, requestHeaders);
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(inMessage);
+        Message outMessage = new MessageImpl();
+        outMessage.setExchange(exchange);
+        outMessage.setContent(OutputStream.class, sent);
+        new CompressionFeature.CompressionOutInterceptor(feature).handleMessage(outMessage);
+
+        //The resource headers are only set once the response is marshalled, after the interceptor ran
+        outMessage.put(Message.CONTENT_TYPE, contentType);
+        Map<String, List<String>> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (contentEncoding != null) {
+            responseHeaders.put("Content-Encoding", Collections.singletonList(contentEncoding));
+        }
+        outMessage.put(Message.PROTOCOL_HEADERS, responseHeaders);
+        try (OutputStream responseStream = outMessage.getContent(OutputStream.class)) {
+            int firstChunk = body.length / 2;
+            responseStream.write(body, 0, firstChunk);
+            responseStream.write(body, firstChunk, body.length - firstChunk);
+        }
+        return outMessage;
+    }
+
+    private static Map<String, List<String>> getResponseHeaders(Message message) {
+        return CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+    }
+
+    private static byte[] largeBody() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"endpoint-").append(i)
+                .append("\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.conditional;
+
+import com.rba.jaxrs.autoconfig.cxf.compression.CompressionFeature;
+import com.rba.jaxrs.autoconfig.cxf.compression.DeflaterPool;
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.AbstractBasicInterceptorProvider;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageContentsList;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.PhaseInterceptor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class ConditionalRequestFeatureUTEST {
+
+    private static final byte[] BODY = "{\"id\":1,\"name\":\"conditional\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void resourceVersionAnsweredBeforeSerialization() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge(60);
+        Message outMessage = createOutMessage(HttpHeaders.IF_NONE_MATCH, "\"v7\"");
+        outMessage.setContent(List.class, new MessageContentsList(Response.ok("entity").tag("v7")
+            .cacheControl(cacheControl).build()));
+        new ConditionalRequestFeature.PreconditionInterceptor().handleMessage(outMessage);
+        Response notModified = (Response) outMessage.getContent(List.class).get(0);
+        Assertions.assertEquals(304, notModified.getStatus());
+        Assertions.assertNull(notModified.getEntity());
+        Assertions.assertEquals("v7", notModified.getEntityTag().getValue());
+        Assertions.assertNotNull(notModified.getHeaderString(HttpHeaders.CACHE_CONTROL));
+
+        outMessage = createOutMessage(HttpHeaders.IF_NONE_MATCH, "\"v7\"");
+        outMessage.setContent(List.class, new MessageContentsList((Versioned) () -> "v7"));
+        new ConditionalRequestFeature.PreconditionInterceptor().handleMessage(outMessage);
+        Assertions.assertEquals(304, ((Response) outMessage.getContent(List.class).get(0)).getStatus());
+
+        Date lastModified = new Date(System.currentTimeMillis() - 60000);
+        outMessage = createOutMessage(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Jan 2100 00:00:00 GMT");
+        outMessage.setContent(List.class, new MessageContentsList(Response.ok("entity").lastModified(lastModified).build()));
+        new ConditionalRequestFeature.PreconditionInterceptor().handleMessage(outMessage);
+        Assertions.assertEquals(304, ((Response) outMessage.getContent(List.class).get(0)).getStatus());
+
+        outMessage = createOutMessage(HttpHeaders.IF_NONE_MATCH, "\"v6\"");
+        Response current = Response.ok("entity").tag("v7").build();
+        outMessage.setContent(List.class, new MessageContentsList(current));
+        new ConditionalRequestFeature.PreconditionInterceptor().handleMessage(outMessage);
+        Assertions.assertSame(current, outMessage.getContent(List.class).get(0));
+    }
+
+    @Test
+    void computedTagAnsweredWithNotModified() throws IOException {
+        ConditionalRequestFeature.EntityTagInterceptor interceptor = new ConditionalRequestFeature.EntityTagInterceptor(1024);
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        Message outMessage = createOutMessage(null, null);
+        writeResponse(interceptor, outMessage, BODY, sent);
+        Assertions.assertArrayEquals(BODY, sent.toByteArray());
+        List<Object> entityTag = getResponseHeaders(outMessage).get(HttpHeaders.ETAG);
+        Assertions.assertNotNull(entityTag);
+
+        sent = new ByteArrayOutputStream();
+        outMessage = createOutMessage(HttpHeaders.IF_NONE_MATCH, (String) entityTag.get(0));
+        writeResponse(interceptor, outMessage, BODY, sent);
+        Assertions.assertEquals(0, sent.size());
+        Assertions.assertEquals(304, outMessage.get(Message.RESPONSE_CODE));
+        Assertions.assertEquals(entityTag, getResponseHeaders(outMessage).get(HttpHeaders.ETAG));
+
+        sent = new ByteArrayOutputStream();
+        outMessage = createOutMessage(HttpHeaders.IF_NONE_MATCH, (String) entityTag.get(0));
+        writeResponse(interceptor, outMessage, "{\"id\":2}".getBytes(StandardCharsets.UTF_8), sent);
+        Assertions.assertEquals(200, outMessage.get(Message.RESPONSE_CODE));
+        Assertions.assertNotEquals(entityTag, getResponseHeaders(outMessage).get(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void gzipRepresentationTaggedApart() throws IOException {
+        CompressionFeature compressionFeature = new CompressionFeature(10, Collections.singleton("application/json"),
+            null, new DeflaterPool(-1, 1));
+        InterceptorProvider compression = new AbstractBasicInterceptorProvider() { };
+        compressionFeature.initialize(compression, null);
+        ConditionalRequestFeature.EntityTagInterceptor interceptor = new ConditionalRequestFeature.EntityTagInterceptor(1024);
+
+        Message identityMessage = createOutMessage(null, null);
+        writeResponse(interceptor, identityMessage, BODY, new ByteArrayOutputStream());
+        String identityTag = (String) getResponseHeaders(identityMessage).get(HttpHeaders.ETAG).get(0);
+
+        Message gzipMessage = createOutMessage(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        gzipMessage.put(Message.CONTENT_TYPE, "application/json");
+        writeCompressedResponse(compression, interceptor, gzipMessage, new ByteArrayOutputStream());
+        String gzipTag = String.valueOf(getResponseHeaders(gzipMessage).get(HttpHeaders.ETAG).get(0));
+        Assertions.assertEquals(CompressionFeature.toGzipEntityTag(identityTag), gzipTag);
+        Assertions.assertNotEquals(identityTag, gzipTag);
+
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        Message conditionalMessage = createOutMessage(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        getRequestHeaders(conditionalMessage).put(HttpHeaders.IF_NONE_MATCH, Collections.singletonList(gzipTag));
+        conditionalMessage.put(Message.CONTENT_TYPE, "application/json");
+        writeCompressedResponse(compression, interceptor, conditionalMessage, sent);
+        Assertions.assertEquals(304, conditionalMessage.get(Message.RESPONSE_CODE));
+        Assertions.assertEquals(0, sent.size());
+        Assertions.assertEquals(gzipTag, String.valueOf(getResponseHeaders(conditionalMessage).get(HttpHeaders.ETAG).get(0)));
+
+        Message versionMessage = createOutMessage(HttpHeaders.IF_NONE_MATCH, CompressionFeature.toGzipEntityTag("\"v7\""));
+        versionMessage.setContent(List.class, new MessageContentsList(Response.ok("entity").tag("v7").build()));
+        new ConditionalRequestFeature.PreconditionInterceptor().handleMessage(versionMessage);
+        Response notModified = (Response) versionMessage.getContent(List.class).get(0);
+        Assertions.assertEquals(304, notModified.getStatus());
+        Assertions.assertEquals("v7" + CompressionFeature.ENTITY_TAG_SUFFIX, notModified.getEntityTag().getValue());
+        Assertions.assertEquals("W/\"v7\"", CompressionFeature.toGzipEntityTag("W/\"v7\""));
+    }
+
+    @Test
+    void largeEntityStreamedWithoutTag() throws IOException {
+        byte[] largeBody = new byte[4096];
+        Arrays.fill(largeBody, (byte) 'a');
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        Message outMessage = createOutMessage(null, null);
+        writeResponse(new ConditionalRequestFeature.EntityTagInterceptor(1024), outMessage, largeBody, sent);
+        Assertions.assertArrayEquals(largeBody, sent.toByteArray());
+        Assertions.assertNull(getResponseHeaders(outMessage).get(HttpHeaders.ETAG));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConditionalRequestFeature(-1));
+    }
+
+    private static Message createOutMessage(String requestHeader, String requestHeaderValue) {
+        Message inMessage = new MessageImpl();
+        inMessage.put(Message.HTTP_REQUEST_METHOD, "GET");
+        Map<String, List<String>> requestHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (requestHeader != null) {
+            requestHeaders.put(requestHeader, Collections.singletonList(requestHeaderValue));
+        }
+        inMessage.put(Message.PROTOCOL_HEADERS, requestHeaders);
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(inMessage);
+        inMessage.setExchange(exchange);
+        Message outMessage = new MessageImpl();
+        outMessage.setExchange(exchange);
+        return outMessage;
+    }
+
+    private static void writeResponse(ConditionalRequestFeature.EntityTagInterceptor interceptor, Message outMessage,
+        byte[] body, OutputStream sent) throws IOException {
+        outMessage.setContent(OutputStream.class, sent);
+        interceptor.handleMessage(outMessage);
+        outMessage.put(Message.RESPONSE_CODE, 200);
+        outMessage.put(Message.PROTOCOL_HEADERS, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        try (OutputStream responseStream = outMessage.getContent(OutputStream.class)) {
+            responseStream.write(body);
+            responseStream.flush();
+        }
+    }
+
+    private static void writeCompressedResponse(InterceptorProvider compression,
+        ConditionalRequestFeature.EntityTagInterceptor interceptor, Message outMessage, OutputStream sent)
+        throws IOException {
+        outMessage.setContent(OutputStream.class, sent);
+        //The compression stream is wrapped by the hashing stream, as the phase ordering of the interceptors has it
+        ((PhaseInterceptor<Message>) compression.getOutInterceptors().get(0)).handleMessage(outMessage);
+        interceptor.handleMessage(outMessage);
+        outMessage.put(Message.RESPONSE_CODE, 200);
+        outMessage.put(Message.PROTOCOL_HEADERS, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        try (OutputStream responseStream = outMessage.getContent(OutputStream.class)) {
+            responseStream.write(BODY);
+        }
+    }
+
+    private static Map<String, List<String>> getRequestHeaders(Message outMessage) {
+        return CastUtils.cast((Map<?, ?>) outMessage.getExchange().getInMessage().get(Message.PROTOCOL_HEADERS));
+    }
+
+    private static Map<String, List<Object>> getResponseHeaders(Message message) {
+        return CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+    }
+}
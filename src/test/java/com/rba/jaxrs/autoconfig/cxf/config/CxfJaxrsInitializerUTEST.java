@@ -0,0 +1,383 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.config;
+
+import com.rba.jaxrs.autoconfig.core.exceptions.EndpointInitializationException;
+import com.rba.jaxrs.autoconfig.core.scan.JaxRsAutoConfigScanner;
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport;
+import com.rba.jaxrs.autoconfig.core.startup.AutoConfigStartupReport.Phase;
+import com.rba.jaxrs.autoconfig.core.transform.DefaultRestApiEndpointTransformer;
+import com.rba.jaxrs.autoconfig.core.transform.EndpointContextContainer;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfiguration;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfigurationBuilder;
+import com.rba.jaxrs.autoconfig.cxf.builder.ExecutorSpec;
+import com.rba.jaxrs.autoconfig.cxf.bulkhead.BulkheadExecutor;
+import com.rba.jaxrs.autoconfig.stubs.ApiContextTestImpl;
+import com.rba.jaxrs.autoconfig.stubs.ApiVersionTestImpl;
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusException;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.endpoint.ServerRegistry;
+import org.apache.cxf.interceptor.StaxInInterceptor;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.transport.DestinationFactoryManager;
+import org.apache.cxf.transport.http.AbstractHTTPDestination;
+import org.apache.cxf.transport.http.DestinationRegistry;
+import org.apache.cxf.transport.http.HTTPTransportFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.context.support.GenericApplicationContext;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class CxfJaxrsInitializerUTEST {
+
+    @BeforeAll
+    static void createSharedTransformer() {
+        //The bus customizer falls back to the shared transformer.  Create it up front so its classpath scan does not count
+        // against the group timeouts.
+        DefaultRestApiEndpointTransformer.getSharedInstance();
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        Map<EndpointContextContainer, List<Class<?>>> endpointGroups = new HashMap<>();
+        endpointGroups.put(new EndpointContextContainer("/one", true), Collections.singletonList(OkResource.class));
+        endpointGroups.put(new EndpointContextContainer("/two", true), Collections.singletonList(OkResource.class));
+        endpointGroups.put(new EndpointContextContainer("/three", true), Collections.singletonList(OkResource.class));
+        endpointGroups.put(new EndpointContextContainer("/disabled", false), Collections.singletonList(OkResource.class));
+
+        Set<String> sequentialAddresses = initializeAndCollectAddresses(endpointGroups, 1);
+        Set<String> parallelAddresses = initializeAndCollectAddresses(endpointGroups, 3);
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("/one", "/two", "/three")), sequentialAddresses);
+        Assertions.assertEquals(sequentialAddresses, parallelAddresses);
+    }
+
+    @Test
+    void parallelFailuresAggregatedInAddressOrder() {
+        Map<EndpointContextContainer, List<Class<?>>> endpointGroups = new HashMap<>();
+        endpointGroups.put(new EndpointContextContainer("/d-slow", true), Collections.singletonList(SlowResource.class));
+        endpointGroups.put(new EndpointContextContainer("/c-fail", true), Collections.singletonList(FailingResource.class));
+        endpointGroups.put(new EndpointContextContainer("/b-ok", true), Collections.singletonList(OkResource.class));
+        endpointGroups.put(new EndpointContextContainer("/a-fail", true), Collections.singletonList(FailingResource.class));
+
+        Bus bus = BusFactory.newInstance().createBus();
+        try (GenericApplicationContext context = createContext(bus)) {
+            CxfJaxrsInitializer initializer = createInitializer(context, endpointGroups, 4);
+            initializer.setInitTimeout(Duration.ofMillis(500));
+            EndpointInitializationException eie = Assertions.assertThrows(EndpointInitializationException.class,
+                () -> initializer.setApplicationContext(context));
+            Assertions.assertEquals(Arrays.asList("/a-fail", "/c-fail", "/d-slow"), eie.getFailedAddresses());
+            Assertions.assertTrue(eie.getCause() instanceof BeansException);
+            Assertions.assertEquals(2, eie.getSuppressed().length);
+            Assertions.assertTrue(eie.getSuppressed()[1] instanceof TimeoutException);
+            //The healthy group is still created
+            Assertions.assertTrue(collectAddresses(bus).contains("/b-ok"));
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+
+    @Test
+    void lazyGroupActivatedOnFirstRequest() {
+        Map<EndpointContextContainer, List<Class<?>>> endpointGroups = new HashMap<>();
+        endpointGroups.put(new EndpointContextContainer("/lazy", true), Collections.singletonList(CountingResource.class));
+        endpointGroups.put(new EndpointContextContainer("/idle", true), Collections.singletonList(CountingResource.class));
+
+        Bus bus = BusFactory.newInstance().createBus();
+        try (GenericApplicationContext context = createContext(bus)) {
+            CountingResource.CREATED.set(0);
+            CxfJaxrsInitializer initializer = createInitializer(context, endpointGroups, 1);
+            initializer.setLazyActivation(true);
+            initializer.setApplicationContext(context);
+            Assertions.assertEquals(Arrays.asList("/idle", "/lazy"),
+                new ArrayList<>(initializer.getLazyEndpointActivators().keySet()));
+            Assertions.assertTrue(collectAddresses(bus).isEmpty());
+            Assertions.assertEquals(0, CountingResource.CREATED.get());
+
+            DestinationRegistry registry = getDestinationRegistry(bus);
+            AbstractHTTPDestination placeholder = registry.getDestinationForPath("/lazy");
+            LazyEndpointActivator activator = initializer.getLazyEndpointActivators().get("/lazy");
+            Assertions.assertSame(activator, placeholder.getMessageObserver());
+
+            Server server = activator.activate();
+            Assertions.assertSame(server, activator.activate());
+            Assertions.assertEquals(Collections.singleton("/lazy"), collectAddresses(bus));
+            Assertions.assertEquals(1, CountingResource.CREATED.get());
+            //The server took over the placeholder destination
+            Assertions.assertSame(placeholder, server.getDestination());
+            Assertions.assertSame(placeholder, registry.getDestinationForPath("/lazy"));
+            Assertions.assertNotSame(activator, placeholder.getMessageObserver());
+            Assertions.assertTrue(activator.isActivated());
+            Assertions.assertEquals(1, activator.getActivationCount());
+            Assertions.assertNotNull(activator.getFirstHitLatency());
+            Assertions.assertFalse(initializer.getLazyEndpointActivators().get("/idle").isActivated());
+            Assertions.assertNull(initializer.getLazyEndpointActivators().get("/idle").getFirstHitLatency());
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+
+    @Test
+    void startupPhasesReportedPerGroup() {
+        Map<EndpointContextContainer, List<Class<?>>> endpointGroups = new HashMap<>();
+        endpointGroups.put(new EndpointContextContainer("/one", true), Collections.singletonList(OkResource.class));
+        endpointGroups.put(new EndpointContextContainer("/two", true), Collections.singletonList(OkResource.class));
+
+        Bus bus = BusFactory.newInstance().createBus();
+        try (GenericApplicationContext context = createContext(bus)) {
+            AutoConfigStartupReport startupReport = new AutoConfigStartupReport();
+            CxfJaxrsInitializer initializer = createInitializer(context, endpointGroups, 1);
+            initializer.setStartupReport(startupReport);
+            initializer.setApplicationContext(context);
+            Assertions.assertEquals(new HashSet<>(Arrays.asList("/one", "/two")),
+                startupReport.getEndpointGroupTimings().keySet());
+            Assertions.assertEquals(EnumSet.of(Phase.BEAN_CREATION, Phase.CUSTOMIZATION, Phase.SERVER_CREATION),
+                startupReport.getEndpointGroupTimings().get("/one").keySet());
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+
+    @Test
+    void customizersIndexedByAddress() {
+        CxfServerFactoryCustomizer adminCustomizer = new CxfServerFactoryCustomizer(new CxfConfigurationBuilder().build(),
+            false, ApiVersionTestImpl.EXTERNAL_V1, ApiContextTestImpl.ADMIN);
+        CxfServerFactoryCustomizer disabledCustomizer = new CxfServerFactoryCustomizer(
+            new CxfConfigurationBuilder().build(), false, ApiVersionTestImpl.EXTERNAL_V1, ApiContextTestImpl.TEST);
+        CxfServerFactoryCustomizer globalCustomizer = new CxfServerFactoryCustomizer(new CxfConfigurationBuilder()
+            .setShowInWadl(false).build(), true, null);
+        Map<EndpointContextContainer, List<Class<?>>> endpointGroups = new HashMap<>();
+        endpointGroups.put(new EndpointContextContainer("/v1/admin", true), Collections.singletonList(OkResource.class));
+        endpointGroups.put(new EndpointContextContainer("/other", true), Collections.singletonList(OkResource.class));
+
+        Map<String, List<CxfServerFactoryCustomizer>> customizersByAddress = CxfJaxrsInitializer.indexCustomizers(
+            Arrays.asList(globalCustomizer, adminCustomizer, disabledCustomizer), new ArrayList<>(endpointGroups.entrySet()));
+        Assertions.assertEquals(Arrays.asList(globalCustomizer, adminCustomizer), customizersByAddress.get("/v1/admin"));
+        Assertions.assertEquals(Collections.singletonList(globalCustomizer), customizersByAddress.get("/other"));
+    }
+
+    @Test
+    void effectiveConfigurationMergedPerAddress() {
+        StaxInInterceptor sharedInterceptor = new StaxInInterceptor();
+        CxfServerFactoryCustomizer globalCustomizer = new CxfServerFactoryCustomizer(new CxfConfigurationBuilder()
+            .addIncomingInterceptor(sharedInterceptor).addProperty("key", "global").build(), true, null);
+        CxfServerFactoryCustomizer adminCustomizer = new CxfServerFactoryCustomizer(new CxfConfigurationBuilder()
+            .addIncomingInterceptor(sharedInterceptor).addIncomingInterceptor(new StaxInInterceptor())
+            .addProperty("key", "admin").build(), false, ApiVersionTestImpl.EXTERNAL_V1, ApiContextTestImpl.ADMIN);
+        Map<String, List<CxfServerFactoryCustomizer>> customizersByAddress = new HashMap<>();
+        customizersByAddress.put("/v1/admin", Arrays.asList(globalCustomizer, adminCustomizer));
+        customizersByAddress.put("/first", Collections.singletonList(globalCustomizer));
+        customizersByAddress.put("/second", Collections.singletonList(globalCustomizer));
+
+        Map<String, CxfConfiguration> configurations = CxfJaxrsInitializer.mergeConfigurations(customizersByAddress);
+        EffectiveCxfConfigurationReport report = new EffectiveCxfConfigurationReport();
+        report.setConfigurations(configurations);
+
+        Assertions.assertSame(configurations.get("/first"), configurations.get("/second"));
+        Assertions.assertEquals(2, configurations.get("/v1/admin").getInInterceptors().size());
+        Assertions.assertEquals("admin", configurations.get("/v1/admin").getProperties().get("key"));
+        Assertions.assertEquals(Collections.singleton(StaxInInterceptor.class.getName()),
+            report.getRedundantInterceptors("/v1/admin"));
+        Assertions.assertEquals(Collections.emptySet(), report.getRedundantInterceptors("/first"));
+        Assertions.assertEquals(Arrays.asList("/first", "/second", "/v1/admin"),
+            new ArrayList<>(report.describe().keySet()));
+    }
+
+    @Test
+    void bulkheadExecutorUsedForInvocations() throws Exception {
+        Map<EndpointContextContainer, List<Class<?>>> endpointGroups = new HashMap<>();
+        endpointGroups.put(new EndpointContextContainer("/bulkhead", true), Collections.singletonList(OkResource.class));
+        ExecutorSpec executorSpec = new ExecutorSpec(1, 2, 10, ExecutorSpec.RejectionPolicy.ABORT);
+
+        Bus bus = BusFactory.newInstance().createBus();
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.registerBean("bulkheadCustomizer", CxfServerFactoryCustomizer.class,
+                () -> new CxfServerFactoryCustomizer(new CxfConfigurationBuilder().setBus(bus)
+                    .setExecutorSpec(executorSpec).build(), true, null));
+            context.refresh();
+            CxfJaxrsInitializer initializer = createInitializer(context, endpointGroups, 1);
+            initializer.setApplicationContext(context);
+            BulkheadExecutor executor = initializer.getBulkheadRegistry().getExecutors().get("/bulkhead");
+            Assertions.assertEquals(executorSpec, executor.getExecutorSpec());
+            Server server = bus.getExtension(ServerRegistry.class).getServers().get(0);
+            Assertions.assertSame(executor, server.getEndpoint().getService().getExecutor());
+            initializer.destroy();
+            Assertions.assertTrue(executor.isShutdown());
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+
+    @Test
+    void overriddenCustomizeStillCalled() {
+        Map<EndpointContextContainer, List<Class<?>>> endpointGroups = new HashMap<>();
+        endpointGroups.put(new EndpointContextContainer("/overridden", true), Collections.singletonList(OkResource.class));
+        List<String> customizedAddresses = new ArrayList<>();
+
+        Bus bus = BusFactory.newInstance().createBus();
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.registerBean("overridingCustomizer", CxfServerFactoryCustomizer.class,
+                () -> new CxfServerFactoryCustomizer(new CxfConfigurationBuilder().setBus(bus).build(), true, null) {
+                    @Override
+                    public void customize(JAXRSServerFactoryBean factory) {
+                        customizedAddresses.add(factory.getAddress());
+                        super.customize(factory);
+                    }
+                });
+            context.refresh();
+            createInitializer(context, endpointGroups, 1).setApplicationContext(context);
+            Assertions.assertEquals(Collections.singletonList("/overridden"), customizedAddresses);
+            //The configuration of the overriding customizer is still applied through super
+            Assertions.assertEquals(Collections.singleton("/overridden"), collectAddresses(bus));
+        } finally {
+            bus.shutdown(true);
+        }
+        Assertions.assertFalse(new CxfServerFactoryCustomizer(new CxfConfigurationBuilder().build(), true, null)
+            .isCustomizeOverridden());
+    }
+
+    @Test
+    void invalidTimeoutRejected() {
+        CxfJaxrsInitializer initializer = new CxfJaxrsInitializer(null, null, Collections.emptyList(),
+            Collections.emptyList());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> initializer.setInitTimeout(Duration.ZERO));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> initializer.setInitTimeout(null));
+    }
+
+    private static Set<String> initializeAndCollectAddresses(Map<EndpointContextContainer, List<Class<?>>> endpointGroups,
+        int parallelism) {
+        Bus bus = BusFactory.newInstance().createBus();
+        try (GenericApplicationContext context = createContext(bus)) {
+            createInitializer(context, endpointGroups, parallelism).setApplicationContext(context);
+            return collectAddresses(bus);
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+
+    private static GenericApplicationContext createContext(Bus bus) {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean("busCustomizer", CxfServerFactoryCustomizer.class,
+            () -> new CxfServerFactoryCustomizer(new CxfConfigurationBuilder().setBus(bus).build(), true, null));
+        context.refresh();
+        return context;
+    }
+
+    private static CxfJaxrsInitializer createInitializer(GenericApplicationContext context,
+        Map<EndpointContextContainer, List<Class<?>>> endpointGroups, int parallelism) {
+        JaxRsAutoConfigScanner scanner = new JaxRsAutoConfigScanner() {
+            @Override
+            public Map<EndpointContextContainer, List<Class<?>>> getAutoConfigurationData(String... optionalScanPackages) {
+                return endpointGroups;
+            }
+
+            @Override
+            public Map<EndpointContextContainer, List<Class<?>>> getAutoConfigurationData(List<String> optionalScanPackages,
+                String... scanPackageBlackList) {
+                return endpointGroups;
+            }
+        };
+        CxfJaxrsInitializer initializer = new CxfJaxrsInitializer(scanner,
+            context.getBeanProvider(CxfServerFactoryCustomizer.class), Collections.emptyList(), Collections.emptyList());
+        initializer.setInitParallelism(parallelism);
+        return initializer;
+    }
+
+    private static DestinationRegistry getDestinationRegistry(Bus bus) {
+        try {
+            return ((HTTPTransportFactory) bus.getExtension(DestinationFactoryManager.class)
+                .getDestinationFactory(HTTPTransportFactory.DEFAULT_NAMESPACES.get(0))).getRegistry();
+        } catch (BusException be) {
+            throw new IllegalStateException(be);
+        }
+    }
+
+    private static Set<String> collectAddresses(Bus bus) {
+        return bus.getExtension(ServerRegistry.class).getServers().stream()
+            .map(Server::getEndpoint)
+            .map(endpoint -> endpoint.getEndpointInfo().getAddress())
+            .collect(Collectors.toSet());
+    }
+
+    @Path("/resource")
+    public static class OkResource {
+        @GET
+        public String get() {
+            return "ok";
+        }
+    }
+
+    @Path("/resource")
+    public static class CountingResource {
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        CountingResource() {
+            CREATED.incrementAndGet();
+        }
+
+        @GET
+        public String get() {
+            return "counted";
+        }
+    }
+
+    @Path("/resource")
+    public static class FailingResource {
+        FailingResource() {
+            throw new IllegalStateException("Resource can not be created");
+        }
+
+        @GET
+        public String get() {
+            return "failed";
+        }
+    }
+
+    @Path("/resource")
+    public static class SlowResource {
+        SlowResource() throws InterruptedException {
+            Thread.sleep(5000);
+        }
+
+        @GET
+        public String get() {
+            return "slow";
+        }
+    }
+}
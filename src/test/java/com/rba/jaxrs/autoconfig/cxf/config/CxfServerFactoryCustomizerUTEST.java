@@ -16,12 +16,17 @@
 
 package com.rba.jaxrs.autoconfig.cxf.config;
 
+import com.rba.jaxrs.autoconfig.core.classify.ApiContext;
+import com.rba.jaxrs.autoconfig.core.transform.DefaultRestApiEndpointTransformer;
+import com.rba.jaxrs.autoconfig.core.transform.EndpointContextContainer;
+import com.rba.jaxrs.autoconfig.core.version.ApiVersion;
 import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfigurationBuilder;
 import com.rba.jaxrs.autoconfig.stubs.ApiContextTestImpl;
 import com.rba.jaxrs.autoconfig.stubs.ApiVersionTestImpl;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 /**
  * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
@@ -123,6 +128,26 @@ public class CxfServerFactoryCustomizerUTEST {
         completeAssertions(customizer, equalCustomizer, notEqualCustomizer);
     }
 
+    @Test
+    void targetContextResolvedOnce() {
+        CountingTransformer transformer = new CountingTransformer();
+        CxfServerFactoryCustomizer customizer = new CxfServerFactoryCustomizer(new CxfConfigurationBuilder()
+            .addProperty("Property", Boolean.TRUE).build(), false, ApiVersionTestImpl.EXTERNAL_V1, ApiContextTestImpl.ADMIN);
+        ReflectionTestUtils.setField(customizer, "contextTransformer", transformer);
+        EndpointContextContainer targetContext = customizer.getTargetContext();
+        Assertions.assertEquals("/v1/admin", targetContext.getEndpointContext());
+        for (String address : new String[]{"/v1/admin", "/v1/open", "/v1/admin"}) {
+            JAXRSServerFactoryBean factory = new JAXRSServerFactoryBean();
+            factory.setAddress(address);
+            customizer.customize(factory);
+            Assertions.assertEquals("/v1/admin".equals(address), factory.getProperties(true).containsKey("Property"));
+        }
+        Assertions.assertSame(targetContext, customizer.getTargetContext());
+        Assertions.assertEquals(1, transformer.resolveCount);
+        Assertions.assertTrue(customizer.appliesTo("/v1/admin"));
+        Assertions.assertFalse(customizer.appliesTo("/v1"));
+    }
+
     @Test
     void hashcodeValidation() {
         CxfServerFactoryCustomizer customizer = new CxfServerFactoryCustomizer(new CxfConfigurationBuilder().build(), false,
@@ -141,4 +166,14 @@ public class CxfServerFactoryCustomizerUTEST {
             () -> Assertions.assertNotEquals(baseCustomizer, notEqualCustomizer),
             () -> Assertions.assertNotEquals(baseCustomizer.hashCode(), notEqualCustomizer.hashCode()));
     }
+
+    private static class CountingTransformer extends DefaultRestApiEndpointTransformer {
+        private int resolveCount;
+
+        @Override
+        public EndpointContextContainer resolveApiPath(ApiVersion apiVersion, ApiContext... apiContexts) {
+            resolveCount++;
+            return super.resolveApiPath(apiVersion, apiContexts);
+        }
+    }
 }
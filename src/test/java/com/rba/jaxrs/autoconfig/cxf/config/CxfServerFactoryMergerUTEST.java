@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.config;
+
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfiguration;
+import com.rba.jaxrs.autoconfig.cxf.builder.CxfConfigurationBuilder;
+import org.apache.cxf.feature.Feature;
+import org.apache.cxf.feature.LoggingFeature;
+import org.apache.cxf.interceptor.AttachmentInInterceptor;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.interceptor.StaxInInterceptor;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.message.Message;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class CxfServerFactoryMergerUTEST {
+
+    @Test
+    void duplicatesAcrossConfigurationsAreSkipped() {
+        Interceptor<? extends Message> attachmentInterceptor = new AttachmentInInterceptor();
+        Interceptor<? extends Message> staxInterceptor = new StaxInInterceptor();
+        Interceptor<? extends Message> existingInterceptor = new StaxInInterceptor();
+        Feature feature = new LoggingFeature();
+        Object provider = new Object();
+        JAXRSServerFactoryBean factory = new JAXRSServerFactoryBean();
+        factory.getInInterceptors().add(existingInterceptor);
+
+        CxfServerFactoryMerger merger = new CxfServerFactoryMerger(factory);
+        merger.merge(new CxfConfigurationBuilder().addIncomingInterceptor(attachmentInterceptor)
+            .addIncomingInterceptor(existingInterceptor).addFeature(feature).addProvider(provider)
+            .addProperty("key", "first").build());
+        merger.merge(new CxfConfigurationBuilder().addIncomingInterceptor(staxInterceptor)
+            .addIncomingInterceptor(attachmentInterceptor).addFeature(feature).addProvider(provider)
+            .addProperty("key", "second").build());
+
+        Assertions.assertEquals(Arrays.asList(existingInterceptor, attachmentInterceptor, staxInterceptor),
+            factory.getInInterceptors());
+        Assertions.assertEquals(Collections.singletonList(feature), factory.getFeatures());
+        Assertions.assertEquals(Collections.singletonList(provider), factory.getProviders());
+        Assertions.assertEquals("second", factory.getProperties().get("key"));
+    }
+
+    @Test
+    void mergedConfigurationMatchesSuccessiveMerges() {
+        Interceptor<? extends Message> attachmentInterceptor = new AttachmentInInterceptor();
+        Interceptor<? extends Message> staxInterceptor = new StaxInInterceptor();
+        Object provider = new Object();
+        List<CxfConfiguration> configurations = Arrays.asList(new CxfConfigurationBuilder()
+                .addIncomingInterceptor(attachmentInterceptor).addProvider(provider).addProperty("key", "first").build(),
+            new CxfConfigurationBuilder().addIncomingInterceptor(staxInterceptor)
+                .addIncomingInterceptor(attachmentInterceptor).addProvider(provider).addProperty("key", "second").build());
+
+        JAXRSServerFactoryBean successiveFactory = new JAXRSServerFactoryBean();
+        CxfServerFactoryMerger successiveMerger = new CxfServerFactoryMerger(successiveFactory);
+        configurations.forEach(successiveMerger::merge);
+        JAXRSServerFactoryBean mergedFactory = new JAXRSServerFactoryBean();
+        new CxfServerFactoryMerger(mergedFactory).merge(CxfServerFactoryMerger.mergeConfigurations(configurations));
+
+        Assertions.assertEquals(successiveFactory.getInInterceptors(), mergedFactory.getInInterceptors());
+        Assertions.assertEquals(successiveFactory.getProviders(), mergedFactory.getProviders());
+        Assertions.assertEquals(successiveFactory.getProperties(), mergedFactory.getProperties());
+    }
+
+    @Test
+    void nullFactoryRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CxfServerFactoryMerger(null));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.limit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class AdaptiveConcurrencyLimiterUTEST {
+
+    private static final long BASELINE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void rejectsRequestsBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("/v1/orders", 2, 1, 10);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        Assertions.assertNotNull(first);
+        Assertions.assertNotNull(limiter.tryAcquire());
+        Assertions.assertNull(limiter.tryAcquire());
+        Assertions.assertEquals(1, limiter.getRejectedCount());
+        first.releaseWithoutSample();
+        Assertions.assertEquals(1, limiter.getInFlight());
+        Assertions.assertNotNull(limiter.tryAcquire());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("/v1", 5, 1, 4));
+    }
+
+    @Test
+    void limitGrowsWhileLatencyStaysAtBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("/v1/orders", 10, 1, 100);
+        limiter.onSample(BASELINE_NANOS, 10, false);
+        //Less than half of the limit in use says nothing about the capacity
+        limiter.onSample(BASELINE_NANOS, 2, false);
+        Assertions.assertEquals(10, limiter.getLimit());
+        for (int i = 0; i < 5; i++) {
+            limiter.onSample(BASELINE_NANOS, limiter.getLimit(), false);
+        }
+        Assertions.assertTrue(limiter.getLimit() > 30, "limit " + limiter.getLimit());
+        Assertions.assertEquals(BASELINE_NANOS, limiter.getMinLatencyNanos());
+    }
+
+    @Test
+    void limitShrinksWhenRequestsQueue() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("/v1/orders", 100, 5, 1000);
+        limiter.onSample(BASELINE_NANOS, 100, false);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(BASELINE_NANOS * 2, limiter.getLimit(), false);
+        }
+        int queuedLimit = limiter.getLimit();
+        Assertions.assertTrue(queuedLimit < 100, "limit " + queuedLimit);
+        limiter.onSample(BASELINE_NANOS, 1, true);
+        Assertions.assertTrue(limiter.getLimit() < queuedLimit);
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSample(BASELINE_NANOS * 10, limiter.getLimit(), false);
+        }
+        //The limit settles where the requests it admits queue between 3 and 6 deep
+        Assertions.assertEquals(6, limiter.getLimit());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.limit;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class ConcurrencyLimitFeatureUTEST {
+
+    private final ConcurrencyLimitRegistry registry = new ConcurrencyLimitRegistry(1, 1, 10);
+
+    private final ConcurrencyLimitFeature.AdmissionInterceptor admission =
+        new ConcurrencyLimitFeature.AdmissionInterceptor(registry.getLimiter("/v1/orders"));
+
+    @Test
+    void rejectsWithServiceUnavailableUntilPermitReleased() {
+        Message admitted = createInMessage();
+        admission.handleMessage(admitted);
+        Fault fault = Assertions.assertThrows(Fault.class, () -> admission.handleMessage(createInMessage()));
+        Assertions.assertEquals(503, fault.getStatusCode());
+
+        Message outMessage = new MessageImpl();
+        outMessage.setExchange(admitted.getExchange());
+        outMessage.put(Message.RESPONSE_CODE, 200);
+        new ConcurrencyLimitFeature.ReleaseInterceptor(false).handleMessage(outMessage);
+        //A second release, as from the fault chain after the response started, does not free another permit
+        new ConcurrencyLimitFeature.ReleaseInterceptor(true).handleMessage(outMessage);
+        AdaptiveConcurrencyLimiter limiter = registry.getLimiters().get("/v1/orders");
+        Assertions.assertEquals(0, limiter.getInFlight());
+        admission.handleMessage(createInMessage());
+        Assertions.assertEquals(1, limiter.getInFlight());
+        Assertions.assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void serviceUnavailableFaultShrinksLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("/v1/orders", 10, 1, 100);
+        //A baseline latency below any real request, so the next sample is not taken as the minimum
+        limiter.onSample(1, 10, false);
+        Message admitted = createInMessage();
+        new ConcurrencyLimitFeature.AdmissionInterceptor(limiter).handleMessage(admitted);
+
+        Fault fault = new Fault(new IllegalStateException("Downstream unavailable"));
+        fault.setStatusCode(503);
+        Message faultMessage = new MessageImpl();
+        faultMessage.setExchange(admitted.getExchange());
+        faultMessage.setContent(Exception.class, fault);
+        new ConcurrencyLimitFeature.ReleaseInterceptor(true).handleMessage(faultMessage);
+        Assertions.assertEquals(0, limiter.getInFlight());
+        Assertions.assertTrue(limiter.getLimit() < 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void otherFaultsKeepLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("/v1/orders", 10, 1, 100);
+        limiter.onSample(1, 10, false);
+        Message admitted = createInMessage();
+        new ConcurrencyLimitFeature.AdmissionInterceptor(limiter).handleMessage(admitted);
+
+        Message faultMessage = new MessageImpl();
+        faultMessage.setExchange(admitted.getExchange());
+        faultMessage.setContent(Exception.class, new Fault(new IllegalStateException("Bad request")));
+        new ConcurrencyLimitFeature.ReleaseInterceptor(true).handleMessage(faultMessage);
+        Assertions.assertEquals(0, limiter.getInFlight());
+        Assertions.assertEquals(10, limiter.getLimit());
+    }
+
+    private static Message createInMessage() {
+        Message inMessage = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(inMessage);
+        inMessage.setExchange(exchange);
+        return inMessage;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.rba.jaxrs.autoconfig.cxf.metrics;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.cxf.jaxrs.model.ClassResourceInfo;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class EndpointMetricsRegistryUTEST {
+
+    @Test
+    void bucketsAreLogLinear() {
+        Assertions.assertEquals(0, RequestMetrics.bucketFor(1024));
+        Assertions.assertEquals(1, RequestMetrics.bucketFor(1025));
+        Assertions.assertEquals(1, RequestMetrics.bucketFor(1280));
+        Assertions.assertEquals(2, RequestMetrics.bucketFor(1281));
+        Assertions.assertEquals(RequestMetrics.getBucketCount() - 1, RequestMetrics.bucketFor(Long.MAX_VALUE));
+        //Upper bounds are inclusive like the le label of a Prometheus bucket
+        for (int i = 0; i < RequestMetrics.getBucketCount() - 1; i++) {
+            Assertions.assertEquals(i, RequestMetrics.bucketFor(RequestMetrics.getBucketUpperBound(i)));
+            Assertions.assertEquals(i + 1, RequestMetrics.bucketFor(RequestMetrics.getBucketUpperBound(i) + 1));
+        }
+    }
+
+    @Test
+    void percentilesDecayWithTheWindow() {
+        long[] now = {0};
+        RequestMetrics metrics = new RequestMetrics("/v1", null, TimeUnit.SECONDS.toNanos(3), () -> now[0]);
+        metrics.record(TimeUnit.MILLISECONDS.toNanos(100), false);
+        now[0] = TimeUnit.SECONDS.toNanos(1);
+        metrics.record(TimeUnit.MILLISECONDS.toNanos(1), false);
+        Assertions.assertEquals(100.0, metrics.getPercentile(1.0, TimeUnit.MILLISECONDS), 25);
+        //Once the slow request's histogram rotates out only the fast one is left
+        now[0] = TimeUnit.SECONDS.toNanos(3);
+        Assertions.assertEquals(1.0, metrics.getPercentile(1.0, TimeUnit.MILLISECONDS), 0.25);
+        now[0] = TimeUnit.SECONDS.toNanos(10);
+        Assertions.assertEquals(0, metrics.getPercentile(1.0, TimeUnit.MILLISECONDS));
+        //The exported histogram still counts every request since start
+        Assertions.assertEquals(2, metrics.getRequestCount());
+        Assertions.assertEquals(2, Arrays.stream(metrics.getBucketCounts()).sum());
+    }
+
+    @Test
+    void percentilesFromHistogram() {
+        RequestMetrics metrics = new RequestMetrics("/v1", null);
+        for (int i = 0; i < 99; i++) {
+            metrics.record(TimeUnit.MILLISECONDS.toNanos(1), false);
+        }
+        metrics.record(TimeUnit.MILLISECONDS.toNanos(100), true);
+        Assertions.assertEquals(100, metrics.getRequestCount());
+        Assertions.assertEquals(1, metrics.getErrorCount());
+        Assertions.assertEquals(1.0, metrics.getPercentile(0.5, TimeUnit.MILLISECONDS), 0.25);
+        Assertions.assertEquals(1.0, metrics.getPercentile(0.99, TimeUnit.MILLISECONDS), 0.25);
+        Assertions.assertEquals(100.0, metrics.getPercentile(1.0, TimeUnit.MILLISECONDS), 25);
+        Assertions.assertEquals(100.0, metrics.getMax(TimeUnit.MILLISECONDS), 0.001);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> metrics.getPercentile(1.5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void requestsRecordedPerAddressAndMethod() throws NoSuchMethodException {
+        EndpointMetricsRegistry registry = new EndpointMetricsRegistry();
+        EndpointMetricsFeature feature = new EndpointMetricsFeature(registry.getEndpointMetrics("/v1/test"));
+        Method method = MetricsResource.class.getMethod("get");
+        OperationResourceInfo operation = new OperationResourceInfo(method,
+            new ClassResourceInfo(MetricsResource.class));
+
+        sendRequest(feature, operation, 200, false);
+        sendRequest(feature, operation, 503, false);
+        sendRequest(feature, null, 200, true);
+
+        EndpointMetrics endpointMetrics = registry.getEndpointMetrics().get("/v1/test");
+        Assertions.assertEquals(3, endpointMetrics.getTotal().getRequestCount());
+        Assertions.assertEquals(2, endpointMetrics.getTotal().getErrorCount());
+        RequestMetrics methodMetrics = endpointMetrics.getMethodMetrics().iterator().next();
+        Assertions.assertEquals("MetricsResource#get", methodMetrics.getResourceMethod());
+        Assertions.assertEquals(2, methodMetrics.getRequestCount());
+        Assertions.assertEquals(1, methodMetrics.getErrorCount());
+
+        String prometheusText = registry.toPrometheusText();
+        Assertions.assertTrue(prometheusText.contains(
+            "jaxrs_autoconfig_endpoint_requests_seconds_count{address=\"/v1/test\"} 3\n"));
+        Assertions.assertTrue(prometheusText.contains(
+            "jaxrs_autoconfig_endpoint_method_errors_total{address=\"/v1/test\",method=\"MetricsResource#get\"} 1\n"));
+        Assertions.assertTrue(prometheusText.contains(
+            "jaxrs_autoconfig_endpoint_requests_seconds_bucket{address=\"/v1/test\",le=\"+Inf\"} 3\n"));
+
+        //A latency on a bucket bound is counted in that bucket
+        EndpointMetricsRegistry boundRegistry = new EndpointMetricsRegistry();
+        boundRegistry.getEndpointMetrics("/v1/bound").record(null, 2048, false);
+        Assertions.assertTrue(boundRegistry.toPrometheusText().contains(
+            "jaxrs_autoconfig_endpoint_requests_seconds_bucket{address=\"/v1/bound\",le=\"2.048E-6\"} 1\n"));
+    }
+
+    @Test
+    void metersRegisteredForExistingAndNewMetrics() throws NoSuchMethodException {
+        EndpointMetricsRegistry registry = new EndpointMetricsRegistry();
+        EndpointMetrics endpointMetrics = registry.getEndpointMetrics("/v1/test");
+        endpointMetrics.record(null, 1000, false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new EndpointMetricsMeterBinder(registry).bindTo(meterRegistry);
+        endpointMetrics.record(MetricsResource.class.getMethod("get"), 2000, false);
+
+        FunctionTimer endpointTimer = meterRegistry.get(EndpointMetricsMeterBinder.ENDPOINT_PREFIX + ".requests")
+            .tag("address", "/v1/test").functionTimer();
+        FunctionTimer methodTimer = meterRegistry.get(EndpointMetricsMeterBinder.METHOD_PREFIX + ".requests")
+            .tag("method", "MetricsResource#get").functionTimer();
+        Assertions.assertEquals(2, endpointTimer.count(), 0.001);
+        Assertions.assertEquals(1, methodTimer.count(), 0.001);
+        Assertions.assertEquals(3, meterRegistry.get(EndpointMetricsMeterBinder.ENDPOINT_PREFIX + ".latency").gauges()
+            .size());
+    }
+
+    private static void sendRequest(EndpointMetricsFeature feature, OperationResourceInfo operation, int status,
+        boolean fault) {
+        Exchange exchange = new ExchangeImpl();
+        if (operation != null) {
+            exchange.put(OperationResourceInfo.class, operation);
+        }
+        Message inMessage = new MessageImpl();
+        inMessage.setExchange(exchange);
+        new EndpointMetricsFeature.RequestStartInterceptor().handleMessage(inMessage);
+        Message outMessage = new MessageImpl();
+        outMessage.setExchange(exchange);
+        outMessage.put(Message.RESPONSE_CODE, status);
+        new EndpointMetricsFeature.RequestEndInterceptor(feature.getEndpointMetrics(), fault).handleMessage(outMessage);
+        //A second pass for the same exchange is ignored
+        new EndpointMetricsFeature.RequestEndInterceptor(feature.getEndpointMetrics(), true).handleMessage(outMessage);
+    }
+
+    @Path("/metrics")
+    public static class MetricsResource {
+
+        @GET
+        public String get() {
+            return "metrics";
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.priority;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class PrioritySchedulerUTEST {
+
+    private final CountDownLatch workerBusy = new CountDownLatch(1);
+
+    private final CountDownLatch releaseWorker = new CountDownLatch(1);
+
+    private final List<String> invoked = new CopyOnWriteArrayList<>();
+
+    private PriorityScheduler scheduler;
+
+    @AfterEach
+    void shutdown() {
+        releaseWorker.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void higherPriorityServedFirstWhenSaturated() throws Exception {
+        scheduler = new PriorityScheduler(1, Duration.ofHours(1), priorities(), 0);
+        occupyWorker();
+        CountDownLatch done = new CountDownLatch(3);
+        scheduler.getExecutor("/v1/export").execute(record("export", done));
+        scheduler.getExecutor("/v1/orders").execute(record("orders", done));
+        scheduler.getExecutor("/v1/payments").execute(record("payments", done));
+        releaseWorker.countDown();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Arrays.asList("payments", "orders", "export"), invoked);
+        Map<Integer, PriorityStats> stats = scheduler.getStats();
+        Assertions.assertEquals(1, stats.get(-5).getWaitCount());
+        Assertions.assertEquals(0, stats.get(-5).getQueueDepth());
+        Assertions.assertEquals(0, stats.get(-5).getPromotedCount());
+        Assertions.assertTrue(stats.get(-5).getMaxWaitTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    void waitingLowPriorityPromotedOverNewHighPriority() throws Exception {
+        scheduler = new PriorityScheduler(1, Duration.ofMillis(1), priorities(), 0);
+        occupyWorker();
+        CountDownLatch done = new CountDownLatch(2);
+        scheduler.getExecutor("/v1/export").execute(record("export", done));
+        //Fifteen aging intervals bridge the priority difference of fifteen
+        Thread.sleep(50);
+        scheduler.getExecutor("/v1/payments").execute(record("payments", done));
+        releaseWorker.countDown();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Arrays.asList("export", "payments"), invoked);
+        Assertions.assertEquals(1, scheduler.getStats().get(-5).getPromotedCount());
+    }
+
+    @Test
+    void fullQueueRejectsInvocations() throws Exception {
+        scheduler = new PriorityScheduler(1, 1, Duration.ofHours(1), priorities(), 0);
+        occupyWorker();
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.getExecutor("/v1/payments").execute(record("payments", done));
+        Assertions.assertThrows(RejectedExecutionException.class,
+            () -> scheduler.getExecutor("/v1/export").execute(record("export", done)));
+        Assertions.assertEquals(1, scheduler.getStats().get(-5).getRejectedCount());
+        releaseWorker.countDown();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Collections.singletonList("payments"), invoked);
+
+        scheduler.shutdown();
+        Assertions.assertThrows(RejectedExecutionException.class,
+            () -> scheduler.getExecutor("/v1/orders").execute(record("orders", done)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> new PriorityScheduler(1, -1, Duration.ofSeconds(1), null, 0));
+    }
+
+    @Test
+    void zeroCapacityOnlyHandsToIdleThreads() throws Exception {
+        scheduler = new PriorityScheduler(1, 0, Duration.ofHours(1), priorities(), 0);
+        occupyWorker();
+        Assertions.assertThrows(RejectedExecutionException.class,
+            () -> scheduler.getExecutor("/v1/payments").execute(() -> { }));
+        Assertions.assertEquals(1, scheduler.getStats().get(10).getRejectedCount());
+    }
+
+    @Test
+    void priorityResolvedFromClosestConfiguredAddress() {
+        scheduler = new PriorityScheduler(1, Duration.ofSeconds(1), priorities(), 0);
+        Assertions.assertEquals(10, scheduler.getPriority("/v1/payments"));
+        Assertions.assertEquals(-5, scheduler.getPriority("/v1/export"));
+        Assertions.assertEquals(1, scheduler.getPriority("/v1/orders"));
+        Assertions.assertEquals(1, scheduler.getPriority("/v1"));
+        Assertions.assertEquals(0, scheduler.getPriority("/v10"));
+        Assertions.assertEquals(0, scheduler.getPriority("/"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> new PriorityScheduler(0, Duration.ofSeconds(1), null, 0));
+    }
+
+    private void occupyWorker() throws InterruptedException {
+        scheduler.getExecutor("/v1/health").execute(() -> {
+            workerBusy.countDown();
+            try {
+                releaseWorker.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assertions.assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+    }
+
+    private Runnable record(String name, CountDownLatch done) {
+        return () -> {
+            invoked.add(name);
+            done.countDown();
+        };
+    }
+
+    private static Map<String, Integer> priorities() {
+        Map<String, Integer> priorities = new HashMap<>();
+        priorities.put("/v1", 1);
+        priorities.put("/v1/payments", 10);
+        priorities.put("/v1/export", -5);
+        return priorities;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.shedding;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class QueueDelayShedderUTEST {
+
+    @Test
+    void shedsWhileMinimumDelayOfIntervalExceedsTarget() {
+        QueueDelayShedder shedder = new QueueDelayShedder("/v1/orders", Duration.ofMillis(5), Duration.ofMillis(100));
+        Assertions.assertFalse(shedder.shouldShed(millis(10), millis(0)));
+        Assertions.assertFalse(shedder.shouldShed(millis(20), millis(50)));
+        Assertions.assertFalse(shedder.isOverloaded());
+
+        //Every request of the first interval queued longer than the target
+        Assertions.assertTrue(shedder.shouldShed(millis(8), millis(100)));
+        Assertions.assertTrue(shedder.isOverloaded());
+        Assertions.assertEquals(10, shedder.getMinQueueDelay(TimeUnit.MILLISECONDS), 0.001);
+        Assertions.assertFalse(shedder.shouldShed(millis(1), millis(120)));
+
+        //A request got through quickly in the second interval, so the queue drained
+        Assertions.assertFalse(shedder.shouldShed(millis(30), millis(200)));
+        Assertions.assertFalse(shedder.isOverloaded());
+        Assertions.assertEquals(1, shedder.getShedCount());
+    }
+
+    @Test
+    void versionTargetsOverrideDefaultTarget() {
+        QueueSheddingRegistry registry = new QueueSheddingRegistry(Duration.ofMillis(20), Duration.ofMillis(100),
+            Collections.singletonMap("v1", Duration.ofMillis(2)));
+        Assertions.assertEquals(Duration.ofMillis(2), registry.getShedder("/v1/admin").getTarget());
+        Assertions.assertEquals(Duration.ofMillis(2), registry.getShedder("/v1").getTarget());
+        Assertions.assertEquals(Duration.ofMillis(20), registry.getShedder("/v2/admin").getTarget());
+        Assertions.assertEquals(Duration.ofMillis(20), registry.getShedder("/").getTarget());
+        Assertions.assertSame(registry.getShedder("/v1"), registry.getShedders().get("/v1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new QueueSheddingRegistry(Duration.ofMillis(20),
+            Duration.ofMillis(100), Collections.singletonMap("v1", Duration.ZERO)));
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.rba.jaxrs.autoconfig.cxf.shedding;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageContentsList;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.transport.http.AbstractHTTPDestination;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.ws.rs.core.Response;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author AUtsch - Adam Utsch - adam.utsch@rbaconsulting.com
+ * @since 0.2.0
+ */
+class QueueSheddingFeatureUTEST {
+
+    @Test
+    void shedRequestAnsweredWithServiceUnavailable() {
+        //A one nanosecond interval makes every request start a new interval judged by the request before it
+        QueueDelayShedder shedder = new QueueDelayShedder("/v1/orders", Duration.ofMillis(1), Duration.ofNanos(1));
+        QueueSheddingFeature.QueueDelayInvoker invoker =
+            new QueueSheddingFeature.QueueDelayInvoker((exchange, o) -> "invoked", shedder);
+        shedder.shouldShed(TimeUnit.MILLISECONDS.toNanos(10), System.nanoTime());
+
+        Object shed = invoker.invoke(receivedAgo(50), null);
+        Assertions.assertTrue(shed instanceof MessageContentsList);
+        Assertions.assertEquals(503, ((Response) ((MessageContentsList) shed).get(0)).getStatus());
+        Assertions.assertEquals(1, shedder.getShedCount());
+
+        //A resumed request is not judged again
+        Exchange resumed = receivedAgo(50);
+        invoker.invoke(resumed, null);
+        Assertions.assertEquals("invoked", invoker.invoke(resumed, null));
+
+        Exchange cached = receivedAgo(50);
+        cached.put(Response.class, Response.ok().build());
+        Assertions.assertEquals("invoked", invoker.invoke(cached, null));
+        Assertions.assertEquals("invoked", invoker.invoke(new ExchangeImpl(), null));
+    }
+
+    @Test
+    void arrivalTakenFromServletFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        new RequestArrivalFilter().doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        long arrivalNanos = (Long) request.getAttribute(RequestArrivalFilter.ARRIVAL_NANOS_ATTRIBUTE);
+
+        Message message = new MessageImpl();
+        message.setExchange(new ExchangeImpl());
+        message.put(AbstractHTTPDestination.HTTP_REQUEST, request);
+        new QueueSheddingFeature.ReceivedInterceptor().handleMessage(message);
+        Assertions.assertEquals(arrivalNanos, message.getExchange().get(QueueSheddingFeature.RECEIVED_NANOS_KEY));
+
+        //Without the filter the request arrives when CXF receives it
+        Message unfiltered = new MessageImpl();
+        unfiltered.setExchange(new ExchangeImpl());
+        long beforeNanos = System.nanoTime();
+        new QueueSheddingFeature.ReceivedInterceptor().handleMessage(unfiltered);
+        Assertions.assertTrue((Long) unfiltered.getExchange().get(QueueSheddingFeature.RECEIVED_NANOS_KEY) >= beforeNanos);
+    }
+
+    private static Exchange receivedAgo(long millis) {
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(QueueSheddingFeature.RECEIVED_NANOS_KEY, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis));
+        return exchange;
+    }
+}